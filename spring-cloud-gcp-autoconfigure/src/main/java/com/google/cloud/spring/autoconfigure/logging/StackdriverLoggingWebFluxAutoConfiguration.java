@@ -0,0 +1,58 @@
+/*
+ * Copyright 2022-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spring.autoconfigure.logging;
+
+import com.google.cloud.logging.logback.LoggingAppender;
+import com.google.cloud.spring.autoconfigure.trace.StackdriverTraceAutoConfiguration;
+import com.google.cloud.spring.logging.TraceIdLoggingWebFilter;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.server.WebFilter;
+import reactor.core.publisher.Mono;
+
+/**
+ * This class configures a WebFlux filter to capture trace IDs for log correlation. Like {@link
+ * StackdriverLoggingAutoConfiguration}, it is turned on only if Trace support is not used, and
+ * only for reactive web applications.
+ *
+ * @since 3.3.0
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnClass({
+  WebFilter.class,
+  Mono.class,
+  LoggingAppender.class,
+  TraceIdLoggingWebFilter.class
+})
+@ConditionalOnMissingBean(name = "stackdriverTracingCustomizer")
+@AutoConfigureAfter(StackdriverTraceAutoConfiguration.class)
+@ConditionalOnWebApplication(type = Type.REACTIVE)
+@ConditionalOnProperty(value = "spring.cloud.gcp.logging.enabled", matchIfMissing = true)
+public class StackdriverLoggingWebFluxAutoConfiguration {
+
+  @Bean
+  @ConditionalOnMissingBean
+  public TraceIdLoggingWebFilter traceIdLoggingWebFilter() {
+    return new TraceIdLoggingWebFilter();
+  }
+}
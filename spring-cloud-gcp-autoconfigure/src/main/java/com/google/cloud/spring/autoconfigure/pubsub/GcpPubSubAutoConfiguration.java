@@ -42,7 +42,11 @@ import com.google.cloud.spring.pubsub.core.PubSubConfiguration;
 import com.google.cloud.spring.pubsub.core.PubSubException;
 import com.google.cloud.spring.pubsub.core.PubSubTemplate;
 import com.google.cloud.spring.pubsub.core.health.HealthTrackerRegistry;
+import com.google.cloud.spring.pubsub.core.metrics.MicrometerPubSubMetricsRecorder;
+import com.google.cloud.spring.pubsub.core.metrics.PubSubMetricsRecorder;
+import com.google.cloud.spring.pubsub.core.metrics.PublisherCacheMetrics;
 import com.google.cloud.spring.pubsub.core.publisher.PubSubPublisherTemplate;
+import com.google.cloud.spring.pubsub.core.publisher.PublishFlowControlSettings;
 import com.google.cloud.spring.pubsub.core.publisher.PublisherCustomizer;
 import com.google.cloud.spring.pubsub.core.subscriber.PubSubSubscriberTemplate;
 import com.google.cloud.spring.pubsub.support.CachingPublisherFactory;
@@ -51,9 +55,14 @@ import com.google.cloud.spring.pubsub.support.DefaultSubscriberFactory;
 import com.google.cloud.spring.pubsub.support.PubSubSubscriptionUtils;
 import com.google.cloud.spring.pubsub.support.PublisherFactory;
 import com.google.cloud.spring.pubsub.support.SubscriberFactory;
+import com.google.cloud.spring.pubsub.support.converter.DecompressingPubSubMessageConverter;
+import com.google.cloud.spring.pubsub.support.converter.GzipPayloadCompressor;
 import com.google.cloud.spring.pubsub.support.converter.PubSubMessageConverter;
 import com.google.pubsub.v1.ProjectSubscriptionName;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import java.io.IOException;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -69,6 +78,7 @@ import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.support.BeanDefinitionBuilder;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -79,17 +89,26 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.context.support.GenericApplicationContext;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
-import org.threeten.bp.Duration;
 
 /** Auto-config for Pub/Sub. */
 @Configuration(proxyBeanMethods = false)
-@AutoConfigureAfter(GcpContextAutoConfiguration.class)
+@AutoConfigureAfter(
+    value = GcpContextAutoConfiguration.class,
+    name =
+        "org.springframework.boot.actuate.autoconfigure.metrics"
+            + ".CompositeMeterRegistryAutoConfiguration")
 @ConditionalOnProperty(value = "spring.cloud.gcp.pubsub.enabled", matchIfMissing = true)
 @ConditionalOnClass(PubSubTemplate.class)
 @EnableConfigurationProperties(GcpPubSubProperties.class)
 public class GcpPubSubAutoConfiguration {
   private static final Logger logger = LoggerFactory.getLogger(GcpPubSubAutoConfiguration.class);
 
+  /**
+   * Subscriber virtual thread pool size without a flow control limit, matching the client
+   * library's default maximum number of outstanding messages.
+   */
+  private static final int DEFAULT_MAX_VIRTUAL_THREADS = 1000;
+
   private final GcpPubSubProperties gcpPubSubProperties;
 
   private final GcpProjectIdProvider finalProjectIdProvider;
@@ -168,15 +187,67 @@ public class GcpPubSubAutoConfiguration {
   @ConditionalOnMissingBean
   public PubSubPublisherTemplate pubSubPublisherTemplate(
       PublisherFactory publisherFactory,
-      ObjectProvider<PubSubMessageConverter> pubSubMessageConverter) {
+      ObjectProvider<PubSubMessageConverter> pubSubMessageConverter,
+      ObjectProvider<PubSubMetricsRecorder> metricsRecorder) {
     PubSubPublisherTemplate pubSubPublisherTemplate = new PubSubPublisherTemplate(publisherFactory);
     pubSubMessageConverter.ifUnique(pubSubPublisherTemplate::setMessageConverter);
+    metricsRecorder.ifUnique(pubSubPublisherTemplate::setMetricsRecorder);
+    PubSubConfiguration.Compression compression =
+        this.gcpPubSubProperties.getPublisher().getCompression();
+    if (compression.isEnabled()) {
+      GzipPayloadCompressor compressor = new GzipPayloadCompressor();
+      if (compression.getTopics().isEmpty()) {
+        pubSubPublisherTemplate.setCompressor(compressor);
+      } else {
+        compression
+            .getTopics()
+            .forEach(topic -> pubSubPublisherTemplate.setCompressor(topic, compressor));
+      }
+      pubSubPublisherTemplate.setCompressionThreshold(compression.getThresholdBytes());
+    }
+    PubSubConfiguration.PublisherBuffer buffer =
+        this.gcpPubSubProperties.getPublisher().getBuffer();
+    if (buffer.getMaxOutstandingMessages() != null || buffer.getMaxOutstandingBytes() != null) {
+      pubSubPublisherTemplate.setFlowControlSettings(
+          buildPublishFlowControlSettings(buffer, new PubSubConfiguration.PublisherBufferLimits()));
+    }
+    buffer
+        .getTopics()
+        .forEach(
+            (topic, limits) ->
+                pubSubPublisherTemplate.setFlowControlSettings(
+                    topic, buildPublishFlowControlSettings(limits, buffer)));
     return pubSubPublisherTemplate;
   }
 
+  private PublishFlowControlSettings buildPublishFlowControlSettings(
+      PubSubConfiguration.PublisherBufferLimits limits,
+      PubSubConfiguration.PublisherBufferLimits defaults) {
+    PublishFlowControlSettings settings = new PublishFlowControlSettings();
+    ifSet(
+        limits.getMaxOutstandingMessages() != null
+            ? limits.getMaxOutstandingMessages()
+            : defaults.getMaxOutstandingMessages(),
+        settings::setMaxOutstandingMessages);
+    ifSet(
+        limits.getMaxOutstandingBytes() != null
+            ? limits.getMaxOutstandingBytes()
+            : defaults.getMaxOutstandingBytes(),
+        settings::setMaxOutstandingBytes);
+    ifSet(
+        limits.getOverflowPolicy() != null
+            ? limits.getOverflowPolicy()
+            : defaults.getOverflowPolicy(),
+        settings::setOverflowPolicy);
+    return settings;
+  }
+
   @Bean
   @ConditionalOnMissingBean(name = "pubSubAcknowledgementExecutor")
   public Executor pubSubAcknowledgementExecutor() {
+    if (this.gcpPubSubProperties.getSubscriber().isVirtualThreads()) {
+      return VirtualThreadSupport.newThreadPerTaskExecutor("gcp-pubsub-ack-executor-");
+    }
     ThreadPoolTaskExecutor ackExecutor = new ThreadPoolTaskExecutor();
     ackExecutor.setMaxPoolSize(
         this.gcpPubSubProperties.getSubscriber().getMaxAcknowledgementThreads());
@@ -185,18 +256,44 @@ public class GcpPubSubAutoConfiguration {
     return ackExecutor;
   }
 
+  @Bean
+  @ConditionalOnMissingBean(name = "pubSubAsynchronousPullExecutor")
+  @ConditionalOnProperty("spring.cloud.gcp.pubsub.subscriber.virtual-threads")
+  public Executor pubSubAsynchronousPullExecutor() {
+    return VirtualThreadSupport.newThreadPerTaskExecutor("gcp-pubsub-async-pull-");
+  }
+
   @Bean
   @ConditionalOnMissingBean
   public PubSubSubscriberTemplate pubSubSubscriberTemplate(
       SubscriberFactory subscriberFactory,
       ObjectProvider<PubSubMessageConverter> pubSubMessageConverter,
       @Qualifier("pubSubAsynchronousPullExecutor") ObjectProvider<Executor> asyncPullExecutor,
-      @Qualifier("pubSubAcknowledgementExecutor") Executor ackExecutor) {
+      @Qualifier("pubSubAcknowledgementExecutor") Executor ackExecutor,
+      ObjectProvider<PubSubMetricsRecorder> metricsRecorder) {
     PubSubSubscriberTemplate pubSubSubscriberTemplate =
         new PubSubSubscriberTemplate(subscriberFactory);
     pubSubMessageConverter.ifUnique(pubSubSubscriberTemplate::setMessageConverter);
+    if (this.gcpPubSubProperties.getSubscriber().isDecompressionEnabled()) {
+      GzipPayloadCompressor compressor = new GzipPayloadCompressor();
+      compressor.setMaxDecompressedBytes(
+          this.gcpPubSubProperties.getSubscriber().getMaxDecompressedBytes());
+      pubSubSubscriberTemplate.setMessageConverter(
+          new DecompressingPubSubMessageConverter(
+              pubSubSubscriberTemplate.getMessageConverter(),
+              Collections.singletonList(compressor)));
+    }
     pubSubSubscriberTemplate.setAckExecutor(ackExecutor);
     asyncPullExecutor.ifAvailable(pubSubSubscriberTemplate::setAsyncPullExecutor);
+    metricsRecorder.ifUnique(pubSubSubscriberTemplate::setMetricsRecorder);
+    PubSubConfiguration.AckBatching ackBatching =
+        this.gcpPubSubProperties.getSubscriber().getAckBatching();
+    if (ackBatching.isEnabled()) {
+      pubSubSubscriberTemplate.setAckBatchingEnabled(true);
+      pubSubSubscriberTemplate.setMaxAckBatchSize(ackBatching.getMaxBatchSize());
+      pubSubSubscriberTemplate.setMaxAckBatchDelay(
+          Duration.ofMillis(ackBatching.getMaxDelayMillis()));
+    }
     return pubSubSubscriberTemplate;
   }
 
@@ -289,7 +386,7 @@ public class GcpPubSubAutoConfiguration {
     boolean shouldBuild =
         ifSet(
             batching.getDelayThresholdSeconds(),
-            x -> builder.setDelayThreshold(Duration.ofSeconds(x)));
+            x -> builder.setDelayThreshold(org.threeten.bp.Duration.ofSeconds(x)));
     shouldBuild |= ifSet(batching.getElementCountThreshold(), builder::setElementCountThreshold);
     shouldBuild |= ifSet(batching.getEnabled(), builder::setIsEnabled);
     shouldBuild |= ifSet(batching.getRequestByteThreshold(), builder::setRequestByteThreshold);
@@ -309,27 +406,27 @@ public class GcpPubSubAutoConfiguration {
     boolean shouldBuild =
         ifSet(
             retryProperties.getInitialRetryDelaySeconds(),
-            x -> builder.setInitialRetryDelay(Duration.ofSeconds(x)));
+            x -> builder.setInitialRetryDelay(org.threeten.bp.Duration.ofSeconds(x)));
     shouldBuild |=
         ifSet(
             retryProperties.getInitialRpcTimeoutSeconds(),
-            x -> builder.setInitialRpcTimeout(Duration.ofSeconds(x)));
+            x -> builder.setInitialRpcTimeout(org.threeten.bp.Duration.ofSeconds(x)));
     shouldBuild |= ifSet(retryProperties.getJittered(), builder::setJittered);
     shouldBuild |= ifSet(retryProperties.getMaxAttempts(), builder::setMaxAttempts);
     shouldBuild |=
         ifSet(
             retryProperties.getMaxRetryDelaySeconds(),
-            x -> builder.setMaxRetryDelay(Duration.ofSeconds(x)));
+            x -> builder.setMaxRetryDelay(org.threeten.bp.Duration.ofSeconds(x)));
     shouldBuild |=
         ifSet(
             retryProperties.getMaxRpcTimeoutSeconds(),
-            x -> builder.setMaxRpcTimeout(Duration.ofSeconds(x)));
+            x -> builder.setMaxRpcTimeout(org.threeten.bp.Duration.ofSeconds(x)));
     shouldBuild |=
         ifSet(retryProperties.getRetryDelayMultiplier(), builder::setRetryDelayMultiplier);
     shouldBuild |=
         ifSet(
             retryProperties.getTotalTimeoutSeconds(),
-            x -> builder.setTotalTimeout(Duration.ofSeconds(x)));
+            x -> builder.setTotalTimeout(org.threeten.bp.Duration.ofSeconds(x)));
     shouldBuild |=
         ifSet(retryProperties.getRpcTimeoutMultiplier(), builder::setRpcTimeoutMultiplier);
 
@@ -362,13 +459,22 @@ public class GcpPubSubAutoConfiguration {
     batchingSettings.ifAvailable(factory::setBatchingSettings);
     factory.setEnableMessageOrdering(gcpPubSubProperties.getPublisher().getEnableMessageOrdering());
     factory.setEndpoint(gcpPubSubProperties.getPublisher().getEndpoint());
+    ifSet(
+        gcpPubSubProperties.getPublisher().getSharedChannelPoolSize(),
+        factory::setSharedChannelPoolSize);
 
     List<PublisherCustomizer> customizers = customizersProvider.orderedStream()
         .collect(Collectors.toList());
     Collections.reverse(customizers); // highest priority customizer needs to be last
     factory.setCustomizers(customizers);
 
-    return new CachingPublisherFactory(factory);
+    CachingPublisherFactory cachingFactory = new CachingPublisherFactory(factory);
+    PubSubConfiguration.PublisherCache cache = gcpPubSubProperties.getPublisher().getCache();
+    ifSet(cache.getMaxSize(), cachingFactory::setMaxPublishers);
+    if (cache.getIdleTimeoutSeconds() != null) {
+      cachingFactory.setIdleTimeout(Duration.ofSeconds(cache.getIdleTimeoutSeconds()));
+    }
+    return cachingFactory;
   }
 
   @Bean
@@ -426,7 +532,8 @@ public class GcpPubSubAutoConfiguration {
   public TransportChannelProvider subscriberTransportChannelProvider() {
     return SubscriberStubSettings.defaultGrpcTransportProviderBuilder()
         .setKeepAliveTime(
-            Duration.ofMinutes(this.gcpPubSubProperties.getKeepAliveIntervalMinutes()))
+            org.threeten.bp.Duration.ofMinutes(
+                this.gcpPubSubProperties.getKeepAliveIntervalMinutes()))
         .build();
   }
 
@@ -435,7 +542,8 @@ public class GcpPubSubAutoConfiguration {
   public TransportChannelProvider publisherTransportChannelProvider() {
     return PublisherStubSettings.defaultGrpcTransportProviderBuilder()
         .setKeepAliveTime(
-            Duration.ofMinutes(this.gcpPubSubProperties.getKeepAliveIntervalMinutes()))
+            org.threeten.bp.Duration.ofMinutes(
+                this.gcpPubSubProperties.getKeepAliveIntervalMinutes()))
         .build();
   }
 
@@ -449,14 +557,18 @@ public class GcpPubSubAutoConfiguration {
   }
 
   private void registerSubscriberThreadPoolSchedulerBeans(GenericApplicationContext context) {
-    Integer numThreads = getGlobalExecutorThreads();
+    Integer numThreads =
+        isVirtualThreads()
+            ? getMaxVirtualThreads(this.gcpPubSubProperties.getSubscriber().getFlowControl())
+            : getGlobalExecutorThreads();
     this.globalScheduler =
         createAndRegisterSchedulerBean(
             numThreads,
+            isVirtualThreads(),
             "global-gcp-pubsub-subscriber",
             "globalPubSubSubscriberThreadPoolScheduler",
             context);
-    registerSelectiveSchedulerBeans(context);
+    registerSelectiveSchedulerBeans(context, numThreads);
   }
 
   private void registerSubscriberFlowControlSettingsBeans(GenericApplicationContext context) {
@@ -505,10 +617,14 @@ public class GcpPubSubAutoConfiguration {
 
   /**
    * Creates and registers {@link ThreadPoolTaskScheduler} for subscription-specific configurations.
+   * With virtual threads, a subscription gets its own scheduler when it enables virtual threads
+   * itself or when its flow control calls for a different number of threads than the global one.
    *
    * @param context application context
+   * @param globalThreads number of threads of the global scheduler
    */
-  private void registerSelectiveSchedulerBeans(GenericApplicationContext context) {
+  private void registerSelectiveSchedulerBeans(
+      GenericApplicationContext context, Integer globalThreads) {
     Map<String, PubSubConfiguration.Subscriber> subscriberMap =
         this.gcpPubSubProperties.getSubscription();
     for (Map.Entry<String, PubSubConfiguration.Subscriber> subscription :
@@ -517,11 +633,28 @@ public class GcpPubSubAutoConfiguration {
       String subscriptionName = fullSubscriptionName.getSubscription();
       PubSubConfiguration.Subscriber selectiveSubscriber = subscriberMap.get(subscriptionName);
       Integer selectiveExecutorThreads = selectiveSubscriber.getExecutorThreads();
+      boolean virtualThreads = isVirtualThreads() || selectiveSubscriber.isVirtualThreads();
+      if (virtualThreads) {
+        if (selectiveExecutorThreads != null) {
+          logger.warn(
+              "Ignoring executor-threads of subscription "
+                  + subscriptionName
+                  + " because it runs on virtual threads bounded by flow control.");
+        }
+        selectiveExecutorThreads =
+            getMaxVirtualThreads(
+                this.gcpPubSubProperties.computeSubscriberFlowControlSettings(
+                    subscriptionName, this.finalProjectIdProvider.getProjectId()));
+        if (isVirtualThreads() && selectiveExecutorThreads.equals(globalThreads)) {
+          continue;
+        }
+      }
       if (selectiveExecutorThreads != null) {
         String threadName = "gcp-pubsub-subscriber-" + subscriptionName;
         String beanName = "threadPoolScheduler_" + subscriptionName;
         ThreadPoolTaskScheduler selectiveScheduler =
-            createAndRegisterSchedulerBean(selectiveExecutorThreads, threadName, beanName, context);
+            createAndRegisterSchedulerBean(
+                selectiveExecutorThreads, virtualThreads, threadName, beanName, context);
         this.threadPoolTaskSchedulerMap.putIfAbsent(
             fullSubscriptionName.toString(), selectiveScheduler);
       }
@@ -532,6 +665,7 @@ public class GcpPubSubAutoConfiguration {
    * Creates a {@link ThreadPoolTaskScheduler} and registers it as a bean.
    *
    * @param executorThreads number of executor threads
+   * @param virtualThreads whether the threads are virtual threads
    * @param threadName thread name
    * @param beanName bean name
    * @param context application context
@@ -539,10 +673,12 @@ public class GcpPubSubAutoConfiguration {
    */
   private ThreadPoolTaskScheduler createAndRegisterSchedulerBean(
       Integer executorThreads,
+      boolean virtualThreads,
       String threadName,
       String beanName,
       GenericApplicationContext context) {
-    ThreadPoolTaskScheduler scheduler = createThreadPoolTaskScheduler(executorThreads, threadName);
+    ThreadPoolTaskScheduler scheduler =
+        createThreadPoolTaskScheduler(executorThreads, virtualThreads, threadName);
     context.registerBeanDefinition(
         beanName,
         BeanDefinitionBuilder.genericBeanDefinition(ThreadPoolTaskScheduler.class, () -> scheduler)
@@ -554,15 +690,19 @@ public class GcpPubSubAutoConfiguration {
    * Creates {@link ThreadPoolTaskScheduler} given the number of executor threads and a thread name.
    *
    * @param executorThreads number of executor threads
+   * @param virtualThreads whether the threads are virtual threads
    * @param threadName thread name prefix to set for the scheduler
    * @return thread pool scheduler
    */
   private ThreadPoolTaskScheduler createThreadPoolTaskScheduler(
-      Integer executorThreads, String threadName) {
+      Integer executorThreads, boolean virtualThreads, String threadName) {
     ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
     scheduler.setPoolSize(executorThreads);
     scheduler.setThreadNamePrefix(threadName);
     scheduler.setDaemon(true);
+    if (virtualThreads) {
+      scheduler.setThreadFactory(VirtualThreadSupport.threadFactory(threadName + "-"));
+    }
     return scheduler;
   }
 
@@ -641,6 +781,21 @@ public class GcpPubSubAutoConfiguration {
     }
   }
 
+  private boolean isVirtualThreads() {
+    return this.gcpPubSubProperties.getSubscriber().isVirtualThreads();
+  }
+
+  /**
+   * Returns the number of virtual threads of a subscriber scheduler. Each outstanding message
+   * occupies at most one thread, so the flow control limit bounds the useful number of threads.
+   */
+  private int getMaxVirtualThreads(PubSubConfiguration.FlowControl flowControl) {
+    Long maxOutstandingElementCount = flowControl.getMaxOutstandingElementCount();
+    return maxOutstandingElementCount != null
+        ? (int) Math.min(maxOutstandingElementCount, Integer.MAX_VALUE)
+        : DEFAULT_MAX_VIRTUAL_THREADS;
+  }
+
   private Integer getGlobalExecutorThreads() {
     Integer numThreads = this.gcpPubSubProperties.getSubscriber().getExecutorThreads();
     return numThreads != null ? numThreads : PubSubConfiguration.DEFAULT_EXECUTOR_THREADS;
@@ -650,4 +805,29 @@ public class GcpPubSubAutoConfiguration {
     return PubSubSubscriptionUtils.toProjectSubscriptionName(
         subscriptionName, this.finalProjectIdProvider.getProjectId());
   }
+
+  /** Micrometer instrumentation of the Pub/Sub templates and inbound channel adapters. */
+  @Configuration(proxyBeanMethods = false)
+  @ConditionalOnClass(MeterRegistry.class)
+  @ConditionalOnBean(MeterRegistry.class)
+  @ConditionalOnProperty(value = "spring.cloud.gcp.pubsub.metrics.enabled", matchIfMissing = true)
+  static class PubSubMetricsConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public PubSubMetricsRecorder pubSubMetricsRecorder(MeterRegistry meterRegistry) {
+      return new MicrometerPubSubMetricsRecorder(meterRegistry);
+    }
+
+    @Bean
+    public MeterBinder pubSubPublisherCacheMetrics(
+        ObjectProvider<PublisherFactory> publisherFactory) {
+      return registry -> {
+        PublisherFactory factory = publisherFactory.getIfUnique();
+        if (factory instanceof CachingPublisherFactory) {
+          new PublisherCacheMetrics((CachingPublisherFactory) factory).bindTo(registry);
+        }
+      };
+    }
+  }
 }
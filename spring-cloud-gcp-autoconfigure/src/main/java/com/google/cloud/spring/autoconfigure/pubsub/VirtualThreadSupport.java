@@ -0,0 +1,86 @@
+/*
+ * Copyright 2022-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spring.autoconfigure.pubsub;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates virtual thread factories and executors reflectively, so that they can be used when
+ * running on Java 21 or later without requiring it at compile time.
+ */
+final class VirtualThreadSupport {
+
+  private static final String UNSUPPORTED_MESSAGE =
+      "Virtual threads require Java 21 or later; unset spring.cloud.gcp.pubsub.subscriber"
+          + ".virtual-threads or upgrade the Java runtime.";
+
+  private VirtualThreadSupport() {}
+
+  /**
+   * Whether the running JVM supports virtual threads.
+   *
+   * @return true if virtual threads can be created
+   */
+  static boolean isSupported() {
+    try {
+      Thread.class.getMethod("ofVirtual");
+      return true;
+    } catch (NoSuchMethodException ex) {
+      return false;
+    }
+  }
+
+  /**
+   * Create a factory of virtual threads named with the given prefix and a sequence number.
+   *
+   * @param threadNamePrefix the thread name prefix
+   * @return the virtual thread factory
+   */
+  static ThreadFactory threadFactory(String threadNamePrefix) {
+    try {
+      Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+      Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      builder =
+          builderType
+              .getMethod("name", String.class, long.class)
+              .invoke(builder, threadNamePrefix, 0L);
+      return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+    } catch (ReflectiveOperationException ex) {
+      throw new IllegalStateException(UNSUPPORTED_MESSAGE, ex);
+    }
+  }
+
+  /**
+   * Create an executor starting a new virtual thread for each task.
+   *
+   * @param threadNamePrefix the thread name prefix
+   * @return the executor, to be shut down by the caller
+   */
+  static ExecutorService newThreadPerTaskExecutor(String threadNamePrefix) {
+    ThreadFactory threadFactory = threadFactory(threadNamePrefix);
+    try {
+      return (ExecutorService)
+          Executors.class
+              .getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+              .invoke(null, threadFactory);
+    } catch (ReflectiveOperationException ex) {
+      throw new IllegalStateException(UNSUPPORTED_MESSAGE, ex);
+    }
+  }
+}
@@ -22,10 +22,14 @@ import com.google.cloud.monitoring.v3.MetricServiceClient;
 import com.google.cloud.spring.autoconfigure.pubsub.GcpPubSubAutoConfiguration;
 import com.google.cloud.spring.autoconfigure.pubsub.GcpPubSubProperties;
 import com.google.cloud.spring.core.GcpProjectIdProvider;
+import com.google.cloud.spring.pubsub.core.PubSubConfiguration;
 import com.google.cloud.spring.pubsub.core.PubSubTemplate;
+import com.google.cloud.spring.pubsub.core.health.BacklogSampler;
 import com.google.cloud.spring.pubsub.core.health.HealthTrackerRegistry;
 import com.google.cloud.spring.pubsub.core.health.HealthTrackerRegistryImpl;
 import java.io.IOException;
+import java.time.Duration;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.actuate.autoconfigure.health.CompositeHealthContributorConfiguration;
 import org.springframework.boot.actuate.autoconfigure.health.ConditionalOnEnabledHealthIndicator;
@@ -90,18 +94,42 @@ public class PubSubSubscriptionHealthIndicatorAutoConfiguration
     return FixedExecutorProvider.create(scheduler.getScheduledExecutor());
   }
 
+  @Bean
+  @ConditionalOnMissingBean
+  @ConditionalOnProperty("spring.cloud.gcp.pubsub.health.backlogSamplingInterval")
+  public BacklogSampler pubSubBacklogSampler(
+      MetricServiceClient metricServiceClient,
+      @Qualifier("pubSubHealthThreadPool") ThreadPoolTaskScheduler scheduler) {
+    PubSubConfiguration.Health health = gcpPubSubProperties.getHealth();
+    Duration samplingInterval = Duration.ofSeconds(health.getBacklogSamplingInterval());
+    Duration maxStaleness =
+        health.getBacklogMaxStaleness() != null
+            ? Duration.ofSeconds(health.getBacklogMaxStaleness())
+            : samplingInterval.multipliedBy(3);
+    return new BacklogSampler(
+        metricServiceClient,
+        scheduler.getScheduledExecutor(),
+        samplingInterval,
+        maxStaleness,
+        health.getLookUpInterval());
+  }
+
   @Bean
   @ConditionalOnMissingBean(name = "healthTrackerRegistry")
   public HealthTrackerRegistry healthTrackerRegistry(
       MetricServiceClient metricServiceClient,
-      @Qualifier("healthCheckExecutorProvider") ExecutorProvider executorProvider) {
-    return new HealthTrackerRegistryImpl(
-        projectId,
-        metricServiceClient,
-        gcpPubSubProperties.getHealth().getLagThreshold(),
-        gcpPubSubProperties.getHealth().getBacklogThreshold(),
-        gcpPubSubProperties.getHealth().getLookUpInterval(),
-        executorProvider);
+      @Qualifier("healthCheckExecutorProvider") ExecutorProvider executorProvider,
+      ObjectProvider<BacklogSampler> backlogSampler) {
+    HealthTrackerRegistryImpl healthTrackerRegistry =
+        new HealthTrackerRegistryImpl(
+            projectId,
+            metricServiceClient,
+            gcpPubSubProperties.getHealth().getLagThreshold(),
+            gcpPubSubProperties.getHealth().getBacklogThreshold(),
+            gcpPubSubProperties.getHealth().getLookUpInterval(),
+            executorProvider);
+    backlogSampler.ifAvailable(healthTrackerRegistry::setBacklogSampler);
+    return healthTrackerRegistry;
   }
 
   @Bean
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2022-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spring.autoconfigure.logging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import com.google.api.gax.core.CredentialsProvider;
+import com.google.auth.Credentials;
+import com.google.cloud.spring.autoconfigure.core.GcpContextAutoConfiguration;
+import com.google.cloud.spring.logging.TraceIdLoggingWebFilter;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ReactiveWebApplicationContextRunner;
+import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
+import org.springframework.context.annotation.Bean;
+
+/** Tests for the WebFlux logging auto-config. */
+class StackdriverLoggingWebFluxAutoConfigurationTests {
+
+  private ReactiveWebApplicationContextRunner contextRunner =
+      new ReactiveWebApplicationContextRunner()
+          .withUserConfiguration(TestConfiguration.class)
+          .withConfiguration(
+              AutoConfigurations.of(
+                  StackdriverLoggingWebFluxAutoConfiguration.class,
+                  GcpContextAutoConfiguration.class));
+
+  @Test
+  void testRegularConfiguration() {
+    this.contextRunner.run(
+        context -> assertThat(context.getBeansOfType(TraceIdLoggingWebFilter.class)).hasSize(1));
+  }
+
+  @Test
+  void testDisabledConfiguration() {
+    this.contextRunner
+        .withPropertyValues("spring.cloud.gcp.logging.enabled=false")
+        .run(
+            context ->
+                assertThat(context.getBeansOfType(TraceIdLoggingWebFilter.class)).isEmpty());
+  }
+
+  @Test
+  void testServletConfiguration() {
+    new WebApplicationContextRunner()
+        .withConfiguration(
+            AutoConfigurations.of(
+                StackdriverLoggingWebFluxAutoConfiguration.class,
+                GcpContextAutoConfiguration.class))
+        .withUserConfiguration(TestConfiguration.class)
+        .run(
+            context ->
+                assertThat(context.getBeansOfType(TraceIdLoggingWebFilter.class)).isEmpty());
+  }
+
+  private static class TestConfiguration {
+
+    @Bean
+    public CredentialsProvider googleCredentials() {
+      return () -> mock(Credentials.class);
+    }
+  }
+}
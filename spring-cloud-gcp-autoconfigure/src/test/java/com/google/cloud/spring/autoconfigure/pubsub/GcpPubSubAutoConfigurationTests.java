@@ -33,12 +33,25 @@ import com.google.cloud.pubsub.v1.Publisher;
 import com.google.cloud.pubsub.v1.Subscriber;
 import com.google.cloud.spring.core.GcpProjectIdProvider;
 import com.google.cloud.spring.pubsub.core.PubSubConfiguration;
+import com.google.cloud.spring.pubsub.core.metrics.MicrometerPubSubMetricsRecorder;
+import com.google.cloud.spring.pubsub.core.metrics.PubSubMetricsRecorder;
+import com.google.cloud.spring.pubsub.core.publisher.PubSubPublisherTemplate;
+import com.google.cloud.spring.pubsub.core.publisher.PublishFlowControlSettings;
+import com.google.cloud.spring.pubsub.core.publisher.PublishFlowControlSettings.OverflowPolicy;
 import com.google.cloud.spring.pubsub.core.publisher.PublisherCustomizer;
+import com.google.cloud.spring.pubsub.core.subscriber.PubSubSubscriberTemplate;
 import com.google.cloud.spring.pubsub.support.CachingPublisherFactory;
 import com.google.cloud.spring.pubsub.support.DefaultPublisherFactory;
 import com.google.cloud.spring.pubsub.support.DefaultSubscriberFactory;
 import com.google.cloud.spring.pubsub.support.PublisherFactory;
+import com.google.cloud.spring.pubsub.support.converter.DecompressingPubSubMessageConverter;
+import com.google.cloud.spring.pubsub.support.converter.GzipPayloadCompressor;
+import com.google.cloud.spring.pubsub.support.converter.PubSubMessageConverter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.util.List;
+import java.util.Map;
 import org.apache.commons.lang3.reflect.FieldUtils;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.autoconfigure.AutoConfigurations;
@@ -47,6 +60,7 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.threeten.bp.Duration;
 
@@ -1303,6 +1317,250 @@ class GcpPubSubAutoConfigurationTests {
         });
   }
 
+  @Test
+  void ackBatching_custom() {
+    baseContextRunner
+        .withPropertyValues(
+            "spring.cloud.gcp.pubsub.subscriber.ack-batching.enabled=true",
+            "spring.cloud.gcp.pubsub.subscriber.ack-batching.max-batch-size=100",
+            "spring.cloud.gcp.pubsub.subscriber.ack-batching.max-delay-millis=20")
+        .run(
+            ctx -> {
+              PubSubSubscriberTemplate subscriberTemplate =
+                  ctx.getBean(PubSubSubscriberTemplate.class);
+              assertThat(FieldUtils.readField(subscriberTemplate, "ackBatchingEnabled", true))
+                  .isEqualTo(true);
+              assertThat(FieldUtils.readField(subscriberTemplate, "maxAckBatchSize", true))
+                  .isEqualTo(100);
+              assertThat(FieldUtils.readField(subscriberTemplate, "maxAckBatchDelay", true))
+                  .isEqualTo(java.time.Duration.ofMillis(20));
+            });
+  }
+
+  @Test
+  void compression_custom() {
+    baseContextRunner
+        .withPropertyValues(
+            "spring.cloud.gcp.pubsub.publisher.compression.enabled=true",
+            "spring.cloud.gcp.pubsub.publisher.compression.threshold-bytes=2048",
+            "spring.cloud.gcp.pubsub.publisher.compression.topics=topic1,topic2",
+            "spring.cloud.gcp.pubsub.subscriber.decompression-enabled=true",
+            "spring.cloud.gcp.pubsub.subscriber.max-decompressed-bytes=4096")
+        .run(
+            ctx -> {
+              PubSubPublisherTemplate publisherTemplate =
+                  ctx.getBean(PubSubPublisherTemplate.class);
+              assertThat(FieldUtils.readField(publisherTemplate, "compressor", true)).isNull();
+              Map<?, ?> topicCompressors =
+                  (Map<?, ?>) FieldUtils.readField(publisherTemplate, "topicCompressors", true);
+              assertThat(topicCompressors).containsOnlyKeys("topic1", "topic2");
+              assertThat(FieldUtils.readField(publisherTemplate, "compressionThreshold", true))
+                  .isEqualTo(2048);
+              PubSubMessageConverter converter =
+                  ctx.getBean(PubSubSubscriberTemplate.class).getMessageConverter();
+              assertThat(converter).isInstanceOf(DecompressingPubSubMessageConverter.class);
+              Map<?, ?> compressors =
+                  (Map<?, ?>) FieldUtils.readField(converter, "compressors", true);
+              GzipPayloadCompressor gzip = (GzipPayloadCompressor) compressors.get("gzip");
+              assertThat(gzip.getMaxDecompressedBytes()).isEqualTo(4096);
+            });
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void publisherBuffer_custom() {
+    baseContextRunner
+        .withPropertyValues(
+            "spring.cloud.gcp.pubsub.publisher.buffer.max-outstanding-messages=1000",
+            "spring.cloud.gcp.pubsub.publisher.buffer.overflow-policy=FAIL_FAST",
+            "spring.cloud.gcp.pubsub.publisher.buffer.topics.telemetry.max-outstanding-bytes=2048",
+            "spring.cloud.gcp.pubsub.publisher.buffer.topics.telemetry.overflow-policy=DROP_OLDEST")
+        .run(
+            ctx -> {
+              PubSubPublisherTemplate publisherTemplate =
+                  ctx.getBean(PubSubPublisherTemplate.class);
+              PublishFlowControlSettings defaults =
+                  (PublishFlowControlSettings)
+                      FieldUtils.readField(publisherTemplate, "flowControlSettings", true);
+              assertThat(defaults.getMaxOutstandingMessages()).isEqualTo(1000);
+              assertThat(defaults.getMaxOutstandingBytes()).isZero();
+              assertThat(defaults.getOverflowPolicy()).isEqualTo(OverflowPolicy.FAIL_FAST);
+
+              Map<String, PublishFlowControlSettings> topicSettings =
+                  (Map<String, PublishFlowControlSettings>)
+                      FieldUtils.readField(publisherTemplate, "topicFlowControlSettings", true);
+              PublishFlowControlSettings telemetry = topicSettings.get("telemetry");
+              assertThat(telemetry.getMaxOutstandingMessages()).isEqualTo(1000);
+              assertThat(telemetry.getMaxOutstandingBytes()).isEqualTo(2048);
+              assertThat(telemetry.getOverflowPolicy()).isEqualTo(OverflowPolicy.DROP_OLDEST);
+            });
+  }
+
+  @Test
+  void metricsRecorder_appliedWhenMeterRegistryPresent() {
+    baseContextRunner
+        .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+        .run(
+            ctx -> {
+              PubSubMetricsRecorder metricsRecorder = ctx.getBean(PubSubMetricsRecorder.class);
+              assertThat(metricsRecorder).isInstanceOf(MicrometerPubSubMetricsRecorder.class);
+              assertThat(
+                      FieldUtils.readField(
+                          ctx.getBean(PubSubPublisherTemplate.class), "metricsRecorder", true))
+                  .isSameAs(metricsRecorder);
+              assertThat(
+                      FieldUtils.readField(
+                          ctx.getBean(PubSubSubscriberTemplate.class), "metricsRecorder", true))
+                  .isSameAs(metricsRecorder);
+            });
+  }
+
+  @Test
+  void publisherCacheMetrics_boundWhenMeterRegistryPresent() {
+    baseContextRunner
+        .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+        .run(
+            ctx -> {
+              MeterRegistry meterRegistry = ctx.getBean(MeterRegistry.class);
+              ctx.getBean("pubSubPublisherCacheMetrics", MeterBinder.class).bindTo(meterRegistry);
+              assertThat(meterRegistry.find("gcp.pubsub.publisher.cache.gets").meters())
+                  .hasSize(2);
+              assertThat(meterRegistry.find("gcp.pubsub.publisher.cache.evictions").meter())
+                  .isNotNull();
+              assertThat(meterRegistry.find("gcp.pubsub.publisher.cache.size").gauge())
+                  .isNotNull();
+            });
+  }
+
+  @Test
+  void metricsRecorder_absentWithoutMeterRegistryOrWhenDisabled() {
+    baseContextRunner.run(ctx -> assertThat(ctx).doesNotHaveBean(PubSubMetricsRecorder.class));
+    baseContextRunner
+        .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+        .withPropertyValues("spring.cloud.gcp.pubsub.metrics.enabled=false")
+        .run(
+            ctx -> {
+              assertThat(ctx).doesNotHaveBean(PubSubMetricsRecorder.class);
+              assertThat(ctx).doesNotHaveBean("pubSubPublisherCacheMetrics");
+              assertThat(
+                      FieldUtils.readField(
+                          ctx.getBean(PubSubPublisherTemplate.class), "metricsRecorder", true))
+                  .isNull();
+            });
+  }
+
+  @Test
+  void virtualThreads_enabled() {
+    baseContextRunner
+        .withPropertyValues(
+            "spring.cloud.gcp.pubsub.subscriber.virtual-threads=true",
+            "spring.cloud.gcp.pubsub.subscriber.flow-control.max-outstanding-element-count=200")
+        .run(
+            ctx -> {
+              if (!VirtualThreadSupport.isSupported()) {
+                assertThat(ctx)
+                    .getFailure()
+                    .hasStackTraceContaining("Virtual threads require Java 21 or later");
+                return;
+              }
+              ThreadPoolTaskScheduler scheduler =
+                  ctx.getBean(
+                      "globalPubSubSubscriberThreadPoolScheduler", ThreadPoolTaskScheduler.class);
+              assertThat(scheduler.getScheduledThreadPoolExecutor().getCorePoolSize())
+                  .isEqualTo(200);
+              Thread subscriberThread = scheduler.submit(Thread::currentThread).get();
+              assertThat(Thread.class.getMethod("isVirtual").invoke(subscriberThread))
+                  .isEqualTo(true);
+              assertThat(ctx.getBean("pubSubAsynchronousPullExecutor")).isNotNull();
+              assertThat(ctx.getBean("pubSubAcknowledgementExecutor"))
+                  .isNotInstanceOf(ThreadPoolTaskExecutor.class);
+            });
+  }
+
+  @Test
+  void virtualThreads_selectiveFlowControl() {
+    baseContextRunner
+        .withPropertyValues(
+            "spring.cloud.gcp.pubsub.subscriber.virtual-threads=true",
+            "spring.cloud.gcp.pubsub.subscription.subscription-name"
+                + ".flow-control.max-outstanding-element-count=50",
+            "spring.cloud.gcp.pubsub.subscription.other.executor-threads=7")
+        .run(
+            ctx -> {
+              if (!VirtualThreadSupport.isSupported()) {
+                assertThat(ctx)
+                    .getFailure()
+                    .hasStackTraceContaining("Virtual threads require Java 21 or later");
+                return;
+              }
+              ThreadPoolTaskScheduler selectiveScheduler =
+                  (ThreadPoolTaskScheduler) ctx.getBean("threadPoolScheduler_subscription-name");
+              assertThat(FieldUtils.readField(selectiveScheduler, "poolSize", true)).isEqualTo(50);
+              assertThat(ctx.containsBean("threadPoolScheduler_other")).isFalse();
+            });
+  }
+
+  @Test
+  void virtualThreads_selectiveSubscription() {
+    baseContextRunner
+        .withPropertyValues(
+            "spring.cloud.gcp.pubsub.subscription.subscription-name.virtual-threads=true")
+        .run(
+            ctx -> {
+              if (!VirtualThreadSupport.isSupported()) {
+                assertThat(ctx)
+                    .getFailure()
+                    .hasStackTraceContaining("Virtual threads require Java 21 or later");
+                return;
+              }
+              ThreadPoolTaskScheduler selectiveScheduler =
+                  (ThreadPoolTaskScheduler) ctx.getBean("threadPoolScheduler_subscription-name");
+              assertThat(FieldUtils.readField(selectiveScheduler, "poolSize", true))
+                  .isEqualTo(1000);
+              Thread subscriberThread = selectiveScheduler.submit(Thread::currentThread).get();
+              assertThat(Thread.class.getMethod("isVirtual").invoke(subscriberThread))
+                  .isEqualTo(true);
+              ThreadPoolTaskScheduler globalScheduler =
+                  ctx.getBean(
+                      "globalPubSubSubscriberThreadPoolScheduler", ThreadPoolTaskScheduler.class);
+              Thread globalThread = globalScheduler.submit(Thread::currentThread).get();
+              assertThat(Thread.class.getMethod("isVirtual").invoke(globalThread))
+                  .isEqualTo(false);
+            });
+  }
+
+  @Test
+  void publisherCache_custom() {
+    baseContextRunner
+        .withPropertyValues(
+            "spring.cloud.gcp.pubsub.publisher.cache.max-size=50",
+            "spring.cloud.gcp.pubsub.publisher.cache.idle-timeout-seconds=600")
+        .run(
+            ctx -> {
+              CachingPublisherFactory factory =
+                  (CachingPublisherFactory)
+                      ctx.getBean("defaultPublisherFactory", PublisherFactory.class);
+              assertThat(FieldUtils.readField(factory, "maxPublishers", true)).isEqualTo(50);
+              assertThat(FieldUtils.readField(factory, "idleTimeout", true))
+                  .isEqualTo(java.time.Duration.ofSeconds(600));
+            });
+  }
+
+  @Test
+  void sharedChannelPoolSize_custom() {
+    baseContextRunner
+        .withPropertyValues("spring.cloud.gcp.pubsub.publisher.shared-channel-pool-size=4")
+        .run(
+            ctx -> {
+              CachingPublisherFactory factory =
+                  (CachingPublisherFactory)
+                      ctx.getBean("defaultPublisherFactory", PublisherFactory.class);
+              assertThat(
+                      FieldUtils.readField(factory.getDelegate(), "sharedChannelPoolSize", true))
+                  .isEqualTo(4);
+            });
+  }
+
   @Test
   void createPublisherWithCustomizer() {
 
@@ -0,0 +1,282 @@
+/*
+ * Copyright 2022-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spring.logging;
+
+import com.google.cloud.logging.LogEntry;
+import com.google.cloud.logging.Severity;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import org.springframework.util.Assert;
+
+/**
+ * Buffers log entries in a bounded, lock-free ring buffer and writes them in batches from a single
+ * background thread. A batch is written once it reaches the flush size, or once the flush interval
+ * has elapsed.
+ *
+ * <p>When the buffer is full, entries below the blocking severity are dropped right away, while
+ * more severe entries wait for free space up to the maximum block time before being dropped.
+ */
+final class BatchingLogWriter implements AutoCloseable {
+
+  private static final long FLUSH_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+  private static final long BLOCKED_PRODUCER_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+  private final AtomicReferenceArray<LogEntry> slots;
+
+  /**
+   * Per-slot sequence numbers of the bounded multi-producer queue: a slot is free for the producer
+   * at position {@code p} when its sequence is {@code p}, and readable by the consumer when it is
+   * {@code p + 1}.
+   */
+  private final AtomicLongArray sequences;
+
+  private final int mask;
+
+  private final AtomicLong tail = new AtomicLong();
+
+  /** Only advanced by the flusher thread. */
+  private volatile long head;
+
+  /** Position up to which entries were handed to the batch writer. */
+  private volatile long writtenPosition;
+
+  private final int flushSize;
+
+  private final long flushIntervalNanos;
+
+  private final Severity blockingSeverity;
+
+  private final long maxBlockNanos;
+
+  private final Consumer<List<LogEntry>> batchWriter;
+
+  private final Consumer<Exception> errorHandler;
+
+  private final LongAdder droppedCount = new LongAdder();
+
+  private final LongAdder flushedCount = new LongAdder();
+
+  private final Object flushMonitor = new Object();
+
+  private final Thread flusher;
+
+  private volatile boolean running = true;
+
+  BatchingLogWriter(
+      int bufferSize,
+      int flushSize,
+      long flushIntervalMillis,
+      Severity blockingSeverity,
+      long maxBlockMillis,
+      Consumer<List<LogEntry>> batchWriter,
+      Consumer<Exception> errorHandler) {
+    Assert.isTrue(bufferSize > 0, "The buffer size must be greater than zero.");
+    Assert.isTrue(flushSize > 0, "The flush size must be greater than zero.");
+    Assert.isTrue(flushIntervalMillis > 0, "The flush interval must be greater than zero.");
+    Assert.notNull(blockingSeverity, "The blocking severity can't be null.");
+    Assert.notNull(batchWriter, "The batch writer can't be null.");
+
+    int capacity = Integer.highestOneBit(bufferSize - 1) << 1;
+    capacity = Math.max(capacity, 2);
+    this.slots = new AtomicReferenceArray<>(capacity);
+    this.sequences = new AtomicLongArray(capacity);
+    for (int i = 0; i < capacity; i++) {
+      this.sequences.set(i, i);
+    }
+    this.mask = capacity - 1;
+    this.flushSize = Math.min(flushSize, capacity);
+    this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+    this.blockingSeverity = blockingSeverity;
+    this.maxBlockNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(maxBlockMillis, 0));
+    this.batchWriter = batchWriter;
+    this.errorHandler = errorHandler != null ? errorHandler : ex -> {};
+
+    this.flusher = new Thread(this::run, "gcp-logging-batch-flusher");
+    this.flusher.setDaemon(true);
+    this.flusher.start();
+  }
+
+  /**
+   * Buffer a log entry for writing, or drop it if the buffer stays full.
+   *
+   * @param entry the log entry
+   * @return whether the entry was buffered
+   */
+  boolean offer(LogEntry entry) {
+    if (!this.running) {
+      this.droppedCount.increment();
+      return false;
+    }
+    if (tryOffer(entry) || (isBlocking(entry) && offerBlocking(entry))) {
+      if (size() >= this.flushSize) {
+        LockSupport.unpark(this.flusher);
+      }
+      return true;
+    }
+    this.droppedCount.increment();
+    return false;
+  }
+
+  /** Wait until every entry buffered so far has been written. */
+  void flush() {
+    long target = this.tail.get();
+    long deadline = System.nanoTime() + FLUSH_TIMEOUT_NANOS;
+    LockSupport.unpark(this.flusher);
+    synchronized (this.flushMonitor) {
+      while (this.writtenPosition < target
+          && this.flusher.isAlive()
+          && System.nanoTime() < deadline) {
+        try {
+          this.flushMonitor.wait(100);
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    }
+  }
+
+  /** Stop accepting entries, write the buffered ones and stop the flusher thread. */
+  @Override
+  public void close() {
+    this.running = false;
+    LockSupport.unpark(this.flusher);
+    try {
+      this.flusher.join(TimeUnit.NANOSECONDS.toMillis(FLUSH_TIMEOUT_NANOS));
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /** Creates writers with the configuration of an appender, for a given batch writer. */
+  @FunctionalInterface
+  interface Factory {
+    BatchingLogWriter create(Consumer<List<LogEntry>> batchWriter);
+  }
+
+  long getDroppedCount() {
+    return this.droppedCount.sum();
+  }
+
+  long getFlushedCount() {
+    return this.flushedCount.sum();
+  }
+
+  int size() {
+    return (int) (this.tail.get() - this.head);
+  }
+
+  private boolean isBlocking(LogEntry entry) {
+    Severity severity = entry.getSeverity() != null ? entry.getSeverity() : Severity.DEFAULT;
+    return this.maxBlockNanos > 0 && severity.ordinal() >= this.blockingSeverity.ordinal();
+  }
+
+  private boolean offerBlocking(LogEntry entry) {
+    long deadline = System.nanoTime() + this.maxBlockNanos;
+    LockSupport.unpark(this.flusher);
+    while (this.running && System.nanoTime() < deadline) {
+      LockSupport.parkNanos(this, BLOCKED_PRODUCER_PARK_NANOS);
+      if (tryOffer(entry)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean tryOffer(LogEntry entry) {
+    long position = this.tail.get();
+    while (true) {
+      int index = (int) position & this.mask;
+      long difference = this.sequences.get(index) - position;
+      if (difference == 0) {
+        if (this.tail.compareAndSet(position, position + 1)) {
+          this.slots.lazySet(index, entry);
+          this.sequences.set(index, position + 1);
+          return true;
+        }
+        position = this.tail.get();
+      } else if (difference < 0) {
+        // The consumer hasn't freed this slot yet: the buffer is full.
+        return false;
+      } else {
+        position = this.tail.get();
+      }
+    }
+  }
+
+  private LogEntry poll() {
+    long position = this.head;
+    int index = (int) position & this.mask;
+    if (this.sequences.get(index) != position + 1) {
+      return null;
+    }
+    LogEntry entry = this.slots.get(index);
+    this.slots.lazySet(index, null);
+    this.sequences.set(index, position + this.mask + 1);
+    this.head = position + 1;
+    return entry;
+  }
+
+  private void run() {
+    List<LogEntry> batch = new ArrayList<>(this.flushSize);
+    while (this.running) {
+      if (size() < this.flushSize) {
+        LockSupport.parkNanos(this, this.flushIntervalNanos);
+      }
+      drain(batch);
+    }
+    drain(batch);
+  }
+
+  private void drain(List<LogEntry> batch) {
+    LogEntry entry;
+    do {
+      entry = poll();
+      if (entry != null) {
+        batch.add(entry);
+      }
+      if (batch.size() >= this.flushSize || (entry == null && !batch.isEmpty())) {
+        write(batch);
+      }
+    } while (entry != null);
+
+    this.writtenPosition = this.head;
+    synchronized (this.flushMonitor) {
+      this.flushMonitor.notifyAll();
+    }
+  }
+
+  private void write(List<LogEntry> batch) {
+    try {
+      this.batchWriter.accept(new ArrayList<>(batch));
+      this.flushedCount.add(batch.size());
+    } catch (Exception ex) {
+      this.droppedCount.add(batch.size());
+      this.errorHandler.accept(ex);
+    } finally {
+      batch.clear();
+    }
+  }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2022-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spring.logging;
+
+import com.google.cloud.logging.LogEntry;
+import com.google.cloud.logging.Logging;
+import com.google.cloud.logging.Logging.WriteOption;
+import com.google.cloud.logging.Synchronicity;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * A {@link Logging} proxy that hands written entries to a {@link BatchingLogWriter}, which writes
+ * them to the delegate in batches. Every other call goes straight to the delegate.
+ */
+final class BatchingLogging implements InvocationHandler {
+
+  private static final WriteOption[] NO_WRITE_OPTIONS = new WriteOption[0];
+
+  private final Logging delegate;
+
+  private final BatchingLogWriter writer;
+
+  /** The appender passes the same log name and resource options to every write. */
+  private volatile WriteOption[] writeOptions = NO_WRITE_OPTIONS;
+
+  private BatchingLogging(Logging delegate, BatchingLogWriter.Factory writerFactory) {
+    this.delegate = delegate;
+    // Batches are written from the flusher thread; waiting for each write bounds memory usage.
+    this.delegate.setWriteSynchronicity(Synchronicity.SYNC);
+    this.writer = writerFactory.create(batch -> delegate.write(batch, this.writeOptions));
+  }
+
+  static Logging create(Logging delegate, BatchingLogWriter.Factory writerFactory) {
+    return (Logging)
+        Proxy.newProxyInstance(
+            Logging.class.getClassLoader(),
+            new Class<?>[] {Logging.class},
+            new BatchingLogging(delegate, writerFactory));
+  }
+
+  BatchingLogWriter getWriter() {
+    return this.writer;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+    switch (method.getName()) {
+      case "write":
+        if (args.length == 2 && args[1] instanceof WriteOption[]) {
+          this.writeOptions = (WriteOption[]) args[1];
+        }
+        for (LogEntry entry : (Iterable<LogEntry>) args[0]) {
+          this.writer.offer(entry);
+        }
+        return null;
+      case "flush":
+        this.writer.flush();
+        this.delegate.flush();
+        return null;
+      case "setWriteSynchronicity":
+        return null;
+      case "close":
+        this.writer.close();
+        this.delegate.close();
+        return null;
+      default:
+        try {
+          return method.invoke(this.delegate, args);
+        } catch (InvocationTargetException ex) {
+          throw ex.getCause();
+        }
+    }
+  }
+}
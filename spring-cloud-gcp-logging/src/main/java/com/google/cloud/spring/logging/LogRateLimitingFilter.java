@@ -0,0 +1,377 @@
+/*
+ * Copyright 2022-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spring.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+import org.springframework.util.Assert;
+
+/**
+ * Logback {@link TurboFilter} that rate-limits log events with token buckets, one per logger and
+ * one per message template of each logger, before they reach any appender. It therefore works the
+ * same with {@link StackdriverJsonLayout} console logging and with the Cloud Logging {@code
+ * LoggingAppender}.
+ *
+ * <p>Events at or above the always-keep level, {@code ERROR} by default, and events of sampled
+ * traces are never suppressed. The number of suppressed events is periodically reported as a
+ * {@code WARN} entry per logger and template from the {@link #SUMMARY_LOGGER_NAME} logger.
+ *
+ * <p>Deciding on an event takes no locks: each bucket is a single atomic value updated with
+ * compare-and-set, following the generic cell rate algorithm.
+ *
+ * <pre>{@code
+ * <turboFilter class="com.google.cloud.spring.logging.LogRateLimitingFilter">
+ *   <loggerRate>100</loggerRate>
+ *   <templateRate>10</templateRate>
+ * </turboFilter>
+ * }</pre>
+ *
+ * @since 3.3.0
+ */
+public class LogRateLimitingFilter extends TurboFilter {
+
+  /** The name of the logger that reports suppressed events. */
+  public static final String SUMMARY_LOGGER_NAME = LogRateLimitingFilter.class.getName();
+
+  private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  private double loggerRate = 100;
+
+  private int loggerBurst = 200;
+
+  private double templateRate = 10;
+
+  private int templateBurst = 20;
+
+  private Level alwaysKeepLevel = Level.ERROR;
+
+  private boolean keepSampledTraces = true;
+
+  private long summaryIntervalMillis = 10_000;
+
+  private int maxTrackedTemplates = 10_000;
+
+  private final Map<String, TokenBucket> loggerBuckets = new ConcurrentHashMap<>();
+
+  /** Template buckets by logger name, then template, so that loggers don't share a template. */
+  private final Map<String, Map<String, TokenBucket>> templateBuckets = new ConcurrentHashMap<>();
+
+  private final AtomicInteger trackedTemplates = new AtomicInteger();
+
+  private final AtomicLong nextSummaryNanos = new AtomicLong();
+
+  private final LongAdder suppressedCount = new LongAdder();
+
+  private LongSupplier nanoClock = System::nanoTime;
+
+  private long summaryIntervalNanos;
+
+  public double getLoggerRate() {
+    return this.loggerRate;
+  }
+
+  /**
+   * Set the sustained number of events per second allowed for each logger.
+   *
+   * @param loggerRate the events per second; 0 disables the per-logger limit
+   */
+  public void setLoggerRate(double loggerRate) {
+    this.loggerRate = loggerRate;
+  }
+
+  public int getLoggerBurst() {
+    return this.loggerBurst;
+  }
+
+  /**
+   * Set the number of events a logger may emit in a burst above its sustained rate.
+   *
+   * @param loggerBurst the burst size
+   */
+  public void setLoggerBurst(int loggerBurst) {
+    this.loggerBurst = loggerBurst;
+  }
+
+  public double getTemplateRate() {
+    return this.templateRate;
+  }
+
+  /**
+   * Set the sustained number of events per second allowed for each message template of a logger,
+   * i.e., the unformatted message such as {@code "Failed to process order {}"}.
+   *
+   * @param templateRate the events per second; 0 disables the per-template limit
+   */
+  public void setTemplateRate(double templateRate) {
+    this.templateRate = templateRate;
+  }
+
+  public int getTemplateBurst() {
+    return this.templateBurst;
+  }
+
+  /**
+   * Set the number of events a message template may produce in a burst above its sustained rate.
+   *
+   * @param templateBurst the burst size
+   */
+  public void setTemplateBurst(int templateBurst) {
+    this.templateBurst = templateBurst;
+  }
+
+  public Level getAlwaysKeepLevel() {
+    return this.alwaysKeepLevel;
+  }
+
+  /**
+   * Set the level at and above which events are never suppressed.
+   *
+   * @param alwaysKeepLevel the level, {@code ERROR} by default
+   */
+  public void setAlwaysKeepLevel(Level alwaysKeepLevel) {
+    this.alwaysKeepLevel = alwaysKeepLevel;
+  }
+
+  public boolean isKeepSampledTraces() {
+    return this.keepSampledTraces;
+  }
+
+  /**
+   * Set whether events logged within a sampled trace, as flagged by the {@value
+   * StackdriverTraceConstants#MDC_FIELD_SPAN_EXPORT} MDC field, are never suppressed.
+   *
+   * @param keepSampledTraces whether to keep events of sampled traces; {@code true} by default
+   */
+  public void setKeepSampledTraces(boolean keepSampledTraces) {
+    this.keepSampledTraces = keepSampledTraces;
+  }
+
+  public long getSummaryIntervalMillis() {
+    return this.summaryIntervalMillis;
+  }
+
+  /**
+   * Set how often the number of suppressed events is reported. Reports are emitted by the next
+   * logging call after the interval has elapsed.
+   *
+   * @param summaryIntervalMillis the interval in milliseconds
+   */
+  public void setSummaryIntervalMillis(long summaryIntervalMillis) {
+    this.summaryIntervalMillis = summaryIntervalMillis;
+  }
+
+  public int getMaxTrackedTemplates() {
+    return this.maxTrackedTemplates;
+  }
+
+  /**
+   * Set the maximum number of message templates with their own bucket. Templates seen beyond this
+   * limit are only subject to the per-logger limit.
+   *
+   * @param maxTrackedTemplates the maximum number of tracked templates
+   */
+  public void setMaxTrackedTemplates(int maxTrackedTemplates) {
+    this.maxTrackedTemplates = maxTrackedTemplates;
+  }
+
+  /**
+   * Get the total number of events suppressed since this filter was started.
+   *
+   * @return the number of suppressed events
+   */
+  public long getSuppressedCount() {
+    return this.suppressedCount.sum();
+  }
+
+  void setNanoClock(LongSupplier nanoClock) {
+    this.nanoClock = nanoClock;
+  }
+
+  @Override
+  public void start() {
+    Assert.isTrue(this.loggerRate >= 0, "The logger rate can't be negative.");
+    Assert.isTrue(this.templateRate >= 0, "The template rate can't be negative.");
+    Assert.isTrue(this.loggerBurst > 0, "The logger burst must be positive.");
+    Assert.isTrue(this.templateBurst > 0, "The template burst must be positive.");
+    Assert.isTrue(this.summaryIntervalMillis > 0, "The summary interval must be positive.");
+    Assert.notNull(this.alwaysKeepLevel, "The always-keep level can't be null.");
+    this.summaryIntervalNanos = TimeUnit.MILLISECONDS.toNanos(this.summaryIntervalMillis);
+    this.nextSummaryNanos.set(this.nanoClock.getAsLong() + this.summaryIntervalNanos);
+    super.start();
+  }
+
+  @Override
+  public void stop() {
+    if (isStarted()) {
+      super.stop();
+      emitSummaries();
+    }
+  }
+
+  @Override
+  public FilterReply decide(
+      Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+    // isXxxEnabled() probes reach turbo filters without a format and must not consume tokens.
+    if (!isStarted()
+        || format == null
+        || level == null
+        || !level.isGreaterOrEqual(logger.getEffectiveLevel())
+        || SUMMARY_LOGGER_NAME.equals(logger.getName())) {
+      return FilterReply.NEUTRAL;
+    }
+
+    long now = this.nanoClock.getAsLong();
+    long nextSummary = this.nextSummaryNanos.get();
+    if (now - nextSummary >= 0
+        && this.nextSummaryNanos.compareAndSet(nextSummary, now + this.summaryIntervalNanos)) {
+      emitSummaries();
+    }
+
+    if (level.isGreaterOrEqual(this.alwaysKeepLevel)
+        || (this.keepSampledTraces
+            && "true".equals(MDC.get(StackdriverTraceConstants.MDC_FIELD_SPAN_EXPORT)))) {
+      return FilterReply.NEUTRAL;
+    }
+
+    if (this.templateRate > 0) {
+      TokenBucket bucket = getTemplateBucket(logger.getName(), format);
+      if (bucket != null && !bucket.tryAcquire(now)) {
+        this.suppressedCount.increment();
+        return FilterReply.DENY;
+      }
+    }
+    if (this.loggerRate > 0) {
+      TokenBucket bucket = getLoggerBucket(logger.getName());
+      if (!bucket.tryAcquire(now)) {
+        this.suppressedCount.increment();
+        return FilterReply.DENY;
+      }
+    }
+    return FilterReply.NEUTRAL;
+  }
+
+  // On Java 8, computeIfAbsent locks the bin even for present keys, so look up first.
+  private TokenBucket getLoggerBucket(String loggerName) {
+    TokenBucket bucket = this.loggerBuckets.get(loggerName);
+    if (bucket == null) {
+      bucket =
+          this.loggerBuckets.computeIfAbsent(
+              loggerName, name -> new TokenBucket(name, null, this.loggerRate, this.loggerBurst));
+    }
+    return bucket;
+  }
+
+  private TokenBucket getTemplateBucket(String loggerName, String format) {
+    Map<String, TokenBucket> buckets = this.templateBuckets.get(loggerName);
+    if (buckets == null) {
+      buckets = this.templateBuckets.computeIfAbsent(loggerName, name -> new ConcurrentHashMap<>());
+    }
+    TokenBucket bucket = buckets.get(format);
+    if (bucket == null && this.trackedTemplates.get() < this.maxTrackedTemplates) {
+      bucket =
+          buckets.computeIfAbsent(
+              format,
+              key -> {
+                this.trackedTemplates.incrementAndGet();
+                return new TokenBucket(loggerName, key, this.templateRate, this.templateBurst);
+              });
+    }
+    return bucket;
+  }
+
+  private void emitSummaries() {
+    if (!(getContext() instanceof LoggerContext)) {
+      return;
+    }
+    Logger summaryLogger = ((LoggerContext) getContext()).getLogger(SUMMARY_LOGGER_NAME);
+    for (Map<String, TokenBucket> buckets : this.templateBuckets.values()) {
+      reportSuppressed(summaryLogger, buckets);
+    }
+    reportSuppressed(summaryLogger, this.loggerBuckets);
+  }
+
+  private static void reportSuppressed(Logger summaryLogger, Map<String, TokenBucket> buckets) {
+    for (TokenBucket bucket : buckets.values()) {
+      long suppressed = bucket.suppressed.sumThenReset();
+      if (suppressed > 0) {
+        if (bucket.template != null) {
+          summaryLogger.warn(
+              "Suppressed {} log events of logger {} with message template '{}'.",
+              suppressed,
+              bucket.loggerName,
+              bucket.template);
+        } else {
+          summaryLogger.warn(
+              "Suppressed {} log events of logger {}.", suppressed, bucket.loggerName);
+        }
+      }
+    }
+  }
+
+  /**
+   * Token bucket stored as a single theoretical arrival time, so that acquiring a token is one
+   * compare-and-set.
+   */
+  private static final class TokenBucket {
+
+    private final String loggerName;
+
+    private final String template;
+
+    private final long emissionIntervalNanos;
+
+    private final long toleranceNanos;
+
+    private final AtomicLong theoreticalArrivalNanos = new AtomicLong(Long.MIN_VALUE);
+
+    private final LongAdder suppressed = new LongAdder();
+
+    TokenBucket(String loggerName, String template, double rate, int burst) {
+      this.loggerName = loggerName;
+      this.template = template;
+      this.emissionIntervalNanos = Math.max(1L, (long) (NANOS_PER_SECOND / rate));
+      this.toleranceNanos = this.emissionIntervalNanos * burst;
+    }
+
+    boolean tryAcquire(long now) {
+      while (true) {
+        long tat = this.theoreticalArrivalNanos.get();
+        long start = tat == Long.MIN_VALUE || now - tat > 0 ? now : tat;
+        long next = start + this.emissionIntervalNanos;
+        if (next - now > this.toleranceNanos) {
+          this.suppressed.increment();
+          return false;
+        }
+        if (this.theoreticalArrivalNanos.compareAndSet(tat, next)) {
+          return true;
+        }
+      }
+    }
+  }
+}
@@ -17,8 +17,12 @@
 package com.google.cloud.spring.logging;
 
 import com.google.auth.Credentials;
+import com.google.cloud.logging.LogEntry;
 import com.google.cloud.logging.LoggingOptions;
+import com.google.cloud.logging.Severity;
 import com.google.cloud.spring.core.UserAgentHeaderProvider;
+import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * A Google Cloud Java Logback {@link com.google.cloud.logging.logback.LoggingAppender} wrapper that
@@ -29,6 +33,117 @@ import com.google.cloud.spring.core.UserAgentHeaderProvider;
 public class LoggingAppender extends com.google.cloud.logging.logback.LoggingAppender {
   private LoggingOptions loggingOptions;
 
+  private boolean batching;
+
+  private int batchBufferSize = 8192;
+
+  private int batchFlushSize = 500;
+
+  private long batchFlushIntervalMillis = 1000;
+
+  private Severity batchBlockingSeverity = Severity.ERROR;
+
+  private long batchMaxBlockMillis = 1000;
+
+  private volatile BatchingLogWriter batchingLogWriter;
+
+  /**
+   * Check if log entries are buffered and written in batches.
+   *
+   * @return true if batching is enabled
+   * @since 3.3.0
+   */
+  public boolean isBatching() {
+    return this.batching;
+  }
+
+  /**
+   * Set whether log entries are buffered in a bounded buffer and written in batches from a
+   * background thread, instead of being handed to the client library one by one. When the buffer
+   * is full, entries are dropped according to their severity, so that a slow Logging API neither
+   * blocks the application nor grows memory without limit.
+   *
+   * @param batching true to enable batching
+   * @since 3.3.0
+   */
+  public void setBatching(boolean batching) {
+    this.batching = batching;
+  }
+
+  /**
+   * Set the maximum number of buffered log entries, rounded up to a power of two.
+   *
+   * @param batchBufferSize the buffer size, defaults to 8192
+   * @since 3.3.0
+   */
+  public void setBatchBufferSize(int batchBufferSize) {
+    this.batchBufferSize = batchBufferSize;
+  }
+
+  /**
+   * Set the number of buffered log entries that triggers a write.
+   *
+   * @param batchFlushSize the maximum batch size, defaults to 500
+   * @since 3.3.0
+   */
+  public void setBatchFlushSize(int batchFlushSize) {
+    this.batchFlushSize = batchFlushSize;
+  }
+
+  /**
+   * Set how long log entries are buffered before they are written, even if the batch isn't full.
+   *
+   * @param batchFlushIntervalMillis the flush interval in milliseconds, defaults to 1000
+   * @since 3.3.0
+   */
+  public void setBatchFlushIntervalMillis(long batchFlushIntervalMillis) {
+    this.batchFlushIntervalMillis = batchFlushIntervalMillis;
+  }
+
+  /**
+   * Set the lowest severity of log entries that wait for free space when the buffer is full. Less
+   * severe entries are dropped right away.
+   *
+   * @param batchBlockingSeverity the blocking severity, defaults to {@code ERROR}
+   * @since 3.3.0
+   */
+  public void setBatchBlockingSeverity(Severity batchBlockingSeverity) {
+    this.batchBlockingSeverity = batchBlockingSeverity;
+  }
+
+  /**
+   * Set how long severe log entries wait for free space before they are dropped. Zero drops all
+   * entries as soon as the buffer is full.
+   *
+   * @param batchMaxBlockMillis the maximum wait in milliseconds, defaults to 1000
+   * @since 3.3.0
+   */
+  public void setBatchMaxBlockMillis(long batchMaxBlockMillis) {
+    this.batchMaxBlockMillis = batchMaxBlockMillis;
+  }
+
+  /**
+   * Get the number of log entries dropped because the buffer was full or their batch failed.
+   *
+   * @return the number of dropped entries, 0 if batching is disabled
+   * @since 3.3.0
+   */
+  public long getDroppedEntryCount() {
+    BatchingLogWriter writer = this.batchingLogWriter;
+    return writer != null ? writer.getDroppedCount() : 0;
+  }
+
+  /**
+   * Get the number of log entries written in batches.
+   *
+   * @return the number of written entries, 0 if batching is disabled
+   * @since 3.3.0
+   */
+  public long getFlushedEntryCount() {
+    BatchingLogWriter writer = this.batchingLogWriter;
+    return writer != null ? writer.getFlushedCount() : 0;
+  }
+
   /**
    * Wraps {@link com.google.cloud.logging.logback.LoggingAppender#getLoggingOptions()} to add
    * {@link UserAgentHeaderProvider} configuration, so that usage can be properly attributed to
@@ -49,9 +164,30 @@ public class LoggingAppender extends com.google.cloud.logging.logback.LoggingApp
       // set User-Agent
       loggingOptionsBuilder.setHeaderProvider(new UserAgentHeaderProvider(this.getClass()));
 
+      if (this.batching) {
+        loggingOptionsBuilder.setServiceFactory(
+            options ->
+                BatchingLogging.create(
+                    new LoggingOptions.DefaultLoggingFactory().create(options),
+                    this::createBatchingLogWriter));
+      }
+
       this.loggingOptions = loggingOptionsBuilder.build();
     }
 
     return this.loggingOptions;
   }
+
+  private BatchingLogWriter createBatchingLogWriter(Consumer<List<LogEntry>> batchWriter) {
+    this.batchingLogWriter =
+        new BatchingLogWriter(
+            this.batchBufferSize,
+            this.batchFlushSize,
+            this.batchFlushIntervalMillis,
+            this.batchBlockingSeverity,
+            this.batchMaxBlockMillis,
+            batchWriter,
+            ex -> addError("Failed to write a batch of log entries to Cloud Logging.", ex));
+    return this.batchingLogWriter;
+  }
 }
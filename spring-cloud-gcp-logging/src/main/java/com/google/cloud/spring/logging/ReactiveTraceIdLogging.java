@@ -0,0 +1,90 @@
+/*
+ * Copyright 2022-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spring.logging;
+
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import org.springframework.lang.Nullable;
+import reactor.core.publisher.Signal;
+import reactor.util.context.ContextView;
+
+/**
+ * Helpers for correlating logs with traces in reactive applications, where thread-locals such as
+ * the MDC don't follow a request from thread to thread. The trace ID of a request lives in the
+ * Reactor context instead, as a {@link TraceIdMarker} to pass to the SLF4J logging methods.
+ *
+ * <pre>{@code
+ * return service.findOrders(customerId)
+ *     .doOnEach(ReactiveTraceIdLogging.onNext(
+ *         (marker, order) -> LOGGER.info(marker, "Found order {}", order.getId())));
+ * }</pre>
+ *
+ * @since 3.3.0
+ * @see TraceIdLoggingWebFilter
+ */
+public final class ReactiveTraceIdLogging {
+
+  /** The Reactor context key of the {@link TraceIdMarker} of the current request. */
+  public static final Class<TraceIdMarker> CONTEXT_KEY = TraceIdMarker.class;
+
+  private ReactiveTraceIdLogging() {}
+
+  /**
+   * Get the trace ID marker stored in a Reactor context.
+   *
+   * @param context the Reactor context, e.g., from {@code Mono.deferContextual}
+   * @return the trace ID marker, or {@code null} if the context has none
+   */
+  @Nullable
+  public static TraceIdMarker marker(ContextView context) {
+    return context.getOrDefault(CONTEXT_KEY, null);
+  }
+
+  /**
+   * Create a {@code doOnEach} callback that runs a logging statement for every element, with the
+   * trace ID marker of the subscriber's context.
+   *
+   * @param logStatement the logging statement, receiving the marker, possibly {@code null}, and
+   *     the element
+   * @param <T> the element type
+   * @return a signal consumer for {@code doOnEach}
+   */
+  public static <T> Consumer<Signal<T>> onNext(BiConsumer<TraceIdMarker, T> logStatement) {
+    return signal -> {
+      if (signal.isOnNext()) {
+        logStatement.accept(marker(signal.getContextView()), signal.get());
+      }
+    };
+  }
+
+  /**
+   * Create a {@code doOnEach} callback that runs a logging statement when the sequence fails, with
+   * the trace ID marker of the subscriber's context.
+   *
+   * @param logStatement the logging statement, receiving the marker, possibly {@code null}, and
+   *     the error
+   * @param <T> the element type
+   * @return a signal consumer for {@code doOnEach}
+   */
+  public static <T> Consumer<Signal<T>> onError(BiConsumer<TraceIdMarker, Throwable> logStatement) {
+    return signal -> {
+      if (signal.isOnError()) {
+        logStatement.accept(marker(signal.getContextView()), signal.getThrowable());
+      }
+    };
+  }
+}
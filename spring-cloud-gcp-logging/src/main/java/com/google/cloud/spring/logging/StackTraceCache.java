@@ -0,0 +1,199 @@
+/*
+ * Copyright 2022-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spring.logging;
+
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.StackTraceElementProxy;
+import ch.qos.logback.core.CoreConstants;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+import org.springframework.util.Assert;
+
+/**
+ * Bounded, lock-free cache of rendered stack traces, keyed by a fingerprint of the exception
+ * classes and stack frames of a throwable and its causes.
+ *
+ * <p>A cached rendering is reused only if the exception messages match as well, so that the output
+ * is the same as rendering it again. If a deduplication window is set, a throwable whose full stack
+ * trace was emitted within the window is rendered as a one-line reference to that fingerprint
+ * instead.
+ */
+final class StackTraceCache {
+
+  /** Bounds the walk over causes and suppressed exceptions. */
+  private static final int MAX_THROWABLES = 64;
+
+  private static final long FINGERPRINT_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+  /** Direct-mapped slots; a new fingerprint simply replaces the one in its slot. */
+  private final AtomicReferenceArray<Entry> slots;
+
+  private final int mask;
+
+  private final long dedupWindowNanos;
+
+  StackTraceCache(int size, long dedupWindowMillis) {
+    Assert.isTrue(size > 0, "The stack trace cache size must be positive.");
+    int capacity = Integer.highestOneBit(Math.max(1, size - 1)) << 1;
+    this.slots = new AtomicReferenceArray<>(capacity);
+    this.mask = capacity - 1;
+    this.dedupWindowNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, dedupWindowMillis));
+  }
+
+  /**
+   * Render the stack trace of a throwable, reusing a cached rendering when possible.
+   *
+   * @param proxy the throwable
+   * @param renderer renders the full stack trace on a cache miss
+   * @return the rendered stack trace, or a reference to a recently emitted identical one
+   */
+  String render(IThrowableProxy proxy, Supplier<String> renderer) {
+    List<IThrowableProxy> throwables = flatten(proxy);
+    long fingerprint = fingerprint(throwables);
+    int index = (int) (fingerprint ^ (fingerprint >>> 32)) & this.mask;
+    long now = System.nanoTime();
+
+    Entry entry = this.slots.get(index);
+    if (entry != null && entry.fingerprint == fingerprint) {
+      if (this.dedupWindowNanos > 0) {
+        if (now - entry.lastEmittedNanos < this.dedupWindowNanos) {
+          return reference(proxy, fingerprint);
+        }
+        entry.lastEmittedNanos = now;
+      }
+      if (entry.messagesMatch(throwables)) {
+        return entry.rendered;
+      }
+    }
+
+    String rendered = renderer.get();
+    if (this.dedupWindowNanos > 0 && !rendered.isEmpty()) {
+      rendered +=
+          "\t[stack trace fingerprint " + toHex(fingerprint) + "]" + CoreConstants.LINE_SEPARATOR;
+    }
+    this.slots.set(index, new Entry(fingerprint, messages(throwables), rendered, now));
+    return rendered;
+  }
+
+  private String reference(IThrowableProxy proxy, long fingerprint) {
+    StringBuilder reference = new StringBuilder(proxy.getClassName());
+    if (proxy.getMessage() != null) {
+      reference.append(": ").append(proxy.getMessage());
+    }
+    return reference
+        .append(CoreConstants.LINE_SEPARATOR)
+        .append("\t... stack trace identical to one logged within the last ")
+        .append(TimeUnit.NANOSECONDS.toMillis(this.dedupWindowNanos))
+        .append(" ms [stack trace fingerprint ")
+        .append(toHex(fingerprint))
+        .append("]")
+        .append(CoreConstants.LINE_SEPARATOR)
+        .toString();
+  }
+
+  static long fingerprint(IThrowableProxy proxy) {
+    return fingerprint(flatten(proxy));
+  }
+
+  private static long fingerprint(List<IThrowableProxy> throwables) {
+    long hash = 1;
+    for (IThrowableProxy throwable : throwables) {
+      hash = mix(hash, throwable.getClassName().hashCode());
+      hash = mix(hash, throwable.getCommonFrames());
+      StackTraceElementProxy[] frames = throwable.getStackTraceElementProxyArray();
+      hash = mix(hash, frames != null ? frames.length : -1);
+      if (frames != null) {
+        for (StackTraceElementProxy frame : frames) {
+          hash = mix(hash, frame.getStackTraceElement().hashCode());
+        }
+      }
+    }
+    return hash;
+  }
+
+  private static long mix(long hash, int value) {
+    return (hash ^ value) * FINGERPRINT_MULTIPLIER;
+  }
+
+  private static String[] messages(List<IThrowableProxy> throwables) {
+    String[] messages = new String[throwables.size()];
+    for (int i = 0; i < messages.length; i++) {
+      messages[i] = throwables.get(i).getMessage();
+    }
+    return messages;
+  }
+
+  /** Lists a throwable, its suppressed exceptions and its causes, depth-first. */
+  private static List<IThrowableProxy> flatten(IThrowableProxy proxy) {
+    List<IThrowableProxy> throwables = new ArrayList<>();
+    addThrowables(proxy, throwables);
+    return throwables;
+  }
+
+  private static void addThrowables(IThrowableProxy proxy, List<IThrowableProxy> throwables) {
+    if (proxy == null || throwables.size() >= MAX_THROWABLES) {
+      return;
+    }
+    throwables.add(proxy);
+    IThrowableProxy[] suppressed = proxy.getSuppressed();
+    if (suppressed != null) {
+      for (IThrowableProxy suppressedProxy : suppressed) {
+        addThrowables(suppressedProxy, throwables);
+      }
+    }
+    addThrowables(proxy.getCause(), throwables);
+  }
+
+  private static String toHex(long fingerprint) {
+    return String.format("%016x", fingerprint);
+  }
+
+  private static final class Entry {
+
+    private final long fingerprint;
+
+    private final String[] messages;
+
+    private final String rendered;
+
+    /** Updated without synchronization; a lost update only repeats a full stack trace. */
+    private volatile long lastEmittedNanos;
+
+    Entry(long fingerprint, String[] messages, String rendered, long lastEmittedNanos) {
+      this.fingerprint = fingerprint;
+      this.messages = messages;
+      this.rendered = rendered;
+      this.lastEmittedNanos = lastEmittedNanos;
+    }
+
+    boolean messagesMatch(List<IThrowableProxy> throwables) {
+      if (throwables.size() != this.messages.length) {
+        return false;
+      }
+      for (int i = 0; i < this.messages.length; i++) {
+        if (!Objects.equals(this.messages[i], throwables.get(i).getMessage())) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+}
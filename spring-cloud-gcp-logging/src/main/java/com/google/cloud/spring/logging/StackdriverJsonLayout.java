@@ -20,6 +20,7 @@ import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.spi.ILoggingEvent;
 import ch.qos.logback.classic.spi.IThrowableProxy;
 import ch.qos.logback.contrib.json.classic.JsonLayout;
+import ch.qos.logback.core.CoreConstants;
 import ch.qos.logback.core.util.Loader;
 import com.google.cloud.logging.Severity;
 import com.google.cloud.spring.core.DefaultGcpProjectIdProvider;
@@ -45,6 +46,46 @@ import org.springframework.util.StringUtils;
  */
 public class StackdriverJsonLayout extends JsonLayout {
 
+  /** Buffers retained between events are capped, so that one huge event doesn't pin memory. */
+  private static final int MAX_RETAINED_BUFFER_CAPACITY = 16 * 1024;
+
+  private static final ThreadLocal<StringBuilder> STREAMING_BUFFER =
+      ThreadLocal.withInitial(() -> new StringBuilder(1024));
+
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+  // The fixed keys need no escaping, so their quoted form is built once.
+  private static final String TIMESTAMP_SECONDS_KEY =
+      "\"" + StackdriverTraceConstants.TIMESTAMP_SECONDS_ATTRIBUTE + "\":";
+
+  private static final String TIMESTAMP_NANOS_KEY =
+      "\"" + StackdriverTraceConstants.TIMESTAMP_NANOS_ATTRIBUTE + "\":";
+
+  private static final String SEVERITY_KEY =
+      "\"" + StackdriverTraceConstants.SEVERITY_ATTRIBUTE + "\":";
+
+  private static final String THREAD_KEY = "\"" + JsonLayout.THREAD_ATTR_NAME + "\":";
+
+  private static final String LOGGER_KEY = "\"" + JsonLayout.LOGGER_ATTR_NAME + "\":";
+
+  private static final String FORMATTED_MESSAGE_KEY =
+      "\"" + JsonLayout.FORMATTED_MESSAGE_ATTR_NAME + "\":";
+
+  private static final String MESSAGE_KEY = "\"" + JsonLayout.MESSAGE_ATTR_NAME + "\":";
+
+  private static final String CONTEXT_KEY = "\"" + JsonLayout.CONTEXT_ATTR_NAME + "\":";
+
+  private static final String EXCEPTION_KEY = "\"" + JsonLayout.EXCEPTION_ATTR_NAME + "\":";
+
+  private static final String TRACE_ID_KEY =
+      "\"" + StackdriverTraceConstants.TRACE_ID_ATTRIBUTE + "\":";
+
+  private static final String SPAN_ID_KEY =
+      "\"" + StackdriverTraceConstants.SPAN_ID_ATTRIBUTE + "\":";
+
+  private static final String SERVICE_CONTEXT_KEY =
+      "\"" + StackdriverTraceConstants.SERVICE_CONTEXT_ATTRIBUTE + "\":";
+
   private static final Map<Level, String> logbackToSeverityMap =
       new MapBuilder<Level, String>()
           .put(Level.TRACE, Severity.DEBUG.name())
@@ -74,6 +115,24 @@ public class StackdriverJsonLayout extends JsonLayout {
 
   private final List<JsonLoggingEventEnhancer> loggingEventEnhancers = new ArrayList<>();
 
+  private boolean streamingEncoding;
+
+  /** MDC fields that are left out by the streaming encoder. */
+  private Set<String> streamingFilteredMdcFields;
+
+  /** Service context and custom JSON, rendered once on start for the streaming encoder. */
+  private String serviceContextJson;
+
+  private Map<String, String> customJsonFragments;
+
+  private int stackTraceCacheSize = 256;
+
+  private long stackTraceDedupWindowMillis;
+
+  private int maxStackTraceLength;
+
+  private StackTraceCache stackTraceCache;
+
   /** creates a layout for a Logback appender compatible to the Stackdriver log format. */
   public StackdriverJsonLayout() {
     this.traceIdMdcField = StackdriverTraceConstants.MDC_FIELD_TRACE_ID;
@@ -220,6 +279,93 @@ public class StackdriverJsonLayout extends JsonLayout {
     this.customJson = gson.fromJson(json, Map.class);
   }
 
+  /**
+   * Check if log entries are written straight to a reusable buffer.
+   *
+   * @return true if the streaming encoder is used
+   * @since 3.3.0
+   */
+  public boolean isStreamingEncoding() {
+    return this.streamingEncoding;
+  }
+
+  /**
+   * Set whether log entries are written straight to a reusable, thread-local buffer instead of
+   * being collected in a map and rendered by the JSON formatter. This avoids most per-event
+   * allocations, but ignores the configured JSON formatter. Layouts with {@link
+   * JsonLoggingEventEnhancer}s, and subclasses, keep using the map-based rendering.
+   *
+   * @param streamingEncoding true to use the streaming encoder
+   * @since 3.3.0
+   */
+  public void setStreamingEncoding(boolean streamingEncoding) {
+    this.streamingEncoding = streamingEncoding;
+  }
+
+  /**
+   * Get the number of rendered stack traces that are cached.
+   *
+   * @return the stack trace cache size
+   * @since 3.3.0
+   */
+  public int getStackTraceCacheSize() {
+    return this.stackTraceCacheSize;
+  }
+
+  /**
+   * Set the number of rendered stack traces that are cached, keyed by the exception classes and
+   * stack frames. A cached rendering is reused for a throwable with the same frames and messages,
+   * which makes repeated exceptions much cheaper to log.
+   *
+   * @param stackTraceCacheSize the cache size; 0 disables caching and deduplication
+   * @since 3.3.0
+   */
+  public void setStackTraceCacheSize(int stackTraceCacheSize) {
+    this.stackTraceCacheSize = stackTraceCacheSize;
+  }
+
+  /**
+   * Get the window within which repeated stack traces are replaced by a reference.
+   *
+   * @return the deduplication window in milliseconds
+   * @since 3.3.0
+   */
+  public long getStackTraceDedupWindowMillis() {
+    return this.stackTraceDedupWindowMillis;
+  }
+
+  /**
+   * Set the window within which a stack trace identical to one already logged is replaced by a
+   * one-line reference to its fingerprint. The exception class and message are still logged.
+   *
+   * @param stackTraceDedupWindowMillis the window in milliseconds; 0 disables deduplication
+   * @since 3.3.0
+   */
+  public void setStackTraceDedupWindowMillis(long stackTraceDedupWindowMillis) {
+    this.stackTraceDedupWindowMillis = stackTraceDedupWindowMillis;
+  }
+
+  /**
+   * Get the maximum length of a stack trace in the log message.
+   *
+   * @return the maximum number of characters
+   * @since 3.3.0
+   */
+  public int getMaxStackTraceLength() {
+    return this.maxStackTraceLength;
+  }
+
+  /**
+   * Set the maximum length of a stack trace in the log message. Longer stack traces are cut at the
+   * last complete line within the limit.
+   *
+   * @param maxStackTraceLength the maximum number of characters; 0 for no limit
+   * @since 3.3.0
+   */
+  public void setMaxStackTraceLength(int maxStackTraceLength) {
+    this.maxStackTraceLength = maxStackTraceLength;
+  }
+
   /**
    * Add additional logging enhancers that implement {@link JsonLoggingEventEnhancer}.
    *
@@ -249,6 +395,57 @@ public class StackdriverJsonLayout extends JsonLayout {
         new HashSet<>(
             Arrays.asList(
                 traceIdMdcField, spanIdMdcField, StackdriverTraceConstants.MDC_FIELD_SPAN_EXPORT));
+
+    // Fields written after the MDC would overwrite MDC entries of the same name in the map.
+    this.streamingFilteredMdcFields = new HashSet<>(this.filteredMdcFields);
+    this.streamingFilteredMdcFields.addAll(
+        Arrays.asList(
+            StackdriverTraceConstants.TIMESTAMP_SECONDS_ATTRIBUTE,
+            StackdriverTraceConstants.TIMESTAMP_NANOS_ATTRIBUTE,
+            StackdriverTraceConstants.SEVERITY_ATTRIBUTE,
+            JsonLayout.THREAD_ATTR_NAME,
+            JsonLayout.LOGGER_ATTR_NAME,
+            JsonLayout.FORMATTED_MESSAGE_ATTR_NAME,
+            JsonLayout.MESSAGE_ATTR_NAME,
+            JsonLayout.CONTEXT_ATTR_NAME,
+            JsonLayout.EXCEPTION_ATTR_NAME,
+            StackdriverTraceConstants.TRACE_ID_ATTRIBUTE,
+            StackdriverTraceConstants.SPAN_ID_ATTRIBUTE,
+            StackdriverTraceConstants.SERVICE_CONTEXT_ATTRIBUTE));
+
+    Gson gson = new Gson();
+    this.serviceContextJson = this.serviceContext != null ? gson.toJson(this.serviceContext) : null;
+    this.customJsonFragments = new LinkedHashMap<>();
+    if (this.customJson != null) {
+      this.customJson.forEach(
+          (key, value) -> this.customJsonFragments.put(key, gson.toJson(value)));
+    }
+
+    this.stackTraceCache =
+        this.stackTraceCacheSize > 0
+            ? new StackTraceCache(this.stackTraceCacheSize, this.stackTraceDedupWindowMillis)
+            : null;
+  }
+
+  @Override
+  public String doLayout(ILoggingEvent event) {
+    if (!this.streamingEncoding
+        || !this.loggingEventEnhancers.isEmpty()
+        || getClass() != StackdriverJsonLayout.class) {
+      return super.doLayout(event);
+    }
+
+    StringBuilder buffer = STREAMING_BUFFER.get();
+    buffer.setLength(0);
+    writeJson(event, buffer);
+    if (this.appendLineSeparator) {
+      buffer.append(CoreConstants.LINE_SEPARATOR);
+    }
+    String json = buffer.toString();
+    if (buffer.capacity() > MAX_RETAINED_BUFFER_CAPACITY) {
+      STREAMING_BUFFER.remove();
+    }
+    return json;
   }
 
   /**
@@ -299,7 +496,7 @@ public class StackdriverJsonLayout extends JsonLayout {
     add(
         StackdriverTraceConstants.SPAN_ID_ATTRIBUTE,
         this.includeSpanId,
-        event.getMDCPropertyMap().get(spanIdMdcField),
+        resolveSpanId(event),
         map);
     if (this.serviceContext != null) {
       map.put(StackdriverTraceConstants.SERVICE_CONTEXT_ATTRIBUTE, this.serviceContext);
@@ -318,6 +515,150 @@ public class StackdriverJsonLayout extends JsonLayout {
     return map;
   }
 
+  /** Streaming counterpart of {@link #toJsonMap(ILoggingEvent)}, with the same field order. */
+  private void writeJson(ILoggingEvent event, StringBuilder json) {
+    json.append('{');
+
+    Map<String, String> mdc = event.getMDCPropertyMap();
+    if (this.includeMDC) {
+      for (Map.Entry<String, String> entry : mdc.entrySet()) {
+        if (!this.streamingFilteredMdcFields.contains(entry.getKey())
+            && entry.getValue() != null) {
+          writeKey(json, entry.getKey());
+          writeStringValue(json, entry.getValue());
+        }
+      }
+    }
+    if (this.includeTimestamp) {
+      appendKey(json, TIMESTAMP_SECONDS_KEY);
+      json.append(TimeUnit.MILLISECONDS.toSeconds(event.getTimeStamp()));
+      appendKey(json, TIMESTAMP_NANOS_KEY);
+      json.append(TimeUnit.MILLISECONDS.toNanos(event.getTimeStamp() % 1_000));
+    }
+    if (this.includeLevel) {
+      writeStringField(
+          json,
+          SEVERITY_KEY,
+          logbackToSeverityMap.getOrDefault(event.getLevel(), Severity.DEFAULT.name()));
+    }
+    if (this.includeThreadName) {
+      writeStringField(json, THREAD_KEY, event.getThreadName());
+    }
+    if (this.includeLoggerName) {
+      writeStringField(json, LOGGER_KEY, event.getLoggerName());
+    }
+    if (this.includeFormattedMessage) {
+      appendKey(json, FORMATTED_MESSAGE_KEY);
+      json.append('"');
+      appendEscaped(json, String.valueOf(event.getFormattedMessage()));
+      if (this.includeExceptionInMessage && event.getThrowableProxy() != null) {
+        appendEscaped(json, formatThrowable(event));
+      }
+      json.append('"');
+    }
+    if (this.includeMessage) {
+      writeStringField(json, MESSAGE_KEY, event.getMessage());
+    }
+    if (this.includeContextName) {
+      writeStringField(json, CONTEXT_KEY, event.getLoggerContextVO().getName());
+    }
+    if (this.includeException && event.getThrowableProxy() != null) {
+      String stackTrace = getThrowableProxyConverter().convert(event);
+      if (StringUtils.hasLength(stackTrace)) {
+        writeStringField(json, EXCEPTION_KEY, stackTrace);
+      }
+    }
+    if (this.includeTraceId) {
+      writeStringField(json, TRACE_ID_KEY, resolveTraceId(event));
+    }
+    if (this.includeSpanId) {
+      writeStringField(json, SPAN_ID_KEY, resolveSpanId(event));
+    }
+    if (this.serviceContextJson != null) {
+      appendKey(json, SERVICE_CONTEXT_KEY);
+      json.append(this.serviceContextJson);
+    }
+    for (Map.Entry<String, String> entry : this.customJsonFragments.entrySet()) {
+      String key = entry.getKey();
+      // Custom JSON never overrides other fields.
+      if (this.streamingFilteredMdcFields.contains(key)
+          || (this.includeMDC && mdc.containsKey(key))) {
+        continue;
+      }
+      writeKey(json, key);
+      json.append(entry.getValue());
+    }
+
+    json.append('}');
+  }
+
+  /** Write a string field, skipping null values like {@code JsonLayoutBase#add} does. */
+  private static void writeStringField(StringBuilder json, String quotedKey, String value) {
+    if (value == null) {
+      return;
+    }
+    appendKey(json, quotedKey);
+    writeStringValue(json, value);
+  }
+
+  private static void writeStringValue(StringBuilder json, String value) {
+    json.append('"');
+    appendEscaped(json, value);
+    json.append('"');
+  }
+
+  /** Write a key that may need escaping, such as an MDC or custom JSON key. */
+  private static void writeKey(StringBuilder json, String key) {
+    appendSeparator(json);
+    json.append('"');
+    appendEscaped(json, key);
+    json.append("\":");
+  }
+
+  private static void appendKey(StringBuilder json, String quotedKey) {
+    appendSeparator(json);
+    json.append(quotedKey);
+  }
+
+  private static void appendSeparator(StringBuilder json) {
+    if (json.charAt(json.length() - 1) != '{') {
+      json.append(',');
+    }
+  }
+
+  private static void appendEscaped(StringBuilder json, String value) {
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      switch (c) {
+        case '"':
+          json.append("\\\"");
+          break;
+        case '\\':
+          json.append("\\\\");
+          break;
+        case '\n':
+          json.append("\\n");
+          break;
+        case '\r':
+          json.append("\\r");
+          break;
+        case '\t':
+          json.append("\\t");
+          break;
+        default:
+          if (c < 0x20 || c == '\u2028' || c == '\u2029') {
+            json.append("\\u")
+                .append(HEX_DIGITS[(c >> 12) & 0xF])
+                .append(HEX_DIGITS[(c >> 8) & 0xF])
+                .append(HEX_DIGITS[(c >> 4) & 0xF])
+                .append(HEX_DIGITS[c & 0xF]);
+          } else {
+            json.append(c);
+          }
+      }
+    }
+  }
+
   private String formatMessage(ILoggingEvent event) {
     // the formatted message might be null, don't initialize StringBuilder with it, but append it
     // afterwards
@@ -334,10 +675,29 @@ public class StackdriverJsonLayout extends JsonLayout {
   }
 
   private String formatThrowable(ILoggingEvent event) {
-    String stackTrace = getThrowableProxyConverter().convert(event);
+    String stackTrace =
+        this.stackTraceCache != null
+            ? this.stackTraceCache.render(event.getThrowableProxy(), () -> renderThrowable(event))
+            : renderThrowable(event);
     return StringUtils.hasText(stackTrace) ? "\n" + stackTrace : "";
   }
 
+  private String renderThrowable(ILoggingEvent event) {
+    String stackTrace = getThrowableProxyConverter().convert(event);
+    if (this.maxStackTraceLength <= 0 || stackTrace.length() <= this.maxStackTraceLength) {
+      return stackTrace;
+    }
+    int cut = stackTrace.lastIndexOf('\n', this.maxStackTraceLength - 1) + 1;
+    if (cut == 0) {
+      cut = this.maxStackTraceLength;
+    }
+    return stackTrace.substring(0, cut)
+        + "\t... "
+        + (stackTrace.length() - cut)
+        + " characters truncated"
+        + CoreConstants.LINE_SEPARATOR;
+  }
+
   protected String formatTraceId(final String traceId) {
     // Trace IDs are either 64-bit or 128-bit, which is 16-digit hex, or 32-digit hex.
     // If traceId is 64-bit (16-digit hex), then we need to prepend 0's to make a 32-digit hex.
@@ -352,7 +712,17 @@ public class StackdriverJsonLayout extends JsonLayout {
       return;
     }
 
-    String traceId = event.getMDCPropertyMap().get(traceIdMdcField);
+    add(
+        StackdriverTraceConstants.TRACE_ID_ATTRIBUTE,
+        this.includeTraceId,
+        resolveTraceId(event),
+        map);
+  }
+
+  private String resolveTraceId(ILoggingEvent event) {
+    TraceIdMarker marker = TraceIdMarker.find(event.getMarker());
+    String traceId =
+        marker != null ? marker.getTraceId() : event.getMDCPropertyMap().get(traceIdMdcField);
     if (traceId == null) {
       traceId = TraceIdLoggingEnhancer.getCurrentTraceId();
     }
@@ -362,7 +732,13 @@ public class StackdriverJsonLayout extends JsonLayout {
       traceId =
           StackdriverTraceConstants.composeFullTraceName(this.projectId, formatTraceId(traceId));
     }
+    return traceId;
+  }
 
-    add(StackdriverTraceConstants.TRACE_ID_ATTRIBUTE, this.includeTraceId, traceId, map);
+  private String resolveSpanId(ILoggingEvent event) {
+    TraceIdMarker marker = TraceIdMarker.find(event.getMarker());
+    return marker != null
+        ? marker.getSpanId()
+        : event.getMDCPropertyMap().get(this.spanIdMdcField);
   }
 }
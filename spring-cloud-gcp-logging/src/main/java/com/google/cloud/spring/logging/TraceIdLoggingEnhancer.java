@@ -96,8 +96,13 @@ public class TraceIdLoggingEnhancer implements LoggingEnhancer, LoggingEventEnha
     // This requires a call to the org.slf4j package.
     String traceId = null;
     String spanId = null;
-    if (e != null) {
-      // try the logging event MDC first, so it works with AsyncAppender
+    TraceIdMarker marker = e != null ? TraceIdMarker.find(e.getMarker()) : null;
+    if (marker != null) {
+      // an explicit marker wins, e.g., from the Reactor context of a WebFlux request
+      traceId = marker.getTraceId();
+      spanId = marker.getSpanId();
+    } else if (e != null) {
+      // try the logging event MDC next, so it works with AsyncAppender
       traceId = e.getMDCPropertyMap().get(StackdriverTraceConstants.MDC_FIELD_TRACE_ID);
       spanId = e.getMDCPropertyMap().get(StackdriverTraceConstants.MDC_FIELD_SPAN_ID);
     }
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2022-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spring.logging;
+
+import com.google.cloud.spring.logging.extractors.CloudTraceIdExtractor;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.lang.Nullable;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+/**
+ * {@link WebFilter} that extracts the request trace and span IDs from the "x-cloud-trace-context"
+ * HTTP header and stores them as a {@link TraceIdMarker} in the Reactor context of the request.
+ *
+ * <p>Unlike {@link TraceIdLoggingWebMvcInterceptor}, this keeps no per-thread state, so the IDs
+ * stay correct when a request hops between event loop threads. Use {@link ReactiveTraceIdLogging}
+ * to pass the marker to logging statements.
+ *
+ * @since 3.3.0
+ */
+public class TraceIdLoggingWebFilter implements WebFilter {
+
+  @Override
+  public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+    TraceIdMarker marker = extractTraceIdMarker(exchange.getRequest());
+    if (marker == null) {
+      return chain.filter(exchange);
+    }
+    return chain
+        .filter(exchange)
+        .contextWrite(Context.of(ReactiveTraceIdLogging.CONTEXT_KEY, marker));
+  }
+
+  /**
+   * Extract the trace and span IDs of a request. The header has the {@code
+   * TRACE_ID/SPAN_ID;o=TRACE_TRUE} format, where the span ID is decimal; it is converted to the
+   * 16-digit hexadecimal format that Cloud Logging expects.
+   *
+   * @param request the HTTP request
+   * @return the trace ID marker, or {@code null} if the request isn't traced
+   */
+  @Nullable
+  protected TraceIdMarker extractTraceIdMarker(ServerHttpRequest request) {
+    String header = request.getHeaders().getFirst(CloudTraceIdExtractor.X_CLOUD_TRACE_HEADER);
+    if (!StringUtils.hasText(header)) {
+      return null;
+    }
+
+    int slash = header.indexOf('/');
+    String traceId = slash >= 0 ? header.substring(0, slash) : header;
+    if (!StringUtils.hasText(traceId)) {
+      return null;
+    }
+
+    String spanId = null;
+    if (slash >= 0) {
+      int semicolon = header.indexOf(';', slash);
+      String decimalSpanId =
+          semicolon >= 0 ? header.substring(slash + 1, semicolon) : header.substring(slash + 1);
+      try {
+        spanId = String.format("%016x", Long.parseUnsignedLong(decimalSpanId));
+      } catch (NumberFormatException ex) {
+        // Keep the trace ID; a malformed span ID shouldn't lose the correlation.
+      }
+    }
+    return new TraceIdMarker(traceId, spanId);
+  }
+}
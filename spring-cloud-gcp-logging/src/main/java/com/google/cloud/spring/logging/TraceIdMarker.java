@@ -0,0 +1,156 @@
+/*
+ * Copyright 2022-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spring.logging;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.slf4j.Marker;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * SLF4J {@link Marker} that carries the trace and span IDs of a log statement, so that they reach
+ * the log entry without any thread-local state. {@link StackdriverJsonLayout} and {@link
+ * TraceIdLoggingEnhancer} prefer these IDs over the ones found in the MDC.
+ *
+ * <p>In reactive applications, {@link TraceIdLoggingWebFilter} stores the marker of each request
+ * in the Reactor context, where {@link ReactiveTraceIdLogging} retrieves it.
+ *
+ * @since 3.3.0
+ */
+public final class TraceIdMarker implements Marker {
+
+  private static final long serialVersionUID = 1L;
+
+  /** The name of every trace ID marker. */
+  public static final String NAME = "GCP_TRACE_ID";
+
+  private final String traceId;
+
+  private final String spanId;
+
+  private final List<Marker> references = new CopyOnWriteArrayList<>();
+
+  /**
+   * Create a marker for the given trace and span.
+   *
+   * @param traceId the trace ID
+   * @param spanId the span ID, or {@code null} if unknown
+   */
+  public TraceIdMarker(String traceId, @Nullable String spanId) {
+    Assert.hasText(traceId, "The trace ID can't be null or empty.");
+    this.traceId = traceId;
+    this.spanId = spanId;
+  }
+
+  public String getTraceId() {
+    return this.traceId;
+  }
+
+  @Nullable
+  public String getSpanId() {
+    return this.spanId;
+  }
+
+  /**
+   * Find the trace ID marker among a marker and its references.
+   *
+   * @param marker the marker of a log statement, possibly {@code null}
+   * @return the trace ID marker, or {@code null} if there is none
+   */
+  @Nullable
+  public static TraceIdMarker find(@Nullable Marker marker) {
+    if (marker == null || marker instanceof TraceIdMarker) {
+      return (TraceIdMarker) marker;
+    }
+    if (marker.hasReferences()) {
+      for (Iterator<Marker> it = marker.iterator(); it.hasNext(); ) {
+        TraceIdMarker found = find(it.next());
+        if (found != null) {
+          return found;
+        }
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public void add(Marker reference) {
+    Assert.notNull(reference, "A null value cannot be added to a Marker as reference.");
+    if (!contains(reference) && !reference.contains(this)) {
+      this.references.add(reference);
+    }
+  }
+
+  @Override
+  public boolean remove(Marker reference) {
+    return this.references.remove(reference);
+  }
+
+  @Override
+  @Deprecated
+  public boolean hasChildren() {
+    return hasReferences();
+  }
+
+  @Override
+  public boolean hasReferences() {
+    return !this.references.isEmpty();
+  }
+
+  @Override
+  public Iterator<Marker> iterator() {
+    return this.references.iterator();
+  }
+
+  @Override
+  public boolean contains(Marker other) {
+    if (this.equals(other)) {
+      return true;
+    }
+    for (Marker reference : this.references) {
+      if (reference.contains(other)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public boolean contains(String name) {
+    if (NAME.equals(name)) {
+      return true;
+    }
+    for (Marker reference : this.references) {
+      if (reference.contains(name)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public String toString() {
+    return NAME + "[" + this.traceId + (this.spanId != null ? "/" + this.spanId : "") + "]";
+  }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2022-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spring.logging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import com.google.cloud.logging.LogEntry;
+import com.google.cloud.logging.Logging;
+import com.google.cloud.logging.Logging.WriteOption;
+import com.google.cloud.logging.Payload.StringPayload;
+import com.google.cloud.logging.Severity;
+import com.google.cloud.logging.Synchronicity;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/** Tests for {@link BatchingLogWriter} and {@link BatchingLogging}. */
+class BatchingLogWriterTests {
+
+  /** Stands in for the Logging API by recording the written batches. */
+  private final List<List<LogEntry>> batches = new CopyOnWriteArrayList<>();
+
+  private BatchingLogWriter writer;
+
+  @AfterEach
+  void closeWriter() {
+    if (this.writer != null) {
+      this.writer.close();
+    }
+  }
+
+  @Test
+  void testWritesFullBatches() {
+    this.writer = createWriter(16, 2, 0, this.batches::add);
+
+    this.writer.offer(entry(Severity.INFO));
+    this.writer.offer(entry(Severity.INFO));
+
+    await().atMost(Duration.ofSeconds(5)).until(() -> this.batches.size() == 1);
+    assertThat(this.batches.get(0)).hasSize(2);
+    assertThat(this.writer.getFlushedCount()).isEqualTo(2);
+  }
+
+  @Test
+  void testFlushWritesPartialBatch() {
+    this.writer = createWriter(16, 10, 0, this.batches::add);
+    LogEntry entry = entry(Severity.INFO);
+
+    this.writer.offer(entry);
+    this.writer.flush();
+
+    assertThat(this.batches).containsExactly(Collections.singletonList(entry));
+  }
+
+  @Test
+  void testDropsEntriesWhenFull() throws InterruptedException {
+    CountDownLatch writing = new CountDownLatch(1);
+    CountDownLatch slowApi = new CountDownLatch(1);
+    this.writer =
+        createWriter(
+            2,
+            1,
+            50,
+            batch -> {
+              writing.countDown();
+              try {
+                slowApi.await();
+              } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+              }
+              this.batches.add(batch);
+            });
+
+    assertThat(this.writer.offer(entry(Severity.INFO))).isTrue();
+    writing.await();
+    assertThat(this.writer.offer(entry(Severity.INFO))).isTrue();
+    assertThat(this.writer.offer(entry(Severity.INFO))).isTrue();
+
+    // The buffer is full: less severe entries are dropped right away, severe ones after waiting.
+    assertThat(this.writer.offer(entry(Severity.WARNING))).isFalse();
+    assertThat(this.writer.offer(entry(Severity.ERROR))).isFalse();
+    assertThat(this.writer.getDroppedCount()).isEqualTo(2);
+
+    slowApi.countDown();
+    this.writer.close();
+    assertThat(this.writer.getFlushedCount()).isEqualTo(3);
+  }
+
+  @Test
+  void testFailedBatchesAreCountedAsDropped() {
+    this.writer =
+        createWriter(
+            16,
+            10,
+            0,
+            batch -> {
+              throw new IllegalStateException("Logging API unavailable");
+            });
+
+    this.writer.offer(entry(Severity.INFO));
+    this.writer.flush();
+
+    assertThat(this.writer.getDroppedCount()).isEqualTo(1);
+    assertThat(this.writer.getFlushedCount()).isZero();
+  }
+
+  @Test
+  void testBatchingLoggingWritesBatchesToDelegate() {
+    Logging delegate = mock(Logging.class);
+    WriteOption logName = WriteOption.logName("spring.log");
+    LogEntry first = entry(Severity.INFO);
+    LogEntry second = entry(Severity.WARNING);
+
+    Logging logging =
+        BatchingLogging.create(
+            delegate,
+            batchWriter -> this.writer = createWriter(16, 10, 0, batchWriter));
+    logging.write(Arrays.asList(first, second), logName);
+    logging.flush();
+
+    verify(delegate).setWriteSynchronicity(Synchronicity.SYNC);
+    verify(delegate).write(Arrays.asList(first, second), logName);
+    verify(delegate).flush();
+  }
+
+  private static BatchingLogWriter createWriter(
+      int bufferSize, int flushSize, long maxBlockMillis, Consumer<List<LogEntry>> batchWriter) {
+    return new BatchingLogWriter(
+        bufferSize, flushSize, 60_000, Severity.ERROR, maxBlockMillis, batchWriter, null);
+  }
+
+  private static LogEntry entry(Severity severity) {
+    return LogEntry.newBuilder(StringPayload.of("message")).setSeverity(severity).build();
+  }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2022-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spring.logging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+/** Tests for {@link LogRateLimitingFilter}. */
+class LogRateLimitingFilterTests {
+
+  private final LoggerContext loggerContext = new LoggerContext();
+
+  private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+  private final AtomicLong nanoTime = new AtomicLong();
+
+  private final LogRateLimitingFilter filter = new LogRateLimitingFilter();
+
+  private Logger logger;
+
+  @BeforeEach
+  void setUp() {
+    this.appender.setContext(this.loggerContext);
+    this.appender.start();
+    Logger root = this.loggerContext.getLogger(Logger.ROOT_LOGGER_NAME);
+    root.setLevel(Level.INFO);
+    root.addAppender(this.appender);
+    this.logger = this.loggerContext.getLogger("test");
+
+    this.filter.setContext(this.loggerContext);
+    this.filter.setNanoClock(this.nanoTime::get);
+    this.filter.setLoggerRate(1);
+    this.filter.setLoggerBurst(5);
+    this.filter.setTemplateRate(1);
+    this.filter.setTemplateBurst(2);
+    this.filter.setSummaryIntervalMillis(1000);
+  }
+
+  @AfterEach
+  void tearDown() {
+    MDC.clear();
+    this.loggerContext.stop();
+  }
+
+  @Test
+  void testTemplateLimit() {
+    start();
+
+    for (int i = 0; i < 10; i++) {
+      this.logger.warn("Failed to process {}", i);
+    }
+    this.logger.warn("Another message");
+
+    assertThat(messages())
+        .containsExactly("Failed to process 0", "Failed to process 1", "Another message");
+    assertThat(this.filter.getSuppressedCount()).isEqualTo(8);
+  }
+
+  @Test
+  void testTemplateLimitPerLogger() {
+    start();
+    Logger other = this.loggerContext.getLogger("other");
+
+    for (int i = 0; i < 3; i++) {
+      this.logger.warn("{}", "test " + i);
+      other.warn("{}", "other " + i);
+    }
+
+    assertThat(messages()).containsExactly("test 0", "other 0", "test 1", "other 1");
+
+    this.nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(1));
+    this.logger.info("Next");
+
+    assertThat(summaries())
+        .containsExactlyInAnyOrder(
+            "Suppressed 1 log events of logger test with message template '{}'.",
+            "Suppressed 1 log events of logger other with message template '{}'.");
+  }
+
+  @Test
+  void testLoggerLimit() {
+    this.filter.setTemplateRate(0);
+    start();
+
+    for (int i = 0; i < 10; i++) {
+      this.logger.info("Message {}", i);
+    }
+    this.loggerContext.getLogger("other").info("Other logger");
+
+    assertThat(messages()).hasSize(6).endsWith("Other logger");
+  }
+
+  @Test
+  void testTokensRefill() {
+    start();
+
+    for (int i = 0; i < 3; i++) {
+      this.logger.info("Message");
+    }
+    this.nanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(999));
+    this.logger.info("Message");
+    this.nanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+    this.logger.info("Message");
+
+    assertThat(messages()).hasSize(3);
+  }
+
+  @Test
+  void testErrorsAndSampledTracesAreKept() {
+    start();
+
+    for (int i = 0; i < 10; i++) {
+      this.logger.error("Failed");
+    }
+    MDC.put(StackdriverTraceConstants.MDC_FIELD_SPAN_EXPORT, "true");
+    for (int i = 0; i < 10; i++) {
+      this.logger.info("Traced");
+    }
+
+    assertThat(messages()).hasSize(20);
+    assertThat(this.filter.getSuppressedCount()).isZero();
+  }
+
+  @Test
+  void testDisabledLevelsAreNotCounted() {
+    start();
+
+    for (int i = 0; i < 10; i++) {
+      this.logger.debug("Debug");
+    }
+    this.logger.info("Debug");
+
+    assertThat(messages()).containsExactly("Debug");
+  }
+
+  @Test
+  void testEnabledProbesAreNotCounted() {
+    this.filter.setTemplateRate(0);
+    start();
+
+    for (int i = 0; i < 5; i++) {
+      if (this.logger.isInfoEnabled()) {
+        this.logger.info("Message {}", i);
+      }
+    }
+
+    assertThat(this.logger.isInfoEnabled()).isTrue();
+    assertThat(messages()).hasSize(5);
+    assertThat(this.filter.getSuppressedCount()).isZero();
+  }
+
+  @Test
+  void testSummary() {
+    start();
+
+    for (int i = 0; i < 5; i++) {
+      this.logger.info("Repeated {}", i);
+    }
+    this.nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(1));
+    this.logger.info("Next");
+
+    List<ILoggingEvent> summaries =
+        this.appender.list.stream()
+            .filter(e -> LogRateLimitingFilter.SUMMARY_LOGGER_NAME.equals(e.getLoggerName()))
+            .collect(Collectors.toList());
+    assertThat(summaries).hasSize(1);
+    assertThat(summaries.get(0).getLevel()).isEqualTo(Level.WARN);
+    assertThat(summaries.get(0).getFormattedMessage())
+        .isEqualTo("Suppressed 3 log events of logger test with message template 'Repeated {}'.");
+  }
+
+  private void start() {
+    this.filter.start();
+    this.loggerContext.addTurboFilter(this.filter);
+  }
+
+  private List<String> summaries() {
+    return this.appender.list.stream()
+        .filter(e -> LogRateLimitingFilter.SUMMARY_LOGGER_NAME.equals(e.getLoggerName()))
+        .map(ILoggingEvent::getFormattedMessage)
+        .collect(Collectors.toList());
+  }
+
+  private List<String> messages() {
+    return this.appender.list.stream()
+        .filter(e -> !LogRateLimitingFilter.SUMMARY_LOGGER_NAME.equals(e.getLoggerName()))
+        .map(ILoggingEvent::getFormattedMessage)
+        .collect(Collectors.toList());
+  }
+}
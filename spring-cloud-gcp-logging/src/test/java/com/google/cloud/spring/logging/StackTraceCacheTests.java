@@ -0,0 +1,100 @@
+/*
+ * Copyright 2022-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spring.logging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ch.qos.logback.classic.spi.ThrowableProxy;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+/** Tests for {@link StackTraceCache}. */
+class StackTraceCacheTests {
+
+  private final AtomicInteger renderCount = new AtomicInteger();
+
+  @Test
+  void testRenderingIsReused() {
+    StackTraceCache cache = new StackTraceCache(16, 0);
+
+    ThrowableProxy[] proxies = proxies("boom", "boom", "boom");
+    String[] rendered = new String[proxies.length];
+    for (int i = 0; i < proxies.length; i++) {
+      rendered[i] = cache.render(proxies[i], this::render);
+    }
+
+    assertThat(this.renderCount).hasValue(1);
+    assertThat(rendered).containsOnly("rendered 1");
+  }
+
+  @Test
+  void testDifferentMessageIsRenderedAgain() {
+    StackTraceCache cache = new StackTraceCache(16, 0);
+
+    ThrowableProxy[] proxies = proxies("boom", "bang");
+    cache.render(proxies[0], this::render);
+    String rendered = cache.render(proxies[1], this::render);
+
+    assertThat(this.renderCount).hasValue(2);
+    assertThat(rendered).isEqualTo("rendered 2");
+  }
+
+  @Test
+  void testFingerprint() {
+    ThrowableProxy[] proxies = proxies("boom", "bang");
+    long fingerprint = StackTraceCache.fingerprint(proxies[0]);
+
+    assertThat(StackTraceCache.fingerprint(proxies[1])).isEqualTo(fingerprint);
+    assertThat(StackTraceCache.fingerprint(new ThrowableProxy(new IllegalStateException("boom"))))
+        .isNotEqualTo(fingerprint);
+    assertThat(
+            StackTraceCache.fingerprint(
+                new ThrowableProxy(new IllegalArgumentException("boom", new Exception()))))
+        .isNotEqualTo(
+            StackTraceCache.fingerprint(new ThrowableProxy(new IllegalArgumentException("boom"))));
+  }
+
+  @Test
+  void testDeduplication() {
+    StackTraceCache cache = new StackTraceCache(16, 60_000);
+
+    ThrowableProxy[] proxies = proxies("boom", "bang");
+    String first = cache.render(proxies[0], this::render);
+    String second = cache.render(proxies[1], this::render);
+
+    String fingerprint = String.format("%016x", StackTraceCache.fingerprint(proxies[0]));
+    assertThat(this.renderCount).hasValue(1);
+    assertThat(first).startsWith("rendered 1").contains("fingerprint " + fingerprint);
+    assertThat(second)
+        .startsWith("java.lang.IllegalStateException: bang")
+        .contains("identical to one logged within the last 60000 ms")
+        .contains("fingerprint " + fingerprint);
+  }
+
+  private String render() {
+    return "rendered " + this.renderCount.incrementAndGet();
+  }
+
+  /** Creates the exceptions on the same line, so that they have the same stack frames. */
+  private static ThrowableProxy[] proxies(String... messages) {
+    ThrowableProxy[] proxies = new ThrowableProxy[messages.length];
+    for (int i = 0; i < messages.length; i++) {
+      proxies[i] = new ThrowableProxy(new IllegalStateException(messages[i]));
+    }
+    return proxies;
+  }
+}
@@ -18,14 +18,17 @@ package com.google.cloud.spring.logging;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.LoggerContext;
 import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
 import ch.qos.logback.contrib.json.classic.JsonLayout;
 import ch.qos.logback.core.status.Status;
 import com.google.gson.Gson;
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -258,6 +261,78 @@ class StackdriverJsonLayoutLoggerTests {
         .isPresent();
   }
 
+  @Test
+  void testStreamingEncoding_matchesMapBasedLayout() {
+    LoggerContext lc = (LoggerContext) LoggerFactory.getILoggerFactory();
+    Map<String, String> eventMdc = new HashMap<>();
+    eventMdc.put(StackdriverTraceConstants.MDC_FIELD_TRACE_ID, "1234567890123456");
+    eventMdc.put(StackdriverTraceConstants.MDC_FIELD_SPAN_ID, "span123");
+    eventMdc.put("foo", "b\"a\\r");
+    eventMdc.put("custom-key", "from-mdc");
+    LoggingEvent event =
+        new LoggingEvent(
+            StackdriverJsonLayoutLoggerTests.class.getName(),
+            lc.getLogger("StackdriverJsonLayoutStreamingTests"),
+            Level.ERROR,
+            "quote \" newline \n tab \t control \u0001 unicode \u00e9 {}",
+            new IllegalStateException("boom"),
+            new Object[] {"arg"});
+    event.setMDCPropertyMap(eventMdc);
+
+    StackdriverErrorReportingServiceContext serviceContext =
+        new StackdriverErrorReportingServiceContext();
+    serviceContext.setService("service");
+    serviceContext.setVersion("version");
+
+    String[] rendered = new String[2];
+    for (int i = 0; i < rendered.length; i++) {
+      StackdriverJsonLayout layout = new StackdriverJsonLayout();
+      layout.setContext(lc);
+      layout.setProjectId("test-project");
+      layout.setServiceContext(serviceContext);
+      layout.setCustomJson("{\"custom-key\": \"custom-value\", \"other-key\": [1, 2]}");
+      layout.setIncludeException(true);
+      layout.setStreamingEncoding(i == 1);
+      layout.start();
+      rendered[i] = layout.doLayout(event);
+    }
+
+    assertThat(rendered[1]).endsWith(System.lineSeparator());
+    assertThat((Map<?, ?>) GSON.fromJson(rendered[1], Map.class))
+        .isEqualTo(GSON.fromJson(rendered[0], Map.class))
+        .containsEntry("custom-key", "from-mdc")
+        .containsEntry(
+            StackdriverTraceConstants.TRACE_ID_ATTRIBUTE,
+            "projects/test-project/traces/00000000000000001234567890123456");
+  }
+
+  @Test
+  void testMaxStackTraceLength() {
+    LoggerContext lc = (LoggerContext) LoggerFactory.getILoggerFactory();
+    LoggingEvent event =
+        new LoggingEvent(
+            StackdriverJsonLayoutLoggerTests.class.getName(),
+            lc.getLogger("StackdriverJsonLayoutTruncationTests"),
+            Level.ERROR,
+            "failure",
+            new IllegalStateException("boom"),
+            null);
+
+    StackdriverJsonLayout layout = new StackdriverJsonLayout();
+    layout.setContext(lc);
+    layout.setProjectId("test-project");
+    layout.setMaxStackTraceLength(100);
+    layout.start();
+
+    Map<?, ?> json = GSON.fromJson(layout.doLayout(event), Map.class);
+    String message = (String) json.get(JsonLayout.FORMATTED_MESSAGE_ATTR_NAME);
+    String stackTrace = message.substring("failure\n".length());
+    assertThat(stackTrace)
+        .startsWith("java.lang.IllegalStateException: boom")
+        .containsPattern("\t\\.\\.\\. \\d+ characters truncated");
+    assertThat(stackTrace.substring(0, stackTrace.indexOf("\t..."))).hasSizeLessThanOrEqualTo(100);
+  }
+
   private Map<String, String> getLogMetadata() {
     return GSON.fromJson(new String(logOutput.toByteArray()), Map.class);
   }
@@ -73,6 +73,23 @@ class TraceIdLoggingEnhancerTests {
     assertThat(logEntry.getSpanId()).isEqualTo("sid123");
   }
 
+  @Test
+  void testLoggingEventMarker() {
+    ILoggingEvent mockLoggingEvent = mock(ILoggingEvent.class);
+    Map<String, String> map = new HashMap<>();
+    map.put(StackdriverTraceConstants.MDC_FIELD_TRACE_ID, "tid-event-mdc");
+    when(mockLoggingEvent.getMDCPropertyMap()).thenReturn(map);
+    when(mockLoggingEvent.getMarker()).thenReturn(new TraceIdMarker("tid123", "sid123"));
+
+    LogEntry.Builder logEntryBuilder = LogEntry.newBuilder(null);
+    enhancer.enhanceLogEntry(logEntryBuilder, mockLoggingEvent);
+
+    LogEntry logEntry = logEntryBuilder.build();
+
+    assertThat(logEntry.getTrace()).isEqualTo("projects/gcp-project/traces/tid123");
+    assertThat(logEntry.getSpanId()).isEqualTo("sid123");
+  }
+
   @Test
   void testThreadLocalMdc() {
     LogEntry.Builder logEntryBuilder = LogEntry.newBuilder(null);
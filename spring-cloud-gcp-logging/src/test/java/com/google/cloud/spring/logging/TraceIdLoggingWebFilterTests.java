@@ -0,0 +1,124 @@
+/*
+ * Copyright 2022-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spring.logging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/** Tests the trace id logging web filter. */
+class TraceIdLoggingWebFilterTests {
+
+  private static final String TEST_TRACE_ID = "105445aa7843bc8bf206b120001000";
+
+  private static final String TRACE_ID_HEADER = "X-CLOUD-TRACE-CONTEXT";
+
+  private final TraceIdLoggingWebFilter filter = new TraceIdLoggingWebFilter();
+
+  @Test
+  void testFilterStoresMarkerInContext() {
+    TraceIdMarker marker = filterWithHeader(TEST_TRACE_ID + "/255;o=1");
+
+    assertThat(marker).isNotNull();
+    assertThat(marker.getTraceId()).isEqualTo(TEST_TRACE_ID);
+    assertThat(marker.getSpanId()).isEqualTo("00000000000000ff");
+  }
+
+  @Test
+  void testFilterWithoutSpanId() {
+    TraceIdMarker marker = filterWithHeader(TEST_TRACE_ID);
+
+    assertThat(marker.getTraceId()).isEqualTo(TEST_TRACE_ID);
+    assertThat(marker.getSpanId()).isNull();
+  }
+
+  @Test
+  void testFilterWithUnsignedSpanId() {
+    TraceIdMarker marker = filterWithHeader(TEST_TRACE_ID + "/18446744073709551615");
+
+    assertThat(marker.getSpanId()).isEqualTo("ffffffffffffffff");
+  }
+
+  @Test
+  void testFilterWithMalformedSpanId() {
+    TraceIdMarker marker = filterWithHeader(TEST_TRACE_ID + "/abc;o=1");
+
+    assertThat(marker.getTraceId()).isEqualTo(TEST_TRACE_ID);
+    assertThat(marker.getSpanId()).isNull();
+  }
+
+  @Test
+  void testFilterWithoutHeader() {
+    AtomicReference<TraceIdMarker> captured = new AtomicReference<>();
+    MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/"));
+
+    this.filter.filter(exchange, capturingChain(captured)).block();
+
+    assertThat(captured).hasValue(null);
+  }
+
+  @Test
+  void testOnNextPassesMarker() {
+    AtomicReference<TraceIdMarker> captured = new AtomicReference<>();
+    TraceIdMarker marker = new TraceIdMarker(TEST_TRACE_ID, null);
+
+    Flux.just("a")
+        .doOnEach(ReactiveTraceIdLogging.onNext((m, item) -> captured.set(m)))
+        .contextWrite(ctx -> ctx.put(ReactiveTraceIdLogging.CONTEXT_KEY, marker))
+        .blockLast();
+
+    assertThat(captured).hasValue(marker);
+  }
+
+  @Test
+  void testFindMarkerInReferences() {
+    TraceIdMarker marker = new TraceIdMarker(TEST_TRACE_ID, "00000000000000ff");
+    Marker parent = MarkerFactory.getDetachedMarker("PARENT");
+    parent.add(marker);
+
+    assertThat(TraceIdMarker.find(parent)).isSameAs(marker);
+    assertThat(TraceIdMarker.find(MarkerFactory.getDetachedMarker("OTHER"))).isNull();
+    assertThat(TraceIdMarker.find(null)).isNull();
+  }
+
+  private TraceIdMarker filterWithHeader(String header) {
+    AtomicReference<TraceIdMarker> captured = new AtomicReference<>();
+    MockServerWebExchange exchange =
+        MockServerWebExchange.from(MockServerHttpRequest.get("/").header(TRACE_ID_HEADER, header));
+
+    this.filter.filter(exchange, capturingChain(captured)).block();
+
+    return captured.get();
+  }
+
+  private static WebFilterChain capturingChain(AtomicReference<TraceIdMarker> captured) {
+    return exchange ->
+        Mono.deferContextual(
+            ctx -> {
+              captured.set(ReactiveTraceIdLogging.marker(ctx));
+              return Mono.empty();
+            });
+  }
+}
@@ -18,6 +18,7 @@ package com.google.cloud.spring.stream.binder.pubsub;
 
 import com.google.cloud.spring.pubsub.core.PubSubTemplate;
 import com.google.cloud.spring.pubsub.core.health.HealthTrackerRegistry;
+import com.google.cloud.spring.pubsub.core.metrics.PubSubMetricsRecorder;
 import com.google.cloud.spring.pubsub.integration.PubSubHeaderMapper;
 import com.google.cloud.spring.pubsub.integration.inbound.PubSubInboundChannelAdapter;
 import com.google.cloud.spring.pubsub.integration.inbound.PubSubMessageSource;
@@ -54,6 +55,8 @@ public class PubSubMessageChannelBinder
 
   private HealthTrackerRegistry healthTrackerRegistry;
 
+  private PubSubMetricsRecorder metricsRecorder;
+
   public PubSubMessageChannelBinder(
       String[] headersToEmbed,
       PubSubChannelProvisioner provisioningProvider,
@@ -70,6 +73,10 @@ public class PubSubMessageChannelBinder
     this.healthTrackerRegistry = healthTrackerRegistry;
   }
 
+  public void setMetricsRecorder(PubSubMetricsRecorder metricsRecorder) {
+    this.metricsRecorder = metricsRecorder;
+  }
+
   @Override
   protected MessageHandler createProducerMessageHandler(
       ProducerDestination destination,
@@ -87,6 +94,8 @@ public class PubSubMessageChannelBinder
 
     messageHandler.setBeanFactory(getBeanFactory());
     messageHandler.setSync(producerProperties.getExtension().isSync());
+    messageHandler.setMaxOutstandingPublishes(
+        producerProperties.getExtension().getMaxOutstandingPublishes());
     return messageHandler;
   }
 
@@ -110,10 +119,18 @@ public class PubSubMessageChannelBinder
       adapter.setHealthTrackerRegistry(healthTrackerRegistry);
     }
 
+    if (metricsRecorder != null) {
+      adapter.setMetricsRecorder(metricsRecorder);
+    }
+
     ErrorInfrastructure errorInfrastructure =
         registerErrorInfrastructure(destination, group, properties);
     adapter.setErrorChannel(errorInfrastructure.getErrorChannel());
     adapter.setAckMode(properties.getExtension().getAckMode());
+    if (properties.isBatchMode()) {
+      adapter.setBatchSize(properties.getExtension().getBatchSize());
+      adapter.setBatchTimeout(properties.getExtension().getBatchTimeout());
+    }
     adapter.setBeanFactory(getBeanFactory());
 
     return adapter;
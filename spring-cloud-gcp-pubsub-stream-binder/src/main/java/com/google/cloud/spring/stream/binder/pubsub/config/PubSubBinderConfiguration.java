@@ -19,12 +19,15 @@ package com.google.cloud.spring.stream.binder.pubsub.config;
 import com.google.cloud.spring.pubsub.PubSubAdmin;
 import com.google.cloud.spring.pubsub.core.PubSubTemplate;
 import com.google.cloud.spring.pubsub.core.health.HealthTrackerRegistry;
+import com.google.cloud.spring.pubsub.core.metrics.PubSubMetricsRecorder;
 import com.google.cloud.spring.pubsub.integration.inbound.PubSubInboundChannelAdapter;
 import com.google.cloud.spring.pubsub.integration.outbound.PubSubMessageHandler;
 import com.google.cloud.spring.stream.binder.pubsub.PubSubMessageChannelBinder;
 import com.google.cloud.spring.stream.binder.pubsub.properties.PubSubExtendedBindingProperties;
+import com.google.cloud.spring.stream.binder.pubsub.provisioning.ProvisioningMode;
 import com.google.cloud.spring.stream.binder.pubsub.provisioning.PubSubChannelProvisioner;
 import java.util.Collections;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -32,6 +35,7 @@ import org.springframework.boot.context.properties.EnableConfigurationProperties
 import org.springframework.boot.context.properties.source.ConfigurationPropertyName;
 import org.springframework.cloud.stream.binder.Binder;
 import org.springframework.cloud.stream.config.BindingHandlerAdvise.MappingsProvider;
+import org.springframework.cloud.stream.config.BindingServiceProperties;
 import org.springframework.cloud.stream.config.ConsumerEndpointCustomizer;
 import org.springframework.cloud.stream.config.ProducerMessageHandlerCustomizer;
 import org.springframework.context.annotation.Bean;
@@ -47,8 +51,20 @@ import org.springframework.lang.Nullable;
 public class PubSubBinderConfiguration {
 
   @Bean
-  public PubSubChannelProvisioner pubSubChannelProvisioner(PubSubAdmin pubSubAdmin) {
-    return new PubSubChannelProvisioner(pubSubAdmin);
+  public PubSubChannelProvisioner pubSubChannelProvisioner(
+      PubSubAdmin pubSubAdmin,
+      PubSubExtendedBindingProperties pubSubExtendedBindingProperties,
+      ObjectProvider<BindingServiceProperties> bindingServiceProperties) {
+    PubSubChannelProvisioner provisioner = new PubSubChannelProvisioner(pubSubAdmin);
+    ProvisioningMode provisioningMode = pubSubExtendedBindingProperties.getProvisioningMode();
+    provisioner.setProvisioningMode(provisioningMode);
+    if (provisioningMode == ProvisioningMode.CONCURRENT) {
+      bindingServiceProperties.ifAvailable(
+          properties ->
+              provisioner.setExpectedBindings(
+                  properties.getBindings(), pubSubExtendedBindingProperties));
+    }
+    return provisioner;
   }
 
   @Bean
@@ -58,7 +74,8 @@ public class PubSubBinderConfiguration {
       PubSubExtendedBindingProperties pubSubExtendedBindingProperties,
       @Nullable ProducerMessageHandlerCustomizer<PubSubMessageHandler> producerCustomizer,
       @Nullable ConsumerEndpointCustomizer<PubSubInboundChannelAdapter> consumerCustomizer,
-      @Nullable HealthTrackerRegistry healthTrackerRegistry) {
+      @Nullable HealthTrackerRegistry healthTrackerRegistry,
+      @Nullable PubSubMetricsRecorder metricsRecorder) {
     PubSubMessageChannelBinder binder =
         new PubSubMessageChannelBinder(
             null, pubSubChannelProvisioner, pubSubTemplate, pubSubExtendedBindingProperties);
@@ -69,6 +86,10 @@ public class PubSubBinderConfiguration {
       binder.setHealthTrackerRegistry(healthTrackerRegistry);
     }
 
+    if (metricsRecorder != null) {
+      binder.setMetricsRecorder(metricsRecorder);
+    }
+
     return binder;
   }
 
@@ -17,6 +17,8 @@
 package com.google.cloud.spring.stream.binder.pubsub.properties;
 
 import com.google.cloud.spring.pubsub.integration.AckMode;
+import com.google.cloud.spring.pubsub.integration.inbound.PubSubInboundChannelAdapter;
+import java.time.Duration;
 
 /** Consumer properties for Pub/Sub. */
 public class PubSubConsumerProperties extends PubSubCommonProperties {
@@ -29,6 +31,10 @@ public class PubSubConsumerProperties extends PubSubCommonProperties {
 
   private DeadLetterPolicy deadLetterPolicy = null;
 
+  private Integer batchSize = 100;
+
+  private Duration batchTimeout = PubSubInboundChannelAdapter.DEFAULT_BATCH_TIMEOUT;
+
   public AckMode getAckMode() {
     return ackMode;
   }
@@ -53,6 +59,36 @@ public class PubSubConsumerProperties extends PubSubCommonProperties {
     this.subscriptionName = subscriptionName;
   }
 
+  public Integer getBatchSize() {
+    return batchSize;
+  }
+
+  /**
+   * Set the maximum number of messages delivered together when the binding's {@code batch-mode}
+   * is enabled.
+   *
+   * @param batchSize the maximum batch size
+   * @since 3.3.0
+   */
+  public void setBatchSize(Integer batchSize) {
+    this.batchSize = batchSize;
+  }
+
+  public Duration getBatchTimeout() {
+    return batchTimeout;
+  }
+
+  /**
+   * Set the maximum time to wait for a batch to fill when the binding's {@code batch-mode} is
+   * enabled.
+   *
+   * @param batchTimeout the batch timeout
+   * @since 3.3.0
+   */
+  public void setBatchTimeout(Duration batchTimeout) {
+    this.batchTimeout = batchTimeout;
+  }
+
   public DeadLetterPolicy getDeadLetterPolicy() {
     return deadLetterPolicy;
   }
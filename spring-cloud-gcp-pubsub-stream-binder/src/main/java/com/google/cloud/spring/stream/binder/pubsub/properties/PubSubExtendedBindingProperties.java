@@ -16,6 +16,7 @@
 
 package com.google.cloud.spring.stream.binder.pubsub.properties;
 
+import com.google.cloud.spring.stream.binder.pubsub.provisioning.ProvisioningMode;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.cloud.stream.binder.AbstractExtendedBindingProperties;
 import org.springframework.cloud.stream.binder.BinderSpecificPropertiesProvider;
@@ -28,6 +29,17 @@ public class PubSubExtendedBindingProperties
 
   private static final String DEFAULTS_PREFIX = "spring.cloud.stream.gcp.pubsub.default";
 
+  /** How the binder checks that the topics and subscriptions of the bindings exist. */
+  private ProvisioningMode provisioningMode = ProvisioningMode.SEQUENTIAL;
+
+  public ProvisioningMode getProvisioningMode() {
+    return this.provisioningMode;
+  }
+
+  public void setProvisioningMode(ProvisioningMode provisioningMode) {
+    this.provisioningMode = provisioningMode;
+  }
+
   @Override
   public String getDefaultsPrefix() {
     return DEFAULTS_PREFIX;
@@ -20,6 +20,8 @@ package com.google.cloud.spring.stream.binder.pubsub.properties;
 public class PubSubProducerProperties extends PubSubCommonProperties {
   private boolean sync = false;
 
+  private int maxOutstandingPublishes = 0;
+
   public boolean isSync() {
     return sync;
   }
@@ -27,4 +29,19 @@ public class PubSubProducerProperties extends PubSubCommonProperties {
   public void setSync(boolean sync) {
     this.sync = sync;
   }
+
+  public int getMaxOutstandingPublishes() {
+    return maxOutstandingPublishes;
+  }
+
+  /**
+   * Set the maximum number of published messages awaiting confirmation, after which publishing
+   * waits for confirmations. Defaults to 0, which means no limit.
+   *
+   * @param maxOutstandingPublishes the maximum number of unconfirmed messages
+   * @since 3.3.0
+   */
+  public void setMaxOutstandingPublishes(int maxOutstandingPublishes) {
+    this.maxOutstandingPublishes = maxOutstandingPublishes;
+  }
 }
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2022-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spring.stream.binder.pubsub.provisioning;
+
+/**
+ * How {@link PubSubChannelProvisioner} checks that the topics and subscriptions of the bindings
+ * exist.
+ *
+ * @since 3.3.0
+ */
+public enum ProvisioningMode {
+
+  /** Look up the destinations of each binding with blocking admin calls as it is bound. */
+  SEQUENTIAL,
+
+  /**
+   * Look up the destinations of all configured bindings concurrently when the first one is bound,
+   * and remember the existing topics and subscriptions for the lifetime of the application.
+   */
+  CONCURRENT,
+
+  /**
+   * Assume that all topics and subscriptions exist and skip the admin calls. Anonymous
+   * subscriptions, and the dead letter topics they refer to, are still created.
+   */
+  ASSUME_EXISTS
+}
@@ -19,18 +19,29 @@ package com.google.cloud.spring.stream.binder.pubsub.provisioning;
 import com.google.api.gax.rpc.AlreadyExistsException;
 import com.google.cloud.spring.pubsub.PubSubAdmin;
 import com.google.cloud.spring.stream.binder.pubsub.properties.PubSubConsumerProperties;
+import com.google.cloud.spring.stream.binder.pubsub.properties.PubSubExtendedBindingProperties;
 import com.google.cloud.spring.stream.binder.pubsub.properties.PubSubProducerProperties;
 import com.google.pubsub.v1.DeadLetterPolicy;
 import com.google.pubsub.v1.Subscription;
 import com.google.pubsub.v1.Topic;
 import com.google.pubsub.v1.TopicName;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.cloud.stream.binder.ExtendedConsumerProperties;
 import org.springframework.cloud.stream.binder.ExtendedProducerProperties;
+import org.springframework.cloud.stream.config.BindingProperties;
 import org.springframework.cloud.stream.provisioning.ConsumerDestination;
 import org.springframework.cloud.stream.provisioning.ProducerDestination;
 import org.springframework.cloud.stream.provisioning.ProvisioningException;
@@ -42,7 +53,8 @@ import org.springframework.util.StringUtils;
 public class PubSubChannelProvisioner
     implements ProvisioningProvider<
         ExtendedConsumerProperties<PubSubConsumerProperties>,
-        ExtendedProducerProperties<PubSubProducerProperties>> {
+        ExtendedProducerProperties<PubSubProducerProperties>>,
+        DisposableBean {
 
   private static final Log LOGGER = LogFactory.getLog(PubSubChannelProvisioner.class);
 
@@ -50,14 +62,96 @@ public class PubSubChannelProvisioner
 
   private final Set<String> anonymousGroupSubscriptionNames = new HashSet<>();
 
+  private final Map<String, Topic> knownTopics = new ConcurrentHashMap<>();
+
+  private final Map<String, Subscription> knownSubscriptions = new ConcurrentHashMap<>();
+
+  private ProvisioningMode provisioningMode = ProvisioningMode.SEQUENTIAL;
+
+  private Set<String> expectedTopicNames = new LinkedHashSet<>();
+
+  private Set<String> expectedSubscriptionNames = new LinkedHashSet<>();
+
+  private Set<String> autoCreatedTopicNames = new LinkedHashSet<>();
+
+  private boolean preloaded;
+
   public PubSubChannelProvisioner(PubSubAdmin pubSubAdmin) {
     this.pubSubAdmin = pubSubAdmin;
   }
 
+  /**
+   * Set how the existence of topics and subscriptions is checked.
+   *
+   * @param provisioningMode the provisioning mode, {@link ProvisioningMode#SEQUENTIAL} by default
+   * @since 3.3.0
+   */
+  public void setProvisioningMode(ProvisioningMode provisioningMode) {
+    Assert.notNull(provisioningMode, "The provisioning mode can't be null.");
+    this.provisioningMode = provisioningMode;
+  }
+
+  /**
+   * Declare the bindings whose topics and subscriptions are looked up together, concurrently, when
+   * the first destination is provisioned in {@link ProvisioningMode#CONCURRENT} mode. Missing
+   * topics of bindings that auto-create resources are then created together as well.
+   *
+   * @param bindings the binding properties by binding name
+   * @param extendedBindingProperties the Pub/Sub specific binding properties, used to resolve
+   *     custom subscription names
+   * @since 3.3.0
+   */
+  public void setExpectedBindings(
+      Map<String, BindingProperties> bindings,
+      PubSubExtendedBindingProperties extendedBindingProperties) {
+    Set<String> topicNames = new LinkedHashSet<>();
+    Set<String> subscriptionNames = new LinkedHashSet<>();
+    Set<String> autoCreatedNames = new LinkedHashSet<>();
+    bindings.forEach(
+        (bindingName, binding) -> {
+          String destinations =
+              StringUtils.hasText(binding.getDestination())
+                  ? binding.getDestination()
+                  : bindingName;
+          String customName =
+              extendedBindingProperties
+                  .getExtendedConsumerProperties(bindingName)
+                  .getSubscriptionName();
+          // Whether the binding consumes or produces isn't known here, so its topic is only
+          // created ahead of time if both roles may create it.
+          boolean autoCreate =
+              extendedBindingProperties
+                      .getExtendedConsumerProperties(bindingName)
+                      .isAutoCreateResources()
+                  && extendedBindingProperties
+                      .getExtendedProducerProperties(bindingName)
+                      .isAutoCreateResources();
+          for (String topicName : StringUtils.commaDelimitedListToSet(destinations)) {
+            topicName = topicName.trim();
+            topicNames.add(topicName);
+            if (autoCreate) {
+              autoCreatedNames.add(topicName);
+            }
+            // Producer bindings rarely have a group; a superfluous lookup is harmless.
+            if (StringUtils.hasText(customName)) {
+              subscriptionNames.add(customName);
+            } else if (StringUtils.hasText(binding.getGroup())) {
+              subscriptionNames.add(getTopicShortName(topicName) + "." + binding.getGroup());
+            }
+          }
+        });
+    this.expectedTopicNames = topicNames;
+    this.expectedSubscriptionNames = subscriptionNames;
+    this.autoCreatedTopicNames = autoCreatedNames;
+  }
+
   @Override
   public ProducerDestination provisionProducerDestination(
       String topic, ExtendedProducerProperties<PubSubProducerProperties> properties) {
-    ensureTopicExists(topic, properties.getExtension().isAutoCreateResources());
+    if (this.provisioningMode != ProvisioningMode.ASSUME_EXISTS) {
+      preloadIfNecessary();
+      ensureTopicExists(topic, properties.getExtension().isAutoCreateResources());
+    }
 
     return new PubSubProducerDestination(topic);
   }
@@ -76,10 +170,13 @@ public class PubSubChannelProvisioner
     PubSubConsumerProperties.DeadLetterPolicy deadLetterPolicy =
         properties.getExtension().getDeadLetterPolicy();
 
-    // topicName may be either the short or fully-qualified version.
-    String topicShortName =
-        TopicName.isParsableFrom(topicName) ? TopicName.parse(topicName).getTopic() : topicName;
-    Topic topic = ensureTopicExists(topicName, autoCreate);
+    String topicShortName = getTopicShortName(topicName);
+    boolean assumeExists = this.provisioningMode == ProvisioningMode.ASSUME_EXISTS;
+    Topic topic = null;
+    if (!assumeExists) {
+      preloadIfNecessary();
+      topic = ensureTopicExists(topicName, autoCreate);
+    }
 
     if (StringUtils.hasText(customName)) {
       if (StringUtils.hasText(group)) {
@@ -89,11 +186,11 @@ public class PubSubChannelProvisioner
                 + customName
                 + "'.");
       }
-      subscription = this.pubSubAdmin.getSubscription(customName);
+      subscription = assumeExists ? null : getSubscription(customName);
       subscriptionName = customName;
     } else if (StringUtils.hasText(group)) {
       subscriptionName = topicShortName + "." + group;
-      subscription = this.pubSubAdmin.getSubscription(subscriptionName);
+      subscription = assumeExists ? null : getSubscription(subscriptionName);
     } else {
       // Generate anonymous random group since one wasn't provided
       subscriptionName = "anonymous." + topicShortName + "." + UUID.randomUUID().toString();
@@ -102,6 +199,10 @@ public class PubSubChannelProvisioner
       this.anonymousGroupSubscriptionNames.add(subscriptionName);
     }
 
+    if (assumeExists) {
+      return new PubSubConsumerDestination(subscriptionName);
+    }
+
     if (subscription == null) {
       if (autoCreate) {
         this.createSubscription(subscriptionName, topicName, deadLetterPolicy, autoCreate);
@@ -132,15 +233,31 @@ public class PubSubChannelProvisioner
     }
   }
 
+  /** Delete the anonymous subscriptions of consumers that were never unbound, concurrently. */
+  @Override
+  public void destroy() {
+    if (this.anonymousGroupSubscriptionNames.isEmpty()) {
+      return;
+    }
+    try {
+      this.pubSubAdmin
+          .deleteSubscriptionsAsync(new ArrayList<>(this.anonymousGroupSubscriptionNames))
+          .join();
+    } catch (CompletionException ex) {
+      LOGGER.warn("Failed to delete auto-created anonymous subscriptions.", ex.getCause());
+    }
+    this.anonymousGroupSubscriptionNames.clear();
+  }
+
   Topic ensureTopicExists(String topicName, boolean autoCreate) {
-    Topic topic = this.pubSubAdmin.getTopic(topicName);
+    Topic topic = getTopic(topicName);
     if (topic != null) {
       return topic;
     }
 
     if (autoCreate) {
       try {
-        return this.pubSubAdmin.createTopic(topicName);
+        return remember(this.knownTopics, topicName, this.pubSubAdmin.createTopic(topicName));
       } catch (AlreadyExistsException alreadyExistsException) {
         // Sometimes 2+ instances of this application will race to create the topic, so this ensures
         // we retry
@@ -175,6 +292,87 @@ public class PubSubChannelProvisioner
       builder.setDeadLetterPolicy(dlpBuilder);
     }
 
-    return this.pubSubAdmin.createSubscription(builder);
+    return remember(
+        this.knownSubscriptions, subscriptionName, this.pubSubAdmin.createSubscription(builder));
+  }
+
+  /**
+   * Look up every expected topic and subscription concurrently, once, remember the ones that exist
+   * and create the missing topics that may be auto-created. Failures only cost the speed-up, as
+   * destinations are then looked up and created one by one.
+   */
+  private synchronized void preloadIfNecessary() {
+    if (this.provisioningMode != ProvisioningMode.CONCURRENT || this.preloaded) {
+      return;
+    }
+    this.preloaded = true;
+
+    List<String> topicNames = new ArrayList<>(this.expectedTopicNames);
+    List<String> subscriptionNames = new ArrayList<>(this.expectedSubscriptionNames);
+    CompletableFuture<List<Topic>> topics = this.pubSubAdmin.getTopicsAsync(topicNames);
+    CompletableFuture<List<Subscription>> subscriptions =
+        this.pubSubAdmin.getSubscriptionsAsync(subscriptionNames);
+    try {
+      rememberAll(this.knownTopics, topicNames, topics.join());
+      rememberAll(this.knownSubscriptions, subscriptionNames, subscriptions.join());
+    } catch (CompletionException ex) {
+      LOGGER.warn(
+          "Failed to look up Pub/Sub destinations concurrently; looking them up one by one.",
+          ex.getCause());
+      return;
+    }
+
+    List<String> missingTopicNames =
+        this.autoCreatedTopicNames.stream()
+            .filter(topicName -> !this.knownTopics.containsKey(topicName))
+            .collect(Collectors.toList());
+    if (missingTopicNames.isEmpty()) {
+      return;
+    }
+    try {
+      rememberAll(
+          this.knownTopics,
+          missingTopicNames,
+          this.pubSubAdmin.createTopicsAsync(missingTopicNames).join());
+    } catch (CompletionException ex) {
+      // Typically another instance created some of the topics first; ensureTopicExists copes.
+      LOGGER.debug("Failed to create Pub/Sub topics concurrently.", ex.getCause());
+    }
+  }
+
+  private Topic getTopic(String topicName) {
+    Topic topic = this.knownTopics.get(topicName);
+    return topic != null
+        ? topic
+        : remember(this.knownTopics, topicName, this.pubSubAdmin.getTopic(topicName));
+  }
+
+  private Subscription getSubscription(String subscriptionName) {
+    Subscription subscription = this.knownSubscriptions.get(subscriptionName);
+    return subscription != null
+        ? subscription
+        : remember(
+            this.knownSubscriptions,
+            subscriptionName,
+            this.pubSubAdmin.getSubscription(subscriptionName));
+  }
+
+  /** Cache existing resources for the lifetime of the provisioner, in concurrent mode only. */
+  private <T> T remember(Map<String, T> known, String name, T resource) {
+    if (resource != null && this.provisioningMode == ProvisioningMode.CONCURRENT) {
+      known.put(name, resource);
+    }
+    return resource;
+  }
+
+  private <T> void rememberAll(Map<String, T> known, List<String> names, List<T> resources) {
+    for (int i = 0; i < names.size(); i++) {
+      remember(known, names.get(i), resources.get(i));
+    }
+  }
+
+  // topicName may be either the short or fully-qualified version.
+  private static String getTopicShortName(String topicName) {
+    return TopicName.isParsableFrom(topicName) ? TopicName.parse(topicName).getTopic() : topicName;
   }
 }
@@ -36,6 +36,7 @@ import com.google.cloud.spring.stream.binder.pubsub.config.PubSubBinderConfigura
 import com.google.cloud.spring.stream.binder.pubsub.properties.PubSubConsumerProperties;
 import com.google.cloud.spring.stream.binder.pubsub.properties.PubSubExtendedBindingProperties;
 import com.google.cloud.spring.stream.binder.pubsub.provisioning.PubSubChannelProvisioner;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import org.apache.commons.lang3.reflect.FieldUtils;
@@ -160,6 +161,32 @@ class PubSubMessageChannelBinderTests {
             });
   }
 
+  @Test
+  void producerMaxOutstandingPublishesPropagatesToMessageHandler() {
+
+    this.binder = new PubSubMessageChannelBinder(new String[0], this.channelProvisioner, this.pubSubTemplate, this.properties);
+    when(producerDestination.getName()).thenReturn("test-topic");
+    baseContext
+        .withPropertyValues(
+            "spring.cloud.stream.gcp.pubsub.default.producer.maxOutstandingPublishes=200")
+        .run(
+            ctx -> {
+              PubSubMessageChannelBinder binder = ctx.getBean(PubSubMessageChannelBinder.class);
+
+              PubSubExtendedBindingProperties props =
+                  ctx.getBean(
+                      "pubSubExtendedBindingProperties", PubSubExtendedBindingProperties.class);
+              PubSubMessageHandler messageHandler =
+                  (PubSubMessageHandler)
+                      binder.createProducerMessageHandler(
+                          producerDestination,
+                          new ExtendedProducerProperties<>(
+                              props.getExtendedProducerProperties("test")),
+                          errorChannel);
+              assertThat(messageHandler.getMaxOutstandingPublishes()).isEqualTo(200);
+            });
+  }
+
   @Test
   void producerHeaderPropertyPropagatesToMessageHandler() {
     this.binder = new PubSubMessageChannelBinder(new String[0], this.channelProvisioner, this.pubSubTemplate, this.properties);
@@ -233,6 +260,40 @@ class PubSubMessageChannelBinderTests {
         });
   }
 
+  @Test
+  void consumerBatchModeConfiguresBatchingAdapter() {
+
+    this.binder = new PubSubMessageChannelBinder(new String[0], this.channelProvisioner, this.pubSubTemplate, this.properties);
+    when(consumerDestination.getName()).thenReturn("test-subscription");
+    baseContext
+        .withPropertyValues(
+            "spring.cloud.stream.gcp.pubsub.default.consumer.batchSize=500",
+            "spring.cloud.stream.gcp.pubsub.default.consumer.batchTimeout=2s")
+        .run(
+            ctx -> {
+              PubSubMessageChannelBinder binder = ctx.getBean(PubSubMessageChannelBinder.class);
+              PubSubExtendedBindingProperties props =
+                  ctx.getBean(
+                      "pubSubExtendedBindingProperties", PubSubExtendedBindingProperties.class);
+              ExtendedConsumerProperties<PubSubConsumerProperties> consumerProps =
+                  new ExtendedConsumerProperties<>(props.getExtendedConsumerProperties("test"));
+
+              PubSubInboundChannelAdapter perMessageAdapter =
+                  (PubSubInboundChannelAdapter)
+                      binder.createConsumerEndpoint(
+                          consumerDestination, "testGroup", consumerProps);
+              assertThat(perMessageAdapter.getBatchSize()).isZero();
+
+              consumerProps.setBatchMode(true);
+              PubSubInboundChannelAdapter batchAdapter =
+                  (PubSubInboundChannelAdapter)
+                      binder.createConsumerEndpoint(
+                          consumerDestination, "testGroup", consumerProps);
+              assertThat(batchAdapter.getBatchSize()).isEqualTo(500);
+              assertThat(batchAdapter.getBatchTimeout()).isEqualTo(Duration.ofSeconds(2));
+            });
+  }
+
   @Test
   void testProducerAndConsumerCustomizers() {
 
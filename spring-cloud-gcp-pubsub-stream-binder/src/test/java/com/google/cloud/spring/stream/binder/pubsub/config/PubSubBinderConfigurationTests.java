@@ -28,6 +28,7 @@ import com.google.cloud.spring.pubsub.PubSubAdmin;
 import com.google.cloud.spring.pubsub.core.PubSubTemplate;
 import com.google.cloud.spring.pubsub.core.health.HealthTrackerRegistry;
 import com.google.cloud.spring.stream.binder.pubsub.PubSubMessageChannelBinder;
+import com.google.cloud.spring.stream.binder.pubsub.provisioning.ProvisioningMode;
 import com.google.cloud.spring.stream.binder.pubsub.provisioning.PubSubChannelProvisioner;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.autoconfigure.AutoConfigurations;
@@ -162,6 +163,25 @@ class PubSubBinderConfigurationTests {
         });
   }
 
+  @Test
+  void testProvisioningMode() {
+    ApplicationContextRunner baseContext =
+        new ApplicationContextRunner()
+            .withPropertyValues("spring.cloud.stream.gcp.pubsub.provisioning-mode=assume-exists")
+            .withConfiguration(
+                AutoConfigurations.of(
+                    GcpContextAutoConfiguration.class,
+                    GcpPubSubAutoConfiguration.class,
+                    PubSubBinderConfiguration.class))
+            .withUserConfiguration(TestConfiguration.class);
+    baseContext.run(
+        ctx ->
+            assertThat(
+                    ReflectionTestUtils.getField(
+                        ctx.getBean(PubSubChannelProvisioner.class), "provisioningMode"))
+                .isEqualTo(ProvisioningMode.ASSUME_EXISTS));
+  }
+
   private static class TestConfiguration {
     @Bean
     public CredentialsProvider googleCredentials() {
@@ -20,6 +20,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -30,9 +31,15 @@ import com.google.cloud.spring.pubsub.PubSubAdmin;
 import com.google.cloud.spring.pubsub.support.PubSubSubscriptionUtils;
 import com.google.cloud.spring.pubsub.support.PubSubTopicUtils;
 import com.google.cloud.spring.stream.binder.pubsub.properties.PubSubConsumerProperties;
+import com.google.cloud.spring.stream.binder.pubsub.properties.PubSubExtendedBindingProperties;
+import com.google.cloud.spring.stream.binder.pubsub.properties.PubSubProducerProperties;
 import com.google.pubsub.v1.DeadLetterPolicy;
 import com.google.pubsub.v1.Subscription;
 import com.google.pubsub.v1.Topic;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -42,6 +49,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import org.springframework.cloud.stream.binder.ExtendedConsumerProperties;
+import org.springframework.cloud.stream.config.BindingProperties;
 import org.springframework.cloud.stream.provisioning.ProvisioningException;
 
 /**
@@ -229,6 +237,126 @@ class PubSubChannelProvisionerTests {
     assertThat(policy.getMaxDeliveryAttempts()).isEqualTo(12);
   }
 
+  @Test
+  void testProvisionConsumerDestination_concurrentModePreloadsAndCaches() {
+    BindingProperties binding = new BindingProperties();
+    binding.setDestination("topic_A");
+    binding.setGroup("group_A");
+    Map<String, BindingProperties> bindings = new HashMap<>();
+    bindings.put("input", binding);
+    PubSubExtendedBindingProperties extendedBindingProperties =
+        mock(PubSubExtendedBindingProperties.class);
+    when(extendedBindingProperties.getExtendedConsumerProperties("input"))
+        .thenReturn(new PubSubConsumerProperties());
+    when(extendedBindingProperties.getExtendedProducerProperties("input"))
+        .thenReturn(new PubSubProducerProperties());
+    when(this.pubSubAdminMock.getTopicsAsync(Collections.singletonList("topic_A")))
+        .thenReturn(
+            CompletableFuture.completedFuture(
+                Collections.singletonList(
+                    Topic.newBuilder().setName("projects/test-project/topics/topic_A").build())));
+    when(this.pubSubAdminMock.getSubscriptionsAsync(Collections.singletonList("topic_A.group_A")))
+        .thenReturn(
+            CompletableFuture.completedFuture(
+                Collections.singletonList(
+                    Subscription.newBuilder()
+                        .setName("projects/test-project/subscriptions/topic_A.group_A")
+                        .setTopic("projects/test-project/topics/topic_A")
+                        .build())));
+
+    this.pubSubChannelProvisioner.setProvisioningMode(ProvisioningMode.CONCURRENT);
+    this.pubSubChannelProvisioner.setExpectedBindings(bindings, extendedBindingProperties);
+    this.pubSubChannelProvisioner.provisionConsumerDestination(
+        "topic_A", "group_A", this.properties);
+    this.pubSubChannelProvisioner.provisionConsumerDestination(
+        "topic_A", "group_A", this.properties);
+
+    verify(this.pubSubAdminMock, times(1)).getTopicsAsync(any());
+    verify(this.pubSubAdminMock, never()).getTopic(any());
+    verify(this.pubSubAdminMock, never()).getSubscription(any());
+    verify(this.pubSubAdminMock, never()).createSubscription(any());
+    verify(this.pubSubAdminMock, never()).createTopicsAsync(any());
+  }
+
+  @Test
+  void testProvisionConsumerDestination_concurrentModeCreatesMissingTopicsTogether() {
+    BindingProperties binding = new BindingProperties();
+    binding.setDestination("topic_A");
+    binding.setGroup("group_A");
+    Map<String, BindingProperties> bindings = new HashMap<>();
+    bindings.put("input", binding);
+    PubSubExtendedBindingProperties extendedBindingProperties =
+        mock(PubSubExtendedBindingProperties.class);
+    when(extendedBindingProperties.getExtendedConsumerProperties("input"))
+        .thenReturn(new PubSubConsumerProperties());
+    when(extendedBindingProperties.getExtendedProducerProperties("input"))
+        .thenReturn(new PubSubProducerProperties());
+    when(this.pubSubAdminMock.getTopicsAsync(any()))
+        .thenReturn(
+            CompletableFuture.completedFuture(Collections.singletonList((Topic) null)));
+    when(this.pubSubAdminMock.getSubscriptionsAsync(any()))
+        .thenReturn(
+            CompletableFuture.completedFuture(Collections.singletonList((Subscription) null)));
+    when(this.pubSubAdminMock.createTopicsAsync(Collections.singletonList("topic_A")))
+        .thenReturn(
+            CompletableFuture.completedFuture(
+                Collections.singletonList(
+                    Topic.newBuilder().setName("projects/test-project/topics/topic_A").build())));
+
+    this.pubSubChannelProvisioner.setProvisioningMode(ProvisioningMode.CONCURRENT);
+    this.pubSubChannelProvisioner.setExpectedBindings(bindings, extendedBindingProperties);
+    this.pubSubChannelProvisioner.provisionConsumerDestination(
+        "topic_A", "group_A", this.properties);
+
+    verify(this.pubSubAdminMock, times(1)).createTopicsAsync(any());
+    verify(this.pubSubAdminMock, never()).getTopic(any());
+    verify(this.pubSubAdminMock, never()).createTopic(any());
+    verify(this.pubSubAdminMock, times(1)).createSubscription(any());
+  }
+
+  @Test
+  void testProvisionConsumerDestination_concurrentModeCachesCreatedResources() {
+    when(this.pubSubAdminMock.getTopicsAsync(any()))
+        .thenReturn(CompletableFuture.completedFuture(Collections.emptyList()));
+    when(this.pubSubAdminMock.getSubscriptionsAsync(any()))
+        .thenReturn(CompletableFuture.completedFuture(Collections.emptyList()));
+
+    this.pubSubChannelProvisioner.setProvisioningMode(ProvisioningMode.CONCURRENT);
+    this.pubSubChannelProvisioner.provisionConsumerDestination(
+        "topic_A", "group_A", this.properties);
+    this.pubSubChannelProvisioner.provisionConsumerDestination(
+        "topic_A", "group_A", this.properties);
+
+    verify(this.pubSubAdminMock, times(1)).getTopic("topic_A");
+    verify(this.pubSubAdminMock, times(1)).getSubscription("topic_A.group_A");
+    verify(this.pubSubAdminMock, times(1)).createSubscription(any());
+  }
+
+  @Test
+  void testProvisionConsumerDestination_assumeExists() {
+    this.pubSubChannelProvisioner.setProvisioningMode(ProvisioningMode.ASSUME_EXISTS);
+
+    assertThat(
+            this.pubSubChannelProvisioner
+                .provisionConsumerDestination("topic_A", "group_A", this.properties)
+                .getName())
+        .isEqualTo("topic_A.group_A");
+
+    verify(this.pubSubAdminMock, never()).getTopic(any());
+    verify(this.pubSubAdminMock, never()).getSubscription(any());
+    verify(this.pubSubAdminMock, never()).createSubscription(any());
+  }
+
+  @Test
+  void testProvisionConsumerDestination_assumeExistsStillCreatesAnonymousSubscriptions() {
+    this.pubSubChannelProvisioner.setProvisioningMode(ProvisioningMode.ASSUME_EXISTS);
+
+    this.pubSubChannelProvisioner.provisionConsumerDestination("topic_A", null, this.properties);
+
+    verify(this.pubSubAdminMock, never()).getTopic(any());
+    verify(this.pubSubAdminMock).createSubscription(any());
+  }
+
   @Test
   void testAfterUnbindConsumer_anonymousGroup() {
     PubSubConsumerDestination result =
@@ -241,6 +369,23 @@ class PubSubChannelProvisionerTests {
     verify(this.pubSubAdminMock).deleteSubscription(result.getName());
   }
 
+  @Test
+  void testDestroy_deletesRemainingAnonymousSubscriptions() {
+    when(this.pubSubAdminMock.deleteSubscriptionsAsync(any()))
+        .thenReturn(CompletableFuture.completedFuture(null));
+    PubSubConsumerDestination result =
+        (PubSubConsumerDestination)
+            this.pubSubChannelProvisioner.provisionConsumerDestination(
+                "topic_A", null, this.properties);
+
+    this.pubSubChannelProvisioner.destroy();
+    this.pubSubChannelProvisioner.afterUnbindConsumer(result);
+
+    verify(this.pubSubAdminMock)
+        .deleteSubscriptionsAsync(Collections.singletonList(result.getName()));
+    verify(this.pubSubAdminMock, never()).deleteSubscription(result.getName());
+  }
+
   @Test
   void testAfterUnbindConsumer_twice() {
     PubSubConsumerDestination result =
@@ -31,9 +31,19 @@ import com.google.pubsub.v1.ProjectName;
 import com.google.pubsub.v1.PushConfig;
 import com.google.pubsub.v1.Subscription;
 import com.google.pubsub.v1.Topic;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.util.Assert;
 
 /** Pub/Sub admin utility that creates new topics and subscriptions on Google Cloud Pub/Sub. */
@@ -45,6 +55,20 @@ public class PubSubAdmin implements AutoCloseable {
 
   private static final String NO_TOPIC_SPECIFIED = "No topic name was specified.";
 
+  private static final int DEFAULT_BULK_CONCURRENCY = 16;
+
+  private static final int DEFAULT_BULK_MAX_ATTEMPTS = 5;
+
+  private static final Duration DEFAULT_BULK_RETRY_DELAY = Duration.ofMillis(200);
+
+  /** Status codes that are worth retrying; admin operations have a low per-project quota. */
+  private static final Set<StatusCode.Code> RETRYABLE_CODES =
+      EnumSet.of(
+          StatusCode.Code.UNAVAILABLE,
+          StatusCode.Code.DEADLINE_EXCEEDED,
+          StatusCode.Code.RESOURCE_EXHAUSTED,
+          StatusCode.Code.ABORTED);
+
   private final String projectId;
 
   private final TopicAdminClient topicAdminClient;
@@ -54,6 +78,12 @@ public class PubSubAdmin implements AutoCloseable {
   /** Default inspired in the subscription creation web UI. */
   private int defaultAckDeadline = MIN_ACK_DEADLINE_SECONDS;
 
+  private int bulkConcurrency = DEFAULT_BULK_CONCURRENCY;
+
+  private int bulkMaxAttempts = DEFAULT_BULK_MAX_ATTEMPTS;
+
+  private Duration bulkRetryDelay = DEFAULT_BULK_RETRY_DELAY;
+
   /**
    * This constructor instantiates TopicAdminClient and SubscriptionAdminClient with all their
    * defaults and the provided credentials provider.
@@ -173,6 +203,67 @@ public class PubSubAdmin implements AutoCloseable {
     return Collections.unmodifiableList(topics);
   }
 
+  /**
+   * Iterate over every topic in a project.
+   *
+   * <p>Unlike {@link #listTopics()}, pages are only fetched as the iteration reaches them, so large
+   * projects can be scanned without holding every topic in memory.
+   *
+   * @return a lazily paged iterable of topics
+   * @since 3.3.0
+   */
+  public Iterable<Topic> iterateTopics() {
+    return this.topicAdminClient.listTopics(ProjectName.of(this.projectId)).iterateAll();
+  }
+
+  /**
+   * Get the configuration of several Google Cloud Pub/Sub topics concurrently.
+   *
+   * @param topicNames canonical or fully-qualified topic names
+   * @return a future of the topic configurations, in the order of {@code topicNames}, with {@code
+   *     null} entries for topics that don't exist
+   * @since 3.3.0
+   * @see #getTopic(String)
+   */
+  public CompletableFuture<List<Topic>> getTopicsAsync(Collection<String> topicNames) {
+    return runBulk("get", topicNames, this::getTopic);
+  }
+
+  /**
+   * Create several topics on Google Cloud Pub/Sub concurrently.
+   *
+   * <p>At most {@link #setBulkConcurrency(int) bulkConcurrency} requests are in flight at a time,
+   * and each request is retried on transient failures. The returned future completes once every
+   * request has finished; if any of them failed, it completes exceptionally with a {@link
+   * PubSubException} whose cause is the first failure.
+   *
+   * @param topicNames canonical or fully-qualified topic names
+   * @return a future of the created topics, in the order of {@code topicNames}
+   * @since 3.3.0
+   */
+  public CompletableFuture<List<Topic>> createTopicsAsync(Collection<String> topicNames) {
+    return runBulk("create", topicNames, this::createTopic);
+  }
+
+  /**
+   * Delete several topics from Google Cloud Pub/Sub concurrently.
+   *
+   * @param topicNames canonical or fully-qualified topic names
+   * @return a future that completes once every topic was deleted
+   * @since 3.3.0
+   * @see #createTopicsAsync(Collection)
+   */
+  public CompletableFuture<Void> deleteTopicsAsync(Collection<String> topicNames) {
+    return runBulk(
+            "delete",
+            topicNames,
+            topicName -> {
+              deleteTopic(topicName);
+              return null;
+            })
+        .thenApply(ignored -> null);
+  }
+
   /**
    * Create a new subscription on Google Cloud Pub/Sub.
    *
@@ -331,6 +422,67 @@ public class PubSubAdmin implements AutoCloseable {
     return Collections.unmodifiableList(subscriptions);
   }
 
+  /**
+   * Iterate over every subscription in a project.
+   *
+   * <p>Unlike {@link #listSubscriptions()}, pages are only fetched as the iteration reaches them.
+   *
+   * @return a lazily paged iterable of subscriptions
+   * @since 3.3.0
+   */
+  public Iterable<Subscription> iterateSubscriptions() {
+    return this.subscriptionAdminClient
+        .listSubscriptions(ProjectName.of(this.projectId))
+        .iterateAll();
+  }
+
+  /**
+   * Get the configuration of several Google Cloud Pub/Sub subscriptions concurrently.
+   *
+   * @param subscriptionNames canonical or fully-qualified subscription names
+   * @return a future of the subscription configurations, in the order of {@code
+   *     subscriptionNames}, with {@code null} entries for subscriptions that don't exist
+   * @since 3.3.0
+   * @see #getSubscription(String)
+   */
+  public CompletableFuture<List<Subscription>> getSubscriptionsAsync(
+      Collection<String> subscriptionNames) {
+    return runBulk("get", subscriptionNames, this::getSubscription);
+  }
+
+  /**
+   * Create several subscriptions on Google Cloud Pub/Sub concurrently.
+   *
+   * @param builders subscription builders, as accepted by {@link
+   *     #createSubscription(Subscription.Builder)}
+   * @return a future of the created subscriptions, in the order of {@code builders}
+   * @since 3.3.0
+   * @see #createTopicsAsync(Collection)
+   */
+  public CompletableFuture<List<Subscription>> createSubscriptionsAsync(
+      Collection<Subscription.Builder> builders) {
+    return runBulk("create", builders, this::createSubscription);
+  }
+
+  /**
+   * Delete several subscriptions from Google Cloud Pub/Sub concurrently.
+   *
+   * @param subscriptionNames canonical or fully-qualified subscription names
+   * @return a future that completes once every subscription was deleted
+   * @since 3.3.0
+   * @see #createTopicsAsync(Collection)
+   */
+  public CompletableFuture<Void> deleteSubscriptionsAsync(Collection<String> subscriptionNames) {
+    return runBulk(
+            "delete",
+            subscriptionNames,
+            subscriptionName -> {
+              deleteSubscription(subscriptionName);
+              return null;
+            })
+        .thenApply(ignored -> null);
+  }
+
   /**
    * Get the default ack deadline.
    *
@@ -352,6 +504,119 @@ public class PubSubAdmin implements AutoCloseable {
     this.defaultAckDeadline = defaultAckDeadline;
   }
 
+  /**
+   * Set the maximum number of concurrent requests issued by the bulk operations.
+   *
+   * @param bulkConcurrency the maximum number of requests in flight, defaults to 16
+   * @since 3.3.0
+   */
+  public void setBulkConcurrency(int bulkConcurrency) {
+    Assert.isTrue(bulkConcurrency > 0, "The bulk concurrency must be greater than zero.");
+    this.bulkConcurrency = bulkConcurrency;
+  }
+
+  /**
+   * Set how many times a bulk operation attempts each request before giving up. Only transient
+   * failures, such as {@code UNAVAILABLE} or {@code RESOURCE_EXHAUSTED}, are retried.
+   *
+   * @param bulkMaxAttempts the maximum number of attempts per request, defaults to 5
+   * @since 3.3.0
+   */
+  public void setBulkMaxAttempts(int bulkMaxAttempts) {
+    Assert.isTrue(bulkMaxAttempts > 0, "The bulk maximum attempts must be greater than zero.");
+    this.bulkMaxAttempts = bulkMaxAttempts;
+  }
+
+  /**
+   * Set the delay before the first retry of a bulk operation request. The delay doubles with every
+   * further attempt.
+   *
+   * @param bulkRetryDelay the initial retry delay, defaults to 200 milliseconds
+   * @since 3.3.0
+   */
+  public void setBulkRetryDelay(Duration bulkRetryDelay) {
+    Assert.isTrue(
+        bulkRetryDelay != null && !bulkRetryDelay.isNegative(),
+        "The bulk retry delay can't be null or negative.");
+    this.bulkRetryDelay = bulkRetryDelay;
+  }
+
+  private <T, R> CompletableFuture<List<R>> runBulk(
+      String operation, Collection<T> inputs, Function<T, R> call) {
+    Assert.notNull(inputs, "The resources to " + operation + " can't be null.");
+    if (inputs.isEmpty()) {
+      return CompletableFuture.completedFuture(Collections.emptyList());
+    }
+
+    CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("gcp-pubsub-admin-");
+    threadFactory.setDaemon(true);
+    ExecutorService executor =
+        Executors.newFixedThreadPool(Math.min(inputs.size(), this.bulkConcurrency), threadFactory);
+
+    List<CompletableFuture<R>> futures = new ArrayList<>(inputs.size());
+    try {
+      for (T input : inputs) {
+        futures.add(CompletableFuture.supplyAsync(() -> callWithRetries(call, input), executor));
+      }
+    } finally {
+      // Already submitted requests still run; the threads go away once they are done.
+      executor.shutdown();
+    }
+
+    CompletableFuture<List<R>> result = new CompletableFuture<>();
+    CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+        .whenComplete(
+            (ignored, throwable) -> {
+              List<R> results = new ArrayList<>(futures.size());
+              List<Throwable> failures = new ArrayList<>();
+              for (CompletableFuture<R> future : futures) {
+                try {
+                  results.add(future.join());
+                } catch (CompletionException ex) {
+                  failures.add(ex.getCause());
+                }
+              }
+              if (failures.isEmpty()) {
+                result.complete(Collections.unmodifiableList(results));
+                return;
+              }
+              PubSubException ex =
+                  new PubSubException(
+                      "Failed to "
+                          + operation
+                          + " "
+                          + failures.size()
+                          + " of "
+                          + futures.size()
+                          + " resources.",
+                      failures.get(0));
+              failures.stream().skip(1).forEach(ex::addSuppressed);
+              result.completeExceptionally(ex);
+            });
+    return result;
+  }
+
+  private <T, R> R callWithRetries(Function<T, R> call, T input) {
+    long delayMillis = this.bulkRetryDelay.toMillis();
+    for (int attempt = 1; ; attempt++) {
+      try {
+        return call.apply(input);
+      } catch (ApiException aex) {
+        if (attempt >= this.bulkMaxAttempts
+            || !RETRYABLE_CODES.contains(aex.getStatusCode().getCode())) {
+          throw aex;
+        }
+      }
+      try {
+        Thread.sleep(delayMillis);
+      } catch (InterruptedException ie) {
+        Thread.currentThread().interrupt();
+        throw new PubSubException("Interrupted while retrying a bulk admin operation.", ie);
+      }
+      delayMillis *= 2;
+    }
+  }
+
   private void validateAckDeadline(int ackDeadline) {
     Assert.isTrue(
         ackDeadline >= MIN_ACK_DEADLINE_SECONDS && ackDeadline <= MAX_ACK_DEADLINE_SECONDS,
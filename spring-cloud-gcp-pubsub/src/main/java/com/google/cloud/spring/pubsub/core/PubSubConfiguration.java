@@ -18,8 +18,14 @@ package com.google.cloud.spring.pubsub.core;
 
 import com.google.api.gax.batching.FlowController.LimitExceededBehavior;
 import com.google.api.gax.rpc.StatusCode.Code;
+import com.google.cloud.spring.pubsub.core.publisher.PublishFlowControlSettings.OverflowPolicy;
 import com.google.cloud.spring.pubsub.support.PubSubSubscriptionUtils;
+import com.google.cloud.spring.pubsub.support.converter.GzipPayloadCompressor;
 import com.google.pubsub.v1.ProjectSubscriptionName;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
@@ -234,6 +240,21 @@ public class PubSubConfiguration {
     /** Set publisher endpoint. Example: "us-east1-pubsub.googleapis.com:443". */
     private String endpoint;
 
+    /** Payload compression properties. */
+    private final Compression compression = new Compression();
+
+    /** Publisher cache properties. */
+    private final PublisherCache cache = new PublisherCache();
+
+    /**
+     * Number of gRPC channels shared by all publishers. When set, publishers no longer open their
+     * own channels.
+     */
+    private Integer sharedChannelPoolSize;
+
+    /** Limits on messages buffered per topic until they are published. */
+    private final PublisherBuffer buffer = new PublisherBuffer();
+
     public Batching getBatching() {
       return this.batching;
     }
@@ -265,6 +286,141 @@ public class PubSubConfiguration {
     public void setEndpoint(String endpoint) {
       this.endpoint = endpoint;
     }
+
+    public Compression getCompression() {
+      return this.compression;
+    }
+
+    public PublisherCache getCache() {
+      return this.cache;
+    }
+
+    public Integer getSharedChannelPoolSize() {
+      return this.sharedChannelPoolSize;
+    }
+
+    public void setSharedChannelPoolSize(Integer sharedChannelPoolSize) {
+      this.sharedChannelPoolSize = sharedChannelPoolSize;
+    }
+
+    public PublisherBuffer getBuffer() {
+      return this.buffer;
+    }
+  }
+
+  /** Limits on the messages buffered for a topic until the Pub/Sub service confirms them. */
+  public static class PublisherBufferLimits {
+
+    /** Maximum number of unconfirmed messages per topic. */
+    private Long maxOutstandingMessages;
+
+    /** Maximum total size in bytes of unconfirmed messages per topic. */
+    private Long maxOutstandingBytes;
+
+    /** What to do with a message published while the limits are reached. */
+    private OverflowPolicy overflowPolicy;
+
+    public Long getMaxOutstandingMessages() {
+      return this.maxOutstandingMessages;
+    }
+
+    public void setMaxOutstandingMessages(Long maxOutstandingMessages) {
+      this.maxOutstandingMessages = maxOutstandingMessages;
+    }
+
+    public Long getMaxOutstandingBytes() {
+      return this.maxOutstandingBytes;
+    }
+
+    public void setMaxOutstandingBytes(Long maxOutstandingBytes) {
+      this.maxOutstandingBytes = maxOutstandingBytes;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+      return this.overflowPolicy;
+    }
+
+    public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+      this.overflowPolicy = overflowPolicy;
+    }
+  }
+
+  /** Default publisher buffer limits, with topic-specific overrides. */
+  public static class PublisherBuffer extends PublisherBufferLimits {
+
+    /** Topic-specific limits, by topic name; unset values fall back to the default limits. */
+    private Map<String, PublisherBufferLimits> topics = new HashMap<>();
+
+    public Map<String, PublisherBufferLimits> getTopics() {
+      return this.topics;
+    }
+
+    public void setTopics(Map<String, PublisherBufferLimits> topics) {
+      this.topics = topics;
+    }
+  }
+
+  /** Settings for the cache of per-topic publishers. */
+  public static class PublisherCache {
+
+    /** Maximum number of cached publishers; the least recently used one is evicted beyond it. */
+    private Integer maxSize;
+
+    /** Time in seconds after which a publisher that has not been used is evicted. */
+    private Long idleTimeoutSeconds;
+
+    public Integer getMaxSize() {
+      return this.maxSize;
+    }
+
+    public void setMaxSize(Integer maxSize) {
+      this.maxSize = maxSize;
+    }
+
+    public Long getIdleTimeoutSeconds() {
+      return this.idleTimeoutSeconds;
+    }
+
+    public void setIdleTimeoutSeconds(Long idleTimeoutSeconds) {
+      this.idleTimeoutSeconds = idleTimeoutSeconds;
+    }
+  }
+
+  /** Publisher payload compression settings. */
+  public static class Compression {
+
+    /** Gzip-compresses published payloads and sets the content-encoding attribute if true. */
+    private boolean enabled;
+
+    /** Minimum payload size in bytes for compression to apply. */
+    private int thresholdBytes = 1024;
+
+    /** Topics to compress payloads for. All topics are compressed if empty. */
+    private List<String> topics = new ArrayList<>();
+
+    public boolean isEnabled() {
+      return this.enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    public int getThresholdBytes() {
+      return this.thresholdBytes;
+    }
+
+    public void setThresholdBytes(int thresholdBytes) {
+      this.thresholdBytes = thresholdBytes;
+    }
+
+    public List<String> getTopics() {
+      return this.topics;
+    }
+
+    public void setTopics(List<String> topics) {
+      this.topics = topics;
+    }
   }
 
   /** Subscriber settings. */
@@ -294,6 +450,30 @@ public class PubSubConfiguration {
     /** RPC status codes that should be retried when pulling messages. */
     private Code[] retryableCodes = null;
 
+    /** Acknowledgement batching settings for the subscriber template. */
+    private final AckBatching ackBatching = new AckBatching();
+
+    /**
+     * Transparently decompresses converted payloads that carry a content-encoding attribute if
+     * true.
+     */
+    private boolean decompressionEnabled;
+
+    /**
+     * Maximum size in bytes of a decompressed payload. Decompressing a larger payload fails, which
+     * protects against highly compressed payloads exhausting the heap.
+     */
+    private long maxDecompressedBytes = GzipPayloadCompressor.DEFAULT_MAX_DECOMPRESSED_BYTES;
+
+    /**
+     * Runs subscriber message processing, asynchronous pull callbacks and acknowledgement callbacks
+     * on virtual threads if true. The number of subscriber threads is then bounded by the flow
+     * control maximum outstanding element count instead of the executor threads. Set on a single
+     * subscription, only the message processing of that subscription runs on virtual threads.
+     * Requires Java 21 or later.
+     */
+    private boolean virtualThreads;
+
     public Retry getRetry() {
       return this.retry;
     }
@@ -354,6 +534,74 @@ public class PubSubConfiguration {
     public void setMaxAcknowledgementThreads(int maxAcknowledgementThreads) {
       this.maxAcknowledgementThreads = maxAcknowledgementThreads;
     }
+
+    public AckBatching getAckBatching() {
+      return this.ackBatching;
+    }
+
+    public boolean isDecompressionEnabled() {
+      return this.decompressionEnabled;
+    }
+
+    public void setDecompressionEnabled(boolean decompressionEnabled) {
+      this.decompressionEnabled = decompressionEnabled;
+    }
+
+    public long getMaxDecompressedBytes() {
+      return this.maxDecompressedBytes;
+    }
+
+    public void setMaxDecompressedBytes(long maxDecompressedBytes) {
+      this.maxDecompressedBytes = maxDecompressedBytes;
+    }
+
+    public boolean isVirtualThreads() {
+      return this.virtualThreads;
+    }
+
+    public void setVirtualThreads(boolean virtualThreads) {
+      this.virtualThreads = virtualThreads;
+    }
+  }
+
+  /** Acknowledgement batching settings. */
+  public static class AckBatching {
+
+    /**
+     * Coalesces ack, nack and ack deadline modification requests issued through the subscriber
+     * template across calls if true.
+     */
+    private boolean enabled;
+
+    /** Maximum number of ack IDs sent in one batched request. */
+    private int maxBatchSize = 2500;
+
+    /** Maximum time in milliseconds an ack ID waits before its batch is sent. */
+    private long maxDelayMillis = 50;
+
+    public boolean isEnabled() {
+      return this.enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    public int getMaxBatchSize() {
+      return this.maxBatchSize;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+      this.maxBatchSize = maxBatchSize;
+    }
+
+    public long getMaxDelayMillis() {
+      return this.maxDelayMillis;
+    }
+
+    public void setMaxDelayMillis(long maxDelayMillis) {
+      this.maxDelayMillis = maxDelayMillis;
+    }
   }
 
   /** Health Check settings. */
@@ -379,6 +627,18 @@ public class PubSubConfiguration {
     /** Number of threads used for Health Check Executors. */
     private int executorThreads = 4;
 
+    /**
+     * Interval in seconds between background samplings of subscription backlogs. If set, health
+     * checks use the last sampled backlog instead of querying GCP Monitoring.
+     */
+    private Integer backlogSamplingInterval;
+
+    /**
+     * Maximum age in seconds of a sampled backlog used by health checks. Defaults to three sampling
+     * intervals.
+     */
+    private Integer backlogMaxStaleness;
+
     public Integer getLagThreshold() {
       return lagThreshold;
     }
@@ -410,6 +670,22 @@ public class PubSubConfiguration {
     public void setExecutorThreads(int executorThreads) {
       this.executorThreads = executorThreads;
     }
+
+    public Integer getBacklogSamplingInterval() {
+      return backlogSamplingInterval;
+    }
+
+    public void setBacklogSamplingInterval(Integer backlogSamplingInterval) {
+      this.backlogSamplingInterval = backlogSamplingInterval;
+    }
+
+    public Integer getBacklogMaxStaleness() {
+      return backlogMaxStaleness;
+    }
+
+    public void setBacklogMaxStaleness(Integer backlogMaxStaleness) {
+      this.backlogMaxStaleness = backlogMaxStaleness;
+    }
   }
 
   /** Retry settings. */
@@ -18,6 +18,7 @@ package com.google.cloud.spring.pubsub.core;
 
 import com.google.cloud.pubsub.v1.Subscriber;
 import com.google.cloud.spring.pubsub.core.publisher.PubSubPublisherTemplate;
+import com.google.cloud.spring.pubsub.core.subscriber.KeyOrderedDispatchSettings;
 import com.google.cloud.spring.pubsub.core.subscriber.PubSubSubscriberTemplate;
 import com.google.cloud.spring.pubsub.support.AcknowledgeablePubsubMessage;
 import com.google.cloud.spring.pubsub.support.BasicAcknowledgeablePubsubMessage;
@@ -135,6 +136,25 @@ public class PubSubTemplate implements PubSubOperations {
         subscription, messageConsumer, payloadType);
   }
 
+  @Override
+  public Subscriber subscribeOrderedByKey(
+      String subscription,
+      Consumer<BasicAcknowledgeablePubsubMessage> messageConsumer,
+      KeyOrderedDispatchSettings dispatchSettings) {
+    return this.pubSubSubscriberTemplate.subscribeOrderedByKey(
+        subscription, messageConsumer, dispatchSettings);
+  }
+
+  @Override
+  public <T> Subscriber subscribeAndConvertOrderedByKey(
+      String subscription,
+      Consumer<ConvertedBasicAcknowledgeablePubsubMessage<T>> messageConsumer,
+      Class<T> payloadType,
+      KeyOrderedDispatchSettings dispatchSettings) {
+    return this.pubSubSubscriberTemplate.subscribeAndConvertOrderedByKey(
+        subscription, messageConsumer, payloadType, dispatchSettings);
+  }
+
   @Override
   public List<AcknowledgeablePubsubMessage> pull(
       String subscription, Integer maxMessages, Boolean returnImmediately) {
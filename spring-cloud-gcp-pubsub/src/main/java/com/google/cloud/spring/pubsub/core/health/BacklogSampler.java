@@ -0,0 +1,248 @@
+/*
+ * Copyright 2022-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spring.pubsub.core.health;
+
+import static com.google.monitoring.v3.ListTimeSeriesRequest.TimeSeriesView.FULL;
+
+import com.google.cloud.monitoring.v3.MetricServiceClient;
+import com.google.monitoring.v3.ProjectName;
+import com.google.monitoring.v3.TimeInterval;
+import com.google.monitoring.v3.TimeSeries;
+import com.google.protobuf.util.Timestamps;
+import com.google.pubsub.v1.ProjectSubscriptionName;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.util.Assert;
+
+/**
+ * Samples the message backlog of registered subscriptions in the background, so that health checks
+ * read the last sampled value instead of querying Cloud Monitoring. The subscriptions of a project
+ * are sampled together, with one time series request per {@link
+ * #MAX_SUBSCRIPTIONS_PER_REQUEST} subscriptions.
+ *
+ * <p>Sampling starts once the first subscription is registered. Samples older than the maximum
+ * staleness are not reported.
+ *
+ * @since 3.3.0
+ */
+public class BacklogSampler implements DisposableBean {
+
+  /** Maximum number of subscriptions queried in a single time series request. */
+  public static final int MAX_SUBSCRIPTIONS_PER_REQUEST = 100;
+
+  private static final Log LOGGER = LogFactory.getLog(BacklogSampler.class);
+
+  private static final String UNDELIVERED_FILTER_TEMPLATE =
+      "metric.type=\"pubsub.googleapis.com/subscription/num_undelivered_messages\""
+          + " resource.type=\"pubsub_subscription\" resource.label.subscription_id=one_of(%s)";
+
+  private static final String SUBSCRIPTION_ID_LABEL = "subscription_id";
+
+  private final MetricServiceClient metricServiceClient;
+
+  private final ScheduledExecutorService scheduler;
+
+  private final Duration samplingInterval;
+
+  private final Duration maxStaleness;
+
+  private final Integer lookUpInterval;
+
+  private final Set<ProjectSubscriptionName> subscriptions = ConcurrentHashMap.newKeySet();
+
+  private final Map<ProjectSubscriptionName, Sample> samples = new ConcurrentHashMap<>();
+
+  private ScheduledFuture<?> samplingFuture;
+
+  private boolean started;
+
+  /**
+   * Create a sampler querying Cloud Monitoring on the given scheduler.
+   *
+   * @param metricServiceClient the client used to query the backlog metrics
+   * @param scheduler the scheduler running the sampling, not shut down by the sampler
+   * @param samplingInterval the delay between the end of a sampling and the start of the next one
+   * @param maxStaleness the maximum age of a reported sample
+   * @param lookUpInterval the interval in minutes over which backlog values are looked up
+   */
+  public BacklogSampler(
+      MetricServiceClient metricServiceClient,
+      ScheduledExecutorService scheduler,
+      Duration samplingInterval,
+      Duration maxStaleness,
+      Integer lookUpInterval) {
+    Assert.notNull(metricServiceClient, "MetricServiceClient can't be null");
+    Assert.notNull(scheduler, "The scheduler can't be null.");
+    Assert.isTrue(
+        samplingInterval != null && !samplingInterval.isNegative() && !samplingInterval.isZero(),
+        "The samplingInterval must be positive.");
+    Assert.isTrue(
+        maxStaleness != null && maxStaleness.compareTo(samplingInterval) >= 0,
+        "The maxStaleness must not be shorter than the samplingInterval.");
+    this.metricServiceClient = metricServiceClient;
+    this.scheduler = scheduler;
+    this.samplingInterval = samplingInterval;
+    this.maxStaleness = maxStaleness;
+    this.lookUpInterval = lookUpInterval;
+  }
+
+  /**
+   * Start sampling the backlog of the given subscription.
+   *
+   * @param subscription the subscription to sample
+   */
+  public void register(ProjectSubscriptionName subscription) {
+    this.subscriptions.add(subscription);
+    synchronized (this) {
+      if (!this.started) {
+        this.started = true;
+        this.samplingFuture =
+            this.scheduler.scheduleWithFixedDelay(
+                this::sample, 0, this.samplingInterval.toMillis(), TimeUnit.MILLISECONDS);
+      }
+    }
+  }
+
+  /**
+   * Stop sampling the backlog of the given subscription and forget its last sample.
+   *
+   * @param subscription the subscription to stop sampling
+   */
+  public void unregister(ProjectSubscriptionName subscription) {
+    this.subscriptions.remove(subscription);
+    this.samples.remove(subscription);
+  }
+
+  /**
+   * Return the last sampled backlog of the given subscription, without blocking.
+   *
+   * @param subscription the subscription
+   * @return the backlog, or empty if the subscription has not been sampled within the maximum
+   *     staleness
+   */
+  public Optional<Long> getBacklog(ProjectSubscriptionName subscription) {
+    Sample sample = this.samples.get(subscription);
+    if (sample == null
+        || System.currentTimeMillis() - sample.sampledAt > this.maxStaleness.toMillis()) {
+      return Optional.empty();
+    }
+    return Optional.of(sample.backlog);
+  }
+
+  /** Query the backlog of all registered subscriptions. */
+  void sample() {
+    Map<String, List<String>> subscriptionIdsByProject = new HashMap<>();
+    for (ProjectSubscriptionName subscription : this.subscriptions) {
+      subscriptionIdsByProject
+          .computeIfAbsent(subscription.getProject(), project -> new ArrayList<>())
+          .add(subscription.getSubscription());
+    }
+
+    subscriptionIdsByProject.forEach(
+        (project, subscriptionIds) -> {
+          for (int i = 0; i < subscriptionIds.size(); i += MAX_SUBSCRIPTIONS_PER_REQUEST) {
+            List<String> batch =
+                subscriptionIds.subList(
+                    i, Math.min(i + MAX_SUBSCRIPTIONS_PER_REQUEST, subscriptionIds.size()));
+            try {
+              sample(project, batch);
+            } catch (RuntimeException ex) {
+              LOGGER.warn(
+                  "Sampling the backlog of "
+                      + batch.size()
+                      + " subscriptions in project "
+                      + project
+                      + " failed.",
+                  ex);
+            }
+          }
+        });
+  }
+
+  private void sample(String project, List<String> subscriptionIds) {
+    long currentMillis = System.currentTimeMillis();
+    TimeInterval timeInterval =
+        TimeInterval.newBuilder()
+            .setStartTime(Timestamps.fromMillis(currentMillis - lookUpInterval * 60 * 1000))
+            .setEndTime(Timestamps.fromMillis(currentMillis))
+            .build();
+
+    Iterable<TimeSeries> timeSeriesList =
+        this.metricServiceClient
+            .listTimeSeries(
+                ProjectName.of(project), undeliveredFilter(subscriptionIds), timeInterval, FULL)
+            .iterateAll();
+
+    for (TimeSeries timeSeries : timeSeriesList) {
+      String subscriptionId =
+          timeSeries.getResource().getLabelsOrDefault(SUBSCRIPTION_ID_LABEL, null);
+      if (subscriptionId != null && timeSeries.getPointsCount() > 0) {
+        ProjectSubscriptionName subscription = ProjectSubscriptionName.of(project, subscriptionId);
+        if (this.subscriptions.contains(subscription)) {
+          this.samples.put(
+              subscription,
+              new Sample(timeSeries.getPoints(0).getValue().getInt64Value(), currentMillis));
+        }
+      }
+    }
+  }
+
+  private static String undeliveredFilter(List<String> subscriptionIds) {
+    StringBuilder ids = new StringBuilder();
+    for (String subscriptionId : subscriptionIds) {
+      if (ids.length() > 0) {
+        ids.append(',');
+      }
+      ids.append('"').append(subscriptionId).append('"');
+    }
+    return String.format(UNDELIVERED_FILTER_TEMPLATE, ids);
+  }
+
+  /** Stop sampling. The scheduler itself is left running. */
+  @Override
+  public synchronized void destroy() {
+    this.started = true;
+    if (this.samplingFuture != null) {
+      this.samplingFuture.cancel(false);
+      this.samplingFuture = null;
+    }
+  }
+
+  private static final class Sample {
+
+    private final long backlog;
+
+    private final long sampledAt;
+
+    Sample(long backlog, long sampledAt) {
+      this.backlog = backlog;
+      this.sampledAt = sampledAt;
+    }
+  }
+}
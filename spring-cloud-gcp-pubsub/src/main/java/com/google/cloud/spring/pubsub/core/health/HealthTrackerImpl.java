@@ -33,6 +33,9 @@ import java.util.concurrent.atomic.AtomicLong;
  * the subscription's message backlog. If backlog message size exceeds the message backlog
  * threshold, the tracker will return the number of messages over the threshold.
  *
+ * <p>If a {@link BacklogSampler} is given, the backlog is read from its last sample rather than
+ * queried from Cloud Monitoring on each check.
+ *
  * @since 2.0.6
  */
 public class HealthTrackerImpl implements HealthTracker {
@@ -45,6 +48,7 @@ public class HealthTrackerImpl implements HealthTracker {
   private final Integer lagThreshold;
   private final Integer backlogThreshold;
   private final Integer lookUpInternal;
+  private final BacklogSampler backlogSampler;
 
   private final AtomicLong processedAt = new AtomicLong(System.currentTimeMillis());
 
@@ -54,12 +58,41 @@ public class HealthTrackerImpl implements HealthTracker {
       Integer lagThreshold,
       Integer backlogThreshold,
       Integer lookUpInterval) {
+    this(
+        projectSubscriptionName,
+        metricServiceClient,
+        lagThreshold,
+        backlogThreshold,
+        lookUpInterval,
+        null);
+  }
+
+  /**
+   * Create a tracker reading the backlog from the given sampler.
+   *
+   * @param projectSubscriptionName the subscription to track
+   * @param metricServiceClient the client used to query the backlog if there is no sampler
+   * @param lagThreshold the message processing lag threshold, in seconds
+   * @param backlogThreshold the backlog threshold
+   * @param lookUpInterval the backlog lookup interval
+   * @param backlogSampler the sampler of the subscription backlog, or {@code null} to query the
+   *     backlog on each check
+   * @since 3.3.0
+   */
+  public HealthTrackerImpl(
+      ProjectSubscriptionName projectSubscriptionName,
+      MetricServiceClient metricServiceClient,
+      Integer lagThreshold,
+      Integer backlogThreshold,
+      Integer lookUpInterval,
+      BacklogSampler backlogSampler) {
     this.projectSubscriptionName = projectSubscriptionName;
     this.metricServiceClient = metricServiceClient;
     this.undeliveredFilter = undeliveredFilter(projectSubscriptionName.getSubscription());
     this.lagThreshold = lagThreshold;
     this.backlogThreshold = backlogThreshold;
     this.lookUpInternal = lookUpInterval;
+    this.backlogSampler = backlogSampler;
   }
 
   @Override
@@ -107,6 +140,10 @@ public class HealthTrackerImpl implements HealthTracker {
   }
 
   private Optional<Long> getBackLogMessages(long currentMillis) {
+    if (backlogSampler != null) {
+      return backlogSampler.getBacklog(projectSubscriptionName);
+    }
+
     TimeInterval timeInterval = timeInterval(currentMillis);
 
     ListTimeSeriesResponse timeSeriesResponse =
@@ -49,6 +49,8 @@ public class HealthTrackerRegistryImpl implements HealthTrackerRegistry {
 
   private final ConcurrentMap<ProjectSubscriptionName, HealthTracker> healthTrackers;
 
+  private BacklogSampler backlogSampler;
+
   public HealthTrackerRegistryImpl(
       String projectId,
       MetricServiceClient metricServiceClient,
@@ -84,6 +86,17 @@ public class HealthTrackerRegistryImpl implements HealthTrackerRegistry {
     this.executorProvider = executorProvider;
   }
 
+  /**
+   * Set the sampler reading subscription backlogs in the background for the trackers registered
+   * from now on. By default, each tracker queries the backlog when checked.
+   *
+   * @param backlogSampler the backlog sampler
+   * @since 3.3.0
+   */
+  public void setBacklogSampler(BacklogSampler backlogSampler) {
+    this.backlogSampler = backlogSampler;
+  }
+
   @Override
   public HealthTracker registerTracker(String subscriptionName) {
     ProjectSubscriptionName projectSubscriptionName =
@@ -99,8 +112,12 @@ public class HealthTrackerRegistryImpl implements HealthTrackerRegistry {
             metricServiceClient,
             lagThreshold,
             backlogThreshold,
-            lookUpInterval);
+            lookUpInterval,
+            backlogSampler);
     healthTrackers.put(projectSubscriptionName, healthTracker);
+    if (backlogSampler != null) {
+      backlogSampler.register(projectSubscriptionName);
+    }
     return healthTracker;
   }
 
@@ -137,6 +154,9 @@ public class HealthTrackerRegistryImpl implements HealthTrackerRegistry {
           @Override
           public void terminated(State from) {
             healthTrackers.remove(subscription);
+            if (backlogSampler != null) {
+              backlogSampler.unregister(subscription);
+            }
           }
         };
 
@@ -0,0 +1,348 @@
+/*
+ * Copyright 2022-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spring.pubsub.core.metrics;
+
+import com.google.cloud.spring.pubsub.core.publisher.PublishFlowController;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import org.springframework.util.Assert;
+
+/**
+ * {@link PubSubMetricsRecorder} registering meters with a Micrometer {@link MeterRegistry}.
+ *
+ * <p>Meters are tagged with the short topic or subscription name and, for timers, with the {@code
+ * result} of the operation. They are registered on first use and cached, so recording does not
+ * look up the registry or allocate. Percentile histograms can be enabled for the {@code
+ * gcp.pubsub} meters through the usual Micrometer {@code MeterFilter} configuration.
+ *
+ * @since 3.3.0
+ */
+public class MicrometerPubSubMetricsRecorder implements PubSubMetricsRecorder {
+
+  /** Prefix of the names of all registered meters. */
+  public static final String METRIC_PREFIX = "gcp.pubsub.";
+
+  private static final String TOPIC_TAG = "topic";
+
+  private static final String SUBSCRIPTION_TAG = "subscription";
+
+  private static final String OPERATION_TAG = "operation";
+
+  private static final String RESULT_TAG = "result";
+
+  private static final String SUCCESS = "success";
+
+  private static final String FAILURE = "failure";
+
+  private final MeterRegistry meterRegistry;
+
+  private final Map<String, TopicMeters> topicMeters = new ConcurrentHashMap<>();
+
+  private final Map<String, SubscriptionMeters> subscriptionMeters = new ConcurrentHashMap<>();
+
+  public MicrometerPubSubMetricsRecorder(MeterRegistry meterRegistry) {
+    Assert.notNull(meterRegistry, "The meterRegistry can't be null.");
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Override
+  public void publishStarted(String topic) {
+    getTopicMeters(topic).inFlight.incrementAndGet();
+  }
+
+  @Override
+  public void publishCompleted(String topic, int messageBytes, long latencyNanos, boolean success) {
+    TopicMeters meters = getTopicMeters(topic);
+    meters.inFlight.decrementAndGet();
+    (success ? meters.publishSuccess : meters.publishFailure)
+        .record(latencyNanos, TimeUnit.NANOSECONDS);
+    meters.publishSize.record(messageBytes);
+  }
+
+  @Override
+  public void flowControllerCreated(String topic, PublishFlowController flowController) {
+    getTopicMeters(topic).bindFlowController(flowController);
+  }
+
+  @Override
+  public void messagesPulled(
+      String subscription, int messageCount, long latencyNanos, boolean success) {
+    SubscriptionMeters meters = getSubscriptionMeters(subscription);
+    (success ? meters.pullSuccess : meters.pullFailure).record(latencyNanos, TimeUnit.NANOSECONDS);
+    if (success) {
+      meters.pullSize.record(messageCount);
+    }
+  }
+
+  @Override
+  public void messageConverted(String subscription, long durationNanos, boolean success) {
+    SubscriptionMeters meters = getSubscriptionMeters(subscription);
+    (success ? meters.conversionSuccess : meters.conversionFailure)
+        .record(durationNanos, TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  public void acknowledgementCompleted(
+      String subscription, String operation, int messageCount, long latencyNanos, boolean success) {
+    AcknowledgementMeters meters = getSubscriptionMeters(subscription).getAckMeters(operation);
+    (success ? meters.success : meters.failure).record(latencyNanos, TimeUnit.NANOSECONDS);
+    meters.size.record(messageCount);
+  }
+
+  @Override
+  public void processingStarted(String subscription, int messageCount) {
+    getSubscriptionMeters(subscription).inFlight.addAndGet(messageCount);
+  }
+
+  @Override
+  public void processingCompleted(
+      String subscription, int messageCount, long durationNanos, boolean success) {
+    SubscriptionMeters meters = getSubscriptionMeters(subscription);
+    meters.inFlight.addAndGet(-messageCount);
+    (success ? meters.processingSuccess : meters.processingFailure)
+        .record(durationNanos, TimeUnit.NANOSECONDS);
+    meters.processingSize.record(messageCount);
+  }
+
+  private TopicMeters getTopicMeters(String topic) {
+    // Meters are keyed by tag value, as a second holder for the same gauge would not be registered.
+    String tagValue = tagValue(topic);
+    TopicMeters meters = this.topicMeters.get(tagValue);
+    if (meters != null) {
+      return meters;
+    }
+    return this.topicMeters.computeIfAbsent(tagValue, TopicMeters::new);
+  }
+
+  private SubscriptionMeters getSubscriptionMeters(String subscription) {
+    String tagValue = tagValue(subscription);
+    SubscriptionMeters meters = this.subscriptionMeters.get(tagValue);
+    if (meters != null) {
+      return meters;
+    }
+    return this.subscriptionMeters.computeIfAbsent(tagValue, SubscriptionMeters::new);
+  }
+
+  /** Strips the project from fully-qualified names so that both forms share their meters. */
+  private static String tagValue(String name) {
+    return name.substring(name.lastIndexOf('/') + 1);
+  }
+
+  private Timer timer(String name, String description, String... tags) {
+    return Timer.builder(METRIC_PREFIX + name)
+        .description(description)
+        .tags(tags)
+        .register(this.meterRegistry);
+  }
+
+  private DistributionSummary summary(
+      String name, String description, String baseUnit, String... tags) {
+    return DistributionSummary.builder(METRIC_PREFIX + name)
+        .description(description)
+        .baseUnit(baseUnit)
+        .tags(tags)
+        .register(this.meterRegistry);
+  }
+
+  private AtomicLong gauge(String name, String description, String... tags) {
+    AtomicLong value = new AtomicLong();
+    Gauge.builder(METRIC_PREFIX + name, value, AtomicLong::get)
+        .description(description)
+        .tags(tags)
+        .register(this.meterRegistry);
+    return value;
+  }
+
+  private final class TopicMeters {
+
+    private final String topic;
+
+    private final Timer publishSuccess;
+
+    private final Timer publishFailure;
+
+    private final DistributionSummary publishSize;
+
+    private final AtomicLong inFlight;
+
+    private final AtomicReference<PublishFlowController> flowController = new AtomicReference<>();
+
+    TopicMeters(String topic) {
+      this.topic = topic;
+      String description = "Time until a published message is confirmed";
+      this.publishSuccess = timer("publish", description, TOPIC_TAG, topic, RESULT_TAG, SUCCESS);
+      this.publishFailure = timer("publish", description, TOPIC_TAG, topic, RESULT_TAG, FAILURE);
+      this.publishSize =
+          summary("publish.size", "Size of published messages", "bytes", TOPIC_TAG, topic);
+      this.inFlight =
+          gauge("publish.in.flight", "Messages awaiting publish confirmation", TOPIC_TAG, topic);
+    }
+
+    /**
+     * Observe the given flow controller from now on. The meters are registered once and read the
+     * current controller, as a controller is replaced when the topic's settings change.
+     */
+    void bindFlowController(PublishFlowController controller) {
+      if (this.flowController.getAndSet(controller) != null) {
+        return;
+      }
+      Gauge.builder(
+              METRIC_PREFIX + "publish.buffered.messages",
+              this.flowController,
+              current -> current.get().getBufferedMessageCount())
+          .description("Messages buffered under publish flow control")
+          .tags(TOPIC_TAG, this.topic)
+          .register(MicrometerPubSubMetricsRecorder.this.meterRegistry);
+      Gauge.builder(
+              METRIC_PREFIX + "publish.buffered.bytes",
+              this.flowController,
+              current -> current.get().getBufferedBytes())
+          .description("Bytes buffered under publish flow control")
+          .baseUnit("bytes")
+          .tags(TOPIC_TAG, this.topic)
+          .register(MicrometerPubSubMetricsRecorder.this.meterRegistry);
+      FunctionCounter.builder(
+              METRIC_PREFIX + "publish.rejected",
+              this.flowController,
+              current -> current.get().getRejectedMessageCount())
+          .description("Messages rejected or dropped by publish flow control")
+          .tags(TOPIC_TAG, this.topic)
+          .register(MicrometerPubSubMetricsRecorder.this.meterRegistry);
+    }
+  }
+
+  private final class SubscriptionMeters {
+
+    private final String subscription;
+
+    private final Timer pullSuccess;
+
+    private final Timer pullFailure;
+
+    private final DistributionSummary pullSize;
+
+    private final Timer conversionSuccess;
+
+    private final Timer conversionFailure;
+
+    private final Timer processingSuccess;
+
+    private final Timer processingFailure;
+
+    private final DistributionSummary processingSize;
+
+    private final AtomicLong inFlight;
+
+    private final Map<String, AcknowledgementMeters> ackMeters = new ConcurrentHashMap<>(4);
+
+    SubscriptionMeters(String subscription) {
+      this.subscription = subscription;
+      String pull = "Time taken by pull requests";
+      this.pullSuccess = timer("pull", pull, SUBSCRIPTION_TAG, subscription, RESULT_TAG, SUCCESS);
+      this.pullFailure = timer("pull", pull, SUBSCRIPTION_TAG, subscription, RESULT_TAG, FAILURE);
+      this.pullSize =
+          summary(
+              "pull.size",
+              "Messages received per pull",
+              "messages",
+              SUBSCRIPTION_TAG,
+              subscription);
+      String conversion = "Time taken to convert received message payloads";
+      this.conversionSuccess =
+          timer("conversion", conversion, SUBSCRIPTION_TAG, subscription, RESULT_TAG, SUCCESS);
+      this.conversionFailure =
+          timer("conversion", conversion, SUBSCRIPTION_TAG, subscription, RESULT_TAG, FAILURE);
+      String processing = "Time taken by the application to process received messages";
+      this.processingSuccess =
+          timer("processing", processing, SUBSCRIPTION_TAG, subscription, RESULT_TAG, SUCCESS);
+      this.processingFailure =
+          timer("processing", processing, SUBSCRIPTION_TAG, subscription, RESULT_TAG, FAILURE);
+      this.processingSize =
+          summary(
+              "processing.size",
+              "Messages processed together",
+              "messages",
+              SUBSCRIPTION_TAG,
+              subscription);
+      this.inFlight =
+          gauge(
+              "processing.in.flight",
+              "Received messages being processed",
+              SUBSCRIPTION_TAG,
+              subscription);
+    }
+
+    AcknowledgementMeters getAckMeters(String operation) {
+      AcknowledgementMeters meters = this.ackMeters.get(operation);
+      if (meters != null) {
+        return meters;
+      }
+      return this.ackMeters.computeIfAbsent(
+          operation, key -> new AcknowledgementMeters(this.subscription, key));
+    }
+  }
+
+  private final class AcknowledgementMeters {
+
+    private final Timer success;
+
+    private final Timer failure;
+
+    private final DistributionSummary size;
+
+    AcknowledgementMeters(String subscription, String operation) {
+      String description = "Time until acknowledgement requests complete";
+      this.success =
+          timer(
+              "acknowledgement",
+              description,
+              SUBSCRIPTION_TAG,
+              subscription,
+              OPERATION_TAG,
+              operation,
+              RESULT_TAG,
+              SUCCESS);
+      this.failure =
+          timer(
+              "acknowledgement",
+              description,
+              SUBSCRIPTION_TAG,
+              subscription,
+              OPERATION_TAG,
+              operation,
+              RESULT_TAG,
+              FAILURE);
+      this.size =
+          summary(
+              "acknowledgement.size",
+              "Messages per acknowledgement request",
+              "messages",
+              SUBSCRIPTION_TAG,
+              subscription,
+              OPERATION_TAG,
+              operation);
+    }
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2022-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spring.pubsub.core.metrics;
+
+import com.google.cloud.spring.pubsub.core.publisher.PublishFlowController;
+
+/**
+ * Records measurements taken on the Pub/Sub publish and subscribe paths. Components only take
+ * measurements when a recorder is set on them, so implementations are called from hot paths and
+ * should not block or allocate per call.
+ *
+ * <p>Topic and subscription names are passed in the form they were given to the publishing or
+ * subscribing component, which may be either short or fully-qualified.
+ *
+ * @since 3.3.0
+ */
+public interface PubSubMetricsRecorder {
+
+  /** Operation name for acknowledgements. */
+  String ACK_OPERATION = "ack";
+
+  /** Operation name for negative acknowledgements. */
+  String NACK_OPERATION = "nack";
+
+  /** Operation name for ack deadline modifications. */
+  String MODIFY_ACK_DEADLINE_OPERATION = "modify_ack_deadline";
+
+  /**
+   * Record that a message was handed to a publisher and is awaiting confirmation.
+   *
+   * @param topic the topic name
+   */
+  void publishStarted(String topic);
+
+  /**
+   * Record the outcome of a publish started with {@link #publishStarted(String)}.
+   *
+   * @param topic the topic name
+   * @param messageBytes the serialized size of the published message
+   * @param latencyNanos the time from handing the message to the publisher until the outcome
+   * @param success whether the message was published
+   */
+  void publishCompleted(String topic, int messageBytes, long latencyNanos, boolean success);
+
+  /**
+   * Record that a topic got a flow controller, so that the messages it buffers can be observed.
+   * Called again with a new controller when the flow control settings of the topic change. Does
+   * nothing by default.
+   *
+   * @param topic the topic name
+   * @param flowController the flow controller of the topic
+   */
+  default void flowControllerCreated(String topic, PublishFlowController flowController) {}
+
+  /**
+   * Record a synchronous or asynchronous pull.
+   *
+   * @param subscription the subscription name
+   * @param messageCount the number of messages received
+   * @param latencyNanos the time taken by the pull request
+   * @param success whether the pull request succeeded
+   */
+  void messagesPulled(String subscription, int messageCount, long latencyNanos, boolean success);
+
+  /**
+   * Record the conversion of a received message payload.
+   *
+   * @param subscription the subscription name
+   * @param durationNanos the time taken by the conversion
+   * @param success whether the conversion succeeded
+   */
+  void messageConverted(String subscription, long durationNanos, boolean success);
+
+  /**
+   * Record an acknowledgement request for a group of messages of one subscription.
+   *
+   * @param subscription the subscription name
+   * @param operation one of {@link #ACK_OPERATION}, {@link #NACK_OPERATION} or {@link
+   *     #MODIFY_ACK_DEADLINE_OPERATION}
+   * @param messageCount the number of messages in the request
+   * @param latencyNanos the time from the request until its outcome
+   * @param success whether the request succeeded
+   */
+  void acknowledgementCompleted(
+      String subscription, String operation, int messageCount, long latencyNanos, boolean success);
+
+  /**
+   * Record that received messages were handed to the application for processing.
+   *
+   * @param subscription the subscription name
+   * @param messageCount the number of messages handed over together
+   */
+  void processingStarted(String subscription, int messageCount);
+
+  /**
+   * Record the outcome of processing started with {@link #processingStarted(String, int)}.
+   *
+   * @param subscription the subscription name
+   * @param messageCount the number of messages handed over together
+   * @param durationNanos the time taken by the application to process the messages
+   * @param success whether processing completed without an exception
+   */
+  void processingCompleted(
+      String subscription, int messageCount, long durationNanos, boolean success);
+}
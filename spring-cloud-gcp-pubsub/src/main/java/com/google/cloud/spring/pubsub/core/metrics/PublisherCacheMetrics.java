@@ -0,0 +1,70 @@
+/*
+ * Copyright 2022-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spring.pubsub.core.metrics;
+
+import com.google.cloud.spring.pubsub.support.CachingPublisherFactory;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.util.Assert;
+
+/**
+ * {@link MeterBinder} exposing the statistics of a {@link CachingPublisherFactory}.
+ *
+ * <p>Registers the {@code gcp.pubsub.publisher.cache.gets} function counter tagged with {@code
+ * result} {@code hit} or {@code miss}, the {@code gcp.pubsub.publisher.cache.evictions} function
+ * counter and the {@code gcp.pubsub.publisher.cache.size} gauge. The meters read the factory's
+ * counters when scraped, so publishing is not affected.
+ *
+ * @since 3.3.0
+ */
+public class PublisherCacheMetrics implements MeterBinder {
+
+  private static final String METRIC_PREFIX =
+      MicrometerPubSubMetricsRecorder.METRIC_PREFIX + "publisher.cache.";
+
+  private final CachingPublisherFactory publisherFactory;
+
+  public PublisherCacheMetrics(CachingPublisherFactory publisherFactory) {
+    Assert.notNull(publisherFactory, "The publisherFactory can't be null.");
+    this.publisherFactory = publisherFactory;
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    FunctionCounter.builder(
+            METRIC_PREFIX + "gets", this.publisherFactory, CachingPublisherFactory::getHitCount)
+        .tag("result", "hit")
+        .description("Publisher requests served from the cache")
+        .register(registry);
+    FunctionCounter.builder(
+            METRIC_PREFIX + "gets", this.publisherFactory, CachingPublisherFactory::getMissCount)
+        .tag("result", "miss")
+        .description("Publisher requests that created a publisher")
+        .register(registry);
+    FunctionCounter.builder(
+            METRIC_PREFIX + "evictions",
+            this.publisherFactory,
+            CachingPublisherFactory::getEvictionCount)
+        .description("Publishers evicted for exceeding the size limit or being idle")
+        .register(registry);
+    Gauge.builder(METRIC_PREFIX + "size", this.publisherFactory, CachingPublisherFactory::getSize)
+        .description("Currently cached publishers")
+        .register(registry);
+  }
+}
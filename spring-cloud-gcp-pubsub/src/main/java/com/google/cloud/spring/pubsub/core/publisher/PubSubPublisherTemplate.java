@@ -21,12 +21,19 @@ import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import com.google.api.core.ApiFuture;
 import com.google.api.core.ApiFutureCallback;
 import com.google.api.core.ApiFutures;
+import com.google.cloud.pubsub.v1.Publisher;
 import com.google.cloud.spring.pubsub.core.PubSubDeliveryException;
+import com.google.cloud.spring.pubsub.core.metrics.PubSubMetricsRecorder;
 import com.google.cloud.spring.pubsub.support.PublisherFactory;
+import com.google.cloud.spring.pubsub.support.converter.PayloadCompressor;
 import com.google.cloud.spring.pubsub.support.converter.PubSubMessageConverter;
 import com.google.cloud.spring.pubsub.support.converter.SimplePubSubMessageConverter;
+import com.google.protobuf.ByteString;
 import com.google.pubsub.v1.PubsubMessage;
+import java.io.IOException;
+import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.springframework.util.Assert;
@@ -44,10 +51,28 @@ public class PubSubPublisherTemplate implements PubSubPublisherOperations {
 
   private static final Log LOGGER = LogFactory.getLog(PubSubPublisherTemplate.class);
 
+  /** Default minimum payload size, in bytes, for compression to apply. */
+  public static final int DEFAULT_COMPRESSION_THRESHOLD = 1024;
+
   private PubSubMessageConverter pubSubMessageConverter = new SimplePubSubMessageConverter();
 
   private final PublisherFactory publisherFactory;
 
+  private final Map<String, PayloadCompressor> topicCompressors = new ConcurrentHashMap<>();
+
+  private PayloadCompressor compressor;
+
+  private int compressionThreshold = DEFAULT_COMPRESSION_THRESHOLD;
+
+  private final Map<String, PublishFlowControlSettings> topicFlowControlSettings =
+      new ConcurrentHashMap<>();
+
+  private PublishFlowControlSettings flowControlSettings;
+
+  private final Map<String, PublishFlowController> flowControllers = new ConcurrentHashMap<>();
+
+  private PubSubMetricsRecorder metricsRecorder;
+
   /**
    * Default {@link PubSubPublisherTemplate} constructor that uses {@link
    * SimplePubSubMessageConverter} to serialize and deserialize payloads.
@@ -71,6 +96,99 @@ public class PubSubPublisherTemplate implements PubSubPublisherOperations {
     this.pubSubMessageConverter = pubSubMessageConverter;
   }
 
+  /**
+   * Set the {@link PayloadCompressor} applied to messages published to topics that have no
+   * topic-specific compressor. Compression is disabled by default.
+   *
+   * @param compressor the compressor, or {@code null} to only compress topics with a
+   *     topic-specific compressor
+   * @since 3.3.0
+   */
+  public void setCompressor(PayloadCompressor compressor) {
+    this.compressor = compressor;
+  }
+
+  /**
+   * Set the {@link PayloadCompressor} applied to messages published to the given topic, taking
+   * precedence over the compressor set by {@link #setCompressor(PayloadCompressor)}. The topic
+   * must be given in the same form it is published to.
+   *
+   * @param topic the topic name
+   * @param compressor the compressor for the topic
+   * @since 3.3.0
+   */
+  public void setCompressor(String topic, PayloadCompressor compressor) {
+    Assert.hasText(topic, "The topic can't be null or empty.");
+    Assert.notNull(compressor, "The compressor can't be null.");
+    this.topicCompressors.put(topic, compressor);
+  }
+
+  /**
+   * Set the minimum payload size, in bytes, for compression to apply. Smaller payloads are
+   * published uncompressed. Defaults to {@value #DEFAULT_COMPRESSION_THRESHOLD}.
+   *
+   * @param compressionThreshold the compression threshold in bytes
+   * @since 3.3.0
+   */
+  public void setCompressionThreshold(int compressionThreshold) {
+    Assert.isTrue(compressionThreshold >= 0, "The compressionThreshold must not be negative.");
+    this.compressionThreshold = compressionThreshold;
+  }
+
+  /**
+   * Set the limits on messages buffered for each topic that has no topic-specific settings. Each
+   * topic is limited separately. Messages are not limited by default.
+   *
+   * @param flowControlSettings the flow control settings, or {@code null} to only limit topics with
+   *     topic-specific settings
+   * @since 3.3.0
+   */
+  public void setFlowControlSettings(PublishFlowControlSettings flowControlSettings) {
+    this.flowControlSettings = flowControlSettings;
+    this.flowControllers.clear();
+  }
+
+  /**
+   * Set the limits on messages buffered for the given topic, taking precedence over the settings
+   * set by {@link #setFlowControlSettings(PublishFlowControlSettings)}. The topic must be given in
+   * the same form it is published to.
+   *
+   * @param topic the topic name
+   * @param flowControlSettings the flow control settings for the topic
+   * @since 3.3.0
+   */
+  public void setFlowControlSettings(String topic, PublishFlowControlSettings flowControlSettings) {
+    Assert.hasText(topic, "The topic can't be null or empty.");
+    Assert.notNull(flowControlSettings, "The flowControlSettings can't be null.");
+    this.topicFlowControlSettings.put(topic, flowControlSettings);
+    this.flowControllers.remove(topic);
+  }
+
+  /**
+   * Return the flow controllers of the topics published to so far that have flow control settings,
+   * by topic name, for monitoring buffered messages.
+   *
+   * @return an unmodifiable view of the flow controllers
+   * @since 3.3.0
+   */
+  public Map<String, PublishFlowController> getFlowControllers() {
+    return Collections.unmodifiableMap(this.flowControllers);
+  }
+
+  /**
+   * Set the recorder of publish latencies, message sizes, unconfirmed messages and flow
+   * controllers per topic. No measurements are taken by default.
+   *
+   * @param metricsRecorder the metrics recorder, or {@code null} to disable measurements
+   * @since 3.3.0
+   */
+  public void setMetricsRecorder(PubSubMetricsRecorder metricsRecorder) {
+    this.metricsRecorder = metricsRecorder;
+    if (metricsRecorder != null) {
+      this.flowControllers.forEach(metricsRecorder::flowControllerCreated);
+    }
+  }
+
   /**
    * Uses the configured message converter to first convert the payload and headers to a {@code
    * PubsubMessage} and then publish it.
@@ -91,10 +209,118 @@ public class PubSubPublisherTemplate implements PubSubPublisherOperations {
     Assert.hasText(topic, "The topic can't be null or empty.");
     Assert.notNull(pubsubMessage, "The pubsubMessage can't be null.");
 
-    ApiFuture<String> publishFuture =
-        this.publisherFactory.createPublisher(topic).publish(pubsubMessage);
-
     final SettableListenableFuture<String> settableFuture = new SettableListenableFuture<>();
+
+    PubsubMessage messageToPublish;
+    try {
+      messageToPublish = compress(topic, pubsubMessage);
+    } catch (IOException ex) {
+      String errorMessage = "Compressing a message for " + topic + " topic failed.";
+      LOGGER.warn(errorMessage, ex);
+      settableFuture.setException(new PubSubDeliveryException(pubsubMessage, errorMessage, ex));
+      return settableFuture;
+    }
+
+    PublishFlowController flowController = getFlowController(topic);
+    if (flowController == null) {
+      doPublish(topic, pubsubMessage, messageToPublish, settableFuture, null);
+      return settableFuture;
+    }
+
+    flowController.submit(
+        messageToPublish.getSerializedSize(),
+        () -> {
+          try {
+            doPublish(topic, pubsubMessage, messageToPublish, settableFuture, flowController);
+          } catch (RuntimeException ex) {
+            String errorMessage = "Publishing to " + topic + " topic failed.";
+            LOGGER.warn(errorMessage, ex);
+            settableFuture.setException(
+                new PubSubDeliveryException(pubsubMessage, errorMessage, ex));
+          }
+        },
+        reason -> {
+          String errorMessage = "Publishing to " + topic + " topic failed. " + reason;
+          LOGGER.warn(errorMessage);
+          settableFuture.setException(
+              new PubSubDeliveryException(pubsubMessage, errorMessage, null));
+        });
+    return settableFuture;
+  }
+
+  private PublishFlowController getFlowController(String topic) {
+    if (this.flowControlSettings == null && this.topicFlowControlSettings.isEmpty()) {
+      return null;
+    }
+    PublishFlowController flowController = this.flowControllers.get(topic);
+    if (flowController != null) {
+      return flowController;
+    }
+    return this.flowControllers.computeIfAbsent(
+        topic,
+        key -> {
+          PublishFlowControlSettings settings =
+              this.topicFlowControlSettings.getOrDefault(key, this.flowControlSettings);
+          if (settings == null) {
+            return null;
+          }
+          PublishFlowController created = new PublishFlowController(settings);
+          PubSubMetricsRecorder recorder = this.metricsRecorder;
+          if (recorder != null) {
+            recorder.flowControllerCreated(key, created);
+          }
+          return created;
+        });
+  }
+
+  /**
+   * Publish with the topic's publisher. A caching factory may evict and shut down a publisher right
+   * after handing it out, in which case the message is published with the replacement instead.
+   */
+  private ApiFuture<String> publishWithCurrentPublisher(String topic, PubsubMessage message) {
+    Publisher publisher = this.publisherFactory.createPublisher(topic);
+    while (true) {
+      try {
+        return publisher.publish(message);
+      } catch (IllegalStateException ex) {
+        Publisher current = this.publisherFactory.createPublisher(topic);
+        if (current == publisher) {
+          throw ex;
+        }
+        publisher = current;
+      }
+    }
+  }
+
+  private void doPublish(
+      String topic,
+      PubsubMessage pubsubMessage,
+      PubsubMessage messageToPublish,
+      SettableListenableFuture<String> settableFuture,
+      PublishFlowController flowController) {
+    PubSubMetricsRecorder recorder = this.metricsRecorder;
+    final long startNanos;
+    if (recorder != null) {
+      startNanos = System.nanoTime();
+      recorder.publishStarted(topic);
+    } else {
+      startNanos = 0L;
+    }
+
+    ApiFuture<String> publishFuture;
+    try {
+      publishFuture = publishWithCurrentPublisher(topic, messageToPublish);
+    } catch (RuntimeException ex) {
+      if (flowController != null) {
+        flowController.release(messageToPublish.getSerializedSize());
+      }
+      if (recorder != null) {
+        recorder.publishCompleted(
+            topic, messageToPublish.getSerializedSize(), System.nanoTime() - startNanos, false);
+      }
+      throw ex;
+    }
+
     ApiFutures.addCallback(
         publishFuture,
         new ApiFutureCallback<String>() {
@@ -106,6 +332,7 @@ public class PubSubPublisherTemplate implements PubSubPublisherOperations {
             PubSubDeliveryException pubSubDeliveryException =
                 new PubSubDeliveryException(pubsubMessage, errorMessage, throwable);
             settableFuture.setException(pubSubDeliveryException);
+            completed(false);
           }
 
           @Override
@@ -114,11 +341,42 @@ public class PubSubPublisherTemplate implements PubSubPublisherOperations {
               LOGGER.debug("Publishing to " + topic + " was successful. Message ID: " + result);
             }
             settableFuture.set(result);
+            completed(true);
+          }
+
+          private void completed(boolean success) {
+            if (flowController != null) {
+              flowController.release(messageToPublish.getSerializedSize());
+            }
+            if (recorder != null) {
+              recorder.publishCompleted(
+                  topic,
+                  messageToPublish.getSerializedSize(),
+                  System.nanoTime() - startNanos,
+                  success);
+            }
           }
         },
         directExecutor());
+  }
 
-    return settableFuture;
+  private PubsubMessage compress(String topic, PubsubMessage pubsubMessage) throws IOException {
+    PayloadCompressor topicCompressor = this.topicCompressors.getOrDefault(topic, this.compressor);
+    if (topicCompressor == null
+        || pubsubMessage.getData().size() < this.compressionThreshold
+        || pubsubMessage.containsAttributes(PayloadCompressor.CONTENT_ENCODING_ATTRIBUTE)) {
+      return pubsubMessage;
+    }
+
+    ByteString compressed = topicCompressor.compress(pubsubMessage.getData());
+    if (compressed.size() >= pubsubMessage.getData().size()) {
+      // Incompressible payload; not worth the decompression cost on the subscriber side.
+      return pubsubMessage;
+    }
+    return pubsubMessage.toBuilder()
+        .setData(compressed)
+        .putAttributes(PayloadCompressor.CONTENT_ENCODING_ATTRIBUTE, topicCompressor.getEncoding())
+        .build();
   }
 
   public PublisherFactory getPublisherFactory() {
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2022-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spring.pubsub.core.publisher;
+
+import org.springframework.util.Assert;
+
+/**
+ * Limits on the messages a {@link PubSubPublisherTemplate} buffers for a topic, and what happens to
+ * a message published while they are reached.
+ *
+ * <p>A message counts against the limits from the moment it is published until the Pub/Sub
+ * service confirms or rejects it, including any time spent waiting in the {@link
+ * com.google.cloud.pubsub.v1.Publisher}'s batches.
+ *
+ * @since 3.3.0
+ */
+public class PublishFlowControlSettings {
+
+  /** What to do with a message published while the limits are reached. */
+  public enum OverflowPolicy {
+
+    /** Block the publishing thread until enough buffered messages have been confirmed. */
+    BLOCK,
+
+    /** Fail the returned future right away, without publishing the message. */
+    FAIL_FAST,
+
+    /**
+     * Queue the message until enough buffered messages have been confirmed, dropping the oldest
+     * queued messages to keep the queue within the same limits. The futures of dropped messages
+     * fail.
+     */
+    DROP_OLDEST
+  }
+
+  private long maxOutstandingMessages;
+
+  private long maxOutstandingBytes;
+
+  private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+
+  public long getMaxOutstandingMessages() {
+    return this.maxOutstandingMessages;
+  }
+
+  /**
+   * Set the maximum number of unconfirmed messages. Defaults to 0, which means no limit.
+   *
+   * @param maxOutstandingMessages the maximum number of unconfirmed messages
+   */
+  public void setMaxOutstandingMessages(long maxOutstandingMessages) {
+    Assert.isTrue(maxOutstandingMessages >= 0, "The maxOutstandingMessages must not be negative.");
+    this.maxOutstandingMessages = maxOutstandingMessages;
+  }
+
+  public long getMaxOutstandingBytes() {
+    return this.maxOutstandingBytes;
+  }
+
+  /**
+   * Set the maximum total serialized size of unconfirmed messages. A single message larger than
+   * the limit is only published when no other message is outstanding. Defaults to 0, which means
+   * no limit.
+   *
+   * @param maxOutstandingBytes the maximum number of unconfirmed bytes
+   */
+  public void setMaxOutstandingBytes(long maxOutstandingBytes) {
+    Assert.isTrue(maxOutstandingBytes >= 0, "The maxOutstandingBytes must not be negative.");
+    this.maxOutstandingBytes = maxOutstandingBytes;
+  }
+
+  public OverflowPolicy getOverflowPolicy() {
+    return this.overflowPolicy;
+  }
+
+  /**
+   * Set what happens to a message published while the limits are reached. Defaults to {@link
+   * OverflowPolicy#BLOCK}.
+   *
+   * @param overflowPolicy the overflow policy
+   */
+  public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+    Assert.notNull(overflowPolicy, "The overflowPolicy can't be null.");
+    this.overflowPolicy = overflowPolicy;
+  }
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2022-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spring.pubsub.core.publisher;
+
+import com.google.cloud.spring.pubsub.core.publisher.PublishFlowControlSettings.OverflowPolicy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Enforces the {@link PublishFlowControlSettings} of one topic and keeps track of the messages
+ * buffered for it.
+ *
+ * @since 3.3.0
+ */
+public final class PublishFlowController {
+
+  private final long maxOutstandingMessages;
+
+  private final long maxOutstandingBytes;
+
+  private final OverflowPolicy overflowPolicy;
+
+  private final LongAdder rejectedMessageCount = new LongAdder();
+
+  // Published on every change, so that monitoring doesn't take the lock.
+
+  private volatile long bufferedMessageCount;
+
+  private volatile long bufferedBytes;
+
+  // The fields below are guarded by "this".
+
+  private long outstandingMessages;
+
+  private long outstandingBytes;
+
+  private final Deque<PendingPublish> pending = new ArrayDeque<>();
+
+  private long pendingBytes;
+
+  PublishFlowController(PublishFlowControlSettings settings) {
+    this.maxOutstandingMessages = settings.getMaxOutstandingMessages();
+    this.maxOutstandingBytes = settings.getMaxOutstandingBytes();
+    this.overflowPolicy = settings.getOverflowPolicy();
+  }
+
+  /**
+   * Run the publish action once the message fits within the limits, or reject it according to the
+   * overflow policy. Every action that runs must be followed by a call to {@link #release(int)}.
+   *
+   * @param bytes the serialized size of the message
+   * @param publish the action publishing the message
+   * @param reject called with the reason if the message is not published
+   */
+  void submit(int bytes, Runnable publish, Consumer<String> reject) {
+    String rejection = null;
+    boolean queued = false;
+    List<PendingPublish> dropped = Collections.emptyList();
+    synchronized (this) {
+      if (this.pending.isEmpty() && fits(bytes)) {
+        reserve(bytes);
+      } else if (this.overflowPolicy == OverflowPolicy.BLOCK) {
+        try {
+          while (!fits(bytes)) {
+            wait();
+          }
+          reserve(bytes);
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+          rejection = "Interrupted while waiting for buffered messages to be published.";
+        }
+      } else if (this.overflowPolicy == OverflowPolicy.FAIL_FAST) {
+        rejection = "Flow control limits reached; message not published.";
+      } else {
+        this.pending.addLast(new PendingPublish(bytes, publish, reject));
+        this.pendingBytes += bytes;
+        dropped = trimPending();
+        queued = true;
+      }
+      updateBuffered();
+    }
+
+    for (PendingPublish droppedPublish : dropped) {
+      this.rejectedMessageCount.increment();
+      droppedPublish.reject.accept(
+          "Flow control limits reached; message dropped in favor of newer messages.");
+    }
+    if (rejection != null) {
+      this.rejectedMessageCount.increment();
+      reject.accept(rejection);
+    } else if (!queued) {
+      publish.run();
+    }
+  }
+
+  /**
+   * Release the capacity held by a published message once the service has confirmed or rejected
+   * it, and publish queued messages that now fit.
+   *
+   * @param bytes the serialized size of the message
+   */
+  void release(int bytes) {
+    List<PendingPublish> ready = new ArrayList<>();
+    synchronized (this) {
+      this.outstandingMessages--;
+      this.outstandingBytes -= bytes;
+      while (!this.pending.isEmpty() && fits(this.pending.peekFirst().bytes)) {
+        PendingPublish next = this.pending.pollFirst();
+        this.pendingBytes -= next.bytes;
+        reserve(next.bytes);
+        ready.add(next);
+      }
+      updateBuffered();
+      notifyAll();
+    }
+    ready.forEach(next -> next.publish.run());
+  }
+
+  private boolean fits(int bytes) {
+    if (this.outstandingMessages == 0) {
+      // Let oversized messages through on their own rather than never.
+      return true;
+    }
+    return (this.maxOutstandingMessages == 0
+            || this.outstandingMessages < this.maxOutstandingMessages)
+        && (this.maxOutstandingBytes == 0
+            || this.outstandingBytes + bytes <= this.maxOutstandingBytes);
+  }
+
+  private void reserve(int bytes) {
+    this.outstandingMessages++;
+    this.outstandingBytes += bytes;
+  }
+
+  private void updateBuffered() {
+    this.bufferedMessageCount = this.outstandingMessages + this.pending.size();
+    this.bufferedBytes = this.outstandingBytes + this.pendingBytes;
+  }
+
+  private List<PendingPublish> trimPending() {
+    List<PendingPublish> dropped = new ArrayList<>();
+    while (this.pending.size() > 1
+        && ((this.maxOutstandingMessages != 0
+                && this.pending.size() > this.maxOutstandingMessages)
+            || (this.maxOutstandingBytes != 0 && this.pendingBytes > this.maxOutstandingBytes))) {
+      PendingPublish oldest = this.pending.pollFirst();
+      this.pendingBytes -= oldest.bytes;
+      dropped.add(oldest);
+    }
+    return dropped;
+  }
+
+  /**
+   * Return the number of messages published but not confirmed yet, including messages queued by
+   * {@link OverflowPolicy#DROP_OLDEST}.
+   *
+   * @return the number of buffered messages
+   */
+  public long getBufferedMessageCount() {
+    return this.bufferedMessageCount;
+  }
+
+  /**
+   * Return the total serialized size of messages published but not confirmed yet, including
+   * messages queued by {@link OverflowPolicy#DROP_OLDEST}.
+   *
+   * @return the number of buffered bytes
+   */
+  public long getBufferedBytes() {
+    return this.bufferedBytes;
+  }
+
+  /**
+   * Return the number of messages that were not published because of the limits.
+   *
+   * @return the number of rejected or dropped messages
+   */
+  public long getRejectedMessageCount() {
+    return this.rejectedMessageCount.sum();
+  }
+
+  private static final class PendingPublish {
+
+    private final int bytes;
+
+    private final Runnable publish;
+
+    private final Consumer<String> reject;
+
+    PendingPublish(int bytes, Runnable publish, Consumer<String> reject) {
+      this.bytes = bytes;
+      this.publish = publish;
+      this.reject = reject;
+    }
+  }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2022-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spring.pubsub.core.subscriber;
+
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+import com.google.api.core.SettableApiFuture;
+import com.google.protobuf.Empty;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.springframework.util.Assert;
+
+/**
+ * Accumulates ack IDs for a single subscription and acknowledgement operation across calls, and
+ * sends them as one request once either the size or the delay threshold is reached.
+ *
+ * <p>Duplicate ack IDs within a pending batch are sent once. Each call to {@link #add(Collection)}
+ * returns a future that completes when every batch holding one of its ack IDs has been sent.
+ */
+class CoalescingAckBatcher {
+
+  private final Function<Collection<String>, ApiFuture<Empty>> operation;
+
+  private final int maxBatchSize;
+
+  private final long maxDelayMillis;
+
+  private final ScheduledExecutorService scheduler;
+
+  private final Object lock = new Object();
+
+  private Batch currentBatch;
+
+  CoalescingAckBatcher(
+      Function<Collection<String>, ApiFuture<Empty>> operation,
+      int maxBatchSize,
+      long maxDelayMillis,
+      ScheduledExecutorService scheduler) {
+    Assert.notNull(operation, "The operation can't be null.");
+    Assert.isTrue(maxBatchSize > 0, "The maxBatchSize must be positive.");
+    Assert.isTrue(maxDelayMillis >= 0, "The maxDelayMillis must not be negative.");
+    Assert.notNull(scheduler, "The scheduler can't be null.");
+
+    this.operation = operation;
+    this.maxBatchSize = maxBatchSize;
+    this.maxDelayMillis = maxDelayMillis;
+    this.scheduler = scheduler;
+  }
+
+  /**
+   * Add ack IDs to the pending batch.
+   *
+   * @param ackIds the ack IDs to send
+   * @return a future completing once all the ack IDs have been sent
+   */
+  ApiFuture<Empty> add(Collection<String> ackIds) {
+    List<ApiFuture<Empty>> batchFutures = new ArrayList<>(1);
+    List<Batch> fullBatches = null;
+    Batch newBatch = null;
+
+    synchronized (this.lock) {
+      for (String ackId : ackIds) {
+        if (this.currentBatch == null) {
+          this.currentBatch = new Batch();
+          newBatch = this.currentBatch;
+        }
+        this.currentBatch.ackIds.add(ackId);
+        if (batchFutures.isEmpty()
+            || batchFutures.get(batchFutures.size() - 1) != this.currentBatch.future) {
+          batchFutures.add(this.currentBatch.future);
+        }
+        if (this.currentBatch.ackIds.size() >= this.maxBatchSize) {
+          if (fullBatches == null) {
+            fullBatches = new ArrayList<>(1);
+          }
+          fullBatches.add(this.currentBatch);
+          this.currentBatch = null;
+        }
+      }
+    }
+
+    if (newBatch != null && newBatch != lastOf(fullBatches)) {
+      scheduleFlush(newBatch);
+    }
+    if (fullBatches != null) {
+      fullBatches.forEach(this::send);
+    }
+
+    if (batchFutures.size() == 1) {
+      return batchFutures.get(0);
+    }
+    return ApiFutures.transform(
+        ApiFutures.allAsList(batchFutures),
+        results -> Empty.getDefaultInstance(),
+        directExecutor());
+  }
+
+  /** Send the pending batch, if any, without waiting for the delay threshold. */
+  void flush() {
+    Batch batch;
+    synchronized (this.lock) {
+      batch = this.currentBatch;
+      this.currentBatch = null;
+    }
+    if (batch != null) {
+      send(batch);
+    }
+  }
+
+  private void scheduleFlush(Batch batch) {
+    try {
+      this.scheduler.schedule(
+          () -> flushIfCurrent(batch), this.maxDelayMillis, TimeUnit.MILLISECONDS);
+    } catch (RejectedExecutionException ex) {
+      // The scheduler is shutting down; don't leave the batch pending.
+      flushIfCurrent(batch);
+    }
+  }
+
+  private void flushIfCurrent(Batch batch) {
+    synchronized (this.lock) {
+      if (this.currentBatch != batch) {
+        // Already sent because it reached the size threshold or was flushed explicitly.
+        return;
+      }
+      this.currentBatch = null;
+    }
+    send(batch);
+  }
+
+  private void send(Batch batch) {
+    ApiFuture<Empty> requestFuture;
+    try {
+      requestFuture = this.operation.apply(batch.ackIds);
+    } catch (RuntimeException ex) {
+      batch.future.setException(ex);
+      return;
+    }
+
+    ApiFutures.addCallback(
+        requestFuture,
+        new ApiFutureCallback<Empty>() {
+          @Override
+          public void onFailure(Throwable throwable) {
+            batch.future.setException(throwable);
+          }
+
+          @Override
+          public void onSuccess(Empty empty) {
+            batch.future.set(empty);
+          }
+        },
+        directExecutor());
+  }
+
+  private static Batch lastOf(List<Batch> batches) {
+    return batches == null ? null : batches.get(batches.size() - 1);
+  }
+
+  private static final class Batch {
+
+    private final Set<String> ackIds = new LinkedHashSet<>();
+
+    private final SettableApiFuture<Empty> future = SettableApiFuture.create();
+  }
+}
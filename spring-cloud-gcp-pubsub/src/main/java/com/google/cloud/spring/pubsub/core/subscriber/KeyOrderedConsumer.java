@@ -0,0 +1,117 @@
+/*
+ * Copyright 2022-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.google.cloud.spring.pubsub.core.subscriber;
+
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+
+import com.google.api.core.ApiService;
+import com.google.cloud.pubsub.v1.AckReplyConsumer;
+import com.google.cloud.pubsub.v1.Subscriber;
+import com.google.cloud.spring.pubsub.support.BasicAcknowledgeablePubsubMessage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import org.springframework.util.Assert;
+
+/**
+ * A message {@link Consumer} that dispatches messages through a {@link KeyOrderedMessageReceiver},
+ * so that key-ordered dispatch can be layered on top of the plain subscribe methods of any {@link
+ * PubSubSubscriberOperations}.
+ *
+ * @param <T> the type of the consumed messages
+ */
+final class KeyOrderedConsumer<T extends BasicAcknowledgeablePubsubMessage>
+    implements Consumer<T> {
+
+  private final KeyOrderedMessageReceiver receiver;
+
+  private final ExecutorService ownedExecutor;
+
+  @SuppressWarnings("unchecked")
+  KeyOrderedConsumer(Consumer<T> delegate, KeyOrderedDispatchSettings dispatchSettings) {
+    Assert.notNull(delegate, "The messageConsumer can't be null.");
+    Assert.notNull(dispatchSettings, "The dispatchSettings can't be null.");
+
+    Executor executor = dispatchSettings.getExecutor();
+    this.ownedExecutor =
+        executor == null ? Executors.newFixedThreadPool(dispatchSettings.getLanes()) : null;
+    this.receiver =
+        new KeyOrderedMessageReceiver(
+            (message, reply) -> delegate.accept(((MessageReply<T>) reply).message),
+            dispatchSettings.getKeyExtractor(),
+            dispatchSettings.getLanes(),
+            dispatchSettings.getMaxInFlightPerLane(),
+            executor != null ? executor : this.ownedExecutor);
+  }
+
+  @Override
+  public void accept(T message) {
+    this.receiver.receiveMessage(message.getPubsubMessage(), new MessageReply<>(message));
+  }
+
+  /**
+   * Shut down the lane executor created for this consumer once the subscriber stops.
+   *
+   * @param subscriber the subscriber delivering to this consumer
+   * @return the subscriber
+   */
+  Subscriber bindTo(Subscriber subscriber) {
+    if (this.ownedExecutor != null) {
+      shutdownOnStop(subscriber, this.ownedExecutor);
+    }
+    return subscriber;
+  }
+
+  static void shutdownOnStop(ApiService service, ExecutorService executor) {
+    service.addListener(
+        new ApiService.Listener() {
+          @Override
+          public void terminated(ApiService.State from) {
+            executor.shutdown();
+          }
+
+          @Override
+          public void failed(ApiService.State from, Throwable failure) {
+            executor.shutdown();
+          }
+        },
+        directExecutor());
+  }
+
+  /** Acknowledges through the original message, which the delegate receives unchanged. */
+  private static final class MessageReply<T extends BasicAcknowledgeablePubsubMessage>
+      implements AckReplyConsumer {
+
+    private final T message;
+
+    MessageReply(T message) {
+      this.message = message;
+    }
+
+    @Override
+    public void ack() {
+      this.message.ack();
+    }
+
+    @Override
+    public void nack() {
+      this.message.nack();
+    }
+  }
+}
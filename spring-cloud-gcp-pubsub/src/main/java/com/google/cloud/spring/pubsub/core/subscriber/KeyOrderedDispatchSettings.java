@@ -0,0 +1,103 @@
+/*
+ * Copyright 2022-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spring.pubsub.core.subscriber;
+
+import com.google.pubsub.v1.PubsubMessage;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import org.springframework.util.Assert;
+
+/**
+ * Settings for subscribing with key-ordered parallel dispatch.
+ *
+ * <p>Messages are sharded by key onto a fixed number of lanes. Messages sharing a key always land
+ * on the same lane and are processed one at a time in the order they were received, while
+ * different lanes are processed in parallel. By default the key is the message ordering key;
+ * messages without a key are spread across lanes round-robin.
+ *
+ * @since 3.3.0
+ */
+public class KeyOrderedDispatchSettings {
+
+  private int lanes = Runtime.getRuntime().availableProcessors();
+
+  private int maxInFlightPerLane = 1000;
+
+  private Function<PubsubMessage, String> keyExtractor = PubsubMessage::getOrderingKey;
+
+  private Executor executor;
+
+  public int getLanes() {
+    return this.lanes;
+  }
+
+  /**
+   * Set the number of lanes messages are sharded onto. Defaults to the number of available
+   * processors.
+   *
+   * @param lanes the number of lanes
+   */
+  public void setLanes(int lanes) {
+    Assert.isTrue(lanes > 0, "The number of lanes must be positive.");
+    this.lanes = lanes;
+  }
+
+  public int getMaxInFlightPerLane() {
+    return this.maxInFlightPerLane;
+  }
+
+  /**
+   * Set the maximum number of messages queued or being processed on a single lane. Once reached,
+   * delivery of further messages for that lane blocks until a slot frees up.
+   *
+   * @param maxInFlightPerLane the maximum number of in-flight messages per lane
+   */
+  public void setMaxInFlightPerLane(int maxInFlightPerLane) {
+    Assert.isTrue(maxInFlightPerLane > 0, "The maxInFlightPerLane must be positive.");
+    this.maxInFlightPerLane = maxInFlightPerLane;
+  }
+
+  public Function<PubsubMessage, String> getKeyExtractor() {
+    return this.keyExtractor;
+  }
+
+  /**
+   * Set the function used to derive the sharding key of a message. Defaults to the message
+   * ordering key. Messages for which the function returns {@code null} or an empty string are not
+   * subject to ordering.
+   *
+   * @param keyExtractor the key extractor
+   */
+  public void setKeyExtractor(Function<PubsubMessage, String> keyExtractor) {
+    Assert.notNull(keyExtractor, "The keyExtractor can't be null.");
+    this.keyExtractor = keyExtractor;
+  }
+
+  public Executor getExecutor() {
+    return this.executor;
+  }
+
+  /**
+   * Set the {@link Executor} running the lanes. If not set, a fixed thread pool with one thread
+   * per lane is created for each subscriber and shut down when the subscriber terminates.
+   *
+   * @param executor the executor running the lanes
+   */
+  public void setExecutor(Executor executor) {
+    this.executor = executor;
+  }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2022-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spring.pubsub.core.subscriber;
+
+import com.google.cloud.pubsub.v1.AckReplyConsumer;
+import com.google.cloud.pubsub.v1.MessageReceiver;
+import com.google.pubsub.v1.PubsubMessage;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+/**
+ * A {@link MessageReceiver} that shards messages by key onto a fixed number of lanes.
+ *
+ * <p>Each lane delivers its messages to the delegate receiver sequentially, in arrival order, so
+ * messages with the same key are never processed concurrently or out of order. Distinct lanes run
+ * in parallel on the provided {@link Executor}. The number of messages queued or in process on a
+ * lane is bounded; once a lane is full, {@link #receiveMessage} blocks the client library thread
+ * until the lane catches up, which in turn lets subscriber flow control apply backpressure.
+ */
+class KeyOrderedMessageReceiver implements MessageReceiver {
+
+  private static final Log LOGGER = LogFactory.getLog(KeyOrderedMessageReceiver.class);
+
+  private final MessageReceiver delegate;
+
+  private final Function<PubsubMessage, String> keyExtractor;
+
+  private final Executor executor;
+
+  private final Lane[] lanes;
+
+  private final AtomicInteger unkeyedCounter = new AtomicInteger();
+
+  KeyOrderedMessageReceiver(
+      MessageReceiver delegate,
+      Function<PubsubMessage, String> keyExtractor,
+      int laneCount,
+      int maxInFlightPerLane,
+      Executor executor) {
+    Assert.notNull(delegate, "The delegate receiver can't be null.");
+    Assert.notNull(keyExtractor, "The keyExtractor can't be null.");
+    Assert.notNull(executor, "The executor can't be null.");
+    Assert.isTrue(laneCount > 0, "The number of lanes must be positive.");
+    Assert.isTrue(maxInFlightPerLane > 0, "The maxInFlightPerLane must be positive.");
+
+    this.delegate = delegate;
+    this.keyExtractor = keyExtractor;
+    this.executor = executor;
+    this.lanes = new Lane[laneCount];
+    for (int i = 0; i < laneCount; i++) {
+      this.lanes[i] = new Lane(maxInFlightPerLane);
+    }
+  }
+
+  @Override
+  public void receiveMessage(PubsubMessage message, AckReplyConsumer consumer) {
+    this.lanes[laneIndex(message)].submit(message, consumer);
+  }
+
+  int laneIndex(PubsubMessage message) {
+    String key = this.keyExtractor.apply(message);
+    if (!StringUtils.hasLength(key)) {
+      return Math.floorMod(this.unkeyedCounter.getAndIncrement(), this.lanes.length);
+    }
+    return Math.floorMod(key.hashCode(), this.lanes.length);
+  }
+
+  /**
+   * A serial queue of deliveries. At most one drain task per lane is scheduled on the executor at
+   * any time.
+   */
+  private final class Lane implements Runnable {
+
+    private final Queue<Delivery> queue = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger wip = new AtomicInteger();
+
+    private final Semaphore inFlight;
+
+    Lane(int maxInFlight) {
+      this.inFlight = new Semaphore(maxInFlight);
+    }
+
+    void submit(PubsubMessage message, AckReplyConsumer consumer) {
+      try {
+        this.inFlight.acquire();
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        consumer.nack();
+        return;
+      }
+
+      this.queue.offer(new Delivery(message, consumer));
+      if (this.wip.getAndIncrement() == 0) {
+        try {
+          KeyOrderedMessageReceiver.this.executor.execute(this);
+        } catch (RejectedExecutionException ex) {
+          LOGGER.warn("Lane executor rejected delivery; nacking queued messages.", ex);
+          drain(true);
+        }
+      }
+    }
+
+    @Override
+    public void run() {
+      drain(false);
+    }
+
+    private void drain(boolean nackAll) {
+      int missed = 1;
+      while (true) {
+        Delivery delivery;
+        while ((delivery = this.queue.poll()) != null) {
+          try {
+            if (nackAll) {
+              delivery.consumer.nack();
+            } else {
+              deliver(delivery);
+            }
+          } finally {
+            this.inFlight.release();
+          }
+        }
+        missed = this.wip.addAndGet(-missed);
+        if (missed == 0) {
+          return;
+        }
+      }
+    }
+
+    private void deliver(Delivery delivery) {
+      try {
+        KeyOrderedMessageReceiver.this.delegate.receiveMessage(
+            delivery.message, delivery.consumer);
+      } catch (RuntimeException ex) {
+        LOGGER.warn(
+            "Message " + delivery.message.getMessageId() + " failed processing; nacking.", ex);
+        delivery.consumer.nack();
+      }
+    }
+  }
+
+  private static final class Delivery {
+
+    private final PubsubMessage message;
+
+    private final AckReplyConsumer consumer;
+
+    Delivery(PubsubMessage message, AckReplyConsumer consumer) {
+      this.message = message;
+      this.consumer = consumer;
+    }
+  }
+}
@@ -69,6 +69,63 @@ public interface PubSubSubscriberOperations {
       Consumer<ConvertedBasicAcknowledgeablePubsubMessage<T>> messageConsumer,
       Class<T> payloadType);
 
+  /**
+   * Add a callback method to an existing subscription, dispatching messages in parallel while
+   * keeping messages that share a key in order.
+   *
+   * <p>Messages are sharded by key onto the configured number of lanes; each lane invokes the
+   * callback sequentially, and distinct lanes run concurrently. The created {@link Subscriber} is
+   * returned so it can be stopped.
+   *
+   * <p>The default implementation dispatches the messages delivered by {@link #subscribe}.
+   *
+   * @param subscription canonical subscription name, e.g., "subscriptionName", or the
+   *     fully-qualified subscription name in the {@code
+   *     projects/<project_name>/subscriptions/<subscription_name>} format
+   * @param messageConsumer the callback method triggered when new messages arrive
+   * @param dispatchSettings the lane count, per-lane in-flight limit and key extractor to use
+   * @return subscriber listening to new messages
+   * @since 3.3.0
+   */
+  default Subscriber subscribeOrderedByKey(
+      String subscription,
+      Consumer<BasicAcknowledgeablePubsubMessage> messageConsumer,
+      KeyOrderedDispatchSettings dispatchSettings) {
+    KeyOrderedConsumer<BasicAcknowledgeablePubsubMessage> consumer =
+        new KeyOrderedConsumer<>(messageConsumer, dispatchSettings);
+    return consumer.bindTo(subscribe(subscription, consumer));
+  }
+
+  /**
+   * Add a callback method to an existing subscription that receives Pub/Sub messages converted to
+   * the requested payload type, dispatching messages in parallel while keeping messages that share
+   * a key in order.
+   *
+   * <p>The created {@link Subscriber} is returned so it can be stopped.
+   *
+   * <p>The default implementation dispatches the messages delivered by {@link
+   * #subscribeAndConvert}.
+   *
+   * @param subscription canonical subscription name, e.g., "subscriptionName", or the
+   *     fully-qualified subscription name in the {@code
+   *     projects/<project_name>/subscriptions/<subscription_name>} format
+   * @param messageConsumer the callback method triggered when new messages arrive
+   * @param payloadType the type to which the payload of the Pub/Sub message should be converted
+   * @param dispatchSettings the lane count, per-lane in-flight limit and key extractor to use
+   * @param <T> the type of the payload
+   * @return subscriber listening to new messages
+   * @since 3.3.0
+   */
+  default <T> Subscriber subscribeAndConvertOrderedByKey(
+      String subscription,
+      Consumer<ConvertedBasicAcknowledgeablePubsubMessage<T>> messageConsumer,
+      Class<T> payloadType,
+      KeyOrderedDispatchSettings dispatchSettings) {
+    KeyOrderedConsumer<ConvertedBasicAcknowledgeablePubsubMessage<T>> consumer =
+        new KeyOrderedConsumer<>(messageConsumer, dispatchSettings);
+    return consumer.bindTo(subscribeAndConvert(subscription, consumer, payloadType));
+  }
+
   /**
    * Pull and auto-acknowledge a number of messages from a Google Cloud Pub/Sub subscription.
    *
@@ -20,8 +20,10 @@ import com.google.api.core.ApiFuture;
 import com.google.api.core.ApiFutureCallback;
 import com.google.api.core.ApiFutures;
 import com.google.cloud.pubsub.v1.AckReplyConsumer;
+import com.google.cloud.pubsub.v1.MessageReceiver;
 import com.google.cloud.pubsub.v1.Subscriber;
 import com.google.cloud.pubsub.v1.stub.SubscriberStub;
+import com.google.cloud.spring.pubsub.core.metrics.PubSubMetricsRecorder;
 import com.google.cloud.spring.pubsub.support.AcknowledgeablePubsubMessage;
 import com.google.cloud.spring.pubsub.support.BasicAcknowledgeablePubsubMessage;
 import com.google.cloud.spring.pubsub.support.PubSubSubscriptionUtils;
@@ -38,6 +40,7 @@ import com.google.pubsub.v1.PubsubMessage;
 import com.google.pubsub.v1.PullRequest;
 import com.google.pubsub.v1.PullResponse;
 import com.google.pubsub.v1.ReceivedMessage;
+import java.time.Duration;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -46,6 +49,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
@@ -69,10 +73,23 @@ import org.springframework.util.concurrent.SettableListenableFuture;
  * the asynchronous pull callback operations. By default, this is executed on the same thread that
  * executes the callback.
  *
+ * <p>Acknowledgement batching can be enabled to coalesce ack, nack and ack deadline modification
+ * requests across calls. Ack IDs are then accumulated per subscription and sent together once the
+ * configured batch size or delay is reached, instead of issuing one request per call.
+ *
  * @since 1.1
  */
 public class PubSubSubscriberTemplate implements PubSubSubscriberOperations, DisposableBean {
 
+  /** Default maximum number of ack IDs sent in one batched acknowledgement request. */
+  public static final int DEFAULT_MAX_ACK_BATCH_SIZE = 2500;
+
+  /** Default maximum time ack IDs wait for a batched acknowledgement request. */
+  public static final Duration DEFAULT_MAX_ACK_BATCH_DELAY = Duration.ofMillis(50);
+
+  /** Marks batchers sending acknowledgements rather than ack deadline modifications. */
+  private static final int ACK_OPERATION = -1;
+
   private final SubscriberFactory subscriberFactory;
 
   private PubSubMessageConverter pubSubMessageConverter = new SimplePubSubMessageConverter();
@@ -86,6 +103,19 @@ public class PubSubSubscriberTemplate implements PubSubSubscriberOperations, Dis
   private ConcurrentHashMap<String, SubscriberStub> subscriptionNameToStubMap =
       new ConcurrentHashMap<>();
 
+  private boolean ackBatchingEnabled;
+
+  private int maxAckBatchSize = DEFAULT_MAX_ACK_BATCH_SIZE;
+
+  private Duration maxAckBatchDelay = DEFAULT_MAX_ACK_BATCH_DELAY;
+
+  private ScheduledExecutorService ackBatchScheduler;
+
+  private final ConcurrentHashMap<String, CoalescingAckBatcher> ackBatchers =
+      new ConcurrentHashMap<>();
+
+  private PubSubMetricsRecorder metricsRecorder;
+
   /**
    * Default {@link PubSubSubscriberTemplate} constructor.
    *
@@ -140,6 +170,50 @@ public class PubSubSubscriberTemplate implements PubSubSubscriberOperations, Dis
     this.asyncPullExecutor = asyncPullExecutor;
   }
 
+  /**
+   * Enable or disable coalescing of acknowledgement requests across calls. Disabled by default.
+   *
+   * @param ackBatchingEnabled whether to batch acknowledgement requests across calls
+   */
+  public void setAckBatchingEnabled(boolean ackBatchingEnabled) {
+    this.ackBatchingEnabled = ackBatchingEnabled;
+  }
+
+  /**
+   * Set the maximum number of ack IDs sent in one batched acknowledgement request. A batch is sent
+   * as soon as it reaches this size. Only used when acknowledgement batching is enabled.
+   *
+   * @param maxAckBatchSize the maximum batch size
+   */
+  public void setMaxAckBatchSize(int maxAckBatchSize) {
+    Assert.isTrue(maxAckBatchSize > 0, "The maxAckBatchSize must be positive.");
+    this.maxAckBatchSize = maxAckBatchSize;
+  }
+
+  /**
+   * Set the maximum time an ack ID waits before its batch is sent. Only used when acknowledgement
+   * batching is enabled.
+   *
+   * @param maxAckBatchDelay the maximum batch delay
+   */
+  public void setMaxAckBatchDelay(Duration maxAckBatchDelay) {
+    Assert.notNull(maxAckBatchDelay, "The maxAckBatchDelay can't be null.");
+    Assert.isTrue(!maxAckBatchDelay.isNegative(), "The maxAckBatchDelay must not be negative.");
+    this.maxAckBatchDelay = maxAckBatchDelay;
+  }
+
+  /**
+   * Set the recorder of pull, payload conversion and acknowledgement measurements per
+   * subscription. When acknowledgement batching is enabled, acknowledgement latencies include the
+   * time spent waiting for the batch to be sent. No measurements are taken by default.
+   *
+   * @param metricsRecorder the metrics recorder, or {@code null} to disable measurements
+   * @since 3.3.0
+   */
+  public void setMetricsRecorder(PubSubMetricsRecorder metricsRecorder) {
+    this.metricsRecorder = metricsRecorder;
+  }
+
   @Override
   public Subscriber subscribe(
       String subscription, Consumer<BasicAcknowledgeablePubsubMessage> messageConsumer) {
@@ -175,12 +249,88 @@ public class PubSubSubscriberTemplate implements PubSubSubscriberOperations, Dis
                         PubSubSubscriptionUtils.toProjectSubscriptionName(
                             subscription, this.subscriberFactory.getProjectId()),
                         message,
-                        this.getMessageConverter().fromPubSubMessage(message, payloadType),
+                        convert(subscription, message, payloadType),
                         ackReplyConsumer)));
     subscriber.startAsync();
     return subscriber;
   }
 
+  @Override
+  public Subscriber subscribeOrderedByKey(
+      String subscription,
+      Consumer<BasicAcknowledgeablePubsubMessage> messageConsumer,
+      KeyOrderedDispatchSettings dispatchSettings) {
+    Assert.notNull(messageConsumer, "The messageConsumer can't be null.");
+
+    return startKeyOrderedSubscriber(
+        subscription,
+        (message, ackReplyConsumer) ->
+            messageConsumer.accept(
+                new PushedAcknowledgeablePubsubMessage(
+                    PubSubSubscriptionUtils.toProjectSubscriptionName(
+                        subscription, this.subscriberFactory.getProjectId()),
+                    message,
+                    ackReplyConsumer)),
+        dispatchSettings);
+  }
+
+  @Override
+  public <T> Subscriber subscribeAndConvertOrderedByKey(
+      String subscription,
+      Consumer<ConvertedBasicAcknowledgeablePubsubMessage<T>> messageConsumer,
+      Class<T> payloadType,
+      KeyOrderedDispatchSettings dispatchSettings) {
+    Assert.notNull(messageConsumer, "The messageConsumer can't be null.");
+
+    return startKeyOrderedSubscriber(
+        subscription,
+        (message, ackReplyConsumer) ->
+            messageConsumer.accept(
+                new ConvertedPushedAcknowledgeablePubsubMessage<>(
+                    PubSubSubscriptionUtils.toProjectSubscriptionName(
+                        subscription, this.subscriberFactory.getProjectId()),
+                    message,
+                    convert(subscription, message, payloadType),
+                    ackReplyConsumer)),
+        dispatchSettings);
+  }
+
+  /**
+   * Creates and starts a subscriber whose messages are dispatched through a {@link
+   * KeyOrderedMessageReceiver}. If no lane executor is configured, one is created for the
+   * subscriber and shut down once the subscriber terminates or fails.
+   */
+  private Subscriber startKeyOrderedSubscriber(
+      String subscription,
+      MessageReceiver messageReceiver,
+      KeyOrderedDispatchSettings dispatchSettings) {
+    Assert.notNull(dispatchSettings, "The dispatchSettings can't be null.");
+
+    Executor laneExecutor = dispatchSettings.getExecutor();
+    ExecutorService ownedLaneExecutor = null;
+    if (laneExecutor == null) {
+      ownedLaneExecutor = Executors.newFixedThreadPool(dispatchSettings.getLanes());
+      laneExecutor = ownedLaneExecutor;
+    }
+
+    Subscriber subscriber =
+        this.subscriberFactory.createSubscriber(
+            subscription,
+            new KeyOrderedMessageReceiver(
+                messageReceiver,
+                dispatchSettings.getKeyExtractor(),
+                dispatchSettings.getLanes(),
+                dispatchSettings.getMaxInFlightPerLane(),
+                laneExecutor));
+
+    if (ownedLaneExecutor != null) {
+      KeyOrderedConsumer.shutdownOnStop(subscriber, ownedLaneExecutor);
+    }
+
+    subscriber.startAsync();
+    return subscriber;
+  }
+
   /**
    * Pulls messages synchronously, on demand, using the pull request in argument.
    *
@@ -190,8 +340,27 @@ public class PubSubSubscriberTemplate implements PubSubSubscriberOperations, Dis
    */
   private List<AcknowledgeablePubsubMessage> pull(PullRequest pullRequest) {
     Assert.notNull(pullRequest, "The pull request can't be null.");
-    PullResponse pullResponse =
-        getSubscriberStub(pullRequest.getSubscription()).pullCallable().call(pullRequest);
+    PubSubMetricsRecorder recorder = this.metricsRecorder;
+    PullResponse pullResponse;
+    if (recorder == null) {
+      pullResponse =
+          getSubscriberStub(pullRequest.getSubscription()).pullCallable().call(pullRequest);
+    } else {
+      long startNanos = System.nanoTime();
+      try {
+        pullResponse =
+            getSubscriberStub(pullRequest.getSubscription()).pullCallable().call(pullRequest);
+      } catch (RuntimeException ex) {
+        recorder.messagesPulled(
+            pullRequest.getSubscription(), 0, System.nanoTime() - startNanos, false);
+        throw ex;
+      }
+      recorder.messagesPulled(
+          pullRequest.getSubscription(),
+          pullResponse.getReceivedMessagesCount(),
+          System.nanoTime() - startNanos,
+          true);
+    }
     return toAcknowledgeablePubsubMessageList(
         pullResponse.getReceivedMessagesList(), pullRequest.getSubscription());
   }
@@ -205,6 +374,8 @@ public class PubSubSubscriberTemplate implements PubSubSubscriberOperations, Dis
    */
   private ListenableFuture<List<AcknowledgeablePubsubMessage>> pullAsync(PullRequest pullRequest) {
     Assert.notNull(pullRequest, "The pull request can't be null.");
+    PubSubMetricsRecorder recorder = this.metricsRecorder;
+    long startNanos = recorder != null ? System.nanoTime() : 0L;
     ApiFuture<PullResponse> pullFuture =
         getSubscriberStub(pullRequest.getSubscription()).pullCallable().futureCall(pullRequest);
 
@@ -216,11 +387,22 @@ public class PubSubSubscriberTemplate implements PubSubSubscriberOperations, Dis
 
           @Override
           public void onFailure(Throwable throwable) {
+            if (recorder != null) {
+              recorder.messagesPulled(
+                  pullRequest.getSubscription(), 0, System.nanoTime() - startNanos, false);
+            }
             settableFuture.setException(throwable);
           }
 
           @Override
           public void onSuccess(PullResponse pullResponse) {
+            if (recorder != null) {
+              recorder.messagesPulled(
+                  pullRequest.getSubscription(),
+                  pullResponse.getReceivedMessagesCount(),
+                  System.nanoTime() - startNanos,
+                  true);
+            }
             List<AcknowledgeablePubsubMessage> result =
                 toAcknowledgeablePubsubMessageList(
                     pullResponse.getReceivedMessagesList(), pullRequest.getSubscription());
@@ -266,7 +448,8 @@ public class PubSubSubscriberTemplate implements PubSubSubscriberOperations, Dis
     List<AcknowledgeablePubsubMessage> ackableMessages =
         this.pull(subscription, maxMessages, returnImmediately);
 
-    return this.toConvertedAcknowledgeablePubsubMessages(payloadType, ackableMessages);
+    return this.toConvertedAcknowledgeablePubsubMessages(
+        subscription, payloadType, ackableMessages);
   }
 
   @Override
@@ -279,7 +462,8 @@ public class PubSubSubscriberTemplate implements PubSubSubscriberOperations, Dis
         .addCallback(
             ackableMessages ->
                 settableFuture.set(
-                    this.toConvertedAcknowledgeablePubsubMessages(payloadType, ackableMessages)),
+                    this.toConvertedAcknowledgeablePubsubMessages(
+                        subscription, payloadType, ackableMessages)),
             settableFuture::setException);
 
     return settableFuture;
@@ -287,17 +471,33 @@ public class PubSubSubscriberTemplate implements PubSubSubscriberOperations, Dis
 
   private <T>
       List<ConvertedAcknowledgeablePubsubMessage<T>> toConvertedAcknowledgeablePubsubMessages(
-          Class<T> payloadType, List<AcknowledgeablePubsubMessage> ackableMessages) {
+          String subscription,
+          Class<T> payloadType,
+          List<AcknowledgeablePubsubMessage> ackableMessages) {
     return ackableMessages.stream()
         .map(
             m ->
                 new ConvertedPulledAcknowledgeablePubsubMessage<>(
-                    m,
-                    this.pubSubMessageConverter.fromPubSubMessage(
-                        m.getPubsubMessage(), payloadType)))
+                    m, convert(subscription, m.getPubsubMessage(), payloadType)))
         .collect(Collectors.toList());
   }
 
+  private <T> T convert(String subscription, PubsubMessage message, Class<T> payloadType) {
+    PubSubMetricsRecorder recorder = this.metricsRecorder;
+    if (recorder == null) {
+      return this.pubSubMessageConverter.fromPubSubMessage(message, payloadType);
+    }
+    long startNanos = System.nanoTime();
+    try {
+      T payload = this.pubSubMessageConverter.fromPubSubMessage(message, payloadType);
+      recorder.messageConverted(subscription, System.nanoTime() - startNanos, true);
+      return payload;
+    } catch (RuntimeException ex) {
+      recorder.messageConverted(subscription, System.nanoTime() - startNanos, false);
+      throw ex;
+    }
+  }
+
   @Override
   public List<PubsubMessage> pullAndAck(
       String subscription, Integer maxMessages, Boolean returnImmediately) {
@@ -382,7 +582,15 @@ public class PubSubSubscriberTemplate implements PubSubSubscriberOperations, Dis
     Assert.notEmpty(
         acknowledgeablePubsubMessages, "The acknowledgeablePubsubMessages can't be empty.");
 
-    return doBatchedAsyncOperation(acknowledgeablePubsubMessages, this::ack);
+    if (this.ackBatchingEnabled) {
+      return doBatchedAsyncOperation(
+          acknowledgeablePubsubMessages,
+          PubSubMetricsRecorder.ACK_OPERATION,
+          (String subscriptionName, List<String> ackIds) ->
+              getAckBatcher(subscriptionName, ACK_OPERATION).add(ackIds));
+    }
+    return doBatchedAsyncOperation(
+        acknowledgeablePubsubMessages, PubSubMetricsRecorder.ACK_OPERATION, this::ack);
   }
 
   /**
@@ -415,15 +623,36 @@ public class PubSubSubscriberTemplate implements PubSubSubscriberOperations, Dis
         acknowledgeablePubsubMessages, "The acknowledgeablePubsubMessages can't be empty.");
     Assert.isTrue(ackDeadlineSeconds >= 0, "The ackDeadlineSeconds must not be negative.");
 
+    String operation =
+        ackDeadlineSeconds == 0
+            ? PubSubMetricsRecorder.NACK_OPERATION
+            : PubSubMetricsRecorder.MODIFY_ACK_DEADLINE_OPERATION;
+    if (this.ackBatchingEnabled) {
+      return doBatchedAsyncOperation(
+          acknowledgeablePubsubMessages,
+          operation,
+          (String subscriptionName, List<String> ackIds) ->
+              getAckBatcher(subscriptionName, ackDeadlineSeconds).add(ackIds));
+    }
     return doBatchedAsyncOperation(
         acknowledgeablePubsubMessages,
+        operation,
         (String subscriptionName, List<String> ackIds) ->
             modifyAckDeadline(subscriptionName, ackIds, ackDeadlineSeconds));
   }
 
-  /** Destroys the default executor, regardless of whether it was used. */
+  /**
+   * Destroys the default executor, regardless of whether it was used. Pending batched
+   * acknowledgements are sent first.
+   */
   @Override
   public void destroy() {
+    this.ackBatchers.values().forEach(CoalescingAckBatcher::flush);
+    synchronized (this.ackBatchers) {
+      if (this.ackBatchScheduler != null) {
+        this.ackBatchScheduler.shutdown();
+      }
+    }
     this.defaultAckExecutor.shutdown();
     for (SubscriberStub stub : subscriptionNameToStubMap.values()) {
       stub.close();
@@ -462,11 +691,13 @@ public class PubSubSubscriberTemplate implements PubSubSubscriberOperations, Dis
    * ListenableFuture} is non-deterministic.
    *
    * @param acknowledgeablePubsubMessages messages, could be from different subscriptions.
+   * @param operation name of the operation, for metrics.
    * @param asyncOperation specific Pub/Sub operation to perform.
    * @return {@link ListenableFuture} indicating overall success or failure.
    */
   private ListenableFuture<Void> doBatchedAsyncOperation(
       Collection<? extends AcknowledgeablePubsubMessage> acknowledgeablePubsubMessages,
+      String operation,
       BiFunction<String, List<String>, ApiFuture<Empty>> asyncOperation) {
 
     Map<ProjectSubscriptionName, List<String>> groupedMessages =
@@ -488,10 +719,13 @@ public class PubSubSubscriberTemplate implements PubSubSubscriberOperations, Dis
     SettableListenableFuture<Void> settableListenableFuture = new SettableListenableFuture<>();
     int numExpectedFutures = groupedMessages.size();
     AtomicInteger numCompletedFutures = new AtomicInteger();
+    PubSubMetricsRecorder recorder = this.metricsRecorder;
 
     groupedMessages.forEach(
         (ProjectSubscriptionName psName, List<String> ackIds) -> {
-          ApiFuture<Empty> ackApiFuture = asyncOperation.apply(psName.toString(), ackIds);
+          String subscriptionName = psName.toString();
+          long startNanos = recorder != null ? System.nanoTime() : 0L;
+          ApiFuture<Empty> ackApiFuture = asyncOperation.apply(subscriptionName, ackIds);
 
           ApiFutures.addCallback(
               ackApiFuture,
@@ -507,6 +741,14 @@ public class PubSubSubscriberTemplate implements PubSubSubscriberOperations, Dis
                 }
 
                 private void processResult(Throwable throwable) {
+                  if (recorder != null) {
+                    recorder.acknowledgementCompleted(
+                        subscriptionName,
+                        operation,
+                        ackIds.size(),
+                        System.nanoTime() - startNanos,
+                        throwable == null);
+                  }
                   if (throwable != null) {
                     settableListenableFuture.setException(throwable);
                   } else if (numCompletedFutures.incrementAndGet() == numExpectedFutures) {
@@ -520,6 +762,48 @@ public class PubSubSubscriberTemplate implements PubSubSubscriberOperations, Dis
     return settableListenableFuture;
   }
 
+  /**
+   * Returns the batcher accumulating ack IDs for the given subscription and operation.
+   *
+   * @param subscriptionName the fully-qualified subscription name
+   * @param ackDeadlineSeconds the new ack deadline, or {@link #ACK_OPERATION} for acknowledgements
+   * @return the batcher for the subscription and operation
+   */
+  private CoalescingAckBatcher getAckBatcher(String subscriptionName, int ackDeadlineSeconds) {
+    String key = subscriptionName + "#" + ackDeadlineSeconds;
+    CoalescingAckBatcher batcher = this.ackBatchers.get(key);
+    if (batcher != null) {
+      return batcher;
+    }
+    ScheduledExecutorService scheduler = getAckBatchScheduler();
+    return this.ackBatchers.computeIfAbsent(
+        key,
+        k ->
+            new CoalescingAckBatcher(
+                ackIds ->
+                    ackDeadlineSeconds == ACK_OPERATION
+                        ? ack(subscriptionName, ackIds)
+                        : modifyAckDeadline(subscriptionName, ackIds, ackDeadlineSeconds),
+                this.maxAckBatchSize,
+                this.maxAckBatchDelay.toMillis(),
+                scheduler));
+  }
+
+  private ScheduledExecutorService getAckBatchScheduler() {
+    synchronized (this.ackBatchers) {
+      if (this.ackBatchScheduler == null) {
+        this.ackBatchScheduler =
+            Executors.newSingleThreadScheduledExecutor(
+                runnable -> {
+                  Thread thread = new Thread(runnable, "gcp-pubsub-ack-batcher");
+                  thread.setDaemon(true);
+                  return thread;
+                });
+      }
+      return this.ackBatchScheduler;
+    }
+  }
+
   private SubscriberStub getSubscriberStub(String subscription) {
     if (subscriptionNameToStubMap.containsKey(subscription)) {
       return subscriptionNameToStubMap.get(subscription);
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2022-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spring.pubsub.integration;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.util.PatternMatchUtils;
+
+/**
+ * Header name patterns compiled for repeated matching, with the semantics of {@link
+ * org.springframework.integration.support.utils.PatternMatchUtils#smartMatch(String, String...)}:
+ * the first matching pattern decides, patterns starting with {@code !} exclude, a leading {@code \}
+ * escapes a literal {@code !}, and names matching no pattern are not mapped.
+ *
+ * <p>Patterns without wildcards are looked up in a hash map; single leading or trailing wildcards
+ * are matched with {@code startsWith}/{@code endsWith}; anything else falls back to {@link
+ * PatternMatchUtils#simpleMatch(String, String)}. Decisions are cached per header name, up to
+ * {@link #MAX_CACHED_DECISIONS} names.
+ */
+final class HeaderPatternMatcher {
+
+  /** Upper bound of the decision cache, protecting against unbounded distinct header names. */
+  static final int MAX_CACHED_DECISIONS = 1024;
+
+  private final Map<String, Integer> exactPatterns = new HashMap<>();
+
+  private final List<Rule> wildcardRules = new ArrayList<>();
+
+  private final boolean[] decisions;
+
+  private final Map<String, Boolean> cache = new ConcurrentHashMap<>();
+
+  HeaderPatternMatcher(String... patterns) {
+    this.decisions = new boolean[patterns.length];
+    for (int i = 0; i < patterns.length; i++) {
+      String pattern = patterns[i];
+      boolean include = true;
+      if (pattern.startsWith("!")) {
+        include = false;
+        pattern = pattern.substring(1);
+      } else if (pattern.startsWith("\\")) {
+        pattern = pattern.substring(1);
+      }
+      this.decisions[i] = include;
+      if (pattern.indexOf('*') == -1) {
+        this.exactPatterns.putIfAbsent(pattern, i);
+      } else {
+        this.wildcardRules.add(new Rule(i, pattern));
+      }
+    }
+  }
+
+  /**
+   * Return whether the header should be mapped.
+   *
+   * @param headerName the header name
+   * @return {@code true} if the first matching pattern includes the header
+   */
+  boolean matches(String headerName) {
+    Boolean decision = this.cache.get(headerName);
+    if (decision == null) {
+      decision = decide(headerName);
+      if (this.cache.size() < MAX_CACHED_DECISIONS) {
+        this.cache.put(headerName, decision);
+      }
+    }
+    return decision;
+  }
+
+  private boolean decide(String headerName) {
+    Integer exactIndex = this.exactPatterns.get(headerName);
+    int firstMatch = exactIndex != null ? exactIndex : Integer.MAX_VALUE;
+    // Only wildcard patterns preceding the exact match can take precedence over it.
+    for (Rule rule : this.wildcardRules) {
+      if (rule.index > firstMatch) {
+        break;
+      }
+      if (rule.matches(headerName)) {
+        firstMatch = rule.index;
+        break;
+      }
+    }
+    return firstMatch != Integer.MAX_VALUE && this.decisions[firstMatch];
+  }
+
+  /** A pattern containing at least one wildcard. */
+  private static final class Rule {
+
+    private final int index;
+
+    private final String pattern;
+
+    private final String literal;
+
+    private final Kind kind;
+
+    Rule(int index, String pattern) {
+      this.index = index;
+      this.pattern = pattern;
+      int firstWildcard = pattern.indexOf('*');
+      int lastWildcard = pattern.lastIndexOf('*');
+      if (pattern.length() == 1) {
+        this.kind = Kind.ANY;
+        this.literal = "";
+      } else if (firstWildcard == lastWildcard && lastWildcard == pattern.length() - 1) {
+        this.kind = Kind.PREFIX;
+        this.literal = pattern.substring(0, lastWildcard);
+      } else if (firstWildcard == lastWildcard && firstWildcard == 0) {
+        this.kind = Kind.SUFFIX;
+        this.literal = pattern.substring(1);
+      } else {
+        this.kind = Kind.GENERIC;
+        this.literal = null;
+      }
+    }
+
+    boolean matches(String headerName) {
+      switch (this.kind) {
+        case ANY:
+          return true;
+        case PREFIX:
+          return headerName.startsWith(this.literal);
+        case SUFFIX:
+          return headerName.endsWith(this.literal);
+        default:
+          return PatternMatchUtils.simpleMatch(this.pattern, headerName);
+      }
+    }
+  }
+
+  private enum Kind {
+    ANY,
+    PREFIX,
+    SUFFIX,
+    GENERIC
+  }
+}
@@ -19,13 +19,12 @@ package com.google.cloud.spring.pubsub.integration;
 import com.google.cloud.spring.pubsub.support.GcpPubSubHeaders;
 import java.util.Arrays;
 import java.util.Map;
-import java.util.stream.Collectors;
 import org.springframework.integration.history.MessageHistory;
 import org.springframework.integration.mapping.HeaderMapper;
-import org.springframework.integration.support.utils.PatternMatchUtils;
 import org.springframework.messaging.MessageHeaders;
 import org.springframework.messaging.support.NativeMessageHeaderAccessor;
 import org.springframework.util.Assert;
+import org.springframework.util.CollectionUtils;
 
 /**
  * Maps headers from {@link com.google.pubsub.v1.PubsubMessage}s to {@link
@@ -34,6 +33,8 @@ import org.springframework.util.Assert;
  * <p>By default, filters out headers called "id", "timestamp", "gcp_pubsub_acknowledgement" or
  * "nativeHeaders" on the {@link org.springframework.messaging.Message} to {@link
  * com.google.pubsub.v1.PubsubMessage} header conversion.
+ *
+ * <p>Header patterns are compiled when set, and mapping decisions are cached per header name.
  */
 public class PubSubHeaderMapper implements HeaderMapper<Map<String, String>> {
 
@@ -46,6 +47,7 @@ public class PubSubHeaderMapper implements HeaderMapper<Map<String, String>> {
     "!" + MessageHeaders.ID,
     "!" + MessageHeaders.TIMESTAMP,
     "!" + GcpPubSubHeaders.ORIGINAL_MESSAGE,
+    "!" + GcpPubSubHeaders.ORIGINAL_MESSAGES,
     "!" + GcpPubSubHeaders.CLIENT,
     "!" + NativeMessageHeaderAccessor.NATIVE_HEADERS,
     "!" + MessageHistory.HEADER_NAME,
@@ -55,6 +57,12 @@ public class PubSubHeaderMapper implements HeaderMapper<Map<String, String>> {
   /** Patterns of headers to map in {@link #toHeaders(Map)}. First patterns take precedence. */
   private String[] inboundHeaderPatterns = {"*"};
 
+  private HeaderPatternMatcher outboundMatcher =
+      new HeaderPatternMatcher(this.outboundHeaderPatterns);
+
+  private HeaderPatternMatcher inboundMatcher =
+      new HeaderPatternMatcher(this.inboundHeaderPatterns);
+
   /**
    * Set the patterns of the headers to be mapped in {@link #fromHeaders(MessageHeaders, Map)}.
    * First patterns take precedence.
@@ -66,6 +74,7 @@ public class PubSubHeaderMapper implements HeaderMapper<Map<String, String>> {
     Assert.noNullElements(outboundHeaderPatterns, "No header pattern can be null.");
     this.outboundHeaderPatterns =
         Arrays.copyOf(outboundHeaderPatterns, outboundHeaderPatterns.length);
+    this.outboundMatcher = new HeaderPatternMatcher(this.outboundHeaderPatterns);
   }
 
   /**
@@ -78,6 +87,7 @@ public class PubSubHeaderMapper implements HeaderMapper<Map<String, String>> {
     Assert.notNull(inboundHeaderPatterns, "Header patterns can't be null.");
     Assert.noNullElements(inboundHeaderPatterns, "No header pattern can be null.");
     this.inboundHeaderPatterns = Arrays.copyOf(inboundHeaderPatterns, inboundHeaderPatterns.length);
+    this.inboundMatcher = new HeaderPatternMatcher(this.inboundHeaderPatterns);
   }
 
   /**
@@ -92,12 +102,11 @@ public class PubSubHeaderMapper implements HeaderMapper<Map<String, String>> {
   @Override
   public void fromHeaders(
       MessageHeaders messageHeaders, final Map<String, String> pubsubMessageHeaders) {
-    messageHeaders.entrySet().stream()
-        .filter(
-            entry ->
-                Boolean.TRUE.equals(
-                    PatternMatchUtils.smartMatch(entry.getKey(), this.outboundHeaderPatterns)))
-        .forEach(entry -> pubsubMessageHeaders.put(entry.getKey(), entry.getValue().toString()));
+    for (Map.Entry<String, Object> entry : messageHeaders.entrySet()) {
+      if (this.outboundMatcher.matches(entry.getKey())) {
+        pubsubMessageHeaders.put(entry.getKey(), entry.getValue().toString());
+      }
+    }
   }
 
   /**
@@ -111,11 +120,12 @@ public class PubSubHeaderMapper implements HeaderMapper<Map<String, String>> {
    */
   @Override
   public Map<String, Object> toHeaders(Map<String, String> pubsubMessageHeaders) {
-    return pubsubMessageHeaders.entrySet().stream()
-        .filter(
-            entry ->
-                Boolean.TRUE.equals(
-                    PatternMatchUtils.smartMatch(entry.getKey(), this.inboundHeaderPatterns)))
-        .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    Map<String, Object> headers = CollectionUtils.newHashMap(pubsubMessageHeaders.size());
+    for (Map.Entry<String, String> entry : pubsubMessageHeaders.entrySet()) {
+      if (this.inboundMatcher.matches(entry.getKey())) {
+        headers.put(entry.getKey(), entry.getValue());
+      }
+    }
+    return headers;
   }
 }
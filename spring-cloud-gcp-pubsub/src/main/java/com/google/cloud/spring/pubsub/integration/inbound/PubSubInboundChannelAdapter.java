@@ -18,25 +18,42 @@ package com.google.cloud.spring.pubsub.integration.inbound;
 
 import com.google.cloud.pubsub.v1.Subscriber;
 import com.google.cloud.spring.pubsub.core.health.HealthTrackerRegistry;
+import com.google.cloud.spring.pubsub.core.metrics.PubSubMetricsRecorder;
 import com.google.cloud.spring.pubsub.core.subscriber.PubSubSubscriberOperations;
 import com.google.cloud.spring.pubsub.integration.AckMode;
 import com.google.cloud.spring.pubsub.integration.PubSubHeaderMapper;
 import com.google.cloud.spring.pubsub.support.GcpPubSubHeaders;
 import com.google.cloud.spring.pubsub.support.converter.ConvertedBasicAcknowledgeablePubsubMessage;
 import com.google.pubsub.v1.ProjectSubscriptionName;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.springframework.integration.endpoint.MessageProducerSupport;
 import org.springframework.integration.mapping.HeaderMapper;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.util.Assert;
 
 /**
  * Converts from GCP Pub/Sub message to Spring message and sends the Spring message to the attached
  * channels.
+ *
+ * <p>In batch mode, enabled with {@link #setBatchSize(int)}, converted payloads are accumulated
+ * and sent as a single Spring message with a {@link List} payload once the batch is full or the
+ * {@link #setBatchTimeout(Duration) batch timeout} has elapsed since its first message.
  */
 public class PubSubInboundChannelAdapter extends MessageProducerSupport {
 
+  /** The default maximum time a batch waits to be filled. */
+  public static final Duration DEFAULT_BATCH_TIMEOUT = Duration.ofMillis(100);
+
   private static final Log LOGGER = LogFactory.getLog(PubSubInboundChannelAdapter.class);
 
   private final String subscriptionName;
@@ -53,6 +70,22 @@ public class PubSubInboundChannelAdapter extends MessageProducerSupport {
 
   private HealthTrackerRegistry healthTrackerRegistry;
 
+  private PubSubMetricsRecorder metricsRecorder;
+
+  private int batchSize;
+
+  private Duration batchTimeout = DEFAULT_BATCH_TIMEOUT;
+
+  private final Object batchMonitor = new Object();
+
+  private ScheduledExecutorService batchScheduler;
+
+  // The fields below are guarded by "batchMonitor".
+
+  private List<ConvertedBasicAcknowledgeablePubsubMessage<?>> batch;
+
+  private ScheduledFuture<?> batchTimeoutFuture;
+
   /**
    * Instantiates a streaming Pub/Sub subscirtion adapter.
    *
@@ -80,6 +113,17 @@ public class PubSubInboundChannelAdapter extends MessageProducerSupport {
     this.healthTrackerRegistry = healthTrackerRegistry;
   }
 
+  /**
+   * Set the recorder of the number of messages being processed downstream and of their processing
+   * time. No measurements are taken by default.
+   *
+   * @param metricsRecorder the metrics recorder, or {@code null} to disable measurements
+   * @since 3.3.0
+   */
+  public void setMetricsRecorder(PubSubMetricsRecorder metricsRecorder) {
+    this.metricsRecorder = metricsRecorder;
+  }
+
   public Class<?> getPayloadType() {
     return this.payloadType;
   }
@@ -110,15 +154,65 @@ public class PubSubInboundChannelAdapter extends MessageProducerSupport {
     this.headerMapper = headerMapper;
   }
 
+  public int getBatchSize() {
+    return this.batchSize;
+  }
+
+  /**
+   * Enable batch mode, sending up to the given number of converted messages as a single Spring
+   * message whose payload is the {@link List} of their payloads. The original messages are in the
+   * {@link GcpPubSubHeaders#ORIGINAL_MESSAGES} header; per-message headers are not mapped.
+   *
+   * <p>In the automatic acknowledgement modes, the whole batch is acked once it has been sent
+   * successfully; in {@link AckMode#AUTO}, each message of a failed batch is nacked. Messages are
+   * not acked while they wait in a batch, so they still count against the subscriber's flow
+   * control limits. Defaults to 0, which sends every message on its own.
+   *
+   * @param batchSize the maximum number of messages in a batch, or 0 to disable batching
+   * @since 3.3.0
+   */
+  public void setBatchSize(int batchSize) {
+    Assert.isTrue(batchSize >= 0, "The batch size must not be negative.");
+    this.batchSize = batchSize;
+  }
+
+  public Duration getBatchTimeout() {
+    return this.batchTimeout;
+  }
+
+  /**
+   * Set the maximum time to wait for a batch to fill after its first message was received. A batch
+   * is sent when full or when this timeout expires, whichever comes first. Defaults to 100
+   * milliseconds.
+   *
+   * @param batchTimeout the batch timeout
+   * @since 3.3.0
+   */
+  public void setBatchTimeout(Duration batchTimeout) {
+    Assert.notNull(batchTimeout, "The batch timeout can't be null.");
+    Assert.isTrue(!batchTimeout.isNegative(), "The batch timeout must not be negative.");
+    this.batchTimeout = batchTimeout;
+  }
+
   @Override
   protected void doStart() {
     super.doStart();
 
     addToHealthRegistry();
 
-    this.subscriber =
-        this.pubSubSubscriberOperations.subscribeAndConvert(
-            this.subscriptionName, this::consumeMessage, this.payloadType);
+    if (this.batchSize > 0) {
+      CustomizableThreadFactory threadFactory =
+          new CustomizableThreadFactory("gcp-pubsub-batch-" + this.subscriptionName + "-");
+      threadFactory.setDaemon(true);
+      this.batchScheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+      this.subscriber =
+          this.pubSubSubscriberOperations.subscribeAndConvert(
+              this.subscriptionName, this::addToBatch, this.payloadType);
+    } else {
+      this.subscriber =
+          this.pubSubSubscriberOperations.subscribeAndConvert(
+              this.subscriptionName, this::consumeMessage, this.payloadType);
+    }
 
     addListeners();
   }
@@ -129,9 +223,121 @@ public class PubSubInboundChannelAdapter extends MessageProducerSupport {
       this.subscriber.stopAsync();
     }
 
+    if (this.batchScheduler != null) {
+      this.batchScheduler.shutdown();
+      this.batchScheduler = null;
+      // Send what has been received so far rather than leaving it to the ack deadline.
+      flushBatch(null);
+    }
+
     super.doStop();
   }
 
+  private void addToBatch(ConvertedBasicAcknowledgeablePubsubMessage<?> message) {
+    List<ConvertedBasicAcknowledgeablePubsubMessage<?>> fullBatch = null;
+    synchronized (this.batchMonitor) {
+      if (this.batch == null) {
+        List<ConvertedBasicAcknowledgeablePubsubMessage<?>> newBatch =
+            new ArrayList<>(this.batchSize);
+        this.batch = newBatch;
+        this.batchTimeoutFuture = scheduleFlush(newBatch);
+      }
+      this.batch.add(message);
+      if (this.batch.size() >= this.batchSize || this.batchTimeoutFuture == null) {
+        fullBatch = takeBatch();
+      }
+    }
+    if (fullBatch != null) {
+      sendBatch(fullBatch);
+    }
+  }
+
+  private ScheduledFuture<?> scheduleFlush(
+      List<ConvertedBasicAcknowledgeablePubsubMessage<?>> expectedBatch) {
+    ScheduledExecutorService scheduler = this.batchScheduler;
+    if (scheduler == null) {
+      return null;
+    }
+    try {
+      return scheduler.schedule(
+          () -> flushBatch(expectedBatch), this.batchTimeout.toNanos(), TimeUnit.NANOSECONDS);
+    } catch (RejectedExecutionException ex) {
+      // Stopping; the batch is sent right away.
+      return null;
+    }
+  }
+
+  /**
+   * Send the pending batch, if it is the expected one.
+   *
+   * @param expectedBatch the batch whose timeout expired, or null to send any pending batch
+   */
+  private void flushBatch(List<ConvertedBasicAcknowledgeablePubsubMessage<?>> expectedBatch) {
+    List<ConvertedBasicAcknowledgeablePubsubMessage<?>> pendingBatch;
+    synchronized (this.batchMonitor) {
+      if (this.batch == null || (expectedBatch != null && this.batch != expectedBatch)) {
+        return;
+      }
+      pendingBatch = takeBatch();
+    }
+    sendBatch(pendingBatch);
+  }
+
+  private List<ConvertedBasicAcknowledgeablePubsubMessage<?>> takeBatch() {
+    List<ConvertedBasicAcknowledgeablePubsubMessage<?>> takenBatch = this.batch;
+    this.batch = null;
+    if (this.batchTimeoutFuture != null) {
+      this.batchTimeoutFuture.cancel(false);
+      this.batchTimeoutFuture = null;
+    }
+    return takenBatch;
+  }
+
+  private void sendBatch(List<ConvertedBasicAcknowledgeablePubsubMessage<?>> messages) {
+    List<Object> payloads = new ArrayList<>(messages.size());
+    for (ConvertedBasicAcknowledgeablePubsubMessage<?> message : messages) {
+      payloads.add(message.getPayload());
+    }
+
+    PubSubMetricsRecorder recorder = this.metricsRecorder;
+    long startNanos = processingStarted(recorder, messages.size());
+    boolean sent = false;
+    try {
+      sendMessage(
+          getMessageBuilderFactory()
+              .withPayload(payloads)
+              .setHeader(GcpPubSubHeaders.ORIGINAL_MESSAGES, messages)
+              .build());
+      sent = true;
+      processingCompleted(recorder, messages.size(), startNanos, true);
+
+      for (ConvertedBasicAcknowledgeablePubsubMessage<?> message : messages) {
+        processedMessage(message.getProjectSubscriptionName());
+        if (this.ackMode == AckMode.AUTO_ACK || this.ackMode == AckMode.AUTO) {
+          message.ack();
+        }
+      }
+    } catch (RuntimeException re) {
+      if (!sent) {
+        processingCompleted(recorder, messages.size(), startNanos, false);
+      }
+      if (this.ackMode == AckMode.AUTO) {
+        messages.forEach(ConvertedBasicAcknowledgeablePubsubMessage::nack);
+        LOGGER.warn(
+            "Sending Spring message batch of "
+                + messages.size()
+                + " messages failed; messages nacked automatically.",
+            re);
+      } else {
+        LOGGER.warn(
+            "Sending Spring message batch of "
+                + messages.size()
+                + " messages failed; messages neither acked nor nacked.",
+            re);
+      }
+    }
+  }
+
   private void consumeMessage(ConvertedBasicAcknowledgeablePubsubMessage<?> message) {
     Map<String, Object> messageHeaders =
         this.headerMapper.toHeaders(message.getPubsubMessage().getAttributesMap());
@@ -140,12 +346,17 @@ public class PubSubInboundChannelAdapter extends MessageProducerSupport {
     // ack/nack, or just have access to the original message for any other reason.
     messageHeaders.put(GcpPubSubHeaders.ORIGINAL_MESSAGE, message);
 
+    PubSubMetricsRecorder recorder = this.metricsRecorder;
+    long startNanos = processingStarted(recorder, 1);
+    boolean sent = false;
     try {
       sendMessage(
           getMessageBuilderFactory()
               .withPayload(message.getPayload())
               .copyHeaders(messageHeaders)
               .build());
+      sent = true;
+      processingCompleted(recorder, 1, startNanos, true);
 
       processedMessage(message.getProjectSubscriptionName());
 
@@ -153,6 +364,9 @@ public class PubSubInboundChannelAdapter extends MessageProducerSupport {
         message.ack();
       }
     } catch (RuntimeException re) {
+      if (!sent) {
+        processingCompleted(recorder, 1, startNanos, false);
+      }
       if (this.ackMode == AckMode.AUTO) {
         message.nack();
         LOGGER.warn(
@@ -170,6 +384,22 @@ public class PubSubInboundChannelAdapter extends MessageProducerSupport {
     }
   }
 
+  private long processingStarted(PubSubMetricsRecorder recorder, int messageCount) {
+    if (recorder == null) {
+      return 0L;
+    }
+    recorder.processingStarted(this.subscriptionName, messageCount);
+    return System.nanoTime();
+  }
+
+  private void processingCompleted(
+      PubSubMetricsRecorder recorder, int messageCount, long startNanos, boolean success) {
+    if (recorder != null) {
+      recorder.processingCompleted(
+          this.subscriptionName, messageCount, System.nanoTime() - startNanos, success);
+    }
+  }
+
   private void addToHealthRegistry() {
     if (healthCheckEnabled()) {
       healthTrackerRegistry.registerTracker(subscriptionName);
@@ -21,24 +21,52 @@ import com.google.cloud.spring.pubsub.integration.AckMode;
 import com.google.cloud.spring.pubsub.integration.PubSubHeaderMapper;
 import com.google.cloud.spring.pubsub.support.GcpPubSubHeaders;
 import com.google.cloud.spring.pubsub.support.converter.ConvertedAcknowledgeablePubsubMessage;
+import java.time.Duration;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.context.Lifecycle;
 import org.springframework.integration.IntegrationMessageHeaderAccessor;
+import org.springframework.integration.context.IntegrationContextUtils;
 import org.springframework.integration.endpoint.AbstractFetchLimitingMessageSource;
 import org.springframework.integration.endpoint.AbstractMessageSource;
 import org.springframework.integration.mapping.HeaderMapper;
 import org.springframework.integration.support.AbstractIntegrationMessageBuilder;
 import org.springframework.messaging.Message;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.util.Assert;
 
 /**
  * A <a href="https://cloud.google.com/pubsub/docs/pull#pubsub-pull-messages-sync-java">PubSub
  * Synchronous pull</a> implementation of {@link AbstractMessageSource}.
  *
+ * <p>By default, a new pull is only issued once all previously pulled messages have been handed
+ * out, so every drained batch costs a full pull round-trip. Setting a {@link #setPrefetchSize
+ * prefetch size} instead keeps asynchronous pulls in flight to refill an internal buffer whenever
+ * it falls below a low-water mark. Messages entering the buffer get the buffered ack deadline right
+ * away, and it is periodically extended so they don't expire before being handed out.
+ *
  * @since 1.2
  */
-public class PubSubMessageSource extends AbstractFetchLimitingMessageSource<Object> {
+public class PubSubMessageSource extends AbstractFetchLimitingMessageSource<Object>
+    implements Lifecycle {
+
+  private static final Log LOGGER = LogFactory.getLog(PubSubMessageSource.class);
+
+  /**
+   * Buffered ack deadlines are extended at half the minimum deadline Pub/Sub allows, so that even
+   * messages still on a minimal subscription deadline, e.g., when setting the buffered deadline on
+   * arrival failed, are extended before they expire.
+   */
+  private static final Duration ACK_EXTENSION_PERIOD = Duration.ofSeconds(5);
 
   private final String subscriptionName;
 
@@ -55,6 +83,31 @@ public class PubSubMessageSource extends AbstractFetchLimitingMessageSource<Obje
   private final ArrayDeque<ConvertedAcknowledgeablePubsubMessage<?>> cachedMessages =
       new ArrayDeque<>();
 
+  private int prefetchSize;
+
+  private int prefetchLowWaterMark = -1;
+
+  private int maxConcurrentPulls = 1;
+
+  private int bufferedAckDeadlineSeconds = 60;
+
+  private TaskScheduler taskScheduler;
+
+  private final Deque<ConvertedAcknowledgeablePubsubMessage<?>> prefetchedMessages =
+      new ConcurrentLinkedDeque<>();
+
+  private final AtomicInteger prefetchedCount = new AtomicInteger();
+
+  private final Object prefetchMonitor = new Object();
+
+  private int requestedMessages;
+
+  private int pullsInFlight;
+
+  private ScheduledFuture<?> ackExtensionTask;
+
+  private volatile boolean running = true;
+
   /**
    * Instantiates a Pub/Sub inbound message adapter to poll a given subscription for messages.
    *
@@ -93,6 +146,92 @@ public class PubSubMessageSource extends AbstractFetchLimitingMessageSource<Obje
     this.blockOnPull = blockOnPull;
   }
 
+  /**
+   * Enable prefetching by setting the number of messages to keep buffered. A value of 0, the
+   * default, disables prefetching. When prefetching, {@code fetchSize} is ignored and pulls are
+   * issued asynchronously without returning immediately, since they never block the poller.
+   *
+   * @param prefetchSize the target number of buffered messages
+   * @since 3.3.0
+   */
+  public void setPrefetchSize(int prefetchSize) {
+    Assert.isTrue(prefetchSize >= 0, "The prefetch size can't be negative.");
+    this.prefetchSize = prefetchSize;
+  }
+
+  /**
+   * Set the number of buffered and requested messages below which a refill is triggered. Defaults
+   * to half the prefetch size.
+   *
+   * @param prefetchLowWaterMark the low-water mark
+   * @since 3.3.0
+   */
+  public void setPrefetchLowWaterMark(int prefetchLowWaterMark) {
+    Assert.isTrue(prefetchLowWaterMark >= 0, "The prefetch low-water mark can't be negative.");
+    this.prefetchLowWaterMark = prefetchLowWaterMark;
+  }
+
+  /**
+   * Set the maximum number of pull requests in flight at once when prefetching. Defaults to 1.
+   *
+   * @param maxConcurrentPulls the maximum number of concurrent pulls
+   * @since 3.3.0
+   */
+  public void setMaxConcurrentPulls(int maxConcurrentPulls) {
+    Assert.isTrue(maxConcurrentPulls > 0, "The maxConcurrentPulls must be positive.");
+    this.maxConcurrentPulls = maxConcurrentPulls;
+  }
+
+  /**
+   * Set the ack deadline, in seconds, applied to buffered messages. Their deadline is set to this
+   * value as soon as they are buffered, and extended every 5 seconds until they are handed out.
+   * Defaults to 60 seconds.
+   *
+   * @param bufferedAckDeadlineSeconds the ack deadline of buffered messages
+   * @since 3.3.0
+   */
+  public void setBufferedAckDeadlineSeconds(int bufferedAckDeadlineSeconds) {
+    Assert.isTrue(
+        bufferedAckDeadlineSeconds >= 10 && bufferedAckDeadlineSeconds <= 600,
+        "The buffered ack deadline must be between 10 and 600 seconds.");
+    this.bufferedAckDeadlineSeconds = bufferedAckDeadlineSeconds;
+  }
+
+  /**
+   * Set the scheduler used to extend the ack deadline of buffered messages. Defaults to the
+   * Spring Integration {@code taskScheduler} bean.
+   *
+   * @param taskScheduler the scheduler to use
+   * @since 3.3.0
+   */
+  public void setTaskScheduler(TaskScheduler taskScheduler) {
+    Assert.notNull(taskScheduler, "The task scheduler can't be null.");
+    this.taskScheduler = taskScheduler;
+  }
+
+  @Override
+  public void start() {
+    this.running = true;
+  }
+
+  /** Stops ack deadline extension and nacks buffered messages so they are redelivered promptly. */
+  @Override
+  public void stop() {
+    this.running = false;
+    synchronized (this.prefetchMonitor) {
+      if (this.ackExtensionTask != null) {
+        this.ackExtensionTask.cancel(false);
+        this.ackExtensionTask = null;
+      }
+    }
+    nackPrefetchedMessages();
+  }
+
+  @Override
+  public boolean isRunning() {
+    return this.running;
+  }
+
   /**
    * Provides a single polled message.
    *
@@ -104,6 +243,10 @@ public class PubSubMessageSource extends AbstractFetchLimitingMessageSource<Obje
    */
   @Override
   protected Object doReceive(int fetchSize) {
+    if (this.prefetchSize > 0) {
+      return receivePrefetched();
+    }
+
     if (this.cachedMessages.isEmpty()) {
       Integer maxMessages = (fetchSize > 0) ? fetchSize : 1;
 
@@ -123,6 +266,153 @@ public class PubSubMessageSource extends AbstractFetchLimitingMessageSource<Obje
     return processMessage(this.cachedMessages.pollFirst());
   }
 
+  private Object receivePrefetched() {
+    ConvertedAcknowledgeablePubsubMessage<?> message = this.prefetchedMessages.pollFirst();
+    if (message != null) {
+      this.prefetchedCount.decrementAndGet();
+    }
+    if (this.running) {
+      scheduleAckExtension();
+      refillPrefetchBuffer();
+    }
+    return processMessage(message);
+  }
+
+  /**
+   * Issues asynchronous pulls when the number of buffered and requested messages falls to the
+   * low-water mark, splitting the deficit across the pulls that may still be started.
+   */
+  private void refillPrefetchBuffer() {
+    int lowWaterMark =
+        this.prefetchLowWaterMark >= 0 ? this.prefetchLowWaterMark : this.prefetchSize / 2;
+    List<Integer> pullSizes = new ArrayList<>(this.maxConcurrentPulls);
+
+    synchronized (this.prefetchMonitor) {
+      int available = this.prefetchedCount.get() + this.requestedMessages;
+      if (available > lowWaterMark) {
+        return;
+      }
+      int deficit = this.prefetchSize - available;
+      while (deficit > 0 && this.pullsInFlight < this.maxConcurrentPulls) {
+        int remainingPulls = this.maxConcurrentPulls - this.pullsInFlight;
+        int pullSize = (deficit + remainingPulls - 1) / remainingPulls;
+        pullSizes.add(pullSize);
+        deficit -= pullSize;
+        this.requestedMessages += pullSize;
+        this.pullsInFlight++;
+      }
+    }
+
+    for (int pullSize : pullSizes) {
+      prefetch(pullSize);
+    }
+  }
+
+  private void prefetch(int pullSize) {
+    try {
+      this.pubSubSubscriberOperations
+          .pullAndConvertAsync(this.subscriptionName, pullSize, false, this.payloadType)
+          .addCallback(
+              messages -> onPrefetchCompleted(pullSize, messages),
+              ex -> onPrefetchFailed(pullSize, ex));
+    } catch (RuntimeException ex) {
+      onPrefetchFailed(pullSize, ex);
+    }
+  }
+
+  private void onPrefetchCompleted(
+      int pullSize, List<? extends ConvertedAcknowledgeablePubsubMessage<?>> messages) {
+    if (this.running && !messages.isEmpty()) {
+      // The subscription's own deadline may be shorter than the time spent in the buffer.
+      modifyBufferedAckDeadline(messages);
+    }
+    this.prefetchedMessages.addAll(messages);
+    this.prefetchedCount.addAndGet(messages.size());
+    releasePull(pullSize);
+
+    if (!this.running) {
+      nackPrefetchedMessages();
+    } else if (!messages.isEmpty()) {
+      refillPrefetchBuffer();
+    }
+  }
+
+  private void onPrefetchFailed(int pullSize, Throwable ex) {
+    LOGGER.warn("Prefetching messages from " + this.subscriptionName + " failed.", ex);
+    // The next poll will try again.
+    releasePull(pullSize);
+  }
+
+  private void releasePull(int pullSize) {
+    synchronized (this.prefetchMonitor) {
+      this.requestedMessages -= pullSize;
+      this.pullsInFlight--;
+    }
+  }
+
+  private void scheduleAckExtension() {
+    synchronized (this.prefetchMonitor) {
+      if (this.ackExtensionTask != null) {
+        return;
+      }
+      TaskScheduler scheduler = obtainTaskScheduler();
+      if (scheduler == null) {
+        return;
+      }
+      this.ackExtensionTask =
+          scheduler.scheduleAtFixedRate(this::extendPrefetchedAckDeadlines, ACK_EXTENSION_PERIOD);
+    }
+  }
+
+  private TaskScheduler obtainTaskScheduler() {
+    if (this.taskScheduler == null) {
+      BeanFactory beanFactory = getBeanFactory();
+      if (beanFactory == null) {
+        LOGGER.warn(
+            "No task scheduler available; the ack deadline of prefetched messages from "
+                + this.subscriptionName
+                + " won't be extended.");
+        return null;
+      }
+      this.taskScheduler = IntegrationContextUtils.getTaskScheduler(beanFactory);
+    }
+    return this.taskScheduler;
+  }
+
+  private void extendPrefetchedAckDeadlines() {
+    List<ConvertedAcknowledgeablePubsubMessage<?>> buffered =
+        new ArrayList<>(this.prefetchedMessages);
+    if (!buffered.isEmpty()) {
+      modifyBufferedAckDeadline(buffered);
+    }
+  }
+
+  private void modifyBufferedAckDeadline(
+      List<? extends ConvertedAcknowledgeablePubsubMessage<?>> messages) {
+    this.pubSubSubscriberOperations
+        .modifyAckDeadline(messages, this.bufferedAckDeadlineSeconds)
+        .addCallback(
+            result -> {},
+            ex ->
+                LOGGER.warn(
+                    "Extending the ack deadline of prefetched messages from "
+                        + this.subscriptionName
+                        + " failed.",
+                    ex));
+  }
+
+  private void nackPrefetchedMessages() {
+    List<ConvertedAcknowledgeablePubsubMessage<?>> buffered = new ArrayList<>();
+    ConvertedAcknowledgeablePubsubMessage<?> message;
+    while ((message = this.prefetchedMessages.pollFirst()) != null) {
+      this.prefetchedCount.decrementAndGet();
+      buffered.add(message);
+    }
+    if (!buffered.isEmpty()) {
+      this.pubSubSubscriberOperations.nack(buffered);
+    }
+  }
+
   @Override
   public String getComponentType() {
     return "gcp-pubsub:message-source";
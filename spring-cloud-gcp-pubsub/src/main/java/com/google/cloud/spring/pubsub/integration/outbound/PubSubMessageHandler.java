@@ -22,6 +22,7 @@ import com.google.cloud.spring.pubsub.support.GcpPubSubHeaders;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import org.springframework.expression.EvaluationContext;
@@ -43,6 +44,10 @@ import org.springframework.util.concurrent.ListenableFutureCallback;
  *
  * <p>It delegates Google Cloud Pub/Sub interaction to {@link
  * com.google.cloud.spring.pubsub.core.PubSubTemplate}.
+ *
+ * <p>For confirmed delivery without blocking on every message, publish asynchronously with {@link
+ * #setSuccessCallback success} and {@link #setFailureCallback failure} callbacks, and bound the
+ * number of unconfirmed messages with {@link #setMaxOutstandingPublishes(int)}.
  */
 public class PubSubMessageHandler extends AbstractMessageHandler {
 
@@ -66,6 +71,10 @@ public class PubSubMessageHandler extends AbstractMessageHandler {
 
   private HeaderMapper<Map<String, String>> headerMapper = new PubSubHeaderMapper();
 
+  private int maxOutstandingPublishes;
+
+  private Semaphore outstandingPublishes;
+
   /**
    * Instantiates an outbound adapter for publishing messages to a topic.
    *
@@ -94,6 +103,27 @@ public class PubSubMessageHandler extends AbstractMessageHandler {
     this.sync = sync;
   }
 
+  public int getMaxOutstandingPublishes() {
+    return this.maxOutstandingPublishes;
+  }
+
+  /**
+   * Limit the number of messages published by this handler that are not confirmed yet. Once the
+   * limit is reached, the calling thread waits for a confirmation before publishing, for up to the
+   * {@link #setPublishTimeoutExpression publish timeout}, so producers slow down only when Pub/Sub
+   * cannot keep up. Defaults to 0, which means no limit.
+   *
+   * @param maxOutstandingPublishes the maximum number of unconfirmed messages, or 0 for no limit
+   * @since 3.3.0
+   */
+  public void setMaxOutstandingPublishes(int maxOutstandingPublishes) {
+    Assert.isTrue(
+        maxOutstandingPublishes >= 0, "The maxOutstandingPublishes must not be negative.");
+    this.maxOutstandingPublishes = maxOutstandingPublishes;
+    this.outstandingPublishes =
+        maxOutstandingPublishes > 0 ? new Semaphore(maxOutstandingPublishes) : null;
+  }
+
   public Expression getPublishTimeoutExpression() {
     return this.publishTimeoutExpression;
   }
@@ -217,8 +247,24 @@ public class PubSubMessageHandler extends AbstractMessageHandler {
     Map<String, String> headers = new HashMap<>();
     this.headerMapper.fromHeaders(message.getHeaders(), headers);
 
-    ListenableFuture<String> pubsubFuture =
-        this.pubSubPublisherOperations.publish(topic, payload, headers);
+    Semaphore permits = this.outstandingPublishes;
+    if (permits != null) {
+      acquirePublishPermit(permits, message);
+    }
+
+    ListenableFuture<String> pubsubFuture;
+    try {
+      pubsubFuture = this.pubSubPublisherOperations.publish(topic, payload, headers);
+    } catch (RuntimeException ex) {
+      if (permits != null) {
+        permits.release();
+      }
+      throw ex;
+    }
+
+    if (permits != null) {
+      pubsubFuture.addCallback(messageId -> permits.release(), ex -> permits.release());
+    }
 
     if (this.publishCallback != null) {
       pubsubFuture.addCallback(this.publishCallback);
@@ -255,6 +301,28 @@ public class PubSubMessageHandler extends AbstractMessageHandler {
     return this.topicExpression.getValue(this.evaluationContext, message, String.class);
   }
 
+  private void acquirePublishPermit(Semaphore permits, Message<?> message) {
+    if (permits.tryAcquire()) {
+      return;
+    }
+    Long timeout =
+        this.publishTimeoutExpression.getValue(this.evaluationContext, message, Long.class);
+    try {
+      if (timeout == null || timeout < 0) {
+        permits.acquire();
+      } else if (!permits.tryAcquire(timeout, TimeUnit.MILLISECONDS)) {
+        throw new MessageTimeoutException(
+            message,
+            "Timeout waiting for one of "
+                + this.maxOutstandingPublishes
+                + " outstanding publishes to be confirmed");
+      }
+    } catch (InterruptedException ie) {
+      Thread.currentThread().interrupt();
+      throw new MessageHandlingException(message, ie);
+    }
+  }
+
   private void blockOnPublishFuture(
       ListenableFuture<String> pubsubFuture, Message<?> message, Long timeout) {
     try {
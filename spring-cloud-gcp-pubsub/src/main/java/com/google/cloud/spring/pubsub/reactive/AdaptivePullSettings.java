@@ -0,0 +1,133 @@
+/*
+ * Copyright 2022-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spring.pubsub.reactive;
+
+import java.time.Duration;
+import org.springframework.util.Assert;
+
+/**
+ * Settings for {@link PubSubReactiveFactory#pollAdaptively(String, AdaptivePullSettings)}.
+ *
+ * <p>Pull sizes start at {@code minPullSize} and grow towards {@code maxPullSize} as full
+ * responses come back, never exceeding the outstanding downstream demand. Empty responses back
+ * off exponentially from {@code initialBackoff} up to {@code maxBackoff}.
+ *
+ * @since 3.3.0
+ */
+public class AdaptivePullSettings {
+
+  private int maxConcurrentPulls = 1;
+
+  private int minPullSize = 10;
+
+  private int maxPullSize = 1000;
+
+  private Duration initialBackoff = Duration.ofMillis(100);
+
+  private Duration maxBackoff = Duration.ofSeconds(10);
+
+  private double backoffMultiplier = 2.0;
+
+  public int getMaxConcurrentPulls() {
+    return this.maxConcurrentPulls;
+  }
+
+  /**
+   * Set the number of pull requests that may be outstanding at the same time. Defaults to 1.
+   *
+   * @param maxConcurrentPulls the maximum number of concurrent pulls
+   */
+  public void setMaxConcurrentPulls(int maxConcurrentPulls) {
+    Assert.isTrue(maxConcurrentPulls > 0, "The maxConcurrentPulls must be positive.");
+    this.maxConcurrentPulls = maxConcurrentPulls;
+  }
+
+  public int getMinPullSize() {
+    return this.minPullSize;
+  }
+
+  /**
+   * Set the smallest number of messages requested by a single pull, unless the remaining demand is
+   * smaller. Defaults to 10.
+   *
+   * @param minPullSize the minimum pull size
+   */
+  public void setMinPullSize(int minPullSize) {
+    Assert.isTrue(minPullSize > 0, "The minPullSize must be positive.");
+    this.minPullSize = minPullSize;
+  }
+
+  public int getMaxPullSize() {
+    return this.maxPullSize;
+  }
+
+  /**
+   * Set the largest number of messages requested by a single pull. Defaults to 1000.
+   *
+   * @param maxPullSize the maximum pull size
+   */
+  public void setMaxPullSize(int maxPullSize) {
+    Assert.isTrue(maxPullSize > 0, "The maxPullSize must be positive.");
+    this.maxPullSize = maxPullSize;
+  }
+
+  public Duration getInitialBackoff() {
+    return this.initialBackoff;
+  }
+
+  /**
+   * Set the delay before pulling again after the first empty response. Defaults to 100
+   * milliseconds.
+   *
+   * @param initialBackoff the initial backoff
+   */
+  public void setInitialBackoff(Duration initialBackoff) {
+    Assert.notNull(initialBackoff, "The initialBackoff can't be null.");
+    Assert.isTrue(!initialBackoff.isNegative(), "The initialBackoff must not be negative.");
+    this.initialBackoff = initialBackoff;
+  }
+
+  public Duration getMaxBackoff() {
+    return this.maxBackoff;
+  }
+
+  /**
+   * Set the upper bound of the delay between pulls of an empty subscription. Defaults to 10
+   * seconds.
+   *
+   * @param maxBackoff the maximum backoff
+   */
+  public void setMaxBackoff(Duration maxBackoff) {
+    Assert.notNull(maxBackoff, "The maxBackoff can't be null.");
+    Assert.isTrue(!maxBackoff.isNegative(), "The maxBackoff must not be negative.");
+    this.maxBackoff = maxBackoff;
+  }
+
+  public double getBackoffMultiplier() {
+    return this.backoffMultiplier;
+  }
+
+  /**
+   * Set the factor by which the backoff grows with each consecutive empty response. Defaults to 2.
+   *
+   * @param backoffMultiplier the backoff multiplier
+   */
+  public void setBackoffMultiplier(double backoffMultiplier) {
+    Assert.isTrue(backoffMultiplier >= 1.0, "The backoffMultiplier must be at least 1.");
+    this.backoffMultiplier = backoffMultiplier;
+  }
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright 2022-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spring.pubsub.reactive;
+
+import com.google.api.gax.rpc.DeadlineExceededException;
+import com.google.cloud.spring.pubsub.core.subscriber.PubSubSubscriberOperations;
+import com.google.cloud.spring.pubsub.support.AcknowledgeablePubsubMessage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Operators;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * Drives a single adaptive {@link FluxSink} subscription.
+ *
+ * <p>Keeps up to {@code maxConcurrentPulls} pulls outstanding while there is unmet downstream
+ * demand. A pull slot that comes back empty is held for the current backoff delay before it is
+ * reused, so an idle subscription is polled at a decreasing rate rather than in a tight loop.
+ */
+final class AdaptivePuller {
+
+  private static final Log LOGGER = LogFactory.getLog(AdaptivePuller.class);
+
+  private final PubSubSubscriberOperations subscriberOperations;
+
+  private final String subscriptionName;
+
+  private final AdaptivePullSettings settings;
+
+  private final Scheduler scheduler;
+
+  private final FluxSink<AcknowledgeablePubsubMessage> sink;
+
+  private final AtomicInteger wip = new AtomicInteger();
+
+  // The fields below are guarded by "this".
+
+  private long demand;
+
+  private long requestedInFlight;
+
+  private int activePulls;
+
+  private int targetPullSize;
+
+  private long backoffMillis;
+
+  private boolean terminated;
+
+  AdaptivePuller(
+      PubSubSubscriberOperations subscriberOperations,
+      String subscriptionName,
+      AdaptivePullSettings settings,
+      Scheduler scheduler,
+      FluxSink<AcknowledgeablePubsubMessage> sink) {
+    this.subscriberOperations = subscriberOperations;
+    this.subscriptionName = subscriptionName;
+    this.settings = settings;
+    this.scheduler = scheduler;
+    this.sink = sink;
+    this.targetPullSize = Math.min(settings.getMinPullSize(), settings.getMaxPullSize());
+  }
+
+  void start() {
+    this.sink.onDispose(this::terminate);
+    this.sink.onRequest(this::request);
+  }
+
+  private void request(long numRequested) {
+    synchronized (this) {
+      this.demand = Operators.addCap(this.demand, numRequested);
+    }
+    drain();
+  }
+
+  private synchronized void terminate() {
+    this.terminated = true;
+  }
+
+  /**
+   * Issue pulls for free slots. Pulls completing synchronously re-enter here; the work-in-progress
+   * counter turns that into another iteration of the outer loop instead of recursion.
+   */
+  private void drain() {
+    if (this.wip.getAndIncrement() != 0) {
+      return;
+    }
+    int missed = 1;
+    while (true) {
+      for (int pullSize : reservePulls()) {
+        pull(pullSize);
+      }
+      missed = this.wip.addAndGet(-missed);
+      if (missed == 0) {
+        return;
+      }
+    }
+  }
+
+  private synchronized List<Integer> reservePulls() {
+    List<Integer> pullSizes = new ArrayList<>();
+    int maxConcurrentPulls = this.settings.getMaxConcurrentPulls();
+    while (!this.terminated
+        && this.activePulls < maxConcurrentPulls
+        && this.demand - this.requestedInFlight > 0) {
+      long remaining = this.demand - this.requestedInFlight;
+      int freeSlots = maxConcurrentPulls - this.activePulls;
+      // Spread the remaining demand over the free slots, rounding up.
+      long share = remaining / freeSlots + (remaining % freeSlots == 0 ? 0 : 1);
+      int pullSize = (int) Math.min(this.targetPullSize, share);
+
+      this.activePulls++;
+      this.requestedInFlight += pullSize;
+      pullSizes.add(pullSize);
+    }
+    return pullSizes;
+  }
+
+  private void pull(int pullSize) {
+    try {
+      this.subscriberOperations
+          .pullAsync(this.subscriptionName, pullSize, false)
+          .addCallback(
+              messages -> onPullSuccess(pullSize, messages),
+              exception -> onPullFailure(pullSize, exception));
+    } catch (RuntimeException ex) {
+      onPullFailure(pullSize, ex);
+    }
+  }
+
+  private void onPullSuccess(int pullSize, List<AcknowledgeablePubsubMessage> messages) {
+    boolean deliver;
+    synchronized (this) {
+      this.requestedInFlight -= pullSize;
+      deliver = !this.terminated;
+      if (this.demand != Long.MAX_VALUE) {
+        this.demand = Math.max(0, this.demand - messages.size());
+      }
+      adjustTargetPullSize(pullSize, messages.size());
+      if (!messages.isEmpty()) {
+        this.backoffMillis = 0;
+        this.activePulls--;
+      }
+    }
+
+    if (deliver) {
+      messages.forEach(this.sink::next);
+    } else {
+      // Cancelled while the pull was in flight; hand the messages back for redelivery.
+      messages.forEach(AcknowledgeablePubsubMessage::nack);
+    }
+
+    if (messages.isEmpty()) {
+      backOff();
+    } else {
+      drain();
+    }
+  }
+
+  private void onPullFailure(int pullSize, Throwable exception) {
+    synchronized (this) {
+      this.requestedInFlight -= pullSize;
+    }
+    if (exception instanceof DeadlineExceededException) {
+      if (LOGGER.isTraceEnabled()) {
+        LOGGER.trace(
+            "Blocking pull timed out due to empty subscription "
+                + this.subscriptionName
+                + "; backing off.");
+      }
+      backOff();
+    } else {
+      terminate();
+      this.sink.error(exception);
+    }
+  }
+
+  /**
+   * Grow the pull size while responses come back full, and let it decay towards the observed
+   * batch size otherwise.
+   */
+  private void adjustTargetPullSize(int pullSize, int received) {
+    int minPullSize = this.settings.getMinPullSize();
+    int maxPullSize = this.settings.getMaxPullSize();
+    if (received >= pullSize && pullSize >= this.targetPullSize) {
+      this.targetPullSize = (int) Math.min(maxPullSize, 2L * this.targetPullSize);
+    } else if (received > 0 && received < pullSize) {
+      int smoothed = (this.targetPullSize + received) / 2;
+      this.targetPullSize = Math.min(maxPullSize, Math.max(minPullSize, smoothed));
+    }
+  }
+
+  private void backOff() {
+    long delay;
+    synchronized (this) {
+      if (this.terminated) {
+        return;
+      }
+      long initial = this.settings.getInitialBackoff().toMillis();
+      long max = this.settings.getMaxBackoff().toMillis();
+      long next =
+          this.backoffMillis == 0
+              ? initial
+              : (long) (this.backoffMillis * this.settings.getBackoffMultiplier());
+      this.backoffMillis = Math.min(max, next);
+      delay = this.backoffMillis;
+    }
+
+    try {
+      this.scheduler.schedule(this::releaseSlot, delay, TimeUnit.MILLISECONDS);
+    } catch (RejectedExecutionException ex) {
+      terminate();
+      this.sink.error(ex);
+    }
+  }
+
+  private void releaseSlot() {
+    synchronized (this) {
+      this.activePulls--;
+    }
+    drain();
+  }
+}
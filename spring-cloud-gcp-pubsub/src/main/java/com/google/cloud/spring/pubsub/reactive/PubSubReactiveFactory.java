@@ -19,6 +19,7 @@ package com.google.cloud.spring.pubsub.reactive;
 import com.google.api.gax.rpc.DeadlineExceededException;
 import com.google.cloud.spring.pubsub.core.subscriber.PubSubSubscriberOperations;
 import com.google.cloud.spring.pubsub.support.AcknowledgeablePubsubMessage;
+import com.google.cloud.spring.pubsub.support.BasicAcknowledgeablePubsubMessage;
 import java.time.Duration;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
@@ -36,7 +37,8 @@ import reactor.core.scheduler.Scheduler;
  *
  * <p>The {@link Scheduler}, that is given to the constructor, is used for regularly polling the
  * subscription, when the demand is unlimited. The scheduler is not used when there is a specific
- * demand (a.k.a backpressure).
+ * demand (a.k.a backpressure). Streams created by {@link #pollAdaptively(String,
+ * AdaptivePullSettings)} use the scheduler to delay pulls after empty responses.
  *
  * @since 1.2
  */
@@ -120,6 +122,62 @@ public final class PubSubReactiveFactory {
                 }));
   }
 
+  /**
+   * Create an infinite stream {@link Flux} of {@link AcknowledgeablePubsubMessage} objects that
+   * adapts its pulls to downstream demand and observed throughput.
+   *
+   * <p>Up to {@link AdaptivePullSettings#getMaxConcurrentPulls()} pulls are kept outstanding while
+   * there is unmet demand. Each pull asks for a share of the remaining demand, capped by a pull
+   * size that doubles while responses come back full and decays towards the observed batch size
+   * otherwise. Unlimited demand is served the same way, without a fixed polling interval.
+   *
+   * <p>Empty responses and Pub/Sub timeouts back off exponentially on the factory's {@link
+   * Scheduler} before the pull is retried; the delay resets as soon as a pull returns messages.
+   * Messages that arrive after the stream is cancelled are nacked.
+   *
+   * <p>Any other exceptions that are thrown by the Pub/Sub client will be passed as an error to
+   * the stream.
+   *
+   * @param subscriptionName subscription from which to retrieve messages.
+   * @param settings the pull sizing, concurrency and backoff settings.
+   * @return infinite stream of {@link AcknowledgeablePubsubMessage} objects.
+   * @since 3.3.0
+   */
+  public Flux<AcknowledgeablePubsubMessage> pollAdaptively(
+      String subscriptionName, AdaptivePullSettings settings) {
+    Assert.hasText(subscriptionName, "The subscriptionName can't be null or empty.");
+    Assert.notNull(settings, "The settings can't be null.");
+
+    return Flux.create(
+        sink ->
+            new AdaptivePuller(
+                    this.subscriberOperations, subscriptionName, settings, this.scheduler, sink)
+                .start());
+  }
+
+  /**
+   * Create an infinite stream {@link Flux} of {@link BasicAcknowledgeablePubsubMessage} objects
+   * backed by a StreamingPull {@link com.google.cloud.pubsub.v1.Subscriber}.
+   *
+   * <p>The subscriber is started when the {@link Flux} is subscribed to and stopped when it is
+   * cancelled. Messages are only emitted against downstream demand: a client library thread
+   * holding a message that has not been requested yet waits for {@code request(n)}, which keeps
+   * the message outstanding and lets the subscriber's flow control settings stop the stream until
+   * downstream catches up. Messages still waiting when the stream is cancelled are nacked.
+   *
+   * <p>A subscriber failure is passed as an error to the stream.
+   *
+   * @param subscriptionName subscription from which to stream messages.
+   * @return infinite stream of {@link BasicAcknowledgeablePubsubMessage} objects.
+   * @since 3.3.0
+   */
+  public Flux<BasicAcknowledgeablePubsubMessage> streamingPull(String subscriptionName) {
+    Assert.hasText(subscriptionName, "The subscriptionName can't be null or empty.");
+
+    return Flux.create(
+        sink -> new StreamingPullBridge(sink).start(this.subscriberOperations, subscriptionName));
+  }
+
   private void pollingPull(
       String subscriptionName, long pollingPeriodMs, FluxSink<AcknowledgeablePubsubMessage> sink) {
     Disposable disposable =
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2022-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spring.pubsub.reactive;
+
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+
+import com.google.api.core.ApiService;
+import com.google.cloud.pubsub.v1.Subscriber;
+import com.google.cloud.spring.pubsub.core.subscriber.PubSubSubscriberOperations;
+import com.google.cloud.spring.pubsub.support.BasicAcknowledgeablePubsubMessage;
+import java.util.function.Consumer;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Operators;
+
+/**
+ * Connects a streaming pull {@link Subscriber} to a single {@link FluxSink}.
+ *
+ * <p>Client library threads delivering a message wait until downstream has requested it. While
+ * they wait, the message counts against the subscriber's flow control limits, so no further
+ * messages are streamed until demand catches up.
+ */
+final class StreamingPullBridge implements Consumer<BasicAcknowledgeablePubsubMessage> {
+
+  private final FluxSink<BasicAcknowledgeablePubsubMessage> sink;
+
+  // The fields below are guarded by "this".
+
+  private long demand;
+
+  private boolean cancelled;
+
+  StreamingPullBridge(FluxSink<BasicAcknowledgeablePubsubMessage> sink) {
+    this.sink = sink;
+  }
+
+  void start(PubSubSubscriberOperations subscriberOperations, String subscriptionName) {
+    this.sink.onRequest(this::request);
+
+    Subscriber subscriber = subscriberOperations.subscribe(subscriptionName, this);
+    // FluxSink keeps a single dispose callback, so both steps have to share it.
+    this.sink.onDispose(
+        () -> {
+          cancel();
+          subscriber.stopAsync();
+        });
+    subscriber.addListener(
+        new ApiService.Listener() {
+          @Override
+          public void failed(ApiService.State from, Throwable failure) {
+            StreamingPullBridge.this.sink.error(failure);
+          }
+        },
+        directExecutor());
+    if (subscriber.state() == ApiService.State.FAILED) {
+      this.sink.error(subscriber.failureCause());
+    }
+  }
+
+  @Override
+  public void accept(BasicAcknowledgeablePubsubMessage message) {
+    if (!awaitDemand()) {
+      message.nack();
+      return;
+    }
+    this.sink.next(message);
+  }
+
+  private synchronized boolean awaitDemand() {
+    try {
+      while (this.demand == 0 && !this.cancelled) {
+        wait();
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+    if (this.cancelled) {
+      return false;
+    }
+    if (this.demand != Long.MAX_VALUE) {
+      this.demand--;
+    }
+    return true;
+  }
+
+  private synchronized void request(long numRequested) {
+    this.demand = Operators.addCap(this.demand, numRequested);
+    notifyAll();
+  }
+
+  private synchronized void cancel() {
+    this.cancelled = true;
+    notifyAll();
+  }
+}
@@ -17,20 +17,62 @@
 package com.google.cloud.spring.pubsub.support;
 
 import com.google.cloud.pubsub.v1.Publisher;
+import java.time.Duration;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.util.Assert;
 
 /**
  * The caching implementation of the {@link PublisherFactory}.
  *
  * <p>Creates {@link Publisher}s for topics once using delegate, caches and reuses them.
+ *
+ * <p>The cache is unbounded by default. With {@link #setMaxPublishers(int)}, the least recently
+ * used publisher is evicted once the limit is exceeded; with {@link #setIdleTimeout(Duration)},
+ * publishers not requested for longer than the timeout are evicted by a periodic sweep. Evicted
+ * publishers are shut down in the background, which publishes any outstanding messages first.
+ * Callers should request the publisher for each publish, as {@code PubSubPublisherTemplate}
+ * does, rather than hold on to it. A publisher can still be evicted between being requested and
+ * used; {@code PubSubPublisherTemplate} then publishes with the replacement publisher.
  */
-public class CachingPublisherFactory implements PublisherFactory {
+public class CachingPublisherFactory implements PublisherFactory, DisposableBean {
+
+  private static final Log LOGGER = LogFactory.getLog(CachingPublisherFactory.class);
+
+  /** Default time to wait for an evicted publisher to publish its outstanding messages. */
+  public static final Duration DEFAULT_SHUTDOWN_TIMEOUT = Duration.ofSeconds(30);
+
   /** {@link Publisher} cache, enforces only one {@link Publisher} per Pub/Sub topic exists. */
-  private final ConcurrentHashMap<String, Publisher> publishers =
-      new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<String, CachedPublisher> publishers = new ConcurrentHashMap<>();
 
   private PublisherFactory delegate;
 
+  private int maxPublishers = Integer.MAX_VALUE;
+
+  private Duration idleTimeout;
+
+  private Duration shutdownTimeout = DEFAULT_SHUTDOWN_TIMEOUT;
+
+  private final LongAdder hitCount = new LongAdder();
+
+  private final LongAdder missCount = new LongAdder();
+
+  private final LongAdder evictionCount = new LongAdder();
+
+  private final Object lifecycleMonitor = new Object();
+
+  private ScheduledExecutorService maintenanceExecutor;
+
+  private boolean sweepScheduled;
+
   /**
    * Constructs a caching {@link PublisherFactory} using the delegate.
    *
@@ -40,9 +82,194 @@ public class CachingPublisherFactory implements PublisherFactory {
     this.delegate = delegate;
   }
 
+  /**
+   * Set the maximum number of cached publishers. Once exceeded, the least recently used publisher
+   * is evicted. Unbounded by default.
+   *
+   * @param maxPublishers the maximum number of cached publishers
+   * @since 3.3.0
+   */
+  public void setMaxPublishers(int maxPublishers) {
+    Assert.isTrue(maxPublishers > 0, "The maxPublishers must be positive.");
+    this.maxPublishers = maxPublishers;
+  }
+
+  /**
+   * Set how long a publisher may go unrequested before it is evicted. Publishers are never evicted
+   * for being idle by default.
+   *
+   * @param idleTimeout the idle timeout, or {@code null} to disable idle eviction
+   * @since 3.3.0
+   */
+  public void setIdleTimeout(Duration idleTimeout) {
+    Assert.isTrue(
+        idleTimeout == null || !idleTimeout.isNegative() && !idleTimeout.isZero(),
+        "The idleTimeout must be positive.");
+    this.idleTimeout = idleTimeout;
+  }
+
+  /**
+   * Set how long to wait for an evicted publisher to publish its outstanding messages. Defaults to
+   * 30 seconds.
+   *
+   * @param shutdownTimeout the shutdown timeout
+   * @since 3.3.0
+   */
+  public void setShutdownTimeout(Duration shutdownTimeout) {
+    Assert.notNull(shutdownTimeout, "The shutdownTimeout can't be null.");
+    this.shutdownTimeout = shutdownTimeout;
+  }
+
   @Override
   public Publisher createPublisher(String topic) {
-    return this.publishers.computeIfAbsent(topic, delegate::createPublisher);
+    CachedPublisher cached = this.publishers.get(topic);
+    if (cached != null) {
+      this.hitCount.increment();
+      cached.lastAccessNanos = System.nanoTime();
+      return cached.publisher;
+    }
+
+    cached = this.publishers.computeIfAbsent(topic, this::newCachedPublisher);
+    if (this.publishers.size() > this.maxPublishers) {
+      evictLeastRecentlyUsed();
+    }
+    if (this.idleTimeout != null) {
+      scheduleIdleSweep();
+    }
+    return cached.publisher;
+  }
+
+  private CachedPublisher newCachedPublisher(String topic) {
+    this.missCount.increment();
+    return new CachedPublisher(this.delegate.createPublisher(topic));
+  }
+
+  private void evictLeastRecentlyUsed() {
+    while (this.publishers.size() > this.maxPublishers) {
+      Map.Entry<String, CachedPublisher> eldest = null;
+      for (Map.Entry<String, CachedPublisher> entry : this.publishers.entrySet()) {
+        if (eldest == null
+            || entry.getValue().lastAccessNanos - eldest.getValue().lastAccessNanos < 0) {
+          eldest = entry;
+        }
+      }
+      if (eldest == null) {
+        return;
+      }
+      evict(eldest.getKey(), eldest.getValue());
+    }
+  }
+
+  /** Evict every publisher that has not been requested within the idle timeout. */
+  void evictIdlePublishers() {
+    Duration timeout = this.idleTimeout;
+    if (timeout == null) {
+      return;
+    }
+    long now = System.nanoTime();
+    this.publishers.forEach(
+        (topic, cached) -> {
+          if (now - cached.lastAccessNanos > timeout.toNanos()) {
+            evict(topic, cached);
+          }
+        });
+  }
+
+  private void evict(String topic, CachedPublisher cached) {
+    if (!this.publishers.remove(topic, cached)) {
+      // Already evicted concurrently.
+      return;
+    }
+    this.evictionCount.increment();
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug("Evicting publisher for topic " + topic + ".");
+    }
+    try {
+      getMaintenanceExecutor().execute(() -> shutdown(topic, cached.publisher));
+    } catch (RejectedExecutionException ex) {
+      shutdown(topic, cached.publisher);
+    }
+  }
+
+  private void shutdown(String topic, Publisher publisher) {
+    try {
+      publisher.shutdown();
+      if (!publisher.awaitTermination(this.shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+        LOGGER.warn("Publisher for topic " + topic + " did not terminate in time.");
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    } catch (RuntimeException ex) {
+      LOGGER.warn("Failed to shut down publisher for topic " + topic + ".", ex);
+    }
+  }
+
+  private void scheduleIdleSweep() {
+    synchronized (this.lifecycleMonitor) {
+      if (this.sweepScheduled) {
+        return;
+      }
+      long periodMillis = Math.max(1000L, this.idleTimeout.toMillis() / 2);
+      getMaintenanceExecutor()
+          .scheduleWithFixedDelay(
+              this::evictIdlePublishers, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+      this.sweepScheduled = true;
+    }
+  }
+
+  private ScheduledExecutorService getMaintenanceExecutor() {
+    synchronized (this.lifecycleMonitor) {
+      if (this.maintenanceExecutor == null) {
+        this.maintenanceExecutor =
+            Executors.newSingleThreadScheduledExecutor(
+                runnable -> {
+                  Thread thread = new Thread(runnable, "gcp-pubsub-publisher-cache");
+                  thread.setDaemon(true);
+                  return thread;
+                });
+      }
+      return this.maintenanceExecutor;
+    }
+  }
+
+  /**
+   * Shut down all cached publishers, publishing their outstanding messages first, then destroy
+   * the delegate if it is a {@link DisposableBean}.
+   *
+   * @since 3.3.0
+   */
+  @Override
+  public void destroy() {
+    ScheduledExecutorService executor;
+    synchronized (this.lifecycleMonitor) {
+      executor = this.maintenanceExecutor;
+    }
+    if (executor != null) {
+      // Let evicted publishers already queued for shutdown publish their outstanding messages.
+      executor.shutdown();
+      try {
+        if (!executor.awaitTermination(this.shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+          LOGGER.warn("Evicted publishers did not terminate in time.");
+          executor.shutdownNow();
+        }
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        executor.shutdownNow();
+      }
+    }
+    this.publishers.forEach(
+        (topic, cached) -> {
+          if (this.publishers.remove(topic, cached)) {
+            shutdown(topic, cached.publisher);
+          }
+        });
+    if (this.delegate instanceof DisposableBean) {
+      try {
+        ((DisposableBean) this.delegate).destroy();
+      } catch (Exception ex) {
+        LOGGER.warn("Failed to destroy the delegate publisher factory.", ex);
+      }
+    }
   }
 
   /**
@@ -53,4 +280,55 @@ public class CachingPublisherFactory implements PublisherFactory {
   public PublisherFactory getDelegate() {
     return delegate;
   }
+
+  /**
+   * Return the number of {@link #createPublisher(String)} calls served from the cache.
+   *
+   * @return the cache hit count
+   * @since 3.3.0
+   */
+  public long getHitCount() {
+    return this.hitCount.sum();
+  }
+
+  /**
+   * Return the number of {@link #createPublisher(String)} calls that created a publisher.
+   *
+   * @return the cache miss count
+   * @since 3.3.0
+   */
+  public long getMissCount() {
+    return this.missCount.sum();
+  }
+
+  /**
+   * Return the number of publishers evicted for exceeding the size limit or being idle.
+   *
+   * @return the eviction count
+   * @since 3.3.0
+   */
+  public long getEvictionCount() {
+    return this.evictionCount.sum();
+  }
+
+  /**
+   * Return the number of currently cached publishers.
+   *
+   * @return the cache size
+   * @since 3.3.0
+   */
+  public int getSize() {
+    return this.publishers.size();
+  }
+
+  private static final class CachedPublisher {
+
+    private final Publisher publisher;
+
+    private volatile long lastAccessNanos = System.nanoTime();
+
+    CachedPublisher(Publisher publisher) {
+      this.publisher = publisher;
+    }
+  }
 }
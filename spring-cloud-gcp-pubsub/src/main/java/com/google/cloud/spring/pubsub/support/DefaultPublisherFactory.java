@@ -19,24 +19,39 @@ package com.google.cloud.spring.pubsub.support;
 import com.google.api.gax.batching.BatchingSettings;
 import com.google.api.gax.core.CredentialsProvider;
 import com.google.api.gax.core.ExecutorProvider;
+import com.google.api.gax.core.FixedExecutorProvider;
+import com.google.api.gax.grpc.InstantiatingGrpcChannelProvider;
 import com.google.api.gax.retrying.RetrySettings;
+import com.google.api.gax.rpc.FixedTransportChannelProvider;
 import com.google.api.gax.rpc.HeaderProvider;
+import com.google.api.gax.rpc.TransportChannel;
 import com.google.api.gax.rpc.TransportChannelProvider;
 import com.google.cloud.pubsub.v1.Publisher;
+import com.google.cloud.pubsub.v1.stub.PublisherStubSettings;
 import com.google.cloud.spring.core.GcpProjectIdProvider;
 import com.google.cloud.spring.pubsub.core.PubSubException;
 import com.google.cloud.spring.pubsub.core.publisher.PublisherCustomizer;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.util.Assert;
 
 /**
  * The default {@link PublisherFactory} implementation.
  *
  * <p>Creates {@link Publisher}s for topics. Use {@link CachingPublisherFactory} to cache them.
+ *
+ * <p>By default, every publisher opens its own gRPC channels. With {@link
+ * #setSharedChannelPoolSize(int)}, all publishers created by the factory share one fixed pool of
+ * channels instead, and, unless an executor provider is set, one batching executor sized to the
+ * number of available processors. Thread and connection counts then no longer grow with the number
+ * of topics.
  */
-public class DefaultPublisherFactory implements PublisherFactory {
+public class DefaultPublisherFactory implements PublisherFactory, DisposableBean {
 
   private final String projectId;
 
@@ -58,6 +73,16 @@ public class DefaultPublisherFactory implements PublisherFactory {
 
   private List<PublisherCustomizer> customizers;
 
+  private int sharedChannelPoolSize;
+
+  private final Object sharedResourcesMonitor = new Object();
+
+  private TransportChannel sharedChannel;
+
+  private TransportChannelProvider sharedChannelProvider;
+
+  private ScheduledExecutorService sharedExecutor;
+
   /**
    * Create {@link DefaultPublisherFactory} instance based on the provided {@link
    * GcpProjectIdProvider}.
@@ -151,6 +176,24 @@ public class DefaultPublisherFactory implements PublisherFactory {
     this.endpoint = endpoint;
   }
 
+  /**
+   * Share a fixed pool of gRPC channels across all publishers created by this factory. Calls are
+   * spread over the channels of the pool round-robin. Unless an executor provider is set, the
+   * publishers also share one executor with a thread per available processor. The shared
+   * resources are created with the first publisher and released by {@link #destroy()}.
+   *
+   * <p>The channels are created from the configured channel provider, resized to the pool size if
+   * it is an {@link InstantiatingGrpcChannelProvider}. Defaults to 0, which gives every publisher
+   * its own channels.
+   *
+   * @param sharedChannelPoolSize the number of shared channels, or 0 to disable sharing
+   * @since 3.3.0
+   */
+  public void setSharedChannelPoolSize(int sharedChannelPoolSize) {
+    Assert.isTrue(sharedChannelPoolSize >= 0, "The sharedChannelPoolSize must not be negative.");
+    this.sharedChannelPoolSize = sharedChannelPoolSize;
+  }
+
   /**
    * Accepts a list of {@link Publisher.Builder} customizers.
    * The customizers are applied in the order provided, so the later customizers can override
@@ -181,6 +224,9 @@ public class DefaultPublisherFactory implements PublisherFactory {
           Publisher.newBuilder(PubSubTopicUtils.toTopicName(topic, this.projectId));
 
       applyPublisherSettings(publisherBuilder);
+      if (this.sharedChannelPoolSize > 0) {
+        applySharedResources(publisherBuilder);
+      }
       applyCustomizers(publisherBuilder, topic);
 
       return publisherBuilder.build();
@@ -224,6 +270,84 @@ public class DefaultPublisherFactory implements PublisherFactory {
     }
   }
 
+  private void applySharedResources(Publisher.Builder publisherBuilder) throws IOException {
+    synchronized (this.sharedResourcesMonitor) {
+      if (this.sharedExecutor == null && this.executorProvider == null) {
+        this.sharedExecutor =
+            Executors.newScheduledThreadPool(
+                Runtime.getRuntime().availableProcessors(),
+                new CustomizableThreadFactory("gcp-pubsub-shared-publisher-"));
+      }
+      if (this.sharedChannelProvider == null) {
+        this.sharedChannel = createSharedChannel();
+        this.sharedChannelProvider = FixedTransportChannelProvider.create(this.sharedChannel);
+      }
+      publisherBuilder.setChannelProvider(this.sharedChannelProvider);
+      if (this.executorProvider == null) {
+        publisherBuilder.setExecutorProvider(FixedExecutorProvider.create(this.sharedExecutor));
+      }
+    }
+  }
+
+  private TransportChannel createSharedChannel() throws IOException {
+    TransportChannelProvider provider =
+        this.channelProvider != null
+            ? this.channelProvider
+            : Publisher.defaultTransportChannelProvider();
+    if (provider instanceof InstantiatingGrpcChannelProvider) {
+      provider =
+          ((InstantiatingGrpcChannelProvider) provider)
+              .toBuilder()
+              .setPoolSize(this.sharedChannelPoolSize)
+              .build();
+    }
+    if (provider.needsEndpoint()) {
+      provider =
+          provider.withEndpoint(
+              this.endpoint != null ? this.endpoint : PublisherStubSettings.getDefaultEndpoint());
+    }
+    if (provider.needsHeaders()) {
+      provider =
+          provider.withHeaders(
+              this.headerProvider != null
+                  ? this.headerProvider.getHeaders()
+                  : Collections.emptyMap());
+    }
+    if (provider.needsCredentials() && this.credentialsProvider != null) {
+      provider = provider.withCredentials(this.credentialsProvider.getCredentials());
+    }
+    if (provider.needsExecutor()) {
+      provider =
+          provider.withExecutor(
+              this.sharedExecutor != null
+                  ? this.sharedExecutor
+                  : this.executorProvider.getExecutor());
+    }
+    return provider.getTransportChannel();
+  }
+
+  /**
+   * Release the channels and executor shared by publishers when {@link
+   * #setSharedChannelPoolSize(int)} is set. Publishers created by this factory must be shut down
+   * first.
+   *
+   * @since 3.3.0
+   */
+  @Override
+  public void destroy() {
+    synchronized (this.sharedResourcesMonitor) {
+      if (this.sharedChannel != null) {
+        this.sharedChannel.shutdown();
+        this.sharedChannel = null;
+        this.sharedChannelProvider = null;
+      }
+      if (this.sharedExecutor != null) {
+        this.sharedExecutor.shutdown();
+        this.sharedExecutor = null;
+      }
+    }
+  }
+
   void applyCustomizers(Publisher.Builder publisherBuilder, String topic) {
     if (this.customizers == null) {
       return;
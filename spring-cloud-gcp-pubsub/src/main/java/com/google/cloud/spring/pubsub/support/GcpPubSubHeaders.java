@@ -35,6 +35,14 @@ public abstract class GcpPubSubHeaders {
   /** The original message header text. */
   public static final String ORIGINAL_MESSAGE = PREFIX + "original_message";
 
+  /**
+   * The original messages header text, set instead of {@link #ORIGINAL_MESSAGE} on batches
+   * produced by a {@link
+   * com.google.cloud.spring.pubsub.integration.inbound.PubSubInboundChannelAdapter} in batch mode.
+   * The value is a list of the original messages, in payload order.
+   */
+  public static final String ORIGINAL_MESSAGES = PREFIX + "original_messages";
+
   /** The Pub/Sub message ordering key. */
   public static final String ORDERING_KEY = PREFIX + "ordering_key";
 
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2022-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spring.pubsub.support.converter;
+
+import com.google.pubsub.v1.PubsubMessage;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.springframework.util.Assert;
+
+/**
+ * A {@link PubSubMessageConverter} decorator that transparently decompresses payloads of messages
+ * carrying the {@link PayloadCompressor#CONTENT_ENCODING_ATTRIBUTE} attribute before handing them
+ * to the delegate converter. Messages without the attribute are passed through unchanged.
+ * Conversion to {@code PubsubMessage} is left to the delegate.
+ *
+ * <p>Only converted payloads are decompressed. Messages received through the raw {@code
+ * subscribe()} and {@code pull()} methods keep their compressed payload and the content encoding
+ * attribute; use {@link #decompress(PubsubMessage)} to decompress them.
+ *
+ * @since 3.3.0
+ */
+public class DecompressingPubSubMessageConverter implements PubSubMessageConverter {
+
+  private final PubSubMessageConverter delegate;
+
+  private final Map<String, PayloadCompressor> compressors = new HashMap<>();
+
+  /**
+   * Create a converter decompressing gzip payloads.
+   *
+   * @param delegate the converter handling the decompressed messages
+   */
+  public DecompressingPubSubMessageConverter(PubSubMessageConverter delegate) {
+    this(delegate, Collections.singletonList(new GzipPayloadCompressor()));
+  }
+
+  /**
+   * Create a converter decompressing payloads in any of the encodings of the given compressors.
+   *
+   * @param delegate the converter handling the decompressed messages
+   * @param compressors the compressors for the supported encodings
+   */
+  public DecompressingPubSubMessageConverter(
+      PubSubMessageConverter delegate, Collection<PayloadCompressor> compressors) {
+    Assert.notNull(delegate, "The delegate can't be null.");
+    Assert.notEmpty(compressors, "At least one compressor is required.");
+    this.delegate = delegate;
+    compressors.forEach(compressor -> this.compressors.put(compressor.getEncoding(), compressor));
+  }
+
+  public PubSubMessageConverter getDelegate() {
+    return this.delegate;
+  }
+
+  @Override
+  public PubsubMessage toPubSubMessage(Object payload, Map<String, String> headers) {
+    return this.delegate.toPubSubMessage(payload, headers);
+  }
+
+  @Override
+  public <T> T fromPubSubMessage(PubsubMessage message, Class<T> payloadType) {
+    return this.delegate.fromPubSubMessage(decompress(message), payloadType);
+  }
+
+  /**
+   * Return the message with its payload decompressed and the content encoding attribute removed,
+   * or the message itself if it carries no content encoding.
+   *
+   * @param message the message to decompress
+   * @return the decompressed message
+   */
+  public PubsubMessage decompress(PubsubMessage message) {
+    String encoding =
+        message.getAttributesOrDefault(PayloadCompressor.CONTENT_ENCODING_ATTRIBUTE, null);
+    if (encoding == null) {
+      return message;
+    }
+    PayloadCompressor compressor = this.compressors.get(encoding);
+    if (compressor == null) {
+      throw new PubSubMessageConversionException(
+          "Unsupported payload content encoding: " + encoding + ".");
+    }
+    try {
+      return message.toBuilder()
+          .setData(compressor.decompress(message.getData()))
+          .removeAttributes(PayloadCompressor.CONTENT_ENCODING_ATTRIBUTE)
+          .build();
+    } catch (IOException ex) {
+      throw new PubSubMessageConversionException(
+          "Decompressing a " + encoding + " encoded payload failed.", ex);
+    }
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2022-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spring.pubsub.support.converter;
+
+import com.google.protobuf.ByteString;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.springframework.util.Assert;
+
+/**
+ * A {@link PayloadCompressor} using the JDK gzip implementation. Payloads are streamed between
+ * {@link ByteString} instances without intermediate byte arrays.
+ *
+ * <p>Decompressed payloads are limited to {@link #DEFAULT_MAX_DECOMPRESSED_BYTES} by default, so
+ * that a small, highly compressed payload can't exhaust the heap.
+ *
+ * @since 3.3.0
+ */
+public class GzipPayloadCompressor implements PayloadCompressor {
+
+  /** The gzip content encoding. */
+  public static final String ENCODING = "gzip";
+
+  /** Default maximum size of a decompressed payload, 64 MiB. */
+  public static final long DEFAULT_MAX_DECOMPRESSED_BYTES = 64L * 1024 * 1024;
+
+  private static final int BUFFER_SIZE = 8192;
+
+  private long maxDecompressedBytes = DEFAULT_MAX_DECOMPRESSED_BYTES;
+
+  public long getMaxDecompressedBytes() {
+    return this.maxDecompressedBytes;
+  }
+
+  /**
+   * Set the maximum size of a decompressed payload. Decompressing a larger payload fails.
+   *
+   * @param maxDecompressedBytes the maximum number of bytes
+   */
+  public void setMaxDecompressedBytes(long maxDecompressedBytes) {
+    Assert.isTrue(maxDecompressedBytes > 0, "The maxDecompressedBytes must be positive.");
+    this.maxDecompressedBytes = maxDecompressedBytes;
+  }
+
+  @Override
+  public String getEncoding() {
+    return ENCODING;
+  }
+
+  @Override
+  public ByteString compress(ByteString data) throws IOException {
+    ByteString.Output output = ByteString.newOutput(Math.max(64, data.size() / 4));
+    try (GZIPOutputStream gzip = new GZIPOutputStream(output, BUFFER_SIZE)) {
+      data.writeTo(gzip);
+    }
+    return output.toByteString();
+  }
+
+  @Override
+  public ByteString decompress(ByteString data) throws IOException {
+    try (InputStream gzip =
+        new LimitedInputStream(
+            new GZIPInputStream(data.newInput(), BUFFER_SIZE), this.maxDecompressedBytes)) {
+      return ByteString.readFrom(gzip);
+    }
+  }
+
+  /** Fails reading once more than the limit has been read. */
+  private static final class LimitedInputStream extends FilterInputStream {
+
+    private final long limit;
+
+    private long remaining;
+
+    LimitedInputStream(InputStream in, long limit) {
+      super(in);
+      this.limit = limit;
+      this.remaining = limit;
+    }
+
+    @Override
+    public int read() throws IOException {
+      int value = super.read();
+      if (value >= 0) {
+        consume(1);
+      }
+      return value;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+      int count = super.read(buffer, offset, length);
+      if (count > 0) {
+        consume(count);
+      }
+      return count;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      long skipped = super.skip(n);
+      consume(skipped);
+      return skipped;
+    }
+
+    private void consume(long count) throws IOException {
+      this.remaining -= count;
+      if (this.remaining < 0) {
+        throw new IOException(
+            "Decompressed payload exceeds the limit of " + this.limit + " bytes.");
+      }
+    }
+  }
+}
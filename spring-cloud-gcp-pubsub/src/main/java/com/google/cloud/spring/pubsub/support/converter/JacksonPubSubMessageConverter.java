@@ -16,19 +16,32 @@
 
 package com.google.cloud.spring.pubsub.support.converter;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.google.protobuf.ByteString;
 import com.google.pubsub.v1.PubsubMessage;
 import java.io.IOException;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.springframework.util.Assert;
 
-/** A converter using Jackson JSON. */
+/**
+ * A converter using Jackson JSON.
+ *
+ * <p>Payloads are serialized directly into a {@link ByteString.Output} and deserialized from
+ * {@link ByteString#newInput()}, so the message data is not copied into an intermediate byte
+ * array in either direction. The {@link ObjectReader} and {@link ObjectWriter} for each payload
+ * type are cached.
+ */
 public class JacksonPubSubMessageConverter implements PubSubMessageConverter {
 
   private final ObjectMapper objectMapper;
 
+  private final Map<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+
+  private final Map<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+
   /**
    * Constructor.
    *
@@ -41,21 +54,27 @@ public class JacksonPubSubMessageConverter implements PubSubMessageConverter {
 
   @Override
   public PubsubMessage toPubSubMessage(Object payload, Map<String, String> headers) {
+    ObjectWriter writer =
+        payload == null
+            ? this.objectMapper.writer()
+            : this.writers.computeIfAbsent(payload.getClass(), this.objectMapper::writerFor);
+    ByteString.Output output = ByteString.newOutput();
     try {
-      return byteStringToPubSubMessage(
-          ByteString.copyFrom(this.objectMapper.writeValueAsBytes(payload)), headers);
-    } catch (JsonProcessingException ex) {
+      writer.writeValue(output, payload);
+    } catch (IOException ex) {
       throw new PubSubMessageConversionException(
           "JSON serialization of an object of type " + payload.getClass().getName() + " failed.",
           ex);
     }
+    return byteStringToPubSubMessage(output.toByteString(), headers);
   }
 
   @Override
   public <T> T fromPubSubMessage(PubsubMessage message, Class<T> payloadType) {
     try {
-      return (T)
-          this.objectMapper.readerFor(payloadType).readValue(message.getData().toByteArray());
+      return this.readers
+          .computeIfAbsent(payloadType, this.objectMapper::readerFor)
+          .readValue(message.getData().newInput());
     } catch (IOException ex) {
       throw new PubSubMessageConversionException(
           "JSON deserialization of an object of type " + payloadType.getName() + " failed.", ex);
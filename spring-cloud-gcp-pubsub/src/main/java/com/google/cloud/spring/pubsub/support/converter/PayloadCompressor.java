@@ -0,0 +1,60 @@
+/*
+ * Copyright 2022-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spring.pubsub.support.converter;
+
+import com.google.protobuf.ByteString;
+import java.io.IOException;
+
+/**
+ * Compresses and decompresses Pub/Sub message payloads.
+ *
+ * <p>Compressed messages carry the {@link #getEncoding() encoding} in the {@link
+ * #CONTENT_ENCODING_ATTRIBUTE} attribute, which {@link DecompressingPubSubMessageConverter} uses to
+ * pick the matching compressor when reading.
+ *
+ * @since 3.3.0
+ */
+public interface PayloadCompressor {
+
+  /** The message attribute holding the encoding of a compressed payload. */
+  String CONTENT_ENCODING_ATTRIBUTE = "content-encoding";
+
+  /**
+   * Return the encoding written to the {@link #CONTENT_ENCODING_ATTRIBUTE} attribute.
+   *
+   * @return the content encoding, such as {@code gzip}
+   */
+  String getEncoding();
+
+  /**
+   * Compress a payload.
+   *
+   * @param data the uncompressed payload
+   * @return the compressed payload
+   * @throws IOException if compression fails
+   */
+  ByteString compress(ByteString data) throws IOException;
+
+  /**
+   * Decompress a payload.
+   *
+   * @param data the compressed payload
+   * @return the uncompressed payload
+   * @throws IOException if the payload is not valid for this encoding
+   */
+  ByteString decompress(ByteString data) throws IOException;
+}
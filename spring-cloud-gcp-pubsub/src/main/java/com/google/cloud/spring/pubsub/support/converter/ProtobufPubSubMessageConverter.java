@@ -0,0 +1,154 @@
+/*
+ * Copyright 2022-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spring.pubsub.support.converter;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Message;
+import com.google.protobuf.Parser;
+import com.google.pubsub.v1.PubsubMessage;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.util.Assert;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * A converter using the Protocol Buffers binary encoding.
+ *
+ * <p>Payloads must be {@link Message} instances. The full name of the payload's message type is
+ * written to the {@link #setTypeAttribute(String) type attribute}. When reading, a concrete
+ * generated message class passed as the payload type is parsed directly; for {@link Message},
+ * {@link Object} or any other supertype, the message type is looked up by the type attribute
+ * among the types registered through {@link #registerType(Class)} or previously written by this
+ * converter. Parsers are resolved once per message type and cached.
+ *
+ * @since 3.3.0
+ */
+public class ProtobufPubSubMessageConverter implements PubSubMessageConverter {
+
+  /** The default name of the attribute holding the full name of the payload's message type. */
+  public static final String DEFAULT_TYPE_ATTRIBUTE = "protobuf_type";
+
+  private final Map<Class<?>, Parser<?>> parsers = new ConcurrentHashMap<>();
+
+  private final Map<String, Class<? extends Message>> typesByName = new ConcurrentHashMap<>();
+
+  private String typeAttribute = DEFAULT_TYPE_ATTRIBUTE;
+
+  /**
+   * Set the name of the message attribute holding the full name of the payload's message type.
+   * Defaults to {@value #DEFAULT_TYPE_ATTRIBUTE}.
+   *
+   * @param typeAttribute the type attribute name
+   */
+  public void setTypeAttribute(String typeAttribute) {
+    Assert.hasText(typeAttribute, "The typeAttribute can't be null or empty.");
+    this.typeAttribute = typeAttribute;
+  }
+
+  /**
+   * Register a generated message class, so that messages carrying its full name in the type
+   * attribute can be read without naming the class.
+   *
+   * @param messageType the generated message class
+   */
+  public void registerType(Class<? extends Message> messageType) {
+    Assert.notNull(messageType, "The messageType can't be null.");
+    Message defaultInstance = defaultInstance(messageType);
+    this.typesByName.put(defaultInstance.getDescriptorForType().getFullName(), messageType);
+    this.parsers.putIfAbsent(messageType, defaultInstance.getParserForType());
+  }
+
+  @Override
+  public PubsubMessage toPubSubMessage(Object payload, Map<String, String> headers) {
+    if (!(payload instanceof Message)) {
+      throw new PubSubMessageConversionException(
+          "Protobuf serialization requires a com.google.protobuf.Message payload, but got "
+              + (payload == null ? "null" : payload.getClass().getName())
+              + ".");
+    }
+    Message message = (Message) payload;
+    String typeName = message.getDescriptorForType().getFullName();
+    this.typesByName.putIfAbsent(typeName, message.getClass());
+
+    Map<String, String> attributes = headers == null ? new HashMap<>() : new HashMap<>(headers);
+    attributes.put(this.typeAttribute, typeName);
+
+    // toByteString() encodes into a single array of the exact serialized size.
+    return byteStringToPubSubMessage(message.toByteString(), attributes);
+  }
+
+  @Override
+  public <T> T fromPubSubMessage(PubsubMessage message, Class<T> payloadType) {
+    Class<?> messageType = resolveType(message, payloadType);
+    Parser<?> parser =
+        this.parsers.computeIfAbsent(messageType, ProtobufPubSubMessageConverter::parserFor);
+    try {
+      return payloadType.cast(parser.parseFrom(message.getData()));
+    } catch (InvalidProtocolBufferException ex) {
+      throw new PubSubMessageConversionException(
+          "Protobuf deserialization of an object of type " + messageType.getName() + " failed.",
+          ex);
+    }
+  }
+
+  private Class<?> resolveType(PubsubMessage message, Class<?> payloadType) {
+    if (isConcreteMessageType(payloadType)) {
+      return payloadType;
+    }
+    String typeName = message.getAttributesOrDefault(this.typeAttribute, null);
+    if (typeName == null) {
+      throw new PubSubMessageConversionException(
+          "Cannot determine the Protobuf message type: the payload type "
+              + payloadType.getName()
+              + " is not a generated message class and the message has no "
+              + this.typeAttribute
+              + " attribute.");
+    }
+    Class<? extends Message> messageType = this.typesByName.get(typeName);
+    if (messageType == null || !payloadType.isAssignableFrom(messageType)) {
+      throw new PubSubMessageConversionException(
+          "No registered Protobuf message type "
+              + typeName
+              + " assignable to "
+              + payloadType.getName()
+              + ".");
+    }
+    return messageType;
+  }
+
+  private static boolean isConcreteMessageType(Class<?> type) {
+    return Message.class.isAssignableFrom(type)
+        && !type.isInterface()
+        && !Modifier.isAbstract(type.getModifiers());
+  }
+
+  private static Parser<?> parserFor(Class<?> messageType) {
+    return defaultInstance(messageType).getParserForType();
+  }
+
+  private static Message defaultInstance(Class<?> messageType) {
+    try {
+      return (Message)
+          ReflectionUtils.invokeMethod(messageType.getMethod("getDefaultInstance"), null);
+    } catch (NoSuchMethodException | RuntimeException ex) {
+      throw new PubSubMessageConversionException(
+          messageType.getName() + " is not a generated Protobuf message class.", ex);
+    }
+  }
+}
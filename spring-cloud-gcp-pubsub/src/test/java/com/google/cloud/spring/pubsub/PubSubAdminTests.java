@@ -20,6 +20,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -28,12 +29,18 @@ import com.google.api.gax.rpc.ApiException;
 import com.google.cloud.NoCredentials;
 import com.google.cloud.pubsub.v1.SubscriptionAdminClient;
 import com.google.cloud.pubsub.v1.TopicAdminClient;
+import com.google.cloud.spring.pubsub.core.PubSubException;
 import com.google.pubsub.v1.ProjectName;
 import com.google.pubsub.v1.ProjectSubscriptionName;
 import com.google.pubsub.v1.PushConfig;
 import com.google.pubsub.v1.Subscription;
+import com.google.pubsub.v1.Topic;
 import com.google.pubsub.v1.TopicName;
 import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.ExecutionException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -307,6 +314,90 @@ class PubSubAdminTests {
     verify(this.mockSubscriptionAdminClient).listSubscriptions(ProjectName.of("test-project"));
   }
 
+  @Test
+  void testIterateTopics() {
+    TopicAdminClient.ListTopicsPagedResponse response =
+        mock(TopicAdminClient.ListTopicsPagedResponse.class);
+    Iterable<Topic> topics = Collections.singletonList(Topic.getDefaultInstance());
+    when(response.iterateAll()).thenReturn(topics);
+    when(this.mockTopicAdminClient.listTopics(any(ProjectName.class))).thenReturn(response);
+
+    assertThat(
+            new PubSubAdmin(
+                    () -> "test-project",
+                    this.mockTopicAdminClient,
+                    this.mockSubscriptionAdminClient)
+                .iterateTopics())
+        .isSameAs(topics);
+    verify(this.mockTopicAdminClient).listTopics(ProjectName.of("test-project"));
+  }
+
+  @Test
+  void testCreateTopicsAsync_retriesTransientFailures() throws Exception {
+    Topic topic = Topic.newBuilder().setName("projects/test-project/topics/barTopic").build();
+    when(this.mockTopicAdminClient.createTopic(TopicName.of("test-project", "fooTopic")))
+        .thenThrow(
+            new ApiException(
+                null, GrpcStatusCode.of(io.grpc.Status.Code.RESOURCE_EXHAUSTED), true))
+        .thenReturn(Topic.newBuilder().setName("projects/test-project/topics/fooTopic").build());
+    when(this.mockTopicAdminClient.createTopic(TopicName.of("test-project", "barTopic")))
+        .thenReturn(topic);
+
+    PubSubAdmin psa =
+        new PubSubAdmin(
+            () -> "test-project", this.mockTopicAdminClient, this.mockSubscriptionAdminClient);
+    psa.setBulkRetryDelay(Duration.ZERO);
+
+    List<Topic> topics = psa.createTopicsAsync(Arrays.asList("fooTopic", "barTopic")).get();
+
+    assertThat(topics)
+        .extracting(Topic::getName)
+        .containsExactly(
+            "projects/test-project/topics/fooTopic", "projects/test-project/topics/barTopic");
+    verify(this.mockTopicAdminClient, times(2))
+        .createTopic(TopicName.of("test-project", "fooTopic"));
+  }
+
+  @Test
+  void testCreateSubscriptionsAsync_reportsFailures() {
+    when(this.mockSubscriptionAdminClient.createSubscription(any(Subscription.class)))
+        .thenThrow(
+            new ApiException(null, GrpcStatusCode.of(io.grpc.Status.Code.NOT_FOUND), false));
+
+    PubSubAdmin psa =
+        new PubSubAdmin(
+            () -> "test-project", this.mockTopicAdminClient, this.mockSubscriptionAdminClient);
+
+    assertThatExceptionOfType(ExecutionException.class)
+        .isThrownBy(
+            () ->
+                psa.createSubscriptionsAsync(
+                        Arrays.asList(
+                            Subscription.newBuilder().setName("fooSub").setTopic("fooTopic"),
+                            Subscription.newBuilder().setName("barSub").setTopic("barTopic")))
+                    .get())
+        .withCauseInstanceOf(PubSubException.class)
+        .withMessageContaining("Failed to create 2 of 2 resources.");
+    // Non-transient failures are not retried.
+    verify(this.mockSubscriptionAdminClient, times(2))
+        .createSubscription(any(Subscription.class));
+  }
+
+  @Test
+  void testDeleteSubscriptionsAsync() throws Exception {
+    PubSubAdmin psa =
+        new PubSubAdmin(
+            () -> "test-project", this.mockTopicAdminClient, this.mockSubscriptionAdminClient);
+    psa.setBulkConcurrency(1);
+
+    psa.deleteSubscriptionsAsync(Arrays.asList("fooSubscription", "barSubscription")).get();
+
+    verify(this.mockSubscriptionAdminClient)
+        .deleteSubscription(ProjectSubscriptionName.of("test-project", "fooSubscription"));
+    verify(this.mockSubscriptionAdminClient)
+        .deleteSubscription(ProjectSubscriptionName.of("test-project", "barSubscription"));
+  }
+
   @Test
   void testDefaultAckDeadline() throws IOException {
     PubSubAdmin psa = new PubSubAdmin(() -> "test-project", NoCredentials::getInstance);
@@ -19,6 +19,9 @@ package com.google.cloud.spring.pubsub.core;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isA;
@@ -30,25 +33,44 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.api.core.ApiFutures;
 import com.google.api.core.ApiService;
 import com.google.api.core.SettableApiFuture;
 import com.google.cloud.pubsub.v1.MessageReceiver;
 import com.google.cloud.pubsub.v1.Publisher;
 import com.google.cloud.pubsub.v1.Subscriber;
+import com.google.cloud.spring.pubsub.core.metrics.MicrometerPubSubMetricsRecorder;
+import com.google.cloud.spring.pubsub.core.metrics.PubSubMetricsRecorder;
 import com.google.cloud.spring.pubsub.core.publisher.PubSubPublisherTemplate;
+import com.google.cloud.spring.pubsub.core.publisher.PublishFlowControlSettings;
+import com.google.cloud.spring.pubsub.core.publisher.PublishFlowController;
 import com.google.cloud.spring.pubsub.core.test.allowed.AllowedPayload;
+import com.google.cloud.spring.pubsub.support.CachingPublisherFactory;
 import com.google.cloud.spring.pubsub.support.PublisherFactory;
 import com.google.cloud.spring.pubsub.support.SubscriberFactory;
+import com.google.cloud.spring.pubsub.support.converter.GzipPayloadCompressor;
 import com.google.cloud.spring.pubsub.support.converter.JacksonPubSubMessageConverter;
+import com.google.cloud.spring.pubsub.support.converter.PayloadCompressor;
 import com.google.protobuf.ByteString;
 import com.google.pubsub.v1.PubsubMessage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.util.concurrent.ListenableFuture;
@@ -165,6 +187,65 @@ class PubSubTemplateTests {
                         && message.getAttributesMap().get("remission").equals("elephant man")));
   }
 
+  @Test
+  void testPublish_compressesPayloadAboveThreshold() throws IOException {
+    PubSubPublisherTemplate pubSubPublisherTemplate = createPublisherTemplate();
+    pubSubPublisherTemplate.setCompressor(new GzipPayloadCompressor());
+    pubSubPublisherTemplate.setCompressionThreshold(100);
+    ByteString payload = ByteString.copyFromUtf8(String.join("", Collections.nCopies(50, "abc")));
+
+    when(this.mockPublisherFactory.createPublisher("testTopic")).thenReturn(this.mockPublisher);
+    when(this.mockPublisher.publish(isA(PubsubMessage.class))).thenReturn(this.settableApiFuture);
+
+    pubSubPublisherTemplate.publish(
+        "testTopic", PubsubMessage.newBuilder().setData(payload).build());
+
+    ArgumentCaptor<PubsubMessage> published = ArgumentCaptor.forClass(PubsubMessage.class);
+    verify(this.mockPublisher).publish(published.capture());
+    assertThat(published.getValue().getAttributesMap())
+        .containsEntry(PayloadCompressor.CONTENT_ENCODING_ATTRIBUTE, "gzip");
+    assertThat(published.getValue().getData().size()).isLessThan(payload.size());
+    assertThat(new GzipPayloadCompressor().decompress(published.getValue().getData()))
+        .isEqualTo(payload);
+  }
+
+  @Test
+  void testPublish_skipsCompressionBelowThreshold() {
+    PubSubPublisherTemplate pubSubPublisherTemplate = createPublisherTemplate();
+    pubSubPublisherTemplate.setCompressor(new GzipPayloadCompressor());
+
+    when(this.mockPublisherFactory.createPublisher("testTopic")).thenReturn(this.mockPublisher);
+    when(this.mockPublisher.publish(isA(PubsubMessage.class))).thenReturn(this.settableApiFuture);
+
+    pubSubPublisherTemplate.publish("testTopic", this.pubsubMessage);
+
+    verify(this.mockPublisher).publish(this.pubsubMessage);
+  }
+
+  @Test
+  void testPublish_compressesOnlyConfiguredTopic() {
+    PubSubPublisherTemplate pubSubPublisherTemplate = createPublisherTemplate();
+    pubSubPublisherTemplate.setCompressor("compressedTopic", new GzipPayloadCompressor());
+    pubSubPublisherTemplate.setCompressionThreshold(0);
+    PubsubMessage message =
+        PubsubMessage.newBuilder()
+            .setData(ByteString.copyFromUtf8(String.join("", Collections.nCopies(50, "abc"))))
+            .build();
+
+    when(this.mockPublisherFactory.createPublisher(any())).thenReturn(this.mockPublisher);
+    when(this.mockPublisher.publish(isA(PubsubMessage.class))).thenReturn(this.settableApiFuture);
+
+    pubSubPublisherTemplate.publish("compressedTopic", message);
+    pubSubPublisherTemplate.publish("plainTopic", message);
+
+    verify(this.mockPublisher)
+        .publish(
+            argThat(
+                published ->
+                    published.containsAttributes(PayloadCompressor.CONTENT_ENCODING_ATTRIBUTE)));
+    verify(this.mockPublisher).publish(message);
+  }
+
   @Test
   void testSend_noPublisher() {
     when(this.mockPublisherFactory.createPublisher("testTopic"))
@@ -201,6 +282,212 @@ class PubSubTemplateTests {
         .hasMessageContaining("Publish failed");
   }
 
+  @Test
+  void testPublish_flowControlFailFast() throws ExecutionException, InterruptedException {
+    SettableApiFuture<String> secondApiFuture = SettableApiFuture.create();
+    when(this.mockPublisherFactory.createPublisher("testTopic")).thenReturn(this.mockPublisher);
+    when(this.mockPublisher.publish(isA(PubsubMessage.class)))
+        .thenReturn(this.settableApiFuture, secondApiFuture);
+    PubSubPublisherTemplate publisherTemplate =
+        new PubSubPublisherTemplate(this.mockPublisherFactory);
+    PublishFlowControlSettings settings = new PublishFlowControlSettings();
+    settings.setMaxOutstandingMessages(1);
+    settings.setOverflowPolicy(PublishFlowControlSettings.OverflowPolicy.FAIL_FAST);
+    publisherTemplate.setFlowControlSettings("testTopic", settings);
+
+    ListenableFuture<String> first = publisherTemplate.publish("testTopic", this.pubsubMessage);
+    ListenableFuture<String> rejected = publisherTemplate.publish("testTopic", this.pubsubMessage);
+
+    assertThatThrownBy(rejected::get)
+        .hasCauseInstanceOf(PubSubDeliveryException.class)
+        .hasMessageContaining("Flow control limits reached");
+    PublishFlowController flowController =
+        publisherTemplate.getFlowControllers().get("testTopic");
+    assertThat(flowController.getBufferedMessageCount()).isEqualTo(1);
+    assertThat(flowController.getBufferedBytes())
+        .isEqualTo(this.pubsubMessage.getSerializedSize());
+    assertThat(flowController.getRejectedMessageCount()).isEqualTo(1);
+
+    this.settableApiFuture.set("result");
+    assertThat(first.get()).isEqualTo("result");
+    assertThat(flowController.getBufferedMessageCount()).isZero();
+
+    publisherTemplate.publish("testTopic", this.pubsubMessage);
+    verify(this.mockPublisher, times(2)).publish(isA(PubsubMessage.class));
+  }
+
+  @Test
+  void testPublish_flowControlDropOldest() throws ExecutionException, InterruptedException {
+    SettableApiFuture<String> secondApiFuture = SettableApiFuture.create();
+    when(this.mockPublisherFactory.createPublisher("testTopic")).thenReturn(this.mockPublisher);
+    when(this.mockPublisher.publish(isA(PubsubMessage.class)))
+        .thenReturn(this.settableApiFuture, secondApiFuture);
+    PubSubPublisherTemplate publisherTemplate =
+        new PubSubPublisherTemplate(this.mockPublisherFactory);
+    PublishFlowControlSettings settings = new PublishFlowControlSettings();
+    settings.setMaxOutstandingMessages(1);
+    settings.setOverflowPolicy(PublishFlowControlSettings.OverflowPolicy.DROP_OLDEST);
+    publisherTemplate.setFlowControlSettings(settings);
+    PubsubMessage newest =
+        PubsubMessage.newBuilder().setData(ByteString.copyFromUtf8("newest")).build();
+
+    ListenableFuture<String> first = publisherTemplate.publish("testTopic", this.pubsubMessage);
+    ListenableFuture<String> dropped = publisherTemplate.publish("testTopic", this.pubsubMessage);
+    ListenableFuture<String> queued = publisherTemplate.publish("testTopic", newest);
+
+    assertThatThrownBy(dropped::get)
+        .hasCauseInstanceOf(PubSubDeliveryException.class)
+        .hasMessageContaining("dropped in favor of newer messages");
+    verify(this.mockPublisher, times(1)).publish(isA(PubsubMessage.class));
+
+    this.settableApiFuture.set("first");
+    secondApiFuture.set("newest");
+    assertThat(first.get()).isEqualTo("first");
+    assertThat(queued.get()).isEqualTo("newest");
+    verify(this.mockPublisher).publish(newest);
+    assertThat(publisherTemplate.getFlowControllers().get("testTopic").getRejectedMessageCount())
+        .isEqualTo(1);
+  }
+
+  @Test
+  void testPublish_flowControlMetered() {
+    when(this.mockPublisherFactory.createPublisher("testTopic")).thenReturn(this.mockPublisher);
+    when(this.mockPublisher.publish(isA(PubsubMessage.class))).thenReturn(this.settableApiFuture);
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    PubSubPublisherTemplate publisherTemplate =
+        new PubSubPublisherTemplate(this.mockPublisherFactory);
+    publisherTemplate.setMetricsRecorder(new MicrometerPubSubMetricsRecorder(meterRegistry));
+    PublishFlowControlSettings settings = new PublishFlowControlSettings();
+    settings.setMaxOutstandingMessages(1);
+    settings.setOverflowPolicy(PublishFlowControlSettings.OverflowPolicy.FAIL_FAST);
+    publisherTemplate.setFlowControlSettings("testTopic", settings);
+
+    publisherTemplate.publish("testTopic", this.pubsubMessage);
+    publisherTemplate.publish("testTopic", this.pubsubMessage);
+
+    assertThat(
+            meterRegistry
+                .get("gcp.pubsub.publish.buffered.messages")
+                .tag("topic", "testTopic")
+                .gauge()
+                .value())
+        .isEqualTo(1);
+    assertThat(
+            meterRegistry
+                .get("gcp.pubsub.publish.buffered.bytes")
+                .tag("topic", "testTopic")
+                .gauge()
+                .value())
+        .isEqualTo(this.pubsubMessage.getSerializedSize());
+    assertThat(
+            meterRegistry
+                .get("gcp.pubsub.publish.rejected")
+                .tag("topic", "testTopic")
+                .functionCounter()
+                .count())
+        .isEqualTo(1);
+
+    // Replacing the settings rebinds the meters to the new controller.
+    publisherTemplate.setFlowControlSettings("testTopic", settings);
+    publisherTemplate.publish("testTopic", this.pubsubMessage);
+    assertThat(
+            meterRegistry
+                .get("gcp.pubsub.publish.rejected")
+                .tag("topic", "testTopic")
+                .functionCounter()
+                .count())
+        .isZero();
+  }
+
+  @Test
+  void testPublish_metricsRecorded() throws ExecutionException, InterruptedException {
+    when(this.mockPublisherFactory.createPublisher("testTopic")).thenReturn(this.mockPublisher);
+    when(this.mockPublisher.publish(isA(PubsubMessage.class))).thenReturn(this.settableApiFuture);
+    PubSubMetricsRecorder metricsRecorder = mock(PubSubMetricsRecorder.class);
+    PubSubPublisherTemplate publisherTemplate =
+        new PubSubPublisherTemplate(this.mockPublisherFactory);
+    publisherTemplate.setMetricsRecorder(metricsRecorder);
+
+    ListenableFuture<String> future = publisherTemplate.publish("testTopic", this.pubsubMessage);
+
+    verify(metricsRecorder).publishStarted("testTopic");
+    verify(metricsRecorder, times(0))
+        .publishCompleted(eq("testTopic"), anyInt(), anyLong(), anyBoolean());
+
+    this.settableApiFuture.set("result");
+    assertThat(future.get()).isEqualTo("result");
+    verify(metricsRecorder)
+        .publishCompleted(
+            eq("testTopic"), eq(this.pubsubMessage.getSerializedSize()), anyLong(), eq(true));
+  }
+
+  @Test
+  void testPublish_retriesWithReplacementOfEvictedPublisher()
+      throws ExecutionException, InterruptedException {
+    Publisher replacement = mock(Publisher.class);
+    when(this.mockPublisherFactory.createPublisher("testTopic"))
+        .thenReturn(this.mockPublisher, replacement);
+    when(this.mockPublisher.publish(isA(PubsubMessage.class)))
+        .thenThrow(new IllegalStateException("Cannot publish on a shut-down publisher."));
+    when(replacement.publish(isA(PubsubMessage.class))).thenReturn(this.settableApiFuture);
+    this.settableApiFuture.set("result");
+
+    assertThat(this.pubSubTemplate.publish("testTopic", this.pubsubMessage).get())
+        .isEqualTo("result");
+  }
+
+  @Test
+  void testPublish_concurrentEviction() throws Exception {
+    CachingPublisherFactory publisherFactory =
+        new CachingPublisherFactory(topic -> createShutdownAwarePublisher());
+    publisherFactory.setMaxPublishers(1);
+    PubSubPublisherTemplate publisherTemplate = new PubSubPublisherTemplate(publisherFactory);
+
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        int thread = i;
+        futures.add(
+            executor.submit(
+                () -> {
+                  for (int j = 0; j < 200; j++) {
+                    publisherTemplate.publish("topic" + ((thread + j) % 3), this.pubsubMessage);
+                  }
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get(30, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+      publisherFactory.destroy();
+    }
+    assertThat(publisherFactory.getEvictionCount()).isPositive();
+  }
+
+  private static Publisher createShutdownAwarePublisher() {
+    AtomicBoolean shutdown = new AtomicBoolean();
+    return mock(
+        Publisher.class,
+        invocation -> {
+          switch (invocation.getMethod().getName()) {
+            case "shutdown":
+              shutdown.set(true);
+              return null;
+            case "awaitTermination":
+              return true;
+            case "publish":
+              if (shutdown.get()) {
+                throw new IllegalStateException("Cannot publish on a shut-down publisher.");
+              }
+              return ApiFutures.immediateFuture("id");
+            default:
+              return Answers.RETURNS_DEFAULTS.answer(invocation);
+          }
+        });
+  }
+
   @Test
   void testSubscribe() {
 
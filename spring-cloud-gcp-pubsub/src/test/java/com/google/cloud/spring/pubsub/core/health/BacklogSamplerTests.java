@@ -0,0 +1,124 @@
+/*
+ * Copyright 2022-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spring.pubsub.core.health;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.api.MonitoredResource;
+import com.google.cloud.monitoring.v3.MetricServiceClient;
+import com.google.cloud.monitoring.v3.MetricServiceClient.ListTimeSeriesPagedResponse;
+import com.google.monitoring.v3.Point;
+import com.google.monitoring.v3.ProjectName;
+import com.google.monitoring.v3.TimeSeries;
+import com.google.monitoring.v3.TypedValue;
+import com.google.pubsub.v1.ProjectSubscriptionName;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+/** Tests for {@link BacklogSampler}. */
+@ExtendWith(MockitoExtension.class)
+class BacklogSamplerTests {
+
+  private static final String PROJECT_ID = "project-id";
+
+  @Mock private MetricServiceClient metricServiceClient;
+
+  @Mock private ScheduledExecutorService scheduler;
+
+  private BacklogSampler backlogSampler;
+
+  @BeforeEach
+  void setUp() {
+    backlogSampler =
+        new BacklogSampler(
+            metricServiceClient, scheduler, Duration.ofSeconds(10), Duration.ofSeconds(30), 1);
+  }
+
+  @Test
+  void samplesAllSubscriptionsOfProjectInOneRequest() {
+    ProjectSubscriptionName sub1 = ProjectSubscriptionName.of(PROJECT_ID, "sub1");
+    ProjectSubscriptionName sub2 = ProjectSubscriptionName.of(PROJECT_ID, "sub2");
+    ListTimeSeriesPagedResponse response = mock(ListTimeSeriesPagedResponse.class);
+    when(response.iterateAll())
+        .thenReturn(Arrays.asList(timeSeries("sub1", 150), timeSeries("sub2", 300)));
+    doReturn(response)
+        .when(metricServiceClient)
+        .listTimeSeries(any(ProjectName.class), anyString(), any(), any());
+
+    backlogSampler.register(sub1);
+    backlogSampler.register(sub2);
+    assertThat(backlogSampler.getBacklog(sub1)).isEmpty();
+
+    backlogSampler.sample();
+
+    ArgumentCaptor<String> filter = ArgumentCaptor.forClass(String.class);
+    verify(metricServiceClient, times(1))
+        .listTimeSeries(eq(ProjectName.of(PROJECT_ID)), filter.capture(), any(), any());
+    assertThat(filter.getValue()).contains("one_of(").contains("\"sub1\"").contains("\"sub2\"");
+    assertThat(backlogSampler.getBacklog(sub1)).contains(150L);
+    assertThat(backlogSampler.getBacklog(sub2)).contains(300L);
+    verify(scheduler, times(1))
+        .scheduleWithFixedDelay(any(Runnable.class), eq(0L), anyLong(), eq(TimeUnit.MILLISECONDS));
+
+    backlogSampler.unregister(sub2);
+    assertThat(backlogSampler.getBacklog(sub2)).isEmpty();
+  }
+
+  @Test
+  void failedSamplingKeepsPreviousSamples() {
+    ProjectSubscriptionName sub1 = ProjectSubscriptionName.of(PROJECT_ID, "sub1");
+    ListTimeSeriesPagedResponse response = mock(ListTimeSeriesPagedResponse.class);
+    when(response.iterateAll()).thenReturn(Arrays.asList(timeSeries("sub1", 42)));
+    when(metricServiceClient.listTimeSeries(any(ProjectName.class), anyString(), any(), any()))
+        .thenReturn(response)
+        .thenThrow(new IllegalStateException("Monitoring unavailable"));
+
+    backlogSampler.register(sub1);
+    backlogSampler.sample();
+    backlogSampler.sample();
+
+    assertThat(backlogSampler.getBacklog(sub1)).contains(42L);
+  }
+
+  private static TimeSeries timeSeries(String subscriptionId, long backlog) {
+    return TimeSeries.newBuilder()
+        .setResource(
+            MonitoredResource.newBuilder()
+                .setType("pubsub_subscription")
+                .putLabels("subscription_id", subscriptionId))
+        .addPoints(
+            Point.newBuilder().setValue(TypedValue.newBuilder().setInt64Value(backlog).build()))
+        .build();
+  }
+}
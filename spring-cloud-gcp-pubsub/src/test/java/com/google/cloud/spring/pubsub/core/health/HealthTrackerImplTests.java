@@ -21,6 +21,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import com.google.cloud.monitoring.v3.MetricServiceClient;
@@ -32,6 +33,7 @@ import com.google.monitoring.v3.ProjectName;
 import com.google.monitoring.v3.TimeSeries;
 import com.google.monitoring.v3.TypedValue;
 import com.google.pubsub.v1.ProjectSubscriptionName;
+import java.util.Optional;
 import java.util.concurrent.locks.LockSupport;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -126,6 +128,25 @@ class HealthTrackerImplTests {
     assertThat(messagesOverThreshold).isZero();
   }
 
+  @Test
+  void messagesOverThresholdFromBacklogSampler() {
+    LockSupport.parkNanos(1001 * 1000000);
+    BacklogSampler backlogSampler = mock(BacklogSampler.class);
+    ProjectSubscriptionName subscription = ProjectSubscriptionName.of(PROJECT_ID, SUBSCRIPTION_ID);
+    when(backlogSampler.getBacklog(subscription)).thenReturn(Optional.of(250L));
+    healthTracker =
+        new HealthTrackerImpl(
+            subscription,
+            metricServiceClient,
+            LAG_THRESHOLD,
+            BACKLOG_THRESHOLD,
+            MINUTE_INTERNAL,
+            backlogSampler);
+
+    assertThat(healthTracker.messagesOverThreshold()).isEqualTo(50);
+    verifyNoInteractions(metricServiceClient);
+  }
+
   @Test
   void messagesOverThresholdNoProcessing() throws InterruptedException {
     LockSupport.parkNanos(1001 * 1000000);
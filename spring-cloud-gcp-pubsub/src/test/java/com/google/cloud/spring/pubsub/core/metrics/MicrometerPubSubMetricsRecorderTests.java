@@ -0,0 +1,107 @@
+/*
+ * Copyright 2022-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spring.pubsub.core.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+/** Tests for {@link MicrometerPubSubMetricsRecorder}. */
+class MicrometerPubSubMetricsRecorderTests {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  private final MicrometerPubSubMetricsRecorder recorder =
+      new MicrometerPubSubMetricsRecorder(this.meterRegistry);
+
+  @Test
+  void publishMetricsTaggedByTopic() {
+    this.recorder.publishStarted("projects/proj/topics/topic1");
+    this.recorder.publishStarted("topic1");
+
+    assertThat(
+            this.meterRegistry
+                .get("gcp.pubsub.publish.in.flight")
+                .tag("topic", "topic1")
+                .gauge()
+                .value())
+        .isEqualTo(2);
+
+    this.recorder.publishCompleted("topic1", 100, TimeUnit.MILLISECONDS.toNanos(5), true);
+    this.recorder.publishCompleted("projects/proj/topics/topic1", 300, 1000L, false);
+
+    Timer success =
+        this.meterRegistry
+            .get("gcp.pubsub.publish")
+            .tags("topic", "topic1", "result", "success")
+            .timer();
+    assertThat(success.count()).isEqualTo(1);
+    assertThat(success.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(5);
+    assertThat(
+            this.meterRegistry
+                .get("gcp.pubsub.publish")
+                .tags("topic", "topic1", "result", "failure")
+                .timer()
+                .count())
+        .isEqualTo(1);
+    assertThat(this.meterRegistry.get("gcp.pubsub.publish.size").summary().totalAmount())
+        .isEqualTo(400);
+    assertThat(this.meterRegistry.get("gcp.pubsub.publish.in.flight").gauge().value()).isZero();
+  }
+
+  @Test
+  void subscriptionMetricsTaggedBySubscription() {
+    this.recorder.messagesPulled("projects/proj/subscriptions/sub1", 10, 1000L, true);
+    this.recorder.messageConverted("sub1", 1000L, false);
+    this.recorder.acknowledgementCompleted(
+        "projects/proj/subscriptions/sub1", PubSubMetricsRecorder.NACK_OPERATION, 3, 1000L, true);
+    this.recorder.processingStarted("projects/proj/subscriptions/sub1", 4);
+
+    assertThat(
+            this.meterRegistry
+                .get("gcp.pubsub.pull.size")
+                .tag("subscription", "sub1")
+                .summary()
+                .totalAmount())
+        .isEqualTo(10);
+    assertThat(
+            this.meterRegistry
+                .get("gcp.pubsub.conversion")
+                .tags("subscription", "sub1", "result", "failure")
+                .timer()
+                .count())
+        .isEqualTo(1);
+    assertThat(
+            this.meterRegistry
+                .get("gcp.pubsub.acknowledgement")
+                .tags("subscription", "sub1", "operation", "nack", "result", "success")
+                .timer()
+                .count())
+        .isEqualTo(1);
+    assertThat(this.meterRegistry.get("gcp.pubsub.processing.in.flight").gauge().value())
+        .isEqualTo(4);
+
+    this.recorder.processingCompleted("sub1", 4, 1000L, true);
+
+    assertThat(this.meterRegistry.get("gcp.pubsub.processing.in.flight").gauge().value()).isZero();
+    assertThat(this.meterRegistry.get("gcp.pubsub.processing.size").summary().totalAmount())
+        .isEqualTo(4);
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2022-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spring.pubsub.core.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.cloud.pubsub.v1.Publisher;
+import com.google.cloud.spring.pubsub.support.CachingPublisherFactory;
+import com.google.cloud.spring.pubsub.support.PublisherFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+/** Tests for {@link PublisherCacheMetrics}. */
+@ExtendWith(MockitoExtension.class)
+class PublisherCacheMetricsTests {
+
+  @Mock private PublisherFactory delegate;
+
+  @Mock private Publisher publisher1;
+
+  @Mock private Publisher publisher2;
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  @Test
+  void cacheStatisticsExposedAsMeters() {
+    CachingPublisherFactory publisherFactory = new CachingPublisherFactory(this.delegate);
+    publisherFactory.setMaxPublishers(1);
+    new PublisherCacheMetrics(publisherFactory).bindTo(this.meterRegistry);
+
+    when(this.delegate.createPublisher("topic1")).thenReturn(this.publisher1);
+    when(this.delegate.createPublisher("topic2")).thenReturn(this.publisher2);
+
+    publisherFactory.createPublisher("topic1");
+    publisherFactory.createPublisher("topic1");
+    publisherFactory.createPublisher("topic1");
+    publisherFactory.createPublisher("topic2");
+    verify(this.publisher1, timeout(5000)).shutdown();
+
+    assertThat(
+            this.meterRegistry
+                .get("gcp.pubsub.publisher.cache.gets")
+                .tag("result", "hit")
+                .functionCounter()
+                .count())
+        .isEqualTo(2);
+    assertThat(
+            this.meterRegistry
+                .get("gcp.pubsub.publisher.cache.gets")
+                .tag("result", "miss")
+                .functionCounter()
+                .count())
+        .isEqualTo(2);
+    assertThat(
+            this.meterRegistry
+                .get("gcp.pubsub.publisher.cache.evictions")
+                .functionCounter()
+                .count())
+        .isEqualTo(1);
+    assertThat(this.meterRegistry.get("gcp.pubsub.publisher.cache.size").gauge().value())
+        .isEqualTo(1);
+  }
+}
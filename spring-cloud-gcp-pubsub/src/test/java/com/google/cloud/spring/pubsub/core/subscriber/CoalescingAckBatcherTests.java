@@ -0,0 +1,120 @@
+/*
+ * Copyright 2022-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spring.pubsub.core.subscriber;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutures;
+import com.google.api.core.SettableApiFuture;
+import com.google.protobuf.Empty;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/** Tests for {@link CoalescingAckBatcher}. */
+class CoalescingAckBatcherTests {
+
+  private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+  private final List<List<String>> sentBatches = Collections.synchronizedList(new ArrayList<>());
+
+  @AfterEach
+  void tearDown() {
+    this.scheduler.shutdownNow();
+  }
+
+  @Test
+  void coalescesAckIdsAcrossCallsUntilDelayElapses() throws Exception {
+    CoalescingAckBatcher batcher = new CoalescingAckBatcher(this::record, 100, 50, this.scheduler);
+
+    ApiFuture<Empty> first = batcher.add(Collections.singletonList("ack1"));
+    ApiFuture<Empty> second = batcher.add(Arrays.asList("ack2", "ack1"));
+
+    first.get(10, TimeUnit.SECONDS);
+    second.get(10, TimeUnit.SECONDS);
+    assertThat(this.sentBatches).containsExactly(Arrays.asList("ack1", "ack2"));
+  }
+
+  @Test
+  void sendsBatchOnceSizeThresholdReached() throws Exception {
+    CoalescingAckBatcher batcher =
+        new CoalescingAckBatcher(this::record, 2, 60_000, this.scheduler);
+
+    ApiFuture<Empty> first = batcher.add(Collections.singletonList("ack1"));
+    assertThat(first.isDone()).isFalse();
+
+    ApiFuture<Empty> spanning = batcher.add(Arrays.asList("ack2", "ack3"));
+    first.get(10, TimeUnit.SECONDS);
+    assertThat(this.sentBatches).containsExactly(Arrays.asList("ack1", "ack2"));
+    assertThat(spanning.isDone()).isFalse();
+
+    batcher.flush();
+    spanning.get(10, TimeUnit.SECONDS);
+    assertThat(this.sentBatches)
+        .containsExactly(Arrays.asList("ack1", "ack2"), Collections.singletonList("ack3"));
+  }
+
+  @Test
+  void failedRequestFailsEveryCallerInBatch() {
+    CoalescingAckBatcher batcher =
+        new CoalescingAckBatcher(
+            ackIds -> ApiFutures.immediateFailedFuture(new IllegalStateException("ack failed")),
+            100,
+            60_000,
+            this.scheduler);
+
+    ApiFuture<Empty> first = batcher.add(Collections.singletonList("ack1"));
+    ApiFuture<Empty> second = batcher.add(Collections.singletonList("ack2"));
+    batcher.flush();
+
+    assertThatThrownBy(() -> first.get(10, TimeUnit.SECONDS))
+        .isInstanceOf(ExecutionException.class)
+        .hasCauseInstanceOf(IllegalStateException.class);
+    assertThatThrownBy(() -> second.get(10, TimeUnit.SECONDS))
+        .isInstanceOf(ExecutionException.class)
+        .hasCauseInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  void callerFutureCompletesOnlyWhenRequestCompletes() {
+    SettableApiFuture<Empty> requestFuture = SettableApiFuture.create();
+    CoalescingAckBatcher batcher =
+        new CoalescingAckBatcher(ackIds -> requestFuture, 100, 60_000, this.scheduler);
+
+    ApiFuture<Empty> future = batcher.add(Collections.singletonList("ack1"));
+    batcher.flush();
+    assertThat(future.isDone()).isFalse();
+
+    requestFuture.set(Empty.getDefaultInstance());
+    assertThat(future.isDone()).isTrue();
+  }
+
+  private ApiFuture<Empty> record(Collection<String> ackIds) {
+    this.sentBatches.add(new ArrayList<>(ackIds));
+    return ApiFutures.immediateFuture(Empty.getDefaultInstance());
+  }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2022-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.google.cloud.spring.pubsub.core.subscriber;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.api.core.ApiService;
+import com.google.cloud.pubsub.v1.Subscriber;
+import com.google.cloud.spring.pubsub.support.BasicAcknowledgeablePubsubMessage;
+import com.google.pubsub.v1.PubsubMessage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+/**
+ * Tests for {@link KeyOrderedConsumer} and the default key-ordered methods of {@link
+ * PubSubSubscriberOperations}.
+ */
+class KeyOrderedConsumerTests {
+
+  private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+  private final PubSubSubscriberOperations operations =
+      mock(PubSubSubscriberOperations.class, Mockito.CALLS_REAL_METHODS);
+
+  private final Subscriber subscriber = mock(Subscriber.class);
+
+  @AfterEach
+  void tearDown() {
+    this.executor.shutdownNow();
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void testDefaultSubscribeOrderedByKeyKeepsKeyOrder() throws InterruptedException {
+    ArgumentCaptor<Consumer<BasicAcknowledgeablePubsubMessage>> captor =
+        ArgumentCaptor.forClass(Consumer.class);
+    doReturn(this.subscriber).when(this.operations).subscribe(eq("sub1"), captor.capture());
+    Map<String, List<Integer>> processed = new ConcurrentHashMap<>();
+    CountDownLatch done = new CountDownLatch(200);
+    KeyOrderedDispatchSettings dispatchSettings = new KeyOrderedDispatchSettings();
+    dispatchSettings.setLanes(2);
+    dispatchSettings.setExecutor(this.executor);
+
+    Subscriber result =
+        this.operations.subscribeOrderedByKey(
+            "sub1",
+            message -> {
+              PubsubMessage pubsubMessage = message.getPubsubMessage();
+              processed
+                  .computeIfAbsent(
+                      pubsubMessage.getOrderingKey(),
+                      key -> Collections.synchronizedList(new ArrayList<>()))
+                  .add(Integer.parseInt(pubsubMessage.getMessageId()));
+              done.countDown();
+            },
+            dispatchSettings);
+    for (int i = 0; i < 100; i++) {
+      captor.getValue().accept(message("a", i));
+      captor.getValue().accept(message("b", i));
+    }
+
+    assertThat(result).isSameAs(this.subscriber);
+    assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+    assertThat(processed).containsOnlyKeys("a", "b");
+    processed.values().forEach(ids -> assertThat(ids).isSorted().hasSize(100));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void testFailedMessagesAreNacked() {
+    ArgumentCaptor<Consumer<BasicAcknowledgeablePubsubMessage>> captor =
+        ArgumentCaptor.forClass(Consumer.class);
+    doReturn(this.subscriber).when(this.operations).subscribe(eq("sub1"), captor.capture());
+    KeyOrderedDispatchSettings dispatchSettings = new KeyOrderedDispatchSettings();
+    dispatchSettings.setExecutor(this.executor);
+    BasicAcknowledgeablePubsubMessage message = message("a", 1);
+
+    this.operations.subscribeOrderedByKey(
+        "sub1",
+        received -> {
+          throw new IllegalStateException("failed");
+        },
+        dispatchSettings);
+    captor.getValue().accept(message);
+
+    verify(message, timeout(10_000)).nack();
+  }
+
+  @Test
+  void testOwnedLaneExecutorIsShutDownWithSubscriber() {
+    doReturn(this.subscriber).when(this.operations).subscribe(eq("sub1"), any());
+
+    this.operations.subscribeOrderedByKey(
+        "sub1", message -> {}, new KeyOrderedDispatchSettings());
+
+    verify(this.subscriber).addListener(any(ApiService.Listener.class), any());
+  }
+
+  private static BasicAcknowledgeablePubsubMessage message(String key, int id) {
+    BasicAcknowledgeablePubsubMessage message = mock(BasicAcknowledgeablePubsubMessage.class);
+    when(message.getPubsubMessage())
+        .thenReturn(
+            PubsubMessage.newBuilder()
+                .setOrderingKey(key)
+                .setMessageId(String.valueOf(id))
+                .build());
+    return message;
+  }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2022-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spring.pubsub.core.subscriber;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import com.google.cloud.pubsub.v1.AckReplyConsumer;
+import com.google.cloud.pubsub.v1.MessageReceiver;
+import com.google.pubsub.v1.PubsubMessage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/** Tests for {@link KeyOrderedMessageReceiver}. */
+class KeyOrderedMessageReceiverTests {
+
+  private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+  @AfterEach
+  void tearDown() {
+    this.executor.shutdownNow();
+  }
+
+  @Test
+  void messagesWithSameKeyAreProcessedInOrder() throws InterruptedException {
+    Map<String, List<Integer>> processed = new ConcurrentHashMap<>();
+    CountDownLatch done = new CountDownLatch(400);
+    MessageReceiver delegate =
+        (message, consumer) -> {
+          processed
+              .computeIfAbsent(
+                  message.getOrderingKey(), k -> Collections.synchronizedList(new ArrayList<>()))
+              .add(Integer.parseInt(message.getMessageId()));
+          done.countDown();
+        };
+
+    KeyOrderedMessageReceiver receiver =
+        new KeyOrderedMessageReceiver(
+            delegate, PubsubMessage::getOrderingKey, 4, 10, this.executor);
+
+    for (int i = 0; i < 100; i++) {
+      for (String key : new String[] {"a", "b", "c", "d"}) {
+        receiver.receiveMessage(message(key, i), mock(AckReplyConsumer.class));
+      }
+    }
+
+    assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+    assertThat(processed).hasSize(4);
+    processed.values().forEach(ids -> assertThat(ids).isSorted().hasSize(100));
+  }
+
+  @Test
+  void differentLanesAreProcessedInParallel() throws InterruptedException {
+    CountDownLatch bothStarted = new CountDownLatch(2);
+    CountDownLatch done = new CountDownLatch(2);
+    MessageReceiver delegate =
+        (message, consumer) -> {
+          bothStarted.countDown();
+          try {
+            // Only completes if the other lane is running at the same time.
+            if (bothStarted.await(5, TimeUnit.SECONDS)) {
+              done.countDown();
+            }
+          } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+          }
+        };
+
+    KeyOrderedMessageReceiver receiver =
+        new KeyOrderedMessageReceiver(
+            delegate, PubsubMessage::getOrderingKey, 2, 10, this.executor);
+
+    PubsubMessage first = message("key1", 1);
+    PubsubMessage second = findMessageOnOtherLane(receiver, first);
+    receiver.receiveMessage(first, mock(AckReplyConsumer.class));
+    receiver.receiveMessage(second, mock(AckReplyConsumer.class));
+
+    assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+  }
+
+  @Test
+  void failedProcessingNacksMessage() throws InterruptedException {
+    CountDownLatch nacked = new CountDownLatch(1);
+    AckReplyConsumer ackReplyConsumer =
+        new AckReplyConsumer() {
+          @Override
+          public void ack() {}
+
+          @Override
+          public void nack() {
+            nacked.countDown();
+          }
+        };
+    MessageReceiver delegate =
+        (message, consumer) -> {
+          throw new IllegalStateException("boom");
+        };
+
+    KeyOrderedMessageReceiver receiver =
+        new KeyOrderedMessageReceiver(
+            delegate, PubsubMessage::getOrderingKey, 2, 10, this.executor);
+    receiver.receiveMessage(message("key", 1), ackReplyConsumer);
+
+    assertThat(nacked.await(10, TimeUnit.SECONDS)).isTrue();
+  }
+
+  @Test
+  void rejectedExecutionNacksMessage() {
+    this.executor.shutdown();
+    AckReplyConsumer ackReplyConsumer = mock(AckReplyConsumer.class);
+
+    KeyOrderedMessageReceiver receiver =
+        new KeyOrderedMessageReceiver(
+            mock(MessageReceiver.class), PubsubMessage::getOrderingKey, 2, 10, this.executor);
+    receiver.receiveMessage(message("key", 1), ackReplyConsumer);
+
+    verify(ackReplyConsumer).nack();
+  }
+
+  @Test
+  void unkeyedMessagesAreSpreadAcrossLanes() {
+    KeyOrderedMessageReceiver receiver =
+        new KeyOrderedMessageReceiver(
+            mock(MessageReceiver.class), PubsubMessage::getOrderingKey, 3, 10, this.executor);
+
+    PubsubMessage unkeyed = PubsubMessage.getDefaultInstance();
+    assertThat(receiver.laneIndex(unkeyed)).isZero();
+    assertThat(receiver.laneIndex(unkeyed)).isEqualTo(1);
+    assertThat(receiver.laneIndex(unkeyed)).isEqualTo(2);
+    assertThat(receiver.laneIndex(unkeyed)).isZero();
+  }
+
+  @Test
+  void invalidLaneCountRejected() {
+    MessageReceiver delegate = mock(MessageReceiver.class);
+
+    assertThatThrownBy(
+            () ->
+                new KeyOrderedMessageReceiver(
+                    delegate, PubsubMessage::getOrderingKey, 0, 10, this.executor))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("The number of lanes must be positive.");
+  }
+
+  private static PubsubMessage findMessageOnOtherLane(
+      KeyOrderedMessageReceiver receiver, PubsubMessage message) {
+    int lane = receiver.laneIndex(message);
+    for (int i = 0; ; i++) {
+      PubsubMessage candidate = message("other" + i, 2);
+      if (receiver.laneIndex(candidate) != lane) {
+        return candidate;
+      }
+    }
+  }
+
+  private static PubsubMessage message(String key, int id) {
+    return PubsubMessage.newBuilder()
+        .setOrderingKey(key)
+        .setMessageId(Integer.toString(id))
+        .build();
+  }
+}
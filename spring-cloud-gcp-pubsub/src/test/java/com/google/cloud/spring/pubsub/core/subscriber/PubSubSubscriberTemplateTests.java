@@ -18,6 +18,8 @@ package com.google.cloud.spring.pubsub.core.subscriber;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.same;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
@@ -34,6 +36,7 @@ import com.google.cloud.pubsub.v1.AckReplyConsumer;
 import com.google.cloud.pubsub.v1.MessageReceiver;
 import com.google.cloud.pubsub.v1.Subscriber;
 import com.google.cloud.pubsub.v1.stub.SubscriberStub;
+import com.google.cloud.spring.pubsub.core.metrics.PubSubMetricsRecorder;
 import com.google.cloud.spring.pubsub.support.AcknowledgeablePubsubMessage;
 import com.google.cloud.spring.pubsub.support.BasicAcknowledgeablePubsubMessage;
 import com.google.cloud.spring.pubsub.support.SubscriberFactory;
@@ -48,6 +51,7 @@ import com.google.pubsub.v1.PullRequest;
 import com.google.pubsub.v1.PullResponse;
 import com.google.pubsub.v1.ReceivedMessage;
 import java.math.BigInteger;
+import java.time.Duration;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -246,6 +250,23 @@ class PubSubSubscriberTemplateTests {
     assertThat(testListenableFutureCallback.getThrowable()).isNull();
   }
 
+  @Test
+  void testSubscribeOrderedByKey_DispatchesOnLaneExecutor() {
+    KeyOrderedDispatchSettings dispatchSettings = new KeyOrderedDispatchSettings();
+    dispatchSettings.setLanes(2);
+    dispatchSettings.setExecutor(Runnable::run);
+
+    this.pubSubSubscriberTemplate.subscribeOrderedByKey("sub1", this.consumer, dispatchSettings);
+
+    verify(this.subscriberFactory)
+        .createSubscriber(same("sub1"), any(KeyOrderedMessageReceiver.class));
+    verify(this.subscriber).startAsync();
+    verify(this.consumer).accept(this.message.capture());
+    assertThat(this.message.getValue().getPubsubMessage()).isSameAs(this.pubsubMessage);
+    assertThat(this.message.getValue().getProjectSubscriptionName().getSubscription())
+        .isEqualTo("sub1");
+  }
+
   @Test
   void testSubscribeAndConvert_AndManualAck()
       throws InterruptedException, ExecutionException, TimeoutException {
@@ -379,6 +400,30 @@ class PubSubSubscriberTemplateTests {
     assertThat(testListenableFutureCallback.getThrowable()).isNull();
   }
 
+  @Test
+  void testPullAndConvert_AndNack_metricsRecorded()
+      throws InterruptedException, ExecutionException, TimeoutException {
+    PubSubMetricsRecorder metricsRecorder = Mockito.mock(PubSubMetricsRecorder.class);
+    this.pubSubSubscriberTemplate.setMetricsRecorder(metricsRecorder);
+
+    List<ConvertedAcknowledgeablePubsubMessage<Boolean>> result =
+        this.pubSubSubscriberTemplate.pullAndConvert("sub2", 1, true, Boolean.class);
+
+    assertThat(result).hasSize(1);
+    verify(metricsRecorder).messagesPulled(eq("sub2"), eq(1), anyLong(), eq(true));
+    verify(metricsRecorder).messageConverted(eq("sub2"), anyLong(), eq(true));
+
+    this.pubSubSubscriberTemplate.nack(result).get(10L, TimeUnit.SECONDS);
+
+    verify(metricsRecorder)
+        .acknowledgementCompleted(
+            eq("projects/testProject/subscriptions/sub2"),
+            eq(PubSubMetricsRecorder.NACK_OPERATION),
+            eq(1),
+            anyLong(),
+            eq(true));
+  }
+
   @Test
   void testPull_AndManualMultiSubscriptionAck()
       throws InterruptedException, ExecutionException, TimeoutException {
@@ -408,6 +453,40 @@ class PubSubSubscriberTemplateTests {
     verify(this.ackApiFuture, times(2)).addListener(any(), same(mockExecutor));
   }
 
+  @Test
+  void testPull_AndBatchedAck() throws InterruptedException, ExecutionException, TimeoutException {
+    this.pubSubSubscriberTemplate.setAckBatchingEnabled(true);
+    this.pubSubSubscriberTemplate.setMaxAckBatchSize(2);
+    this.pubSubSubscriberTemplate.setMaxAckBatchDelay(Duration.ofMinutes(1));
+    when(this.pullCallable.call(any(PullRequest.class)))
+        .thenReturn(
+            PullResponse.newBuilder()
+                .addReceivedMessages(
+                    ReceivedMessage.newBuilder().setMessage(this.pubsubMessage).setAckId("ack1"))
+                .build(),
+            PullResponse.newBuilder()
+                .addReceivedMessages(
+                    ReceivedMessage.newBuilder().setMessage(this.pubsubMessage).setAckId("ack2"))
+                .build());
+
+    ListenableFuture<Void> firstAck =
+        this.pubSubSubscriberTemplate.pull("sub2", 1, true).get(0).ack();
+    verify(this.ackCallable, never()).futureCall(any(AcknowledgeRequest.class));
+    assertThat(firstAck.isDone()).isFalse();
+
+    ListenableFuture<Void> secondAck =
+        this.pubSubSubscriberTemplate.pull("sub2", 1, true).get(0).ack();
+    firstAck.get(10L, TimeUnit.SECONDS);
+    secondAck.get(10L, TimeUnit.SECONDS);
+
+    ArgumentCaptor<AcknowledgeRequest> ackRequest =
+        ArgumentCaptor.forClass(AcknowledgeRequest.class);
+    verify(this.ackCallable).futureCall(ackRequest.capture());
+    assertThat(ackRequest.getValue().getAckIdsList()).containsExactly("ack1", "ack2");
+    assertThat(ackRequest.getValue().getSubscription())
+        .isEqualTo("projects/testProject/subscriptions/sub2");
+  }
+
   @Test
   void testPullAsync_AndManualAck()
       throws InterruptedException, ExecutionException, TimeoutException {
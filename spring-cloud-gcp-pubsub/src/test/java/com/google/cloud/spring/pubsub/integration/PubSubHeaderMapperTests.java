@@ -102,6 +102,48 @@ class PubSubHeaderMapperTests {
         .doesNotContainKey("my header");
   }
 
+  @Test
+  void testInboundHeaderPatternPrecedence() {
+    PubSubHeaderMapper mapper = new PubSubHeaderMapper();
+
+    mapper.setInboundHeaderPatterns("!x-secret", "x-*", "*-id", "!a*c", "\\!bang", "abc");
+
+    Map<String, String> originalHeaders = new HashMap<>();
+    originalHeaders.put("x-secret", "hidden");
+    originalHeaders.put("x-trace", "prefix");
+    originalHeaders.put("user-id", "suffix");
+    originalHeaders.put("abc", "excluded by an earlier wildcard");
+    originalHeaders.put("!bang", "escaped");
+    originalHeaders.put("other", "unmatched");
+
+    // Mapping twice exercises the cached decisions.
+    for (int i = 0; i < 2; i++) {
+      Map<String, Object> internalHeaders = mapper.toHeaders(originalHeaders);
+      assertThat(internalHeaders)
+          .hasSize(3)
+          .containsEntry("x-trace", "prefix")
+          .containsEntry("user-id", "suffix")
+          .containsEntry("!bang", "escaped");
+    }
+  }
+
+  @Test
+  void testSetOutboundHeaderPatternsRecompiles() {
+    PubSubHeaderMapper mapper = new PubSubHeaderMapper();
+    Map<String, Object> originalHeaders = new HashMap<>();
+    originalHeaders.put("my header", "pantagruel's nativity");
+    MessageHeaders internalHeaders = new MessageHeaders(originalHeaders);
+
+    Map<String, String> filteredHeaders = new HashMap<>();
+    mapper.fromHeaders(internalHeaders, filteredHeaders);
+    assertThat(filteredHeaders).containsOnlyKeys("my header");
+
+    mapper.setOutboundHeaderPatterns("!my header", "*");
+    filteredHeaders.clear();
+    mapper.fromHeaders(internalHeaders, filteredHeaders);
+    assertThat(filteredHeaders).containsOnlyKeys(MessageHeaders.ID, MessageHeaders.TIMESTAMP);
+  }
+
   @Test
   void testSetInboundHeaderPatternsNullPatterns() {
 
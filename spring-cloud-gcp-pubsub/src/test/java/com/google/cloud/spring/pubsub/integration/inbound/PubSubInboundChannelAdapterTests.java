@@ -19,18 +19,25 @@ package com.google.cloud.spring.pubsub.integration.inbound;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.google.cloud.spring.pubsub.core.health.HealthTrackerRegistry;
+import com.google.cloud.spring.pubsub.core.metrics.PubSubMetricsRecorder;
 import com.google.cloud.spring.pubsub.core.subscriber.PubSubSubscriberOperations;
 import com.google.cloud.spring.pubsub.integration.AckMode;
 import com.google.cloud.spring.pubsub.support.GcpPubSubHeaders;
 import com.google.cloud.spring.pubsub.support.converter.ConvertedBasicAcknowledgeablePubsubMessage;
 import com.google.pubsub.v1.PubsubMessage;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
 import java.util.function.Consumer;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -215,6 +222,20 @@ class PubSubInboundChannelAdapterTests {
 
   }
 
+  @Test
+  void testMetricsRecorder_recordsFailedProcessing() {
+    setupSubscribeAndConvert();
+    when(this.mockMessageChannel.send(any())).thenThrow(new RuntimeException(EXCEPTION_MESSAGE));
+    PubSubMetricsRecorder metricsRecorder = mock(PubSubMetricsRecorder.class);
+    this.adapter.setMetricsRecorder(metricsRecorder);
+
+    this.adapter.start();
+
+    verify(metricsRecorder).processingStarted("testSubscription", 1);
+    verify(metricsRecorder)
+        .processingCompleted(eq("testSubscription"), eq(1), anyLong(), eq(false));
+  }
+
   @Test
   void testAddingSubscription_successWhenSubscriberAdded() {
 
@@ -275,6 +296,111 @@ class PubSubInboundChannelAdapterTests {
 
   }
 
+  @Test
+  @SuppressWarnings("unchecked")
+  void batchModeSendsFullBatchAndAcksAll() {
+    ConvertedBasicAcknowledgeablePubsubMessage<String> message1 = mockConvertedMessage("one");
+    ConvertedBasicAcknowledgeablePubsubMessage<String> message2 = mockConvertedMessage("two");
+    setupSubscribeAndConvert(message1, message2);
+    when(this.mockMessageChannel.send(any())).thenReturn(true);
+
+    this.adapter.setBatchSize(2);
+    this.adapter.setBatchTimeout(Duration.ofMinutes(1));
+    this.adapter.start();
+
+    ArgumentCaptor<Message<?>> argument = ArgumentCaptor.forClass(Message.class);
+    verify(this.mockMessageChannel).send(argument.capture());
+    assertThat((List<Object>) argument.getValue().getPayload()).containsExactly("one", "two");
+    assertThat(argument.getValue().getHeaders().get(GcpPubSubHeaders.ORIGINAL_MESSAGES))
+        .isEqualTo(Arrays.asList(message1, message2));
+    verify(message1).ack();
+    verify(message2).ack();
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void batchModeSendsPartialBatchAfterTimeout() {
+    ConvertedBasicAcknowledgeablePubsubMessage<String> message = mockConvertedMessage("one");
+    setupSubscribeAndConvert(message);
+    when(this.mockMessageChannel.send(any())).thenReturn(true);
+
+    this.adapter.setBatchSize(10);
+    this.adapter.setBatchTimeout(Duration.ofMillis(10));
+    this.adapter.start();
+
+    ArgumentCaptor<Message<?>> argument = ArgumentCaptor.forClass(Message.class);
+    verify(this.mockMessageChannel, timeout(5000)).send(argument.capture());
+    assertThat((List<Object>) argument.getValue().getPayload()).containsExactly("one");
+    verify(message, timeout(5000)).ack();
+  }
+
+  @Test
+  void batchModeSendsPendingBatchOnStop() {
+    ConvertedBasicAcknowledgeablePubsubMessage<String> message = mockConvertedMessage("one");
+    setupSubscribeAndConvert(message);
+    when(this.mockMessageChannel.send(any())).thenReturn(true);
+
+    this.adapter.setBatchSize(10);
+    this.adapter.setBatchTimeout(Duration.ofMinutes(1));
+    this.adapter.start();
+    verify(this.mockMessageChannel, times(0)).send(any());
+
+    this.adapter.stop();
+    verify(this.mockMessageChannel).send(any());
+    verify(message).ack();
+  }
+
+  @Test
+  void batchModeAuto_nacksEveryMessageWhenDownstreamProcessingFails(
+      CapturedOutput capturedOutput) {
+    ConvertedBasicAcknowledgeablePubsubMessage<String> message1 = mockConvertedMessage("one");
+    ConvertedBasicAcknowledgeablePubsubMessage<String> message2 = mockConvertedMessage("two");
+    setupSubscribeAndConvert(message1, message2);
+    when(this.mockMessageChannel.send(any())).thenThrow(new RuntimeException(EXCEPTION_MESSAGE));
+
+    this.adapter.setBatchSize(2);
+    this.adapter.start();
+
+    verify(message1).nack();
+    verify(message2).nack();
+    verify(message1, times(0)).ack();
+    assertThat(capturedOutput)
+        .contains("batch of 2 messages failed; messages nacked automatically")
+        .contains(EXCEPTION_MESSAGE);
+  }
+
+  @Test
+  void testNegativeBatchSize() {
+    assertThatThrownBy(() -> this.adapter.setBatchSize(-1))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("The batch size must not be negative.");
+  }
+
+  @SuppressWarnings("unchecked")
+  private ConvertedBasicAcknowledgeablePubsubMessage<String> mockConvertedMessage(String payload) {
+    ConvertedBasicAcknowledgeablePubsubMessage<String> message =
+        mock(ConvertedBasicAcknowledgeablePubsubMessage.class);
+    when(message.getPayload()).thenReturn(payload);
+    return message;
+  }
+
+  @SafeVarargs
+  @SuppressWarnings("unchecked")
+  private final void setupSubscribeAndConvert(
+      ConvertedBasicAcknowledgeablePubsubMessage<String>... messages) {
+    when(this.mockPubSubSubscriberOperations.subscribeAndConvert(
+            anyString(), any(Consumer.class), any(Class.class)))
+        .then(
+            invocationOnMock -> {
+              Consumer<ConvertedBasicAcknowledgeablePubsubMessage<String>> messageConsumer =
+                  invocationOnMock.getArgument(1);
+              for (ConvertedBasicAcknowledgeablePubsubMessage<String> message : messages) {
+                messageConsumer.accept(message);
+              }
+              return null;
+            });
+  }
+
   @SuppressWarnings("unchecked")
   private void verifyOriginalMessage() {
 
@@ -18,7 +18,11 @@ package com.google.cloud.spring.pubsub.integration.inbound;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -28,11 +32,15 @@ import com.google.cloud.spring.pubsub.integration.AckMode;
 import com.google.cloud.spring.pubsub.support.GcpPubSubHeaders;
 import com.google.cloud.spring.pubsub.support.converter.ConvertedAcknowledgeablePubsubMessage;
 import com.google.pubsub.v1.PubsubMessage;
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
@@ -42,6 +50,8 @@ import org.springframework.integration.acks.AcknowledgmentCallback;
 import org.springframework.integration.endpoint.MessageSourcePollingTemplate;
 import org.springframework.integration.support.MessageBuilder;
 import org.springframework.messaging.MessageHandlingException;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.util.concurrent.SettableListenableFuture;
 
 /**
  * Tests for {@link PubSubMessageSource}.
@@ -74,6 +84,8 @@ class PubSubMessageSourceTests {
 
     when(this.mockPubSubSubscriberOperations.pullAndConvert("sub1", 1, true, String.class))
         .thenReturn(Collections.singletonList(this.msg1));
+    when(this.mockPubSubSubscriberOperations.modifyAckDeadline(any(), anyInt()))
+        .thenReturn(new SettableListenableFuture<>());
   }
 
   @Test
@@ -300,4 +312,139 @@ class PubSubMessageSourceTests {
 
     verify(this.mockPubSubSubscriberOperations).pullAndConvert("sub1", 1, false, String.class);
   }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void prefetch_servesMessagesFromBufferFilledAsynchronously() {
+    SettableListenableFuture<List<ConvertedAcknowledgeablePubsubMessage<String>>> pull =
+        new SettableListenableFuture<>();
+    when(this.mockPubSubSubscriberOperations.pullAndConvertAsync(
+            eq("sub1"), anyInt(), eq(false), eq(String.class)))
+        .thenReturn(new SettableListenableFuture<>());
+    when(this.mockPubSubSubscriberOperations.pullAndConvertAsync("sub1", 3, false, String.class))
+        .thenReturn(pull);
+
+    PubSubMessageSource pubSubMessageSource =
+        new PubSubMessageSource(this.mockPubSubSubscriberOperations, "sub1");
+    pubSubMessageSource.setPayloadType(String.class);
+    pubSubMessageSource.setPrefetchSize(3);
+    pubSubMessageSource.setTaskScheduler(mock(TaskScheduler.class));
+
+    assertThat(pubSubMessageSource.doReceive(1)).isNull();
+
+    pull.set(Arrays.asList(this.msg1, this.msg2, this.msg3));
+    MessageBuilder<String> message1 = (MessageBuilder<String>) pubSubMessageSource.doReceive(1);
+    MessageBuilder<String> message2 = (MessageBuilder<String>) pubSubMessageSource.doReceive(1);
+
+    assertThat(message1.getPayload()).isEqualTo("msg1");
+    assertThat(message2.getPayload()).isEqualTo("msg2");
+    verify(this.mockPubSubSubscriberOperations, never())
+        .pullAndConvert(any(), any(), any(), any());
+    // Dropping to the low-water mark triggers a refill of the consumed slots.
+    verify(this.mockPubSubSubscriberOperations)
+        .pullAndConvertAsync("sub1", 2, false, String.class);
+  }
+
+  @Test
+  void prefetch_splitsRefillAcrossConcurrentPulls() {
+    when(this.mockPubSubSubscriberOperations.pullAndConvertAsync(
+            eq("sub1"), anyInt(), eq(false), eq(String.class)))
+        .thenReturn(new SettableListenableFuture<>());
+
+    PubSubMessageSource pubSubMessageSource =
+        new PubSubMessageSource(this.mockPubSubSubscriberOperations, "sub1");
+    pubSubMessageSource.setPayloadType(String.class);
+    pubSubMessageSource.setPrefetchSize(10);
+    pubSubMessageSource.setMaxConcurrentPulls(3);
+    pubSubMessageSource.setTaskScheduler(mock(TaskScheduler.class));
+
+    pubSubMessageSource.doReceive(1);
+    pubSubMessageSource.doReceive(1);
+
+    verify(this.mockPubSubSubscriberOperations)
+        .pullAndConvertAsync("sub1", 4, false, String.class);
+    verify(this.mockPubSubSubscriberOperations, times(2))
+        .pullAndConvertAsync("sub1", 3, false, String.class);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void prefetch_extendsAckDeadlineOfBufferedMessages() {
+    SettableListenableFuture<List<ConvertedAcknowledgeablePubsubMessage<String>>> pull =
+        new SettableListenableFuture<>();
+    when(this.mockPubSubSubscriberOperations.pullAndConvertAsync("sub1", 2, false, String.class))
+        .thenReturn(pull);
+    TaskScheduler taskScheduler = mock(TaskScheduler.class);
+
+    PubSubMessageSource pubSubMessageSource =
+        new PubSubMessageSource(this.mockPubSubSubscriberOperations, "sub1");
+    pubSubMessageSource.setPayloadType(String.class);
+    pubSubMessageSource.setPrefetchSize(2);
+    pubSubMessageSource.setPrefetchLowWaterMark(0);
+    pubSubMessageSource.setBufferedAckDeadlineSeconds(30);
+    pubSubMessageSource.setTaskScheduler(taskScheduler);
+
+    pubSubMessageSource.doReceive(1);
+    pull.set(Arrays.asList(this.msg1, this.msg2));
+
+    ArgumentCaptor<Runnable> extension = ArgumentCaptor.forClass(Runnable.class);
+    verify(taskScheduler).scheduleAtFixedRate(extension.capture(), eq(Duration.ofSeconds(5)));
+    extension.getValue().run();
+
+    ArgumentCaptor<Collection<ConvertedAcknowledgeablePubsubMessage<?>>> extended =
+        ArgumentCaptor.forClass(Collection.class);
+    verify(this.mockPubSubSubscriberOperations, times(2))
+        .modifyAckDeadline(extended.capture(), eq(30));
+    assertThat(extended.getAllValues())
+        .allSatisfy(messages -> assertThat(messages).containsExactly(this.msg1, this.msg2));
+  }
+
+  @Test
+  void prefetch_setsBufferedAckDeadlineBeforeSubscriptionDeadlineExpires() {
+    SettableListenableFuture<List<ConvertedAcknowledgeablePubsubMessage<String>>> pull =
+        new SettableListenableFuture<>();
+    when(this.mockPubSubSubscriberOperations.pullAndConvertAsync("sub1", 2, false, String.class))
+        .thenReturn(pull);
+    TaskScheduler taskScheduler = mock(TaskScheduler.class);
+
+    PubSubMessageSource pubSubMessageSource =
+        new PubSubMessageSource(this.mockPubSubSubscriberOperations, "sub1");
+    pubSubMessageSource.setPayloadType(String.class);
+    pubSubMessageSource.setPrefetchSize(2);
+    pubSubMessageSource.setPrefetchLowWaterMark(0);
+    pubSubMessageSource.setTaskScheduler(taskScheduler);
+
+    pubSubMessageSource.doReceive(1);
+    // The subscription uses the minimal ack deadline of 10 seconds.
+    pull.set(Arrays.asList(this.msg1, this.msg2));
+
+    // The buffered deadline is set on arrival, without waiting for the extension task.
+    verify(this.mockPubSubSubscriberOperations)
+        .modifyAckDeadline(Arrays.asList(this.msg1, this.msg2), 60);
+    ArgumentCaptor<Duration> period = ArgumentCaptor.forClass(Duration.class);
+    verify(taskScheduler).scheduleAtFixedRate(any(Runnable.class), period.capture());
+    assertThat(period.getValue()).isLessThan(Duration.ofSeconds(10));
+  }
+
+  @Test
+  void prefetch_stopNacksBufferedMessages() {
+    SettableListenableFuture<List<ConvertedAcknowledgeablePubsubMessage<String>>> pull =
+        new SettableListenableFuture<>();
+    when(this.mockPubSubSubscriberOperations.pullAndConvertAsync("sub1", 2, false, String.class))
+        .thenReturn(pull);
+
+    PubSubMessageSource pubSubMessageSource =
+        new PubSubMessageSource(this.mockPubSubSubscriberOperations, "sub1");
+    pubSubMessageSource.setPayloadType(String.class);
+    pubSubMessageSource.setPrefetchSize(2);
+    pubSubMessageSource.setPrefetchLowWaterMark(0);
+    pubSubMessageSource.setTaskScheduler(mock(TaskScheduler.class));
+
+    pubSubMessageSource.doReceive(1);
+    pull.set(Arrays.asList(this.msg1, this.msg2));
+    pubSubMessageSource.stop();
+
+    assertThat(pubSubMessageSource.isRunning()).isFalse();
+    verify(this.mockPubSubSubscriberOperations).nack(Arrays.asList(this.msg1, this.msg2));
+  }
 }
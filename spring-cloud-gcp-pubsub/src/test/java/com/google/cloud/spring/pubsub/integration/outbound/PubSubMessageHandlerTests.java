@@ -23,6 +23,7 @@ import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -42,6 +43,7 @@ import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import org.springframework.expression.Expression;
 import org.springframework.expression.common.LiteralExpression;
+import org.springframework.integration.MessageTimeoutException;
 import org.springframework.integration.expression.ValueExpression;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.support.GenericMessage;
@@ -119,6 +121,34 @@ class PubSubMessageHandlerTests {
     verify(timeout).getValue(isNull(), eq(this.message), eq(Long.class));
   }
 
+  @Test
+  void testMaxOutstandingPublishes() {
+    SettableListenableFuture<String> pending = new SettableListenableFuture<>();
+    when(this.pubSubTemplate.publish(eq("testTopic"), eq("testPayload".getBytes()), anyMap()))
+        .thenReturn(pending);
+    this.adapter.setMaxOutstandingPublishes(1);
+    this.adapter.setPublishTimeout(10);
+
+    this.adapter.handleMessage(this.message);
+    assertThatThrownBy(() -> this.adapter.handleMessage(this.message))
+        .isInstanceOf(MessageTimeoutException.class)
+        .hasMessageContaining("Timeout waiting for one of 1 outstanding publishes");
+    verify(this.pubSubTemplate, times(1))
+        .publish(eq("testTopic"), eq("testPayload".getBytes()), anyMap());
+
+    pending.set("confirmed");
+    this.adapter.handleMessage(this.message);
+    verify(this.pubSubTemplate, times(2))
+        .publish(eq("testTopic"), eq("testPayload".getBytes()), anyMap());
+  }
+
+  @Test
+  void testNegativeMaxOutstandingPublishes() {
+    assertThatThrownBy(() -> this.adapter.setMaxOutstandingPublishes(-1))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("The maxOutstandingPublishes must not be negative.");
+  }
+
   @Test
   void testPublishCallback() {
     ListenableFutureCallback<String> callbackSpy =
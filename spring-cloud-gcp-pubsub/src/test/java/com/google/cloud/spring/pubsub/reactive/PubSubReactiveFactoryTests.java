@@ -21,13 +21,18 @@ import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.google.api.core.ApiService;
 import com.google.api.gax.grpc.GrpcStatusCode;
 import com.google.api.gax.rpc.DeadlineExceededException;
+import com.google.cloud.pubsub.v1.Subscriber;
 import com.google.cloud.spring.pubsub.core.subscriber.PubSubSubscriberOperations;
 import com.google.cloud.spring.pubsub.support.AcknowledgeablePubsubMessage;
+import com.google.cloud.spring.pubsub.support.BasicAcknowledgeablePubsubMessage;
 import com.google.protobuf.ByteString;
 import com.google.pubsub.v1.PubsubMessage;
 import io.grpc.Status;
@@ -36,6 +41,10 @@ import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -44,6 +53,7 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.scheduling.annotation.AsyncResult;
+import org.springframework.util.concurrent.SettableListenableFuture;
 import reactor.test.StepVerifier;
 import reactor.test.scheduler.VirtualTimeScheduler;
 
@@ -57,6 +67,8 @@ class PubSubReactiveFactoryTests {
 
   @Mock PubSubSubscriberOperations subscriberOperations;
 
+  @Mock Subscriber mockSubscriber;
+
   PubSubReactiveFactory factory;
 
   @BeforeEach
@@ -205,6 +217,165 @@ class PubSubReactiveFactoryTests {
     methodOrder.verifyNoMoreInteractions();
   }
 
+  @Test
+  void testAdaptivePullSplitsDemandAcrossConcurrentPulls() {
+    when(subscriberOperations.pullAsync(eq("sub1"), any(Integer.class), eq(false)))
+        .thenReturn(new SettableListenableFuture<>());
+
+    AdaptivePullSettings settings = new AdaptivePullSettings();
+    settings.setMaxConcurrentPulls(3);
+
+    StepVerifier.withVirtualTime(() -> factory.pollAdaptively("sub1", settings), 10)
+        .expectSubscription()
+        .expectNoEvent(Duration.ofSeconds(1))
+        .thenCancel()
+        .verify();
+
+    InOrder methodOrder = Mockito.inOrder(this.subscriberOperations);
+    methodOrder.verify(this.subscriberOperations).pullAsync("sub1", 4, false);
+    methodOrder.verify(this.subscriberOperations, times(2)).pullAsync("sub1", 3, false);
+    methodOrder.verifyNoMoreInteractions();
+  }
+
+  @Test
+  void testAdaptivePullGrowsPullSizeWhileResponsesAreFull() {
+    String[] messages = new String[22];
+    Arrays.fill(messages, "msg");
+    setUpMessages(messages);
+
+    AdaptivePullSettings settings = new AdaptivePullSettings();
+    settings.setMinPullSize(2);
+    settings.setMaxPullSize(8);
+
+    StepVerifier.withVirtualTime(() -> factory.pollAdaptively("sub1", settings), 22)
+        .expectSubscription()
+        .expectNextCount(22)
+        .expectNoEvent(Duration.ofSeconds(10))
+        .thenCancel()
+        .verify();
+
+    InOrder methodOrder = Mockito.inOrder(this.subscriberOperations);
+    methodOrder.verify(this.subscriberOperations).pullAsync("sub1", 2, false);
+    methodOrder.verify(this.subscriberOperations).pullAsync("sub1", 4, false);
+    methodOrder.verify(this.subscriberOperations, times(2)).pullAsync("sub1", 8, false);
+    methodOrder.verifyNoMoreInteractions();
+  }
+
+  @Test
+  void testAdaptivePullBacksOffExponentiallyOnEmptyResponses() {
+    setUpMessages("stop", "timeout", "msg1", "msg2", "stop", "stop", "stop");
+
+    AdaptivePullSettings settings = new AdaptivePullSettings();
+    settings.setInitialBackoff(Duration.ofMillis(100));
+
+    StepVerifier.withVirtualTime(
+            () -> factory.pollAdaptively("sub1", settings).map(this::messageToString))
+        .expectSubscription()
+        // Pulls at 0ms and 100ms come back empty; the next one is due at 300ms.
+        .expectNoEvent(Duration.ofMillis(299))
+        .thenAwait(Duration.ofMillis(1))
+        .expectNext("msg1", "msg2")
+        // The backoff resets once messages arrive.
+        .thenAwait(Duration.ofMillis(100))
+        .thenCancel()
+        .verify();
+
+    Mockito.verify(this.subscriberOperations, times(5)).pullAsync("sub1", 10, false);
+    Mockito.verifyNoMoreInteractions(this.subscriberOperations);
+  }
+
+  @Test
+  void testAdaptivePullWithExceptionResultsInErrorStream() {
+    setUpMessages("throw");
+
+    StepVerifier.withVirtualTime(
+            () -> factory.pollAdaptively("sub1", new AdaptivePullSettings()), 5)
+        .expectSubscription()
+        .expectError(RuntimeException.class)
+        .verify();
+  }
+
+  @Test
+  void testStreamingPullWaitsForDemand() throws Exception {
+    AtomicReference<Consumer<BasicAcknowledgeablePubsubMessage>> consumer =
+        setUpStreamingSubscriber(ApiService.State.RUNNING);
+    BasicAcknowledgeablePubsubMessage message = mock(BasicAcknowledgeablePubsubMessage.class);
+    AtomicReference<CompletableFuture<Void>> delivery = new AtomicReference<>();
+
+    StepVerifier.create(factory.streamingPull("sub1"), 0)
+        .expectSubscription()
+        .then(() -> delivery.set(CompletableFuture.runAsync(() -> consumer.get().accept(message))))
+        .expectNoEvent(Duration.ofMillis(100))
+        .thenRequest(1)
+        .expectNext(message)
+        .thenCancel()
+        .verify(Duration.ofSeconds(10));
+
+    delivery.get().get(10, TimeUnit.SECONDS);
+    verify(this.mockSubscriber).stopAsync();
+    verify(message, never()).nack();
+  }
+
+  @Test
+  void testStreamingPullNacksMessagesAfterCancel() {
+    AtomicReference<Consumer<BasicAcknowledgeablePubsubMessage>> consumer =
+        setUpStreamingSubscriber(ApiService.State.RUNNING);
+    BasicAcknowledgeablePubsubMessage message = mock(BasicAcknowledgeablePubsubMessage.class);
+
+    StepVerifier.create(factory.streamingPull("sub1"), 0)
+        .expectSubscription()
+        .thenCancel()
+        .verify(Duration.ofSeconds(10));
+
+    consumer.get().accept(message);
+    verify(message).nack();
+    verify(this.mockSubscriber).stopAsync();
+  }
+
+  @Test
+  void testStreamingPullStopsSubscriberOnlyOnCancel() {
+    AtomicReference<Consumer<BasicAcknowledgeablePubsubMessage>> consumer =
+        setUpStreamingSubscriber(ApiService.State.RUNNING);
+    BasicAcknowledgeablePubsubMessage message = mock(BasicAcknowledgeablePubsubMessage.class);
+
+    StepVerifier.create(factory.streamingPull("sub1"), 0)
+        .expectSubscription()
+        .then(() -> verify(this.mockSubscriber, never()).stopAsync())
+        .thenRequest(1)
+        .then(() -> consumer.get().accept(message))
+        .expectNext(message)
+        .then(() -> verify(this.mockSubscriber, never()).stopAsync())
+        .thenCancel()
+        .verify(Duration.ofSeconds(10));
+
+    verify(this.mockSubscriber).stopAsync();
+    verify(message, never()).nack();
+  }
+
+  @Test
+  void testStreamingPullSubscriberFailureResultsInErrorStream() {
+    setUpStreamingSubscriber(ApiService.State.FAILED);
+    when(this.mockSubscriber.failureCause()).thenReturn(new IllegalStateException("failed"));
+
+    StepVerifier.create(factory.streamingPull("sub1"))
+        .expectError(IllegalStateException.class)
+        .verify(Duration.ofSeconds(10));
+  }
+
+  private AtomicReference<Consumer<BasicAcknowledgeablePubsubMessage>> setUpStreamingSubscriber(
+      ApiService.State state) {
+    AtomicReference<Consumer<BasicAcknowledgeablePubsubMessage>> consumer =
+        new AtomicReference<>();
+    when(subscriberOperations.subscribe(eq("sub1"), any()))
+        .then(
+            invocationOnMock -> {
+              consumer.set(invocationOnMock.getArgument(1));
+              return this.mockSubscriber;
+            });
+    when(this.mockSubscriber.state()).thenReturn(state);
+    return consumer;
+  }
+
   private String messageToString(AcknowledgeablePubsubMessage message) {
     return new String(message.getPubsubMessage().getData().toByteArray(), Charset.defaultCharset());
   }
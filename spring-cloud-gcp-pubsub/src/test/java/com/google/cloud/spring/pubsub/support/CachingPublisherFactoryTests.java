@@ -17,11 +17,16 @@
 package com.google.cloud.spring.pubsub.support;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.google.cloud.pubsub.v1.Publisher;
+import java.time.Duration;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
@@ -37,6 +42,8 @@ class CachingPublisherFactoryTests {
 
   @Mock private Publisher publisher2;
 
+  @Mock private Publisher publisher3;
+
   @Test
   void testGetPublisherCaching() {
     CachingPublisherFactory cachingPublisherFactory = new CachingPublisherFactory(delegate);
@@ -53,4 +60,89 @@ class CachingPublisherFactoryTests {
     verify(delegate, times(1)).createPublisher("topic1");
     verify(delegate, times(1)).createPublisher("topic2");
   }
+
+  @Test
+  void testLeastRecentlyUsedPublisherEvictedAboveMaxPublishers() {
+    CachingPublisherFactory cachingPublisherFactory = new CachingPublisherFactory(delegate);
+    cachingPublisherFactory.setMaxPublishers(2);
+
+    when(delegate.createPublisher("topic1")).thenReturn(publisher1);
+    when(delegate.createPublisher("topic2")).thenReturn(publisher2);
+    when(delegate.createPublisher("topic3")).thenReturn(publisher3);
+
+    cachingPublisherFactory.createPublisher("topic1");
+    cachingPublisherFactory.createPublisher("topic2");
+    cachingPublisherFactory.createPublisher("topic1");
+    cachingPublisherFactory.createPublisher("topic3");
+
+    verify(publisher2, timeout(5000)).shutdown();
+    verify(publisher1, never()).shutdown();
+    assertThat(cachingPublisherFactory.getSize()).isEqualTo(2);
+    assertThat(cachingPublisherFactory.getHitCount()).isEqualTo(1);
+    assertThat(cachingPublisherFactory.getMissCount()).isEqualTo(3);
+    assertThat(cachingPublisherFactory.getEvictionCount()).isEqualTo(1);
+
+    // An evicted topic gets a fresh publisher.
+    when(delegate.createPublisher("topic2")).thenReturn(publisher3);
+    assertThat(cachingPublisherFactory.createPublisher("topic2")).isEqualTo(publisher3);
+  }
+
+  @Test
+  void testIdlePublisherEvicted() throws InterruptedException {
+    CachingPublisherFactory cachingPublisherFactory = new CachingPublisherFactory(delegate);
+    cachingPublisherFactory.setIdleTimeout(Duration.ofMillis(1));
+
+    when(delegate.createPublisher("topic1")).thenReturn(publisher1);
+
+    cachingPublisherFactory.createPublisher("topic1");
+    Thread.sleep(10);
+    cachingPublisherFactory.evictIdlePublishers();
+
+    verify(publisher1, timeout(5000)).shutdown();
+    assertThat(cachingPublisherFactory.getSize()).isZero();
+    assertThat(cachingPublisherFactory.getEvictionCount()).isEqualTo(1);
+  }
+
+  @Test
+  void testDestroyShutsDownPublishers() throws InterruptedException {
+    CachingPublisherFactory cachingPublisherFactory = new CachingPublisherFactory(delegate);
+
+    when(delegate.createPublisher("topic1")).thenReturn(publisher1);
+    when(publisher1.awaitTermination(anyLong(), any())).thenReturn(true);
+
+    cachingPublisherFactory.createPublisher("topic1");
+    cachingPublisherFactory.destroy();
+
+    verify(publisher1).shutdown();
+    assertThat(cachingPublisherFactory.getSize()).isZero();
+    assertThat(cachingPublisherFactory.getEvictionCount()).isZero();
+  }
+
+  @Test
+  void testDestroyCompletesQueuedEvictions() throws InterruptedException {
+    CachingPublisherFactory cachingPublisherFactory = new CachingPublisherFactory(delegate);
+    cachingPublisherFactory.setMaxPublishers(1);
+
+    when(delegate.createPublisher("topic1")).thenReturn(publisher1);
+    when(delegate.createPublisher("topic2")).thenReturn(publisher2);
+    when(delegate.createPublisher("topic3")).thenReturn(publisher3);
+    when(publisher1.awaitTermination(anyLong(), any()))
+        .thenAnswer(
+            invocation -> {
+              Thread.sleep(200);
+              return true;
+            });
+    when(publisher2.awaitTermination(anyLong(), any())).thenReturn(true);
+    when(publisher3.awaitTermination(anyLong(), any())).thenReturn(true);
+
+    cachingPublisherFactory.createPublisher("topic1");
+    cachingPublisherFactory.createPublisher("topic2");
+    cachingPublisherFactory.createPublisher("topic3");
+    cachingPublisherFactory.destroy();
+
+    // publisher2 was still queued behind publisher1 when the factory was destroyed.
+    verify(publisher1).shutdown();
+    verify(publisher2).shutdown();
+    verify(publisher3).shutdown();
+  }
 }
@@ -20,6 +20,8 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.google.api.gax.core.NoCredentialsProvider;
@@ -40,12 +42,16 @@ class DefaultPublisherFactoryTests {
 
   DefaultPublisherFactory factory;
 
+  TransportChannelProvider mockChannelProvider;
+
+  TransportChannel mockTransportChannel;
+
   @BeforeEach
   public void setUp() throws IOException {
     factory = new DefaultPublisherFactory(() -> "projectId");
     factory.setCredentialsProvider(NoCredentialsProvider.create());
-    TransportChannelProvider mockChannelProvider = mock(TransportChannelProvider.class);
-    TransportChannel mockTransportChannel = mock(TransportChannel.class);
+    mockChannelProvider = mock(TransportChannelProvider.class);
+    mockTransportChannel = mock(TransportChannel.class);
     when(mockChannelProvider.getTransportChannel()).thenReturn(mockTransportChannel);
     ApiCallContext mockContext = mock(ApiCallContext.class);
     when(mockTransportChannel.getEmptyCallContext()).thenReturn(mockContext);
@@ -62,6 +68,27 @@ class DefaultPublisherFactoryTests {
     assertThat(((ProjectTopicName) publisher.getTopicName()).getProject()).isEqualTo("projectId");
   }
 
+  @Test
+  void testSharedChannelPool() throws IOException {
+    factory.setSharedChannelPoolSize(2);
+
+    Publisher publisher1 = factory.createPublisher("topic1");
+    Publisher publisher2 = factory.createPublisher("topic2");
+    publisher1.shutdown();
+    publisher2.shutdown();
+    factory.destroy();
+
+    verify(mockChannelProvider, times(1)).getTransportChannel();
+    verify(mockTransportChannel).shutdown();
+  }
+
+  @Test
+  void testSharedChannelPoolSize_negative() {
+    assertThatThrownBy(() -> factory.setSharedChannelPoolSize(-1))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("The sharedChannelPoolSize must not be negative.");
+  }
+
   @Test
   void testNewDefaultPublisherFactory_nullProjectIdProvider() {
     assertThatThrownBy(() -> new DefaultPublisherFactory(null))
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2022-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spring.pubsub.support.converter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.protobuf.ByteString;
+import com.google.pubsub.v1.PubsubMessage;
+import java.io.IOException;
+import java.util.Collections;
+import org.junit.jupiter.api.Test;
+
+/** Tests for {@link DecompressingPubSubMessageConverter} and {@link GzipPayloadCompressor}. */
+class DecompressingPubSubMessageConverterTests {
+
+  private final DecompressingPubSubMessageConverter converter =
+      new DecompressingPubSubMessageConverter(new SimplePubSubMessageConverter());
+
+  private final String payload = String.join(" ", Collections.nCopies(100, "compressible"));
+
+  @Test
+  void testGzipRoundTrip() throws IOException {
+    GzipPayloadCompressor compressor = new GzipPayloadCompressor();
+    ByteString data = ByteString.copyFromUtf8(this.payload);
+
+    ByteString compressed = compressor.compress(data);
+
+    assertThat(compressed.size()).isLessThan(data.size());
+    assertThat(compressor.decompress(compressed)).isEqualTo(data);
+  }
+
+  @Test
+  void testGzipDecompressionLimit() throws IOException {
+    GzipPayloadCompressor compressor = new GzipPayloadCompressor();
+    ByteString compressed = compressor.compress(ByteString.copyFrom(new byte[2 * 1024 * 1024]));
+    compressor.setMaxDecompressedBytes(1024 * 1024);
+
+    assertThatThrownBy(() -> compressor.decompress(compressed))
+        .isInstanceOf(IOException.class)
+        .hasMessage("Decompressed payload exceeds the limit of 1048576 bytes.");
+
+    compressor.setMaxDecompressedBytes(2 * 1024 * 1024);
+    assertThat(compressor.decompress(compressed).size()).isEqualTo(2 * 1024 * 1024);
+  }
+
+  @Test
+  void testDecompressionLimitFailsConversion() throws IOException {
+    GzipPayloadCompressor compressor = new GzipPayloadCompressor();
+    compressor.setMaxDecompressedBytes(100);
+    DecompressingPubSubMessageConverter limitedConverter =
+        new DecompressingPubSubMessageConverter(
+            new SimplePubSubMessageConverter(), Collections.singletonList(compressor));
+    PubsubMessage message =
+        PubsubMessage.newBuilder()
+            .setData(compressor.compress(ByteString.copyFromUtf8(this.payload)))
+            .putAttributes(PayloadCompressor.CONTENT_ENCODING_ATTRIBUTE, "gzip")
+            .build();
+
+    assertThatThrownBy(() -> limitedConverter.fromPubSubMessage(message, String.class))
+        .isInstanceOf(PubSubMessageConversionException.class)
+        .hasMessage("Decompressing a gzip encoded payload failed.");
+  }
+
+  @Test
+  void testDecompressesEncodedPayload() throws IOException {
+    PubsubMessage message =
+        PubsubMessage.newBuilder()
+            .setData(new GzipPayloadCompressor().compress(ByteString.copyFromUtf8(this.payload)))
+            .putAttributes(PayloadCompressor.CONTENT_ENCODING_ATTRIBUTE, "gzip")
+            .putAttributes("other", "value")
+            .build();
+
+    assertThat(this.converter.fromPubSubMessage(message, String.class)).isEqualTo(this.payload);
+    assertThat(this.converter.decompress(message).getAttributesMap())
+        .containsOnlyKeys("other");
+  }
+
+  @Test
+  void testPassesThroughUnencodedPayload() {
+    PubsubMessage message =
+        PubsubMessage.newBuilder().setData(ByteString.copyFromUtf8(this.payload)).build();
+
+    assertThat(this.converter.decompress(message)).isSameAs(message);
+    assertThat(this.converter.fromPubSubMessage(message, String.class)).isEqualTo(this.payload);
+  }
+
+  @Test
+  void testUnsupportedEncoding() {
+    PubsubMessage message =
+        PubsubMessage.newBuilder()
+            .setData(ByteString.copyFromUtf8(this.payload))
+            .putAttributes(PayloadCompressor.CONTENT_ENCODING_ATTRIBUTE, "br")
+            .build();
+
+    assertThatThrownBy(() -> this.converter.fromPubSubMessage(message, String.class))
+        .isInstanceOf(PubSubMessageConversionException.class)
+        .hasMessage("Unsupported payload content encoding: br.");
+  }
+
+  @Test
+  void testCorruptPayload() {
+    PubsubMessage message =
+        PubsubMessage.newBuilder()
+            .setData(ByteString.copyFromUtf8(this.payload))
+            .putAttributes(PayloadCompressor.CONTENT_ENCODING_ATTRIBUTE, "gzip")
+            .build();
+
+    assertThatThrownBy(() -> this.converter.fromPubSubMessage(message, String.class))
+        .isInstanceOf(PubSubMessageConversionException.class)
+        .hasMessage("Decompressing a gzip encoded payload failed.");
+  }
+}
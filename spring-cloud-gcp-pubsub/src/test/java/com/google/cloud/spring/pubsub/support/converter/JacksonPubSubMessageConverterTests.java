@@ -17,10 +17,13 @@
 package com.google.cloud.spring.pubsub.support.converter;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.cloud.spring.pubsub.support.GcpPubSubHeaders;
+import com.google.protobuf.ByteString;
 import com.google.pubsub.v1.PubsubMessage;
+import java.util.Arrays;
 import java.util.Collections;
 import org.json.JSONException;
 import org.junit.jupiter.api.Test;
@@ -67,6 +70,31 @@ class JacksonPubSubMessageConverterTests {
         .isEqualTo(contact);
   }
 
+  @Test
+  void testLargePojo() {
+    char[] name = new char[200_000];
+    Arrays.fill(name, 'a');
+    Contact contact = new Contact(new String(name), "Edison", 8817);
+
+    PubsubMessage pubsubMessage = this.converter.toPubSubMessage(contact, null);
+    Object o = this.converter.fromPubSubMessage(pubsubMessage, Contact.class);
+
+    assertThat(pubsubMessage.getData().size()).isGreaterThan(200_000);
+    assertThat(o)
+        .as("verify that deserialized object is equal to the original one")
+        .isEqualTo(contact);
+  }
+
+  @Test
+  void testFromPubSubMessageWithInvalidJson() {
+    PubsubMessage pubsubMessage =
+        PubsubMessage.newBuilder().setData(ByteString.copyFromUtf8("{not json")).build();
+
+    assertThatThrownBy(() -> this.converter.fromPubSubMessage(pubsubMessage, Contact.class))
+        .isInstanceOf(PubSubMessageConversionException.class)
+        .hasMessageContaining(Contact.class.getName());
+  }
+
   @Test
   void testToPubSubMessageWithNullPayload() throws JSONException {
     PubsubMessage pubsubMessage = this.converter.toPubSubMessage(null, null);
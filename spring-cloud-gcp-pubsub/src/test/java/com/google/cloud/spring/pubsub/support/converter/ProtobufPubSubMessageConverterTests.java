@@ -0,0 +1,122 @@
+/*
+ * Copyright 2022-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spring.pubsub.support.converter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.cloud.spring.pubsub.support.GcpPubSubHeaders;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.Message;
+import com.google.protobuf.StringValue;
+import com.google.protobuf.Timestamp;
+import com.google.pubsub.v1.PubsubMessage;
+import java.util.Collections;
+import org.junit.jupiter.api.Test;
+
+/** Tests for the Protobuf message converter. */
+class ProtobufPubSubMessageConverterTests {
+
+  private final ProtobufPubSubMessageConverter converter = new ProtobufPubSubMessageConverter();
+
+  private final Timestamp timestamp =
+      Timestamp.newBuilder().setSeconds(1234L).setNanos(5678).build();
+
+  @Test
+  void testConcretePayloadType() {
+    PubsubMessage pubsubMessage =
+        this.converter.toPubSubMessage(
+            this.timestamp, Collections.singletonMap(GcpPubSubHeaders.ORDERING_KEY, "key1"));
+
+    assertThat(pubsubMessage.getData()).isEqualTo(this.timestamp.toByteString());
+    assertThat(pubsubMessage.getOrderingKey()).isEqualTo("key1");
+    assertThat(pubsubMessage.getAttributesMap())
+        .hasSize(1)
+        .containsEntry("protobuf_type", "google.protobuf.Timestamp");
+
+    Timestamp converted = this.converter.fromPubSubMessage(pubsubMessage, Timestamp.class);
+    assertThat(converted).isEqualTo(this.timestamp);
+  }
+
+  @Test
+  void testPayloadTypeFromAttribute() {
+    PubsubMessage pubsubMessage = this.converter.toPubSubMessage(this.timestamp, null);
+
+    Message converted = this.converter.fromPubSubMessage(pubsubMessage, Message.class);
+    assertThat(converted).isEqualTo(this.timestamp);
+  }
+
+  @Test
+  void testRegisteredTypeFromAttribute() {
+    this.converter.setTypeAttribute("type");
+    this.converter.registerType(StringValue.class);
+    PubsubMessage pubsubMessage =
+        PubsubMessage.newBuilder()
+            .setData(StringValue.of("hello").toByteString())
+            .putAttributes("type", "google.protobuf.StringValue")
+            .build();
+
+    Object converted = this.converter.fromPubSubMessage(pubsubMessage, Object.class);
+    assertThat(converted).isEqualTo(StringValue.of("hello"));
+  }
+
+  @Test
+  void testUnknownTypeFromAttribute() {
+    PubsubMessage pubsubMessage =
+        PubsubMessage.newBuilder()
+            .setData(ByteString.EMPTY)
+            .putAttributes(
+                ProtobufPubSubMessageConverter.DEFAULT_TYPE_ATTRIBUTE, "example.Unknown")
+            .build();
+
+    assertThatThrownBy(() -> this.converter.fromPubSubMessage(pubsubMessage, Message.class))
+        .isInstanceOf(PubSubMessageConversionException.class)
+        .hasMessage(
+            "No registered Protobuf message type example.Unknown assignable to "
+                + "com.google.protobuf.Message.");
+  }
+
+  @Test
+  void testMissingTypeAttribute() {
+    PubsubMessage pubsubMessage = PubsubMessage.newBuilder().setData(ByteString.EMPTY).build();
+
+    assertThatThrownBy(() -> this.converter.fromPubSubMessage(pubsubMessage, Message.class))
+        .isInstanceOf(PubSubMessageConversionException.class)
+        .hasMessageContaining("has no protobuf_type attribute");
+  }
+
+  @Test
+  void testInvalidPayload() {
+    // A field tag without its value.
+    PubsubMessage pubsubMessage =
+        PubsubMessage.newBuilder().setData(ByteString.copyFrom(new byte[] {0x08})).build();
+
+    assertThatThrownBy(() -> this.converter.fromPubSubMessage(pubsubMessage, Timestamp.class))
+        .isInstanceOf(PubSubMessageConversionException.class)
+        .hasMessage(
+            "Protobuf deserialization of an object of type com.google.protobuf.Timestamp failed.");
+  }
+
+  @Test
+  void testNonMessagePayload() {
+    assertThatThrownBy(() -> this.converter.toPubSubMessage("text", null))
+        .isInstanceOf(PubSubMessageConversionException.class)
+        .hasMessage(
+            "Protobuf serialization requires a com.google.protobuf.Message payload, "
+                + "but got java.lang.String.");
+  }
+}